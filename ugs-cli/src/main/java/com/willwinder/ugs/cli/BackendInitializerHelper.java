@@ -18,6 +18,8 @@
  */
 package com.willwinder.ugs.cli;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.willwinder.universalgcodesender.connection.ConnectionFactory;
 import com.willwinder.universalgcodesender.connection.IConnectionDevice;
 import com.willwinder.universalgcodesender.listeners.ControllerState;
@@ -93,6 +95,69 @@ public class BackendInitializerHelper {
         return backend;
     }
 
+    /**
+     * Initializes a backend for a machine in multi machine mode. Each machine will get its own copy of the
+     * settings so that the connection settings can differ between the machines. If the machine couldn't be
+     * connected an error is printed and the backend is returned unconnected.
+     *
+     * @param machine the machine configuration
+     * @return a backend for the machine
+     */
+    public BackendAPI initialize(MachineConfiguration machine) {
+        Settings machineSettings = createMachineSettings(machine, SettingsFactory.loadSettings());
+        String firmware = machineSettings.getFirmwareVersion();
+        String port = machineSettings.getPort();
+        int baudRate = Integer.parseInt(machineSettings.getPortRate());
+
+        BackendAPI backend = new GUIBackend();
+        try {
+            backend.applySettings(machineSettings);
+            backend.connect(firmware, port, baudRate);
+            System.out.println("Connecting machine \"" + machine.getId() + "\" with firmware \"" + firmware + "\" on " + port + " baud " + baudRate);
+        } catch (Exception e) {
+            System.err.println("Couldn't connect machine \"" + machine.getId() + "\" with firmware \"" + firmware + "\" on " + port + " baud " + baudRate);
+            if (StringUtils.isNotEmpty(e.getMessage())) {
+                System.err.println(e.getMessage());
+            }
+        }
+
+        return backend;
+    }
+
+    /**
+     * Creates a copy of the settings with the connection settings from the machine configuration. Any
+     * connection setting that isn't given in the machine configuration will be taken from the settings.
+     *
+     * @param machine  the machine configuration
+     * @param settings the shared settings
+     * @return a copy of the settings for the machine
+     */
+    static Settings createMachineSettings(MachineConfiguration machine, Settings settings) {
+        Settings machineSettings = copySettings(settings);
+        machineSettings.setFirmwareVersion(StringUtils.defaultIfEmpty(machine.getController(), machineSettings.getFirmwareVersion()));
+        machineSettings.setPort(StringUtils.defaultIfEmpty(machine.getPort(), machineSettings.getPort()));
+        if (machine.getBaud() != null) {
+            machineSettings.setPortRate(String.valueOf(machine.getBaud()));
+        }
+        if (machine.getDriver() != null) {
+            machineSettings.setConnectionDriver(machine.getDriver());
+        }
+        return machineSettings;
+    }
+
+    /**
+     * Creates a detached copy of the settings that can be modified without affecting the shared settings
+     *
+     * @param settings the settings to copy
+     * @return a copy of the settings
+     */
+    private static Settings copySettings(Settings settings) {
+        Gson gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+        Settings copy = gson.fromJson(gson.toJson(settings, Settings.class), Settings.class);
+        copy.finalizeInitialization();
+        return copy;
+    }
+
     private static void waitForMachineToBeIdle(String port, int baudRate, BackendAPI backend) throws TimeoutException, InterruptedException {
         ThreadHelper.waitUntil(() -> backend.getControllerState() == ControllerState.IDLE || backend.getControllerState() == ControllerState.ALARM, 8000, TimeUnit.MILLISECONDS);
         Thread.sleep(1000);
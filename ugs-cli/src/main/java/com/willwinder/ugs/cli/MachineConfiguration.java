@@ -0,0 +1,133 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.cli;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.willwinder.universalgcodesender.connection.ConnectionDriver;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The configuration for one machine when running in multi machine daemon mode. The machines
+ * are read from a JSON file looking like this:
+ * <pre>
+ * [
+ *   {"id": "router", "controller": "GRBL", "port": "/dev/ttyUSB0", "baud": 115200},
+ *   {"id": "laser", "controller": "FluidNC", "port": "192.168.1.20:23", "driver": "TCP"}
+ * ]
+ * </pre>
+ *
+ * @author agent
+ */
+public class MachineConfiguration {
+
+    /**
+     * A unique id for the machine, used in the web pendant API path
+     */
+    private String id;
+
+    /**
+     * The controller firmware, if not given the firmware from the settings will be used
+     */
+    private String controller;
+
+    /**
+     * The port or address to connect to
+     */
+    private String port;
+
+    /**
+     * The baud rate to connect with, if not given the baud rate from the settings will be used
+     */
+    private Integer baud;
+
+    /**
+     * The connection driver, if not given the driver from the settings will be used
+     */
+    private ConnectionDriver driver;
+
+    public MachineConfiguration() {
+    }
+
+    public MachineConfiguration(String id, String controller, String port, Integer baud, ConnectionDriver driver) {
+        this.id = id;
+        this.controller = controller;
+        this.port = port;
+        this.baud = baud;
+        this.driver = driver;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getController() {
+        return controller;
+    }
+
+    public String getPort() {
+        return port;
+    }
+
+    public Integer getBaud() {
+        return baud;
+    }
+
+    public ConnectionDriver getDriver() {
+        return driver;
+    }
+
+    /**
+     * Reads a list of machine configurations from the given JSON file
+     *
+     * @param file the file to read from
+     * @return a list of machine configurations
+     * @throws IOException if the file couldn't be read or if it contained invalid configurations
+     */
+    public static List<MachineConfiguration> readMachineConfigurations(File file) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            MachineConfiguration[] machines = new Gson().fromJson(reader, MachineConfiguration[].class);
+            if (machines == null || machines.length == 0) {
+                throw new IOException("No machines were defined in the file " + file);
+            }
+
+            Set<String> machineIds = new HashSet<>();
+            for (MachineConfiguration machine : machines) {
+                if (machine.getId() == null || !machine.getId().matches("[a-zA-Z0-9_-]+")) {
+                    throw new IOException("The machine id \"" + machine.getId() + "\" is invalid, it may only contain letters, digits, '-' and '_'");
+                } else if (!machineIds.add(machine.getId())) {
+                    throw new IOException("The machine id \"" + machine.getId() + "\" is defined more than once");
+                }
+            }
+            return Arrays.asList(machines);
+        } catch (JsonParseException e) {
+            throw new IOException("Couldn't parse the machines file " + file, e);
+        }
+    }
+}
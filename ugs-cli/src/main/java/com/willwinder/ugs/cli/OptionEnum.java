@@ -43,6 +43,7 @@ public enum OptionEnum {
     PRINT_PROGRESSBAR("print-progressbar", "pp", false, "", "Prints the progress of the file stream"),
     RESET_ALARM("reset-alarm", "r", false, "", "Resets any alarm"),
     DAEMON("daemon", "d", false, "", "Starts in daemon mode providing a web pendant UI"),
+    MACHINES("machines", "m", true, "file", "Starts in daemon mode with one controller connection for each machine defined in the given JSON file. The web pendant API for each machine is available under /api/v1/machines/<id>"),
     WORKSPACE("workspace", "w", true, "dir", "Sets and saves the workspace directory setting"),
     DRIVER("driver", "dr", true, "driver", "Sets and saves the connection driver setting. These are the available drivers: " + Arrays.toString(ConnectionDriver.values()));
 
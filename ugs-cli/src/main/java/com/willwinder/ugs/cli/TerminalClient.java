@@ -34,7 +34,9 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.LogManager;
 
@@ -98,6 +100,11 @@ public class TerminalClient {
                 System.exit(0);
             }
 
+            if (configuration.hasOption(OptionEnum.MACHINES)) {
+                runMachinesDaemon();
+                System.exit(0);
+            }
+
             initializeBackend();
 
             if (configuration.hasOption(OptionEnum.DAEMON)) {
@@ -148,6 +155,35 @@ public class TerminalClient {
         pendantUI.start();
     }
 
+    /**
+     * Starts a daemon hosting one backend for each configured machine, each with its own connection,
+     * event dispatcher and temporary directory. The first machine will also be available using
+     * the default pendant API path.
+     */
+    private void runMachinesDaemon() throws IOException, InterruptedException {
+        File machinesFile = new File(configuration.getOptionValue(OptionEnum.MACHINES));
+        List<MachineConfiguration> machines = MachineConfiguration.readMachineConfigurations(machinesFile);
+
+        Map<String, BackendAPI> backends = new LinkedHashMap<>();
+        machines.forEach(machine -> backends.put(machine.getId(), BackendInitializerHelper.getInstance().initialize(machine)));
+
+        pendantUI = new PendantUI(backends.values().iterator().next());
+        backends.forEach(pendantUI::addMachine);
+        pendantUI.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> backends.values().forEach(machineBackend -> {
+            try {
+                machineBackend.disconnect();
+            } catch (Exception e) {
+                // Never mind, we are shutting down
+            }
+        })));
+
+        while (pendantUI.isStarted()) {
+            Thread.sleep(100);
+        }
+    }
+
     /**
      * Resets an alarm in the controller
      */
@@ -0,0 +1,123 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.cli;
+
+import com.willwinder.universalgcodesender.connection.ConnectionDriver;
+import com.willwinder.universalgcodesender.utils.Settings;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class MachineConfigurationTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File createFile(String content) throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    public void readMachineConfigurationsShouldParseAllFields() throws IOException {
+        File file = createFile("""
+                [
+                  {"id": "router", "controller": "GRBL", "port": "/dev/ttyUSB0", "baud": 115200},
+                  {"id": "laser", "controller": "FluidNC", "port": "192.168.1.20:23", "driver": "TCP"}
+                ]
+                """);
+
+        List<MachineConfiguration> machines = MachineConfiguration.readMachineConfigurations(file);
+
+        assertEquals(2, machines.size());
+        assertEquals("router", machines.get(0).getId());
+        assertEquals("GRBL", machines.get(0).getController());
+        assertEquals("/dev/ttyUSB0", machines.get(0).getPort());
+        assertEquals(Integer.valueOf(115200), machines.get(0).getBaud());
+        assertNull(machines.get(0).getDriver());
+        assertEquals("laser", machines.get(1).getId());
+        assertEquals(ConnectionDriver.TCP, machines.get(1).getDriver());
+        assertNull(machines.get(1).getBaud());
+    }
+
+    @Test
+    public void readMachineConfigurationsShouldThrowExceptionOnInvalidFiles() throws IOException {
+        File emptyFile = createFile("[]");
+        File invalidJson = createFile("[{\"id\": ");
+        File invalidId = createFile("[{\"id\": \"my machine\"}]");
+        File missingId = createFile("[{\"port\": \"/dev/ttyUSB0\"}]");
+        File duplicateId = createFile("[{\"id\": \"router\"}, {\"id\": \"router\"}]");
+
+        assertThrows(IOException.class, () -> MachineConfiguration.readMachineConfigurations(emptyFile));
+        assertThrows(IOException.class, () -> MachineConfiguration.readMachineConfigurations(invalidJson));
+        assertThrows(IOException.class, () -> MachineConfiguration.readMachineConfigurations(invalidId));
+        assertThrows(IOException.class, () -> MachineConfiguration.readMachineConfigurations(missingId));
+        assertThrows(IOException.class, () -> MachineConfiguration.readMachineConfigurations(duplicateId));
+    }
+
+    @Test
+    public void createMachineSettingsShouldUseTheSettingsForMissingFields() throws IOException {
+        Settings settings = new Settings();
+        settings.setFirmwareVersion("GRBL");
+        settings.setPort("/dev/ttyUSB0");
+        settings.setPortRate("115200");
+        settings.setConnectionDriver(ConnectionDriver.JSERIALCOMM);
+        File file = createFile("[{\"id\": \"laser\", \"port\": \"/dev/ttyUSB1\"}]");
+        MachineConfiguration machine = MachineConfiguration.readMachineConfigurations(file).get(0);
+
+        Settings machineSettings = BackendInitializerHelper.createMachineSettings(machine, settings);
+
+        assertEquals("GRBL", machineSettings.getFirmwareVersion());
+        assertEquals("/dev/ttyUSB1", machineSettings.getPort());
+        assertEquals("115200", machineSettings.getPortRate());
+        assertEquals(ConnectionDriver.JSERIALCOMM, machineSettings.getConnectionDriver());
+    }
+
+    @Test
+    public void createMachineSettingsShouldNotModifyTheSharedSettings() {
+        Settings settings = new Settings();
+        settings.setFirmwareVersion("GRBL");
+        settings.setPort("/dev/ttyUSB0");
+        settings.setPortRate("115200");
+        settings.setConnectionDriver(ConnectionDriver.JSERIALCOMM);
+        MachineConfiguration machine = new MachineConfiguration("laser", "FluidNC", "192.168.1.20:23", 9600, ConnectionDriver.TCP);
+
+        Settings machineSettings = BackendInitializerHelper.createMachineSettings(machine, settings);
+
+        assertEquals("FluidNC", machineSettings.getFirmwareVersion());
+        assertEquals("192.168.1.20:23", machineSettings.getPort());
+        assertEquals("9600", machineSettings.getPortRate());
+        assertEquals(ConnectionDriver.TCP, machineSettings.getConnectionDriver());
+        assertEquals("GRBL", settings.getFirmwareVersion());
+        assertEquals("/dev/ttyUSB0", settings.getPort());
+        assertEquals("115200", settings.getPortRate());
+        assertEquals(ConnectionDriver.JSERIALCOMM, settings.getConnectionDriver());
+    }
+}
@@ -36,6 +36,7 @@ import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
 import com.willwinder.universalgcodesender.listeners.MessageType;
+import com.willwinder.universalgcodesender.metrics.RoundTripTime;
 import com.willwinder.universalgcodesender.model.Alarm;
 import com.willwinder.universalgcodesender.model.Axis;
 import com.willwinder.universalgcodesender.model.CommunicatorState;
@@ -637,6 +638,11 @@ public class GrblController extends AbstractController {
         return positionPollTimer.getUpdateInterval();
     }
 
+    @Override
+    public RoundTripTime getStatusPollRoundTripTime() {
+        return positionPollTimer.getRoundTripTime();
+    }
+
     @Override
     public void setStatusUpdateRate(int rate) {
         positionPollTimer.setUpdateInterval(rate);
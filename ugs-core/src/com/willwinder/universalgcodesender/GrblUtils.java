@@ -26,6 +26,7 @@ import com.willwinder.universalgcodesender.firmware.grbl.commands.GetStatusComma
 import com.willwinder.universalgcodesender.firmware.grbl.commands.GrblSystemCommand;
 import com.willwinder.universalgcodesender.listeners.AccessoryStates;
 import com.willwinder.universalgcodesender.listeners.AccessoryStatesBuilder;
+import com.willwinder.universalgcodesender.listeners.BufferState;
 import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
@@ -43,6 +44,7 @@ import static com.willwinder.universalgcodesender.utils.ControllerUtils.sendAndW
 import static com.willwinder.universalgcodesender.utils.ControllerUtils.sendAndWaitForCompletionWithRetry;
 import com.willwinder.universalgcodesender.utils.GrblLookups;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 
 import java.util.Optional;
 import java.util.regex.Matcher;
@@ -403,6 +405,7 @@ public class GrblUtils {
         OverridePercents overrides = null;
         EnabledPins pins = EnabledPins.EMPTY_PINS;
         AccessoryStates accessoryStates = null;
+        BufferState bufferState = BufferState.EMPTY_BUFFER_STATE;
 
         double feedSpeed = 0;
         double spindleSpeed = 0;
@@ -444,6 +447,9 @@ public class GrblUtils {
                 feedSpeed = Double.parseDouble(parts[0]);
                 spindleSpeed = Double.parseDouble(parts[1]);
             }
+            else if (part.startsWith("Bf:")) {
+                bufferState = parseBufferState(part).orElse(BufferState.EMPTY_BUFFER_STATE);
+            }
             else if (part.startsWith("Pn:")) {
                 String value = part.substring(part.indexOf(':')+1);
                 pins = parseEnabledPins(value);
@@ -482,7 +488,17 @@ public class GrblUtils {
         }
 
         ControllerState state = getControllerStateFromStateString(stateString);
-        return new ControllerStatus(state, subStateString, MPos, WPos, feedSpeed, reportingUnits, spindleSpeed, overrides, WCO, pins, accessoryStates);
+        return new ControllerStatus(state, subStateString, MPos, WPos, feedSpeed, reportingUnits, spindleSpeed, overrides, WCO, pins, accessoryStates, bufferState);
+    }
+
+    private static Optional<BufferState> parseBufferState(String value) {
+        String[] bufferParts = value.substring(3).trim().split(",");
+        if (bufferParts.length == 2 && NumberUtils.isDigits(bufferParts[0]) && NumberUtils.isDigits(bufferParts[1])) {
+            return Optional.of(new BufferState(
+                    Integer.parseInt(bufferParts[0]),
+                    Integer.parseInt(bufferParts[1])));
+        }
+        return Optional.empty();
     }
 
     private static Optional<OverridePercents> parseOverrides(String value) {
@@ -25,6 +25,7 @@ import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.gcode.ICommandCreator;
 import com.willwinder.universalgcodesender.listeners.ControllerListener;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.metrics.RoundTripTime;
 import com.willwinder.universalgcodesender.model.Axis;
 import com.willwinder.universalgcodesender.model.CommunicatorState;
 import com.willwinder.universalgcodesender.model.PartialPosition;
@@ -141,6 +142,16 @@ public interface IController {
     void setStatusUpdateRate(int rate);
     int getStatusUpdateRate();
 
+    /**
+     * Returns the time it took from the last status report request until a status was received.
+     * The sequence number of the round trip time is increased for every new measurement.
+     *
+     * @return the round trip time or null if unknown
+     */
+    default RoundTripTime getStatusPollRoundTripTime() {
+        return null;
+    }
+
     /*
     Serial
     */
@@ -18,6 +18,8 @@
  */
 package com.willwinder.universalgcodesender;
 
+import com.willwinder.universalgcodesender.metrics.RoundTripTime;
+
 import javax.swing.Timer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -36,7 +38,9 @@ public class StatusPollTimer {
 
     private final IController controller;
     private Timer timer;
-    private int outstandingPolls;
+    private volatile int outstandingPolls;
+    private volatile long pollRequestTime;
+    private volatile RoundTripTime roundTripTime;
     private int updateInterval;
     private boolean isEnabled = false;
 
@@ -83,6 +87,7 @@ public class StatusPollTimer {
 
         if (outstandingPolls == 0) {
             outstandingPolls++;
+            pollRequestTime = System.currentTimeMillis();
             controller.requestStatusReport();
         } else {
             // If a poll is somehow lost after 20 intervals,
@@ -108,9 +113,22 @@ public class StatusPollTimer {
      * Resets the outstanding polls, forcing a new status report request.
      */
     public void receivedStatus() {
+        if (outstandingPolls > 0 && pollRequestTime > 0) {
+            long sequence = roundTripTime == null ? 1 : roundTripTime.sequence() + 1;
+            roundTripTime = new RoundTripTime(sequence, System.currentTimeMillis() - pollRequestTime);
+        }
         outstandingPolls = 0;
     }
 
+    /**
+     * Returns the time from the last status request until the status was received
+     *
+     * @return the round trip time or null if no status has been received
+     */
+    public RoundTripTime getRoundTripTime() {
+        return roundTripTime;
+    }
+
     /**
      * Sets the update interval in milliseconds minimum value allowed is 10ms
      *
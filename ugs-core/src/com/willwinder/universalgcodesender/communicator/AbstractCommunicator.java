@@ -53,6 +53,11 @@ public abstract class AbstractCommunicator implements ICommunicator, IConnection
         return eventDispatcher;
     }
 
+    @Override
+    public int getPendingEventCount() {
+        return eventDispatcher.getEventCount();
+    }
+
     /*********************/
     /* Serial Layer API. */
     /*********************/
@@ -24,6 +24,7 @@ import com.willwinder.universalgcodesender.communicator.event.ICommunicatorEvent
 import com.willwinder.universalgcodesender.connection.ConnectionDriver;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.CommUtils;
+import com.willwinder.universalgcodesender.utils.GcodeStreamProcessingException;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 
 import java.io.IOException;
@@ -50,6 +51,7 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
     private int sentBufferSize = 0;
 
     private Boolean singleStepModeEnabled = false;
+    private volatile boolean connectionWritable = true;
 
     abstract public int getBufferSize();
 
@@ -131,6 +133,11 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
 
     // Helper for determining if commands should be throttled.
     private boolean allowMoreCommands() {
+        // Apply backpressure from connections that are buffering outgoing data
+        if (!this.connectionWritable) {
+            return false;
+        }
+
         if (this.singleStepModeEnabled) {
             return this.activeCommandList.isEmpty();
         }
@@ -158,6 +165,11 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
             if (commandStream != null && commandStream.ready()) {
                 nextCommand = commandStream.getNextCommand();
             }
+        } catch (GcodeStreamProcessingException e) {
+            // The command is kept in the stream, pause instead of skipping it
+            logger.log(Level.SEVERE, "Pausing the stream, " + e.getMessage(), e);
+            pauseSend();
+            getEventDispatcher().communicatorPausedOnError();
         } catch (IOException ignored) {
             // Fall through to null handling.
         }
@@ -284,13 +296,26 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
         }
     }
 
+    /**
+     * Stops streaming while the connection is unable to accept more data and resumes when it is writable again.
+     */
+    @Override
+    public void onConnectionWritableChanged(boolean writable) {
+        this.connectionWritable = writable;
+        if (writable && !isPaused()) {
+            streamCommands();
+        }
+    }
+
     @Override
     public void connect(ConnectionDriver connectionDriver, String name, int baud) throws Exception {
         super.connect(connectionDriver, name, baud);
+        connection.setWriteBufferSize(getBufferSize());
 
         this.commandBuffer.clear();
         this.activeCommandList.clear();
         this.sentBufferSize = 0;
+        this.connectionWritable = true;
     }
 
     @Override
@@ -31,7 +31,7 @@ import java.util.regex.Pattern;
 public class GrblCommunicator extends BufferedCommunicator {
 
     private boolean temporarySingleStepMode;
-    private final static String EEPROM_COMMAND_PATTERN = "G10|G28|G30|\\$x=|\\$I|\\$N|\\$RST=|G5[456789]|\\$\\$|\\$#";
+    private final static String EEPROM_COMMAND_PATTERN = "G10|G28|G30|\\$x=|\\$\\d+=|\\$I|\\$N|\\$RST=|G5[456789]|\\$\\$|\\$#";
     private final static Pattern EEPROM_COMMAND = Pattern.compile(EEPROM_COMMAND_PATTERN, Pattern.CASE_INSENSITIVE);
     
     public GrblCommunicator() {}
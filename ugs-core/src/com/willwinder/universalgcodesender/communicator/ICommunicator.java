@@ -118,6 +118,15 @@ public interface ICommunicator {
      */
     void resetBuffers();
 
+    /**
+     * Returns the number of events that are waiting to be dispatched to the communicator listeners
+     *
+     * @return the number of pending events
+     */
+    default int getPendingEventCount() {
+        return 0;
+    }
+
     /**
      * Sets a connection to the communicator
      *
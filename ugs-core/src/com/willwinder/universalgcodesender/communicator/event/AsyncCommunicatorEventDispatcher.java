@@ -65,6 +65,7 @@ public class AsyncCommunicatorEventDispatcher extends CommunicatorEventDispatche
         eventQueue.clear();
     }
 
+    @Override
     public int getEventCount() {
         return eventQueue.size();
     }
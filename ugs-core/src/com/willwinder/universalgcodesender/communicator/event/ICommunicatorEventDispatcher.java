@@ -28,4 +28,13 @@ public interface ICommunicatorEventDispatcher extends ICommunicatorListener {
      * Clears any buffered events and resets the dispatcher
      */
     void reset();
+
+    /**
+     * Returns the number of events waiting to be dispatched
+     *
+     * @return the number of queued events
+     */
+    default int getEventCount() {
+        return 0;
+    }
 }
@@ -67,6 +67,17 @@ public interface Connection {
      */
     void closePort() throws Exception;
 
+    /**
+     * Sets the number of bytes that may be queued before the connection reports itself as not
+     * writable using {@link IConnectionListener#onConnectionWritableChanged(boolean)}. Connections
+     * that aren't buffering outgoing data may ignore this.
+     *
+     * @param bytes the number of bytes that may be queued
+     */
+    default void setWriteBufferSize(int bytes) {
+        // Not implemented by default
+    }
+
     /**
      * Immediately sends a byte, used for real-time commands.
      *
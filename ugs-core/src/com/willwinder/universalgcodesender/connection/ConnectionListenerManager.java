@@ -91,4 +91,9 @@ public class ConnectionListenerManager implements IConnectionListenerManager {
     public void onConnectionClosed() {
         listeners.forEach(IConnectionListener::onConnectionClosed);
     }
+
+    @Override
+    public void onConnectionWritableChanged(boolean writable) {
+        listeners.forEach(listener -> listener.onConnectionWritableChanged(writable));
+    }
 }
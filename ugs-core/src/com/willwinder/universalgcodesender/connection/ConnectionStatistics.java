@@ -0,0 +1,36 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+/**
+ * Statistics about the data transferred through a connection.
+ *
+ * @param bytesSent           the total number of bytes written to the connection
+ * @param bytesReceived       the total number of bytes read from the connection
+ * @param pendingWriteBytes   the number of bytes queued but not yet written to the connection
+ * @param averageWriteLatency the average time in milliseconds from when data was queued until it was written
+ * @param maxWriteLatency     the longest time in milliseconds from when data was queued until it was written
+ * @param averageReadTime     the average time in milliseconds spent handling received data
+ * @param maxReadTime         the longest time in milliseconds spent handling received data
+ * @author agent
+ */
+public record ConnectionStatistics(long bytesSent, long bytesReceived, int pendingWriteBytes,
+                                   double averageWriteLatency, double maxWriteLatency,
+                                   double averageReadTime, double maxReadTime) {
+}
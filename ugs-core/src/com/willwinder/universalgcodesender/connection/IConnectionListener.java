@@ -35,4 +35,15 @@ public interface IConnectionListener {
      * This method will be executed if the connection is closed
      */
     void onConnectionClosed();
+
+    /**
+     * This method will be executed by connections that are buffering outgoing
+     * data when their buffers are full and when they are able to accept more
+     * data again.
+     *
+     * @param writable true if the connection is able to accept more data
+     */
+    default void onConnectionWritableChanged(boolean writable) {
+        // Not implemented by default
+    }
 }
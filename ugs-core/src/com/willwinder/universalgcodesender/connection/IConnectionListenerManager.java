@@ -42,4 +42,13 @@ public interface IConnectionListenerManager {
      * Is triggered when a connection was closed
      */
     void onConnectionClosed();
+
+    /**
+     * Is triggered when a connection changes between being able to accept more data or not
+     *
+     * @param writable true if the connection is able to accept more data
+     */
+    default void onConnectionWritableChanged(boolean writable) {
+        // Not implemented by default
+    }
 }
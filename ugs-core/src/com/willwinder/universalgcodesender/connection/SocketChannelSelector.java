@@ -0,0 +1,192 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A selector running in a single thread that handles the IO events for all non-blocking
+ * socket channels. This makes it possible to serve multiple connections, ie when running
+ * multiple machines in the same process, without having a dedicated thread for each connection.
+ * <p>
+ * The handlers will be invoked from the selector thread and should never block, any work
+ * that may block such as handling responses needs to be dispatched to another thread.
+ *
+ * @author agent
+ */
+class SocketChannelSelector implements Runnable {
+    private static final Logger LOGGER = Logger.getLogger(SocketChannelSelector.class.getSimpleName());
+    private static SocketChannelSelector instance;
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * A handler for the IO events of a registered channel
+     */
+    interface Handler {
+        /**
+         * Is invoked when there is data available to read from the channel
+         */
+        void onReadable();
+
+        /**
+         * Is invoked when the channel is able to accept more data
+         */
+        void onWritable();
+    }
+
+    private SocketChannelSelector() throws IOException {
+        selector = Selector.open();
+        thread = new Thread(this, "Socket channel selector");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static synchronized SocketChannelSelector getInstance() throws IOException {
+        if (instance == null) {
+            instance = new SocketChannelSelector();
+        }
+        return instance;
+    }
+
+    /**
+     * Registers a non-blocking channel with the selector. If called from outside the selector thread
+     * the registration is made in the selector thread and this method will wait until it is done.
+     *
+     * @param channel a channel configured as non-blocking
+     * @param handler the handler for the IO events on the channel
+     * @return the selection key for the registered channel
+     * @throws IOException if the channel couldn't be registered
+     */
+    public SelectionKey register(SocketChannel channel, Handler handler) throws IOException {
+        // Waiting for the selector thread from itself would never finish
+        if (isSelectorThread()) {
+            return channel.register(selector, SelectionKey.OP_READ, handler);
+        }
+
+        CompletableFuture<SelectionKey> result = new CompletableFuture<>();
+        execute(() -> {
+            try {
+                result.complete(channel.register(selector, SelectionKey.OP_READ, handler));
+            } catch (IOException e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while registering the channel", e);
+        } catch (Exception e) {
+            throw new IOException("Could not register the channel", e.getCause());
+        }
+    }
+
+    /**
+     * Sets if the given key should be notified when the channel is able to accept more data.
+     *
+     * @param selectionKey the key of the registered channel
+     * @param enabled      true if the handler should be notified when writable
+     */
+    public void setWriteInterest(SelectionKey selectionKey, boolean enabled) {
+        execute(() -> {
+            if (!selectionKey.isValid()) {
+                return;
+            }
+
+            int interestOps = selectionKey.interestOps();
+            selectionKey.interestOps(enabled ? interestOps | SelectionKey.OP_WRITE : interestOps & ~SelectionKey.OP_WRITE);
+        });
+    }
+
+    /**
+     * Returns if the current thread is the selector thread
+     *
+     * @return true if called from the selector thread
+     */
+    public boolean isSelectorThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Runs the task in the selector thread, tasks are run in the order they were added.
+     *
+     * @param task the task to run
+     */
+    public void execute(Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        while (selector.isOpen()) {
+            try {
+                runPendingTasks();
+                selector.select();
+                handleSelectedKeys();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Unexpected error in the socket channel selector", e);
+            }
+        }
+    }
+
+    private void runPendingTasks() {
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void handleSelectedKeys() {
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+
+            Handler handler = (Handler) key.attachment();
+            try {
+                if (key.isValid() && key.isReadable()) {
+                    handler.onReadable();
+                }
+
+                if (key.isValid() && key.isWritable()) {
+                    handler.onWritable();
+                }
+            } catch (CancelledKeyException e) {
+                // The channel was closed while handling the event
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Could not handle the socket channel event", e);
+            }
+        }
+    }
+}
@@ -21,34 +21,104 @@ package com.willwinder.universalgcodesender.connection;
 import com.willwinder.universalgcodesender.services.MdnsService;
 import org.apache.commons.lang3.StringUtils;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.net.BindException;
 import java.net.ConnectException;
+import java.net.InetSocketAddress;
 import java.net.NoRouteToHostException;
-import java.net.Socket;
-import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * A TCP connection object implementing the connection API.
+ * A TCP connection object implementing the connection API using a non-blocking socket channel.
+ * <p>
+ * All IO events are handled by a shared {@link SocketChannelSelector} so that a stalled socket
+ * never blocks the streaming thread. Outgoing data is queued and written when the socket is able
+ * to accept it, if too much data is queued the connection will report itself as not writable
+ * to its listeners using {@link IConnectionListener#onConnectionWritableChanged(boolean)} until
+ * the queue has been drained.
+ * <p>
+ * The listeners are notified in order from a dedicated thread for each connection, never from
+ * the selector thread or from the thread that is queueing data. This way a listener may block
+ * or send more data while handling a response without stalling the IO for other connections.
  *
  * @author Adam Carmicahel <carneeki@carneeki.net>
  * @author Joacim Breiler
  */
-public class TCPConnection extends AbstractConnection implements Runnable, Connection {
+public class TCPConnection extends AbstractConnection implements Connection, SocketChannelSelector.Handler {
 
     private static final Logger LOGGER = Logger.getLogger(TCPConnection.class.getSimpleName());
     private static final String MDNS_SERVICE = "_telnet._tcp.local.";
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * The default number of queued bytes when the connection will stop accepting more data
+     */
+    static final int DEFAULT_WRITE_BUFFER_SIZE = 4096;
+
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final Queue<QueuedData> writeQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<QueuedData> realtimeQueue = new ConcurrentLinkedQueue<>();
+    private final Deque<QueuedData> requeuedQueue = new ArrayDeque<>();
+    private final Deque<QueuedData> inFlightQueue = new ArrayDeque<>();
+    private final AtomicInteger pendingWriteBytes = new AtomicInteger();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong readCount = new AtomicLong();
+    private final AtomicLong totalReadTime = new AtomicLong();
+    private final AtomicLong maxReadTime = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong totalWriteLatency = new AtomicLong();
+    private final AtomicLong maxWriteLatency = new AtomicLong();
+
     private String host;
     private int port;
-    // General variables
-    private Socket client;
-    private OutputStream bufOut;
-    private BufferedInputStream inStream;
-    private Thread replyThread;
+    private boolean tcpNoDelay = true;
+    private volatile SocketChannel channel;
+    private volatile SelectionKey selectionKey;
+    private volatile ExecutorService listenerExecutor;
+    private volatile int highWaterMark = DEFAULT_WRITE_BUFFER_SIZE;
+    private volatile int lowWaterMark = DEFAULT_WRITE_BUFFER_SIZE / 4;
+    private volatile boolean writeBlocked;
+    private volatile boolean notifiedWritable = true;
+    private boolean writeInterest;
+    private QueuedData currentData;
+    private int currentDataOffset;
+    private long bytesCopied;
+    private long bytesSent;
+
+    /**
+     * Data waiting to be written to the socket
+     *
+     * @param data        the data to write
+     * @param queuedTime  the time in nanoseconds when the data was queued
+     * @param endPosition the position in the total stream of written bytes where this data ends
+     */
+    private record QueuedData(byte[] data, long queuedTime, long endPosition) {
+        QueuedData(byte[] data) {
+            this(data, System.nanoTime(), 0);
+        }
+
+        QueuedData withEndPosition(long endPosition) {
+            return new QueuedData(data, queuedTime, endPosition);
+        }
+    }
 
     TCPConnection() {
         MdnsService.getInstance().registerListener(MDNS_SERVICE);
@@ -71,98 +141,408 @@ public class TCPConnection extends AbstractConnection implements Runnable, Conne
         }
     }
 
+    /**
+     * Sets if Nagle's algorithm should be disabled on the socket. This is enabled by default
+     * as we are sending many small packets where the latency is more important than the throughput.
+     *
+     * @param tcpNoDelay true to disable Nagle's algorithm
+     */
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    /**
+     * Sets the number of queued bytes when the connection will stop accepting more data. The
+     * connection will start accepting data again when a quarter of that is left in the queue.
+     *
+     * @param bytes the number of bytes that may be queued
+     */
+    @Override
+    public void setWriteBufferSize(int bytes) {
+        highWaterMark = Math.max(1, bytes);
+        lowWaterMark = highWaterMark / 4;
+    }
+
     @Override
     public boolean openPort() throws Exception {
+        SocketChannel socketChannel = SocketChannel.open();
         try {
-            client = new Socket(host, port);
+            socketChannel.setOption(StandardSocketOptions.TCP_NODELAY, tcpNoDelay);
+            socketChannel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+            socketChannel.socket().connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+            socketChannel.configureBlocking(false);
         } catch (BindException e) {
+            socketChannel.close();
             throw new ConnectionException("Could not bind a local port.", e);
         } catch (NoRouteToHostException e) {
+            socketChannel.close();
             throw new ConnectionException("No route to host. The remote host may not be running, blocked by a firewall, or disconnected.", e);
         } catch (ConnectException e) {
+            socketChannel.close();
             throw new ConnectionException("The port is unreachable on the remote host. The server may not be running, or blocked by a firewall.", e);
+        } catch (IOException e) {
+            socketChannel.close();
+            throw e;
         }
 
-        bufOut = client.getOutputStream();
-        inStream = new BufferedInputStream(client.getInputStream());
-
-        // start thread so replies can be handled
-        replyThread = new Thread(this);
-        replyThread.start();
-
-        return client.isConnected();
+        resetBuffers();
+        listenerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TCP connection " + host + ":" + port);
+            thread.setDaemon(true);
+            return thread;
+        });
+        channel = socketChannel;
+        selectionKey = SocketChannelSelector.getInstance().register(socketChannel, this);
+        return socketChannel.isConnected();
     }
 
     @Override
     public void closePort() throws Exception {
-        if (client == null) {
+        closeChannel();
+        shutdownListenerExecutor();
+    }
+
+    /**
+     * Stops the listener thread when it has finished the already dispatched events
+     */
+    private void shutdownListenerExecutor() {
+        ExecutorService executor = listenerExecutor;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private void closeChannel() {
+        SocketChannel socketChannel = channel;
+        if (socketChannel == null) {
             return;
         }
 
         try {
-            replyThread.interrupt();
-            client.close();
-        } catch (SocketException e) {
-            // ignore socketexception if connection was broken early
+            socketChannel.close();
+        } catch (IOException e) {
+            // ignore exceptions if connection was broken early
         } finally {
-            client = null;
+            channel = null;
+            selectionKey = null;
         }
     }
 
     @Override
     public boolean isOpen() {
-        return client != null && !client.isClosed();
+        SocketChannel socketChannel = channel;
+        return socketChannel != null && socketChannel.isOpen();
+    }
+
+    /**
+     * Returns if the connection is able to accept more data without exceeding its buffers
+     *
+     * @return true if more data can be sent
+     */
+    public boolean isWritable() {
+        return !writeBlocked;
     }
 
     /**
-     * Sends a command to remote host.
+     * Queues a command to be sent to the remote host.
      *
      * @param command Command to be sent to remote host.
      */
+    @Override
     public void sendStringToComm(String command) throws Exception {
+        queue(writeQueue, command.getBytes());
+    }
+
+    /**
+     * Sends a byte before any other queued commands, used for real-time commands.
+     */
+    @Override
+    public void sendByteImmediately(byte b) throws Exception {
+        queue(realtimeQueue, new byte[]{b});
+    }
+
+    private void queue(Queue<QueuedData> queue, byte[] data) throws IOException {
+        if (!isOpen()) {
+            throw new IOException("The connection is not open");
+        }
+
+        synchronized (this) {
+            queue.add(new QueuedData(data));
+            if (pendingWriteBytes.addAndGet(data.length) >= highWaterMark && !writeBlocked) {
+                writeBlocked = true;
+                notifyWritableChanged();
+            }
+        }
+
+        // Attempt to write directly to avoid waiting on the selector
+        flush();
+    }
+
+    @Override
+    public void onReadable() {
+        long startTime = System.nanoTime();
+        int length;
         try {
-            bufOut.write(command.getBytes());
-            bufOut.flush();
+            readBuffer.clear();
+            length = channel.read(readBuffer);
         } catch (IOException e) {
-            // very likely we got disconnected, attempt to disconnect gracefully
-            connectionListenerManager.onConnectionClosed();
-            throw e;
+            LOGGER.info("Got a socket exception: " + e.getMessage());
+            length = -1;
         }
+
+        if (length < 0) {
+            handleDisconnect();
+            return;
+        }
+
+        readBuffer.flip();
+        byte[] data = new byte[length];
+        readBuffer.get(data);
+        bytesReceived.addAndGet(length);
+        dispatch(() -> connectionListenerManager.handleResponse(data, 0, data.length));
+        record(System.nanoTime() - startTime, readCount, totalReadTime, maxReadTime);
+    }
+
+    @Override
+    public void onWritable() {
+        flush();
     }
 
     /**
-     * Immediately sends a byte, used for real-time commands.
+     * Writes as much as possible of the queued data without blocking. If the socket couldn't
+     * accept all the data it will be written when the selector notifies that it is writable.
      */
-    public void sendByteImmediately(byte b) throws Exception {
+    private void flush() {
         try {
-            bufOut.write(b);
-            bufOut.flush();
+            if (writeQueuedData()) {
+                notifyWritableChanged();
+            }
         } catch (IOException e) {
-            // very likely we got disconnected, attempt to disconnect gracefully
-            connectionListenerManager.onConnectionClosed();
-            throw e;
+            LOGGER.info("Got a socket exception: " + e.getMessage());
+            handleDisconnect();
         }
     }
 
     /**
-     * Thread to accept data from remote host, and pass it to responseHandler
+     * Schedules a notification to the listeners if the writable state has changed. Notifying the
+     * listeners directly could make them reenter the connection, ie streaming more commands while
+     * still in the middle of sending a command.
      */
-    public void run() {
-        byte[] buffer = new byte[1024];
-        while (!Thread.interrupted() && !client.isClosed()) {
-            try {
-                int readBytes = inStream.read(buffer);
-                if (readBytes > 0) {
-                    connectionListenerManager.handleResponse(buffer, 0, readBytes);
+    private void notifyWritableChanged() {
+        dispatch(() -> {
+            boolean writable = !writeBlocked;
+            if (notifiedWritable != writable) {
+                notifiedWritable = writable;
+                connectionListenerManager.onConnectionWritableChanged(writable);
+            }
+        });
+    }
+
+    /**
+     * Notifies the listeners in the listener thread of this connection, the events are handled
+     * in the order they were dispatched.
+     *
+     * @param event the notification to run
+     */
+    private void dispatch(Runnable event) {
+        ExecutorService executor = listenerExecutor;
+        if (executor == null) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    event.run();
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Could not notify the connection listeners", e);
                 }
-            } catch (IOException e) {
-                LOGGER.info("Got a socket exception: " + e.getMessage());
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.log(Level.FINE, "The connection is closed, skipping the notification", e);
+        }
+    }
+
+    /**
+     * Writes the queued data to the socket until it is drained or until the socket won't accept more data.
+     *
+     * @return true if the connection went from being blocked to accepting data again
+     * @throws IOException if the data couldn't be written
+     */
+    private synchronized boolean writeQueuedData() throws IOException {
+        SocketChannel socketChannel = channel;
+        SelectionKey key = selectionKey;
+        if (socketChannel == null || key == null) {
+            return false;
+        }
+
+        while (true) {
+            if (!realtimeQueue.isEmpty()) {
+                requeueUnsentData();
+            }
+
+            fillWriteBuffer();
+            writeBuffer.flip();
+            int written = socketChannel.write(writeBuffer);
+            writeBuffer.compact();
+            onBytesWritten(written);
+
+            boolean hasMoreData = writeBuffer.position() > 0 || currentData != null || !realtimeQueue.isEmpty() || !requeuedQueue.isEmpty() || !writeQueue.isEmpty();
+            if (!hasMoreData) {
+                setWriteInterest(key, false);
+                break;
+            } else if (written == 0) {
+                setWriteInterest(key, true);
                 break;
             }
         }
 
-        // Notify listeners that we are disconnected
-        connectionListenerManager.onConnectionClosed();
+        if (writeBlocked && pendingWriteBytes.get() <= lowWaterMark) {
+            writeBlocked = false;
+            return true;
+        }
+        return false;
+    }
+
+    private void setWriteInterest(SelectionKey key, boolean enabled) throws IOException {
+        if (writeInterest != enabled) {
+            writeInterest = enabled;
+            SocketChannelSelector.getInstance().setWriteInterest(key, enabled);
+        }
+    }
+
+    /**
+     * Removes the commands from the write buffer that the socket hasn't started to send yet and
+     * puts them back first in line after the real-time commands. This way a real-time command only
+     * needs to wait for the command currently being sent instead of the whole write buffer.
+     */
+    private void requeueUnsentData() {
+        if (currentData != null) {
+            long startPosition = bytesCopied - currentDataOffset;
+            if (startPosition < bytesSent) {
+                // We are in the middle of sending a command that didn't fit in the write buffer
+                return;
+            }
+
+            requeuedQueue.addFirst(currentData);
+            bytesCopied = startPosition;
+            currentData = null;
+            currentDataOffset = 0;
+        }
+
+        while (!inFlightQueue.isEmpty()) {
+            QueuedData data = inFlightQueue.peekLast();
+            long startPosition = data.endPosition() - data.data().length;
+            if (startPosition < bytesSent) {
+                break;
+            }
+
+            requeuedQueue.addFirst(inFlightQueue.pollLast());
+            bytesCopied = startPosition;
+        }
+
+        // The write buffer contains the copied bytes that hasn't been sent yet
+        writeBuffer.position((int) (bytesCopied - bytesSent));
+    }
+
+    /**
+     * Copies queued data into the write buffer. Real-time commands are prioritized but will
+     * never be inserted in the middle of another command.
+     */
+    private void fillWriteBuffer() {
+        while (writeBuffer.hasRemaining()) {
+            if (currentData == null) {
+                currentData = realtimeQueue.poll();
+                if (currentData == null) {
+                    currentData = requeuedQueue.poll();
+                }
+                if (currentData == null) {
+                    currentData = writeQueue.poll();
+                }
+                currentDataOffset = 0;
+            }
+
+            if (currentData == null) {
+                return;
+            }
+
+            int length = Math.min(writeBuffer.remaining(), currentData.data().length - currentDataOffset);
+            writeBuffer.put(currentData.data(), currentDataOffset, length);
+            currentDataOffset += length;
+            bytesCopied += length;
+
+            if (currentDataOffset >= currentData.data().length) {
+                inFlightQueue.add(currentData.withEndPosition(bytesCopied));
+                currentData = null;
+            }
+        }
+    }
+
+    private void onBytesWritten(int written) {
+        if (written <= 0) {
+            return;
+        }
+
+        bytesSent += written;
+        pendingWriteBytes.addAndGet(-written);
+
+        long now = System.nanoTime();
+        while (!inFlightQueue.isEmpty() && inFlightQueue.peek().endPosition() <= bytesSent) {
+            QueuedData data = inFlightQueue.poll();
+            record(now - data.queuedTime(), writeCount, totalWriteLatency, maxWriteLatency);
+        }
+    }
+
+    private synchronized void resetBuffers() {
+        writeQueue.clear();
+        realtimeQueue.clear();
+        requeuedQueue.clear();
+        inFlightQueue.clear();
+        writeBuffer.clear();
+        pendingWriteBytes.set(0);
+        bytesCopied = bytesSent;
+        currentData = null;
+        writeBlocked = false;
+        notifiedWritable = true;
+        writeInterest = false;
+    }
+
+    private void handleDisconnect() {
+        if (channel == null) {
+            return;
+        }
+
+        closeChannel();
+
+        // Notify listeners that we are disconnected after any remaining responses
+        dispatch(() -> connectionListenerManager.onConnectionClosed());
+        shutdownListenerExecutor();
+    }
+
+    private static void record(long time, AtomicLong count, AtomicLong total, AtomicLong max) {
+        count.incrementAndGet();
+        total.addAndGet(time);
+        max.accumulateAndGet(time, Math::max);
+    }
+
+    private static double average(AtomicLong total, AtomicLong count) {
+        long currentCount = count.get();
+        return currentCount == 0 ? 0 : toMillis(total.get()) / currentCount;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the statistics for the data transferred through this connection.
+     *
+     * @return the connection statistics
+     */
+    public synchronized ConnectionStatistics getStatistics() {
+        return new ConnectionStatistics(bytesSent, bytesReceived.get(), pendingWriteBytes.get(),
+                average(totalWriteLatency, writeCount), toMillis(maxWriteLatency.get()),
+                average(totalReadTime, readCount), toMillis(maxReadTime.get()));
     }
 
     @Override
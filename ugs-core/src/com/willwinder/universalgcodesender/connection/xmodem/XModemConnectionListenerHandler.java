@@ -67,6 +67,11 @@ public class XModemConnectionListenerHandler implements IConnectionListenerManag
         previousConnectionListenerManager.onConnectionClosed();
     }
 
+    @Override
+    public void onConnectionWritableChanged(boolean writable) {
+        previousConnectionListenerManager.onConnectionWritableChanged(writable);
+    }
+
     @Override
     public void handleResponse(byte[] buffer, int offset, int length) {
         this.buffer.write(buffer, offset, length);
@@ -0,0 +1,93 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.firmware;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The aggregated result from applying a list of firmware settings to the controller
+ * using {@link IFirmwareSettings#applySettings(List)}.
+ *
+ * @author agent
+ */
+public class FirmwareSettingsUpdateResult {
+
+    /**
+     * The settings that were changed on the controller
+     */
+    private final List<FirmwareSetting> updated = new ArrayList<>();
+
+    /**
+     * The settings that already had the desired value and were never sent
+     */
+    private final List<FirmwareSetting> unchanged = new ArrayList<>();
+
+    /**
+     * The settings that could not be updated mapped to the reason of the failure
+     */
+    private final Map<FirmwareSetting, String> failed = new LinkedHashMap<>();
+
+    public void addUpdated(FirmwareSetting setting) {
+        updated.add(setting);
+    }
+
+    public void addUnchanged(FirmwareSetting setting) {
+        unchanged.add(setting);
+    }
+
+    public void addFailed(FirmwareSetting setting, String reason) {
+        failed.put(setting, reason);
+    }
+
+    public List<FirmwareSetting> getUpdated() {
+        return Collections.unmodifiableList(updated);
+    }
+
+    public List<FirmwareSetting> getUnchanged() {
+        return Collections.unmodifiableList(unchanged);
+    }
+
+    public Map<FirmwareSetting, String> getFailed() {
+        return Collections.unmodifiableMap(failed);
+    }
+
+    /**
+     * Returns if all settings were either updated or already had the desired value
+     *
+     * @return true if no setting failed
+     */
+    public boolean isSuccessful() {
+        return failed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("updated", updated.size())
+                .append("unchanged", unchanged.size())
+                .append("failed", failed.size())
+                .toString();
+    }
+}
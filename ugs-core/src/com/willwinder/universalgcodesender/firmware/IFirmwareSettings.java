@@ -212,6 +212,40 @@ public interface IFirmwareSettings {
      */
     void setSettings(List<FirmwareSetting> settings) throws FirmwareSettingsException;
 
+    /**
+     * Applies a list of firmware settings, for instance a machine profile. The settings
+     * will be compared with the currently known settings and only the ones that differs
+     * will be sent to the controller.
+     *
+     * @param settings the desired settings
+     * @return the aggregated result of all updates
+     */
+    default FirmwareSettingsUpdateResult applySettings(List<FirmwareSetting> settings) {
+        FirmwareSettingsUpdateResult result = new FirmwareSettingsUpdateResult();
+        for (FirmwareSetting setting : settings) {
+            Optional<FirmwareSetting> currentSetting = getSetting(setting.getKey());
+            if (currentSetting.isEmpty()) {
+                result.addFailed(setting, "Couldn't find setting with key " + setting.getKey());
+                continue;
+            } else if (currentSetting.get().getValue().equals(setting.getValue())) {
+                result.addUnchanged(currentSetting.get());
+                continue;
+            }
+
+            try {
+                FirmwareSetting newSetting = setValue(setting.getKey(), setting.getValue());
+                if (newSetting.getValue().equals(setting.getValue())) {
+                    result.addUpdated(newSetting);
+                } else {
+                    result.addFailed(setting, "The controller did not accept the value");
+                }
+            } catch (FirmwareSettingsException e) {
+                result.addFailed(setting, e.getMessage());
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns the maximum rate each axis can move in mm/min.
      *
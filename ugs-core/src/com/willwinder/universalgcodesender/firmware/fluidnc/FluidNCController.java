@@ -59,6 +59,7 @@ import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
 import com.willwinder.universalgcodesender.listeners.MessageType;
+import com.willwinder.universalgcodesender.metrics.RoundTripTime;
 import com.willwinder.universalgcodesender.model.Axis;
 import com.willwinder.universalgcodesender.model.CommunicatorState;
 import com.willwinder.universalgcodesender.model.PartialPosition;
@@ -316,6 +317,11 @@ public class FluidNCController implements IController, ICommunicatorListener {
         return positionPollTimer.getUpdateInterval();
     }
 
+    @Override
+    public RoundTripTime getStatusPollRoundTripTime() {
+        return positionPollTimer.getRoundTripTime();
+    }
+
     @Override
     public void setStatusUpdateRate(int rate) {
         // 100 ms is the maximum rate to request status reports
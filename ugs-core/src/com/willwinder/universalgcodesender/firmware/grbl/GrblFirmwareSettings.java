@@ -18,9 +18,11 @@
  */
 package com.willwinder.universalgcodesender.firmware.grbl;
 
+import com.willwinder.universalgcodesender.ControllerException;
 import com.willwinder.universalgcodesender.IController;
 import com.willwinder.universalgcodesender.firmware.FirmwareSetting;
 import com.willwinder.universalgcodesender.firmware.FirmwareSettingsException;
+import com.willwinder.universalgcodesender.firmware.FirmwareSettingsUpdateResult;
 import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
 import com.willwinder.universalgcodesender.firmware.IFirmwareSettingsListener;
 import com.willwinder.universalgcodesender.i18n.Localization;
@@ -28,15 +30,19 @@ import com.willwinder.universalgcodesender.model.Axis;
 import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.ControllerUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 
+import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -70,6 +76,11 @@ public class GrblFirmwareSettings implements IFirmwareSettings {
     private static final String KEY_MAXIMUM_RATE_Y = "$111";
     private static final String KEY_MAXIMUM_RATE_Z = "$112";
 
+    /**
+     * The maximum time to wait for each setting to be stored when applying multiple settings
+     */
+    private static final long MAX_EXECUTION_TIME_PER_SETTING = 2000;
+
     /**
      * A GRBL settings description lookups
      */
@@ -105,7 +116,7 @@ public class GrblFirmwareSettings implements IFirmwareSettings {
                 .orElseThrow(() -> new FirmwareSettingsException("Couldn't find setting with key " + key + " to update."));
 
         // The setting already contains the value so we do not update
-        if (oldSetting.getValue().equals(value)) {
+        if (isSameValue(oldSetting.getValue(), value)) {
             return oldSetting;
         }
 
@@ -359,13 +370,75 @@ public class GrblFirmwareSettings implements IFirmwareSettings {
 
     @Override
     public void setSettings(List<FirmwareSetting> settings) throws FirmwareSettingsException {
-        settings.forEach(setting -> {
+        FirmwareSettingsUpdateResult result = applySettings(settings);
+        result.getFailed().forEach((setting, reason) ->
+                LOGGER.warning("Couldn't set the firmware setting " + setting.getKey() + " to value " + setting.getValue() + ". Error message: " + reason));
+    }
+
+    /**
+     * Applies the given settings by comparing them with the cached settings and only sending the ones
+     * that have changed. All changed settings are queued at once and the {@link com.willwinder.universalgcodesender.communicator.GrblCommunicator}
+     * will make sure that each EEPROM write is completed before the next one is sent.
+     *
+     * @param settings the desired settings
+     * @return the aggregated result of all updates
+     */
+    @Override
+    synchronized public FirmwareSettingsUpdateResult applySettings(List<FirmwareSetting> settings) {
+        FirmwareSettingsUpdateResult result = new FirmwareSettingsUpdateResult();
+
+        // Only keep the last value if a setting is given multiple times
+        Map<String, FirmwareSetting> desiredSettings = new LinkedHashMap<>();
+        settings.forEach(setting -> desiredSettings.put(setting.getKey(), setting));
+
+        List<FirmwareSetting> changedSettings = new ArrayList<>();
+        List<GcodeCommand> commands = new ArrayList<>();
+        for (FirmwareSetting setting : desiredSettings.values()) {
+            Optional<FirmwareSetting> oldSetting = getSetting(setting.getKey());
+            if (oldSetting.isEmpty()) {
+                result.addFailed(setting, "Couldn't find setting with key " + setting.getKey() + " to update.");
+                continue;
+            } else if (isSameValue(oldSetting.get().getValue(), setting.getValue())) {
+                result.addUnchanged(oldSetting.get());
+                continue;
+            }
+
+            FirmwareSetting newSetting = new FirmwareSetting(oldSetting.get().getKey(), setting.getValue(), oldSetting.get().getUnits(), oldSetting.get().getDescription(), oldSetting.get().getShortDescription());
             try {
-                setValue(setting.getKey(), setting.getValue());
-            } catch (FirmwareSettingsException e) {
-                LOGGER.warning("Couldn't set the firmware setting " + setting.getKey() + " to value " + setting.getValue() + ". Error message: " + e.getMessage());
+                commands.add(controller.createCommand(newSetting.getKey() + "=" + newSetting.getValue()));
+                changedSettings.add(newSetting);
+            } catch (Exception e) {
+                result.addFailed(setting, "Couldn't create update setting command: " + e.getMessage());
+            }
+        }
+
+        if (commands.isEmpty()) {
+            return result;
+        }
+
+        try {
+            ControllerUtils.sendAllAndWaitForCompletion(controller, commands, MAX_EXECUTION_TIME_PER_SETTING);
+        } catch (TimeoutException | ControllerException e) {
+            LOGGER.log(Level.WARNING, "Couldn't apply all firmware settings", e);
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.WARNING, "Interrupted while applying the firmware settings", e);
+            Thread.currentThread().interrupt();
+        }
+
+        for (int i = 0; i < commands.size(); i++) {
+            GcodeCommand command = commands.get(i);
+            FirmwareSetting newSetting = changedSettings.get(i);
+            if (command.isOk()) {
+                updateFirmwareSetting(newSetting);
+                result.addUpdated(newSetting);
+            } else if (command.isError()) {
+                result.addFailed(newSetting, command.getResponse());
+            } else {
+                result.addFailed(newSetting, "The setting command timed out");
             }
-        });
+        }
+
+        return result;
     }
 
     @Override
@@ -469,6 +542,24 @@ public class GrblFirmwareSettings implements IFirmwareSettings {
         return "1".equalsIgnoreCase(firmwareSetting.getValue());
     }
 
+    /**
+     * Compares two setting values, numeric values are compared by their number so that
+     * "10" and "10.0" are considered to be the same value.
+     *
+     * @param currentValue the current value of the setting
+     * @param value        the value to compare with
+     * @return true if the values are the same
+     */
+    private static boolean isSameValue(String currentValue, String value) {
+        if (StringUtils.equals(currentValue, value)) {
+            return true;
+        } else if (!NumberUtils.isParsable(currentValue) || !NumberUtils.isParsable(value)) {
+            return false;
+        }
+
+        return new BigDecimal(currentValue).compareTo(new BigDecimal(value)) == 0;
+    }
+
     private boolean getValueAsBoolean(String key, boolean defaultValue) {
         return getSetting(key).map(FirmwareSetting::getValue).map("1"::equalsIgnoreCase).orElse(defaultValue);
     }
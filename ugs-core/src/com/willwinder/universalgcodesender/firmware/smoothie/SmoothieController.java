@@ -33,6 +33,7 @@ import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
 import com.willwinder.universalgcodesender.listeners.MessageType;
+import com.willwinder.universalgcodesender.metrics.RoundTripTime;
 import com.willwinder.universalgcodesender.model.CommunicatorState;
 import static com.willwinder.universalgcodesender.model.CommunicatorState.COMM_CHECK;
 import static com.willwinder.universalgcodesender.model.CommunicatorState.COMM_DISCONNECTED;
@@ -237,6 +238,11 @@ public class SmoothieController extends AbstractController {
         return statusPollTimer.getUpdateInterval();
     }
 
+    @Override
+    public RoundTripTime getStatusPollRoundTripTime() {
+        return statusPollTimer.getRoundTripTime();
+    }
+
     @Override
     public void setStatusUpdateRate(int rate) {
         statusPollTimer.setUpdateInterval(rate);
@@ -21,19 +21,30 @@ package com.willwinder.universalgcodesender.gcode.processors;
 import com.google.common.collect.ImmutableList;
 import com.willwinder.universalgcodesender.gcode.GcodeParser.GcodeMeta;
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
+import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils.SplitCommand;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.util.Code;
 import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
 import com.willwinder.universalgcodesender.gcode.util.GcodeParserUtils;
+import com.willwinder.universalgcodesender.gcode.util.Plane;
+import com.willwinder.universalgcodesender.gcode.util.PlaneFormatter;
 import com.willwinder.universalgcodesender.model.PartialPosition;
 import com.willwinder.universalgcodesender.model.Position;
 import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.model.UnitUtils.Units;
+import com.willwinder.universalgcodesender.types.PointSegment;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * Adjust Z heights based on a provided surface mesh.
+ * <p>
+ * If a tolerance is given the leveler will also subdivide moves so that they follow the surface.
+ * Lines are split where they cross the mesh cell boundaries and within a cell only as often
+ * as needed for the interpolated surface to stay within the tolerance. Arcs are kept if the
+ * surface height changes linearly along them, otherwise they are converted to leveled lines.
  *
  * @author wwinder
  */
@@ -46,6 +57,14 @@ public class MeshLeveler implements CommandProcessor {
     public final static String ERROR_X_ASCENTION = "Found a x coordinate that isn't ascending.";
     public final static String ERROR_UNEXPECTED_ARC = "The mesh leveler cannot process arcs. Enable the arc expander.";
     public final static String ERROR_MISSING_POINT_DATA = "Internal parser error: missing data. ";
+
+    /**
+     * The default tolerance in millimeters used when subdividing moves to follow the surface
+     */
+    public final static double DEFAULT_TOLERANCE_MM = 0.01;
+
+    private static final int CELL_COEFFICIENTS = 8;
+
     private final double materialSurfaceHeightMM;
     private final Position[][] surfaceMesh;
     private Position lowerLeft;
@@ -53,17 +72,33 @@ public class MeshLeveler implements CommandProcessor {
     private final int xLen, yLen;
     private final double resolution;
     private final Units surfaceMeshUnits;
+    private final double toleranceMM;
+    /**
+     * The corner coordinates and heights of each mesh cell, see {@link #createCellCoefficients()}
+     */
+    private final double[] cellCoefficients;
 
     /**
      * @param materialSurfaceHeightMM Z height used in offset.
      * @param surfaceMesh             2D array in the format Position[x][y]
      */
     public MeshLeveler(double materialSurfaceHeightMM, Position[][] surfaceMesh) {
+        this(materialSurfaceHeightMM, surfaceMesh, 0);
+    }
+
+    /**
+     * @param materialSurfaceHeightMM Z height used in offset.
+     * @param surfaceMesh             2D array in the format Position[x][y]
+     * @param toleranceMM             the maximum deviation from the surface in millimeters when subdividing
+     *                                moves, if zero the moves will not be subdivided and arcs are not allowed.
+     */
+    public MeshLeveler(double materialSurfaceHeightMM, Position[][] surfaceMesh, double toleranceMM) {
         if (surfaceMesh == null) {
             throw new IllegalArgumentException("Surface mesh is required.");
         }
 
         this.materialSurfaceHeightMM = materialSurfaceHeightMM;
+        this.toleranceMM = toleranceMM;
         this.yLen = surfaceMesh[0].length;
         this.xLen = surfaceMesh.length;
 
@@ -75,6 +110,7 @@ public class MeshLeveler implements CommandProcessor {
                 surfaceMesh[0][1].y - surfaceMesh[0][0].y);
 
         recalculateBounds();
+        this.cellCoefficients = createCellCoefficients();
     }
 
     private void recalculateBounds() {
@@ -158,6 +194,13 @@ public class MeshLeveler implements CommandProcessor {
     public List<String> processCommand(final String commandString, GcodeState state) throws GcodeParserException {
         List<GcodeMeta> commands = GcodeParserUtils.processCommand(commandString, 0, state);
 
+        if (toleranceMM > 0 && commands != null && commands.size() == 1 && commands.get(0) != null && commands.get(0).point != null) {
+            List<String> subdividedCommands = subdivide(commandString, commands.get(0), state);
+            if (subdividedCommands != null) {
+                return subdividedCommands;
+            }
+        }
+
         // If there are no lines, return unmodified input.
         if (!ensureJustLines(commands)) {
             return Collections.singletonList(commandString);
@@ -173,64 +216,275 @@ public class MeshLeveler implements CommandProcessor {
                 continue;
             }
 
-            Position start = state.currentPoint;
-            Position end = command.point.point();
-
-            // Get offset relative to the expected surface height.
-            // Visualizer normalizes everything to MM but probe mesh might be INCH
-            double zPointOffset;
-            if (state.inAbsoluteMode) {
-                Position position = end.getPositionIn(surfaceMeshUnits);
-                double materialSurfaceHeight = this.materialSurfaceHeightMM * UnitUtils.scaleUnits(Units.MM, surfaceMeshUnits);
-                zPointOffset = (surfaceHeightAt(position.x, position.y) - materialSurfaceHeight) * UnitUtils.scaleUnits(surfaceMeshUnits, end.getUnits());
-            } else {
-                // TODO: If the first move in the gcode file is relative it won't properly take the materialSurfaceHeight
-                // into account. To fix the CommandProcessor needs to inject an adjustment before that first relative move
-                // happens. Until that happens the user must make sure the materialSurfaceHeight is zero.
-
-                // In relative mode we only need to adjust by the z delta between the starting and ending point
-                Position startPositionInMeshUnits = start.getPositionIn(surfaceMeshUnits);
-                double startHeight = surfaceHeightAt(startPositionInMeshUnits.x, startPositionInMeshUnits.y);
-                Position endPositionInMeshUnits = end.getPositionIn(surfaceMeshUnits);
-                double endHeight = surfaceHeightAt(endPositionInMeshUnits.x, endPositionInMeshUnits.y);
-                zPointOffset = (endHeight - startHeight) * UnitUtils.scaleUnits(surfaceMeshUnits, end.getUnits());
+            adjustedCommands.add(overrideZ(commandString, state.currentPoint, command.point.point(), state.inAbsoluteMode, command.state.inAbsoluteMode));
+        }
+
+        return adjustedCommands.build();
+    }
+
+    private String overrideZ(String commandString, Position start, Position end, boolean isAbsoluteOffset, boolean isAbsoluteMode) {
+        double newZ = end.getZ() + getZOffset(start, end, isAbsoluteOffset);
+
+        PartialPosition.Builder overrideZ = PartialPosition.builder(end.getUnits());
+        if (isAbsoluteMode) {
+            overrideZ.setZ(newZ);
+        } else {
+            overrideZ.setZ(newZ - start.getZ());
+        }
+        return GcodePreprocessorUtils.overridePosition(commandString, overrideZ.build());
+    }
+
+    /**
+     * Get offset relative to the expected surface height in the units of the given point.
+     */
+    private double getZOffset(Position start, Position point, boolean isAbsoluteMode) {
+        // Visualizer normalizes everything to MM but probe mesh might be INCH
+        if (isAbsoluteMode) {
+            Position position = point.getPositionIn(surfaceMeshUnits);
+            double materialSurfaceHeight = this.materialSurfaceHeightMM * UnitUtils.scaleUnits(Units.MM, surfaceMeshUnits);
+            return (surfaceHeightAt(position.x, position.y) - materialSurfaceHeight) * UnitUtils.scaleUnits(surfaceMeshUnits, point.getUnits());
+        }
+
+        // TODO: If the first move in the gcode file is relative it won't properly take the materialSurfaceHeight
+        // into account. To fix the CommandProcessor needs to inject an adjustment before that first relative move
+        // happens. Until that happens the user must make sure the materialSurfaceHeight is zero.
+
+        // In relative mode we only need to adjust by the z delta between the starting and ending point
+        Position startPositionInMeshUnits = start.getPositionIn(surfaceMeshUnits);
+        double startHeight = surfaceHeightAt(startPositionInMeshUnits.x, startPositionInMeshUnits.y);
+        Position endPositionInMeshUnits = point.getPositionIn(surfaceMeshUnits);
+        double endHeight = surfaceHeightAt(endPositionInMeshUnits.x, endPositionInMeshUnits.y);
+        return (endHeight - startHeight) * UnitUtils.scaleUnits(surfaceMeshUnits, point.getUnits());
+    }
+
+    /**
+     * Subdivides a single motion command to follow the surface.
+     *
+     * @return the leveled commands or null if the command couldn't be subdivided
+     */
+    private List<String> subdivide(String commandString, GcodeMeta command, GcodeState state) throws GcodeParserException {
+        if (command.code != Code.G0 && command.code != Code.G1 && command.code != Code.G2 && command.code != Code.G3) {
+            return null;
+        }
+
+        if (state.currentPoint == null) {
+            return null;
+        }
+
+        Position end = command.point.point();
+        Position start = state.currentPoint.getPositionIn(end.getUnits());
+        boolean isAbsoluteMode = command.state.inAbsoluteMode;
+
+        List<Position> path = Collections.singletonList(end);
+        if (command.point.isArc()) {
+            path = expandArc(start, end, command.point);
+
+            // Keep the arc if the surface height changes linearly along it, it will then be a helix
+            if (command.point.getPlaneState() == Plane.XY && isSurfaceLinear(start, path)) {
+                return Collections.singletonList(overrideZ(commandString, start, end, isAbsoluteMode, isAbsoluteMode));
+            }
+        }
+
+        List<Position> points = new ArrayList<>();
+        Position previous = start;
+        for (Position point : path) {
+            addSubdividedLine(previous, point, points);
+            previous = point;
+        }
+
+        if (points.size() == 1 && !command.point.isArc()) {
+            return Collections.singletonList(overrideZ(commandString, start, end, isAbsoluteMode, isAbsoluteMode));
+        }
+
+        SplitCommand splitCommand = GcodePreprocessorUtils.extractMotion(command.code, commandString);
+        if (splitCommand == null) {
+            return null;
+        }
+
+        ImmutableList.Builder<String> results = ImmutableList.builder();
+        if (!splitCommand.remainder.isEmpty()) {
+            results.add(splitCommand.remainder);
+        }
+
+        Code lineCode = command.point.isArc() ? Code.G1 : command.code;
+        Position current = getLeveledPoint(start, start, isAbsoluteMode);
+        for (Position point : points) {
+            Position next = getLeveledPoint(start, point, isAbsoluteMode);
+            results.add(GcodePreprocessorUtils.generateLineFromPoints(lineCode, current, next, isAbsoluteMode, GcodePreprocessorUtils.getDecimalFormatter()));
+            current = next;
+        }
+        return results.build();
+    }
+
+    private Position getLeveledPoint(Position start, Position point, boolean isAbsoluteMode) {
+        return new Position(point.x, point.y, point.z + getZOffset(start, point, isAbsoluteMode), point.getUnits());
+    }
+
+    /**
+     * Expands the arc into points with a chord deviation within the tolerance, the start point is excluded.
+     */
+    private List<Position> expandArc(Position start, Position end, PointSegment arc) {
+        PlaneFormatter plane = new PlaneFormatter(arc.getPlaneState());
+        double radiusMM = Math.hypot(plane.axis0(start) - plane.axis0(arc.center()), plane.axis1(start) - plane.axis1(arc.center())) *
+                UnitUtils.scaleUnits(start.getUnits(), Units.MM);
+
+        // The chord length where the distance to the arc is the tolerance
+        double segmentLengthMM = toleranceMM < radiusMM ?
+                2 * Math.sqrt(2 * radiusMM * toleranceMM - toleranceMM * toleranceMM) :
+                radiusMM;
+
+        List<Position> points = new ArrayList<>(GcodePreprocessorUtils.generatePointsAlongArcBDring(
+                start, end, arc.center(), arc.isClockwise(), arc.getRadius(), 0, Math.max(segmentLengthMM, toleranceMM), plane));
+        if (points.isEmpty()) {
+            return Collections.singletonList(end);
+        }
+
+        points.remove(0);
+        return points;
+    }
+
+    /**
+     * Returns true if the surface height along the points of an arc changes linearly within the tolerance
+     */
+    private boolean isSurfaceLinear(Position start, List<Position> points) {
+        double tolerance = toleranceMM * UnitUtils.scaleUnits(Units.MM, surfaceMeshUnits);
+        double startHeight = surfaceHeightAt(start.getPositionIn(surfaceMeshUnits));
+        double endHeight = surfaceHeightAt(points.get(points.size() - 1).getPositionIn(surfaceMeshUnits));
+        for (int i = 0; i < points.size(); i++) {
+            double expectedHeight = startHeight + (endHeight - startHeight) * (i + 1) / points.size();
+            if (Math.abs(surfaceHeightAt(points.get(i).getPositionIn(surfaceMeshUnits)) - expectedHeight) > tolerance) {
+                return false;
             }
+        }
+        return true;
+    }
 
-            // Update z coordinate.
-            double newZ = end.getZ() + zPointOffset;
+    /**
+     * Adds the points of a subdivided line, excluding the start point. The line is split where it crosses
+     * a mesh cell boundary. Within a cell the bilinear surface height along the line is a quadratic
+     * function, the line is split into as many segments as needed to keep it within the tolerance.
+     */
+    private void addSubdividedLine(Position start, Position end, List<Position> result) {
+        Position startInMeshUnits = start.getPositionIn(surfaceMeshUnits);
+        Position endInMeshUnits = end.getPositionIn(surfaceMeshUnits);
+        double dx = endInMeshUnits.x - startInMeshUnits.x;
+        double dy = endInMeshUnits.y - startInMeshUnits.y;
+
+        // Find where the line crosses the cell boundaries
+        List<Double> crossings = new ArrayList<>();
+        for (int xIdx = 0; xIdx < xLen && dx != 0; xIdx++) {
+            addCrossing((surfaceMesh[xIdx][0].x - startInMeshUnits.x) / dx, crossings);
+        }
+        for (int yIdx = 0; yIdx < yLen && dy != 0; yIdx++) {
+            addCrossing((surfaceMesh[0][yIdx].y - startInMeshUnits.y) / dy, crossings);
+        }
+        Collections.sort(crossings);
+        crossings.add(1d);
 
-            PartialPosition.Builder overrideZ = PartialPosition.builder(end.getUnits());
-            if (command.state.inAbsoluteMode) {
-                overrideZ.setZ(newZ);
-            } else {
-                overrideZ.setZ(newZ - start.getZ());
+        double tolerance = toleranceMM * UnitUtils.scaleUnits(Units.MM, surfaceMeshUnits);
+        double previous = 0;
+        for (double crossing : crossings) {
+            if (crossing - previous <= 0) {
+                continue;
             }
-            String adjustedCommand = GcodePreprocessorUtils.overridePosition(commandString, overrideZ.build());
-            adjustedCommands.add(adjustedCommand);
+
+            double middle = previous + (crossing - previous) / 2;
+            double curvature = getSurfaceCurvature(startInMeshUnits.x + dx * middle, startInMeshUnits.y + dy * middle);
+            double deviation = Math.abs(curvature * dx * dy) * Math.pow(crossing - previous, 2) / 4;
+            int segments = Math.max(1, (int) Math.ceil(Math.sqrt(deviation / tolerance)));
+            for (int i = 1; i <= segments; i++) {
+                double t = previous + (crossing - previous) * i / segments;
+                result.add(t >= 1 ? end : interpolate(start, end, t));
+            }
+            previous = crossing;
         }
+    }
 
-        return adjustedCommands.build();
+    private static void addCrossing(double t, List<Double> crossings) {
+        if (t > 0 && t < 1 && !crossings.contains(t)) {
+            crossings.add(t);
+        }
     }
 
-    protected Position[][] findBoundingArea(double x, double y) {
-        double xOffset = x - this.lowerLeft.x;
-        double yOffset = y - this.lowerLeft.y;
+    private static Position interpolate(Position start, Position end, double t) {
+        return new Position(
+                start.x + (end.x - start.x) * t,
+                start.y + (end.y - start.y) * t,
+                start.z + (end.z - start.z) * t,
+                start.getUnits());
+    }
 
-        int xIdx = (int) ((xOffset == 0) ? 0 : (xOffset / this.resolution));
-        int yIdx = (int) ((yOffset == 0) ? 0 : (yOffset / this.resolution));
+    /**
+     * Returns the coefficient of the xy term of the bilinear surface at the given position,
+     * which is the only term that makes the surface height along a line non-linear.
+     */
+    private double getSurfaceCurvature(double x, double y) {
+        if (x < lowerLeft.getX() || x > topRight.getX() || y < lowerLeft.getY() || y > topRight.getY()) {
+            return 0;
+        }
 
-        // Clamp bounds
-        xIdx = Math.min(xIdx, this.xLen - 2);
-        yIdx = Math.min(yIdx, this.yLen - 2);
-        xIdx = Math.max(xIdx, 0);
-        yIdx = Math.max(yIdx, 0);
+        Position[][] q = findBoundingArea(x, y);
+        double width = q[1][0].x - q[0][0].x;
+        double height = q[0][1].y - q[0][0].y;
+        return (q[0][0].z - q[1][0].z - q[0][1].z + q[1][1].z) / (width * height);
+    }
 
+    private double surfaceHeightAt(Position position) {
+        return surfaceHeightAt(position.x, position.y);
+    }
+
+    protected Position[][] findBoundingArea(double x, double y) {
+        int xIdx = findCellX(x);
+        int yIdx = findCellY(y);
         return new Position[][]{
                 {this.surfaceMesh[xIdx][yIdx], this.surfaceMesh[xIdx][yIdx + 1]},
                 {this.surfaceMesh[xIdx + 1][yIdx], this.surfaceMesh[xIdx + 1][yIdx + 1]}
         };
     }
 
+    private int findCellX(double x) {
+        double xOffset = x - this.lowerLeft.x;
+        int xIdx = (int) ((xOffset == 0) ? 0 : (xOffset / this.resolution));
+
+        // Clamp bounds
+        return Math.max(Math.min(xIdx, this.xLen - 2), 0);
+    }
+
+    private int findCellY(double y) {
+        double yOffset = y - this.lowerLeft.y;
+        int yIdx = (int) ((yOffset == 0) ? 0 : (yOffset / this.resolution));
+
+        // Clamp bounds
+        return Math.max(Math.min(yIdx, this.yLen - 2), 0);
+    }
+
+    /**
+     * Collects the corner coordinates and heights of each cell in the mesh into a flat array
+     * so that the height can be looked up without allocations when streaming.
+     */
+    private double[] createCellCoefficients() {
+        double[] coefficients = new double[(xLen - 1) * (yLen - 1) * CELL_COEFFICIENTS];
+        for (int xIdx = 0; xIdx < xLen - 1; xIdx++) {
+            for (int yIdx = 0; yIdx < yLen - 1; yIdx++) {
+                Position q11 = surfaceMesh[xIdx][yIdx];
+                Position q21 = surfaceMesh[xIdx + 1][yIdx];
+                Position q12 = surfaceMesh[xIdx][yIdx + 1];
+                Position q22 = surfaceMesh[xIdx + 1][yIdx + 1];
+
+                int offset = (xIdx * (yLen - 1) + yIdx) * CELL_COEFFICIENTS;
+                coefficients[offset] = q11.x;
+                coefficients[offset + 1] = q21.x;
+                coefficients[offset + 2] = q11.y;
+                coefficients[offset + 3] = q12.y;
+                coefficients[offset + 4] = q11.z;
+                coefficients[offset + 5] = q21.z;
+                coefficients[offset + 6] = q12.z;
+                coefficients[offset + 7] = q22.z;
+            }
+        }
+        return coefficients;
+    }
+
     /**
      * Get the surface height from the mesh and returns it in the surface mesh units.
      * <p>
@@ -243,20 +497,14 @@ public class MeshLeveler implements CommandProcessor {
             return 0;
         }
 
-        Position[][] q = findBoundingArea(x, y);
-
-        Position Q11 = q[0][0];
-        Position Q21 = q[1][0];
-        Position Q12 = q[0][1];
-        Position Q22 = q[1][1];
-
-        double x1 = Q11.x;
-        double x2 = Q21.x;
-        double y1 = Q11.y;
-        double y2 = Q12.y;
+        int offset = (findCellX(x) * (yLen - 1) + findCellY(y)) * CELL_COEFFICIENTS;
+        double x1 = cellCoefficients[offset];
+        double x2 = cellCoefficients[offset + 1];
+        double y1 = cellCoefficients[offset + 2];
+        double y2 = cellCoefficients[offset + 3];
 
-        double R1 = ((x2 - x) / (x2 - x1)) * Q11.z + ((x - x1) / (x2 - x1)) * Q21.z;
-        double R2 = ((x2 - x) / (x2 - x1)) * Q12.z + ((x - x1) / (x2 - x1)) * Q22.z;
+        double R1 = ((x2 - x) / (x2 - x1)) * cellCoefficients[offset + 4] + ((x - x1) / (x2 - x1)) * cellCoefficients[offset + 5];
+        double R2 = ((x2 - x) / (x2 - x1)) * cellCoefficients[offset + 6] + ((x - x1) / (x2 - x1)) * cellCoefficients[offset + 7];
 
         return ((y2 - y) / (y2 - y1)) * R1 + ((y - y1) / (y2 - y1)) * R2;
     }
@@ -0,0 +1,39 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.listeners;
+
+/**
+ * The buffer state reported by the controller, for GRBL this is given in the status
+ * report as {@code Bf:15,128}. A negative value means that the value is unknown.
+ *
+ * @param plannerBlocksAvailable the number of free blocks in the planner buffer
+ * @param rxBytesAvailable       the number of free bytes in the serial RX buffer
+ */
+public record BufferState(int plannerBlocksAvailable, int rxBytesAvailable) {
+    public static final BufferState EMPTY_BUFFER_STATE = new BufferState(-1, -1);
+
+    /**
+     * Returns if the controller has reported its buffer state
+     *
+     * @return true if the buffer state is known
+     */
+    public boolean isKnown() {
+        return plannerBlocksAvailable >= 0 && rxBytesAvailable >= 0;
+    }
+}
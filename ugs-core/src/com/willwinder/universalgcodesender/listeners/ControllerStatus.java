@@ -39,6 +39,7 @@ public class ControllerStatus {
     private final ControllerState state;
     private final UnitUtils.Units feedSpeedUnits;
     private final String subState;
+    private final BufferState bufferState;
 
     /**
      * Baseline constructor. This data should always be present. Represents the
@@ -59,6 +60,16 @@ public class ControllerStatus {
                             Position workCoord, Double feedSpeed, UnitUtils.Units feedSpeedUnits, Double spindleSpeed,
                             OverridePercents overrides, Position workCoordinateOffset,
                             EnabledPins pins, AccessoryStates states) {
+        this(state, subState, machineCoord, workCoord, feedSpeed, feedSpeedUnits, spindleSpeed, overrides, workCoordinateOffset, pins, states, BufferState.EMPTY_BUFFER_STATE);
+    }
+
+    /**
+     * Additional parameters including the controller buffer state
+     */
+    public ControllerStatus(ControllerState state, String subState, Position machineCoord,
+                            Position workCoord, Double feedSpeed, UnitUtils.Units feedSpeedUnits, Double spindleSpeed,
+                            OverridePercents overrides, Position workCoordinateOffset,
+                            EnabledPins pins, AccessoryStates states, BufferState bufferState) {
         this.state = state;
         this.subState = subState;
         this.machineCoord = machineCoord;
@@ -70,6 +81,7 @@ public class ControllerStatus {
         this.overrides = overrides;
         this.pins = pins;
         this.accessoryStates = states;
+        this.bufferState = bufferState;
     }
 
     public ControllerState getState() {
@@ -108,6 +120,10 @@ public class ControllerStatus {
         return accessoryStates;
     }
 
+    public BufferState getBufferState() {
+        return bufferState;
+    }
+
     public UnitUtils.Units getFeedSpeedUnits() {
         return feedSpeedUnits;
     }
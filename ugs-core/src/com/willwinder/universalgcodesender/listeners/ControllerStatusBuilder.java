@@ -38,6 +38,7 @@ public class ControllerStatusBuilder {
     private EnabledPins pins = EnabledPins.EMPTY_PINS;
     private AccessoryStates states = AccessoryStates.EMPTY_ACCESSORY_STATE;
     private String subState = "";
+    private BufferState bufferState = BufferState.EMPTY_BUFFER_STATE;
 
     public static ControllerStatusBuilder newInstance() {
         return new ControllerStatusBuilder();
@@ -57,7 +58,8 @@ public class ControllerStatusBuilder {
                 .setOverrides(controllerStatus.getOverrides())
                 .setWorkCoordinateOffset(controllerStatus.getWorkCoordinateOffset())
                 .setPins(controllerStatus.getEnabledPins())
-                .setStates(controllerStatus.getAccessoryStates());
+                .setStates(controllerStatus.getAccessoryStates())
+                .setBufferState(controllerStatus.getBufferState());
         }
         return controllerStatusBuilder;
     }
@@ -117,7 +119,12 @@ public class ControllerStatusBuilder {
         return this;
     }
 
+    public ControllerStatusBuilder setBufferState(BufferState bufferState) {
+        this.bufferState = bufferState;
+        return this;
+    }
+
     public ControllerStatus build() {
-        return new ControllerStatus(state, subState, machineCoord, workCoord, feedSpeed, feedSpeedUnits, spindleSpeed, overrides, workCoordinateOffset, pins, states);
+        return new ControllerStatus(state, subState, machineCoord, workCoord, feedSpeed, feedSpeedUnits, spindleSpeed, overrides, workCoordinateOffset, pins, states, bufferState);
     }
 }
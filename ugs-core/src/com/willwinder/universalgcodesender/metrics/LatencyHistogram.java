@@ -0,0 +1,89 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the latest measured latencies and calculates percentiles for them.
+ * Only a fixed number of samples are kept so that the percentiles reflect the current
+ * behavior and not the entire session.
+ *
+ * @author agent
+ */
+public class LatencyHistogram {
+    public static final int DEFAULT_MAX_SAMPLES = 1000;
+
+    private final double[] samples;
+    private int nextIndex;
+    private int sampleCount;
+    private long totalCount;
+
+    public LatencyHistogram() {
+        this(DEFAULT_MAX_SAMPLES);
+    }
+
+    public LatencyHistogram(int maxSamples) {
+        samples = new double[maxSamples];
+    }
+
+    /**
+     * Records a latency
+     *
+     * @param latency the latency in milliseconds
+     */
+    public synchronized void record(double latency) {
+        samples[nextIndex] = latency;
+        nextIndex = (nextIndex + 1) % samples.length;
+        sampleCount = Math.min(sampleCount + 1, samples.length);
+        totalCount++;
+    }
+
+    /**
+     * Returns the latency for the given percentile among the kept samples
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the latency in milliseconds or zero if there are no samples
+     */
+    public synchronized double getPercentile(double percentile) {
+        if (sampleCount == 0) {
+            return 0;
+        }
+
+        double[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100d * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Returns the total number of recorded latencies
+     *
+     * @return the number of recorded latencies
+     */
+    public synchronized long getCount() {
+        return totalCount;
+    }
+
+    public synchronized void reset() {
+        nextIndex = 0;
+        sampleCount = 0;
+        totalCount = 0;
+    }
+}
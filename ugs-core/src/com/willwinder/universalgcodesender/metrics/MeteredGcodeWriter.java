@@ -0,0 +1,62 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+
+import java.io.IOException;
+
+/**
+ * A gcode writer that marks every written line on a {@link RateMeter} before delegating
+ * it to another writer, used for measuring the preprocessing throughput.
+ *
+ * @author agent
+ */
+public class MeteredGcodeWriter implements IGcodeWriter {
+    private final IGcodeWriter writer;
+    private final RateMeter rateMeter;
+
+    public MeteredGcodeWriter(IGcodeWriter writer, RateMeter rateMeter) {
+        this.writer = writer;
+        this.rateMeter = rateMeter;
+    }
+
+    @Override
+    public String getCanonicalPath() throws IOException {
+        return writer.getCanonicalPath();
+    }
+
+    @Override
+    public void addLine(GcodeCommand command) {
+        writer.addLine(command);
+        rateMeter.mark(1);
+    }
+
+    @Override
+    public void addLine(String original, String processed, String comment, int commandNumber) {
+        writer.addLine(original, processed, comment, commandNumber);
+        rateMeter.mark(1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
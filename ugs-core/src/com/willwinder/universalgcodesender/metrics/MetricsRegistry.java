@@ -0,0 +1,92 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * A registry of named metrics that can be read as a snapshot. Histograms are reported
+ * with their percentiles using the suffixes ".p50", ".p95", ".p99" and ".count".
+ *
+ * @author agent
+ */
+public class MetricsRegistry {
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, RateMeter> rateMeters = new ConcurrentHashMap<>();
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the histogram with the given name, it will be created if it doesn't exist.
+     *
+     * @param name the name of the metric
+     * @return a histogram
+     */
+    public LatencyHistogram getHistogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    /**
+     * Returns the rate meter with the given name, it will be created if it doesn't exist.
+     *
+     * @param name the name of the metric
+     * @return a rate meter
+     */
+    public RateMeter getRateMeter(String name) {
+        return rateMeters.computeIfAbsent(name, n -> new RateMeter());
+    }
+
+    /**
+     * Registers a gauge which value will be fetched when a snapshot is created
+     *
+     * @param name  the name of the metric
+     * @param gauge a supplier for the current value
+     */
+    public void registerGauge(String name, DoubleSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * Creates a snapshot of all metrics sorted by their name
+     *
+     * @return a map with the metric name and its current value
+     */
+    public Map<String, Double> getSnapshot() {
+        Map<String, Double> snapshot = new TreeMap<>();
+        histograms.forEach((name, histogram) -> {
+            snapshot.put(name + ".p50", histogram.getPercentile(50));
+            snapshot.put(name + ".p95", histogram.getPercentile(95));
+            snapshot.put(name + ".p99", histogram.getPercentile(99));
+            snapshot.put(name + ".count", (double) histogram.getCount());
+        });
+        rateMeters.forEach((name, rateMeter) -> snapshot.put(name, rateMeter.getRate()));
+        gauges.forEach((name, gauge) -> snapshot.put(name, gauge.getAsDouble()));
+        return snapshot;
+    }
+
+    /**
+     * Resets all histograms and rate meters
+     */
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+        rateMeters.values().forEach(RateMeter::reset);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Measures the rate of events per second over a sliding time window. The window is divided
+ * into buckets so that marking an event is constant in time and memory regardless of the rate.
+ *
+ * @author agent
+ */
+public class RateMeter {
+    private static final int BUCKET_COUNT = 10;
+    private static final long DEFAULT_WINDOW = TimeUnit.SECONDS.toNanos(5);
+
+    private final LongSupplier clock;
+    private final long bucketDuration;
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private final long[] bucketStartTimes = new long[BUCKET_COUNT];
+
+    public RateMeter() {
+        this(DEFAULT_WINDOW, System::nanoTime);
+    }
+
+    /**
+     * Creates a rate meter
+     *
+     * @param window the time window in nanoseconds to calculate the rate over
+     * @param clock  a clock returning the current time in nanoseconds
+     */
+    public RateMeter(long window, LongSupplier clock) {
+        this.clock = clock;
+        this.bucketDuration = Math.max(1, window / BUCKET_COUNT);
+    }
+
+    /**
+     * Marks that a number of events has occurred
+     *
+     * @param count the number of events
+     */
+    public synchronized void mark(long count) {
+        long now = clock.getAsLong();
+        long bucketStartTime = now - Math.floorMod(now, bucketDuration);
+        int index = (int) Math.floorMod(bucketStartTime / bucketDuration, (long) BUCKET_COUNT);
+        if (bucketStartTimes[index] != bucketStartTime) {
+            bucketStartTimes[index] = bucketStartTime;
+            buckets[index] = 0;
+        }
+        buckets[index] += count;
+    }
+
+    /**
+     * Returns the rate of events per second within the time window. The current bucket is
+     * only partially filled so the rate is calculated over the elapsed time of the window.
+     *
+     * @return the number of events per second
+     */
+    public synchronized double getRate() {
+        long now = clock.getAsLong();
+        long currentBucketStartTime = now - Math.floorMod(now, bucketDuration);
+        long windowStart = currentBucketStartTime - bucketDuration * (BUCKET_COUNT - 1);
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (bucketStartTimes[i] >= windowStart) {
+                total += buckets[i];
+            }
+        }
+
+        long elapsedTime = now - windowStart;
+        return total / (elapsedTime / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public synchronized void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = 0;
+            bucketStartTimes[i] = 0;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.listeners.BufferState;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.UGSEvent;
+import com.willwinder.universalgcodesender.model.events.CommandEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEventType;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects metrics about the controller communication and streaming from the backend events
+ * into a {@link MetricsRegistry}. The metrics makes it possible to tell if a slow job is caused
+ * by the machine (ex. a full planner buffer) or by the host (ex. a starved planner buffer).
+ * <p>
+ * The collector needs to be added as a listener to the backend to receive the events.
+ *
+ * @author agent
+ */
+public class StreamMetricsCollector implements UGSEventListener {
+    public static final String COMMAND_LATENCY = "command.latency";
+    public static final String LINES_SENT_PER_SECOND = "stream.linesPerSecond";
+    public static final String BYTES_SENT_PER_SECOND = "stream.bytesPerSecond";
+    public static final String RX_BUFFER_FILL = "controller.rxBufferFill";
+    public static final String PLANNER_BUFFER_FILL = "controller.plannerBufferFill";
+    public static final String PLANNER_STARVATION_TIME = "controller.plannerStarvationTime";
+    public static final String STATUS_POLL_ROUND_TRIP = "controller.statusPollRoundTrip";
+    public static final String EVENT_QUEUE_SIZE = "communicator.eventQueueSize";
+    public static final String PREPROCESSOR_LINES_PER_SECOND = "preprocessor.linesPerSecond";
+
+    /**
+     * The maximum number of commands to keep track of for measuring the latency, if
+     * commands are lost without being completed this will prevent us from leaking memory.
+     */
+    private static final int MAX_COMMANDS_IN_FLIGHT = 1000;
+
+    private final BackendAPI backend;
+    private final MetricsRegistry registry;
+    private final Map<GcodeCommand, Long> commandSentTimes = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private BufferState bufferState = BufferState.EMPTY_BUFFER_STATE;
+    private int maxRxBytesAvailable;
+    private int maxPlannerBlocksAvailable;
+    private long lastStatusTime;
+    private long plannerStarvationTime;
+    private long lastRoundTripSequence;
+
+    public StreamMetricsCollector(BackendAPI backend, MetricsRegistry registry) {
+        this.backend = backend;
+        this.registry = registry;
+
+        registry.registerGauge(RX_BUFFER_FILL, this::getRxBufferFill);
+        registry.registerGauge(PLANNER_BUFFER_FILL, this::getPlannerBufferFill);
+        registry.registerGauge(PLANNER_STARVATION_TIME, this::getPlannerStarvationTime);
+        registry.registerGauge(EVENT_QUEUE_SIZE, this::getEventQueueSize);
+    }
+
+    @Override
+    public void UGSEvent(UGSEvent event) {
+        if (event instanceof CommandEvent commandEvent) {
+            onCommandEvent(commandEvent);
+        } else if (event instanceof ControllerStatusEvent controllerStatusEvent) {
+            onControllerStatus(controllerStatusEvent.getStatus());
+        } else if (event instanceof StreamEvent streamEvent && streamEvent.getType() == StreamEventType.STREAM_STARTED) {
+            onStreamStarted();
+        }
+    }
+
+    private void onCommandEvent(CommandEvent commandEvent) {
+        GcodeCommand command = commandEvent.getCommand();
+        switch (commandEvent.getCommandEventType()) {
+            case COMMAND_SENT -> {
+                if (commandSentTimes.size() >= MAX_COMMANDS_IN_FLIGHT) {
+                    commandSentTimes.clear();
+                }
+                commandSentTimes.put(command, System.nanoTime());
+                registry.getRateMeter(LINES_SENT_PER_SECOND).mark(1);
+                registry.getRateMeter(BYTES_SENT_PER_SECOND).mark(command.getCommandString().length() + 1L);
+            }
+            case COMMAND_COMPLETE -> {
+                Long sentTime = commandSentTimes.remove(command);
+                if (sentTime != null) {
+                    registry.getHistogram(COMMAND_LATENCY).record(toMillis(System.nanoTime() - sentTime));
+                }
+            }
+            default -> commandSentTimes.remove(command);
+        }
+    }
+
+    private synchronized void onControllerStatus(ControllerStatus status) {
+        long now = System.nanoTime();
+        bufferState = status.getBufferState();
+        if (bufferState.isKnown()) {
+            maxRxBytesAvailable = Math.max(maxRxBytesAvailable, bufferState.rxBytesAvailable());
+            maxPlannerBlocksAvailable = Math.max(maxPlannerBlocksAvailable, bufferState.plannerBlocksAvailable());
+        }
+
+        if (lastStatusTime > 0 && backend.isSendingFile() && !backend.isPaused() && isPlannerStarved(status)) {
+            plannerStarvationTime += now - lastStatusTime;
+        }
+        lastStatusTime = now;
+
+        // Only record new measurements as there may be status events without a new poll
+        IController controller = backend.getController();
+        RoundTripTime roundTripTime = controller != null ? controller.getStatusPollRoundTripTime() : null;
+        if (roundTripTime != null && roundTripTime.sequence() != lastRoundTripSequence) {
+            lastRoundTripSequence = roundTripTime.sequence();
+            registry.getHistogram(STATUS_POLL_ROUND_TRIP).record(roundTripTime.milliseconds());
+        }
+    }
+
+    /**
+     * The planner is considered starved if the controller is idle while we are streaming or
+     * if the controller reports that all planner blocks are available.
+     */
+    private boolean isPlannerStarved(ControllerStatus status) {
+        if (status.getState() == ControllerState.IDLE) {
+            return true;
+        }
+
+        return bufferState.isKnown() && bufferState.plannerBlocksAvailable() >= maxPlannerBlocksAvailable;
+    }
+
+    private synchronized void onStreamStarted() {
+        plannerStarvationTime = 0;
+        lastStatusTime = 0;
+        commandSentTimes.clear();
+    }
+
+    private synchronized double getRxBufferFill() {
+        if (!bufferState.isKnown() || maxRxBytesAvailable == 0) {
+            return 0;
+        }
+        return 100d * (maxRxBytesAvailable - bufferState.rxBytesAvailable()) / maxRxBytesAvailable;
+    }
+
+    private synchronized double getPlannerBufferFill() {
+        if (!bufferState.isKnown() || maxPlannerBlocksAvailable == 0) {
+            return 0;
+        }
+        return 100d * (maxPlannerBlocksAvailable - bufferState.plannerBlocksAvailable()) / maxPlannerBlocksAvailable;
+    }
+
+    private synchronized double getPlannerStarvationTime() {
+        return toMillis(plannerStarvationTime);
+    }
+
+    private double getEventQueueSize() {
+        IController controller = backend.getController();
+        if (controller == null || controller.getCommunicator() == null) {
+            return 0;
+        }
+        return controller.getCommunicator().getPendingEventCount();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -27,6 +27,7 @@ import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
 import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.MessageListener;
 import com.willwinder.universalgcodesender.listeners.MessageType;
+import com.willwinder.universalgcodesender.metrics.MetricsRegistry;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.Settings;
 
@@ -102,6 +103,17 @@ public interface BackendAPI extends BackendAPIReadOnly {
      */
     void removeCommandProcessor(CommandProcessor commandProcessor) throws Exception;
 
+    /**
+     * Sets a command processor that will be applied to each command when it is streamed
+     * instead of when the program is loaded. The processor must be set before the stream is
+     * started, it can then be replaced while streaming and will be used for the remaining
+     * commands. It must return exactly one command for each processed command, otherwise
+     * the stream will be paused on that command.
+     *
+     * @param commandProcessor a command processor or null to stream the commands unmodified
+     */
+    void setStreamCommandProcessor(CommandProcessor commandProcessor);
+
     /**
      * Process the currently loaded gcode file and export it to a file.
      * Intended primarily as "save and export" style preprocessor option.
@@ -200,4 +212,11 @@ public interface BackendAPI extends BackendAPIReadOnly {
      * @return a command creator
      */
     ICommandCreator getCommandCreator();
+
+    /**
+     * Returns the metrics registry with telemetry about the controller communication and streaming.
+     *
+     * @return the metrics registry
+     */
+    MetricsRegistry getMetrics();
 }
@@ -36,6 +36,9 @@ import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.MessageListener;
 import com.willwinder.universalgcodesender.listeners.MessageType;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.metrics.MeteredGcodeWriter;
+import com.willwinder.universalgcodesender.metrics.MetricsRegistry;
+import com.willwinder.universalgcodesender.metrics.StreamMetricsCollector;
 import com.willwinder.universalgcodesender.model.UnitUtils.Units;
 import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
 import com.willwinder.universalgcodesender.model.events.FileState;
@@ -46,7 +49,9 @@ import com.willwinder.universalgcodesender.utils.FirmwareUtils;
 import com.willwinder.universalgcodesender.utils.GcodeFileWriter;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.GcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import com.willwinder.universalgcodesender.utils.ProcessingGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.Settings;
 import com.willwinder.universalgcodesender.utils.Settings.FileStats;
 import com.willwinder.universalgcodesender.utils.SettingsFactory;
@@ -61,6 +66,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -77,6 +83,9 @@ public class GUIBackend implements BackendAPI {
     private final MessageService messageService = new MessageService();
     private final GcodeParser gcp = new GcodeParser();
     private final UGSEventDispatcher eventDispatcher;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private StreamMetricsCollector metricsCollector;
+    private final AtomicReference<CommandProcessor> streamCommandProcessor = new AtomicReference<>();
     private IController controller = null;
     private Settings settings = null;
     // GUI State
@@ -88,7 +97,7 @@ public class GUIBackend implements BackendAPI {
     /**
      * A temporary pointer to the active gcode stream. This is needed to make sure it is closed
      */
-    private GcodeStreamReader gcodeStream;
+    private IGcodeStreamReader gcodeStream;
 
     public GUIBackend() {
         this(new UGSEventDispatcher());
@@ -149,7 +158,7 @@ public class GUIBackend implements BackendAPI {
      */
     protected void preprocessAndExportToFile(GcodeParser gcp, File input, IGcodeWriter gcw) throws Exception {
         logger.log(Level.INFO, "Preprocessing {0} to {1}", new Object[]{input.getCanonicalPath(), gcw.getCanonicalPath()});
-        GcodeParserUtils.processAndExport(gcp, input, gcw);
+        GcodeParserUtils.processAndExport(gcp, input, new MeteredGcodeWriter(gcw, metrics.getRateMeter(StreamMetricsCollector.PREPROCESSOR_LINES_PER_SECOND)));
     }
 
     private void initGcodeParser() {
@@ -188,6 +197,11 @@ public class GUIBackend implements BackendAPI {
         logger.log(Level.INFO, "Connecting to {0} on port {1}", new Object[]{firmware, port});
         updateWithFirmware(firmware);
 
+        if (metricsCollector == null) {
+            metricsCollector = new StreamMetricsCollector(this, metrics);
+            addUGSEventListener(metricsCollector);
+        }
+
         controller = fetchControllerFromFirmware(firmware);
         controller.setMessageService(messageService);
         applySettings(settings);
@@ -362,6 +376,7 @@ public class GUIBackend implements BackendAPI {
         }
 
         initGcodeParser();
+        streamCommandProcessor.set(null);
         this.gcodeFile = null;
         this.gcodeStream = null;
         this.processedGcodeFile = null;
@@ -458,6 +473,12 @@ public class GUIBackend implements BackendAPI {
         }
     }
 
+    @Override
+    public void setStreamCommandProcessor(CommandProcessor commandProcessor) {
+        logger.log(Level.INFO, String.format("Setting stream command processor %s", commandProcessor == null ? null : commandProcessor.getClass().getSimpleName()));
+        streamCommandProcessor.set(commandProcessor);
+    }
+
     @Override
     public File getGcodeFile() {
         logger.log(Level.FINEST, "Getting gcode file.");
@@ -489,7 +510,13 @@ public class GUIBackend implements BackendAPI {
             if (gcodeStream != null) {
                 gcodeStream.close();
             }
-            gcodeStream = new GcodeStreamReader(this.processedGcodeFile, getCommandCreator());
+            ICommandCreator commandCreator = getCommandCreator();
+            gcodeStream = new GcodeStreamReader(this.processedGcodeFile, commandCreator);
+
+            // Only process the commands while streaming if there is a processor as it requires the parser state for each command
+            if (streamCommandProcessor.get() != null) {
+                gcodeStream = new ProcessingGcodeStreamReader(gcodeStream, commandCreator, streamCommandProcessor::get);
+            }
 
             // This will throw an exception and prevent that other stuff from
             // happening (clearing the table before it is ready for clearing.
@@ -803,4 +830,9 @@ public class GUIBackend implements BackendAPI {
     public GcodeStats getGcodeStats() {
         return gcp.getCurrentStats();
     }
+
+    @Override
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
 }
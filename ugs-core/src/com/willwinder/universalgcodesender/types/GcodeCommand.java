@@ -164,6 +164,12 @@ public class GcodeCommand {
         listeners.add(commandListener);
     }
 
+    public void removeListener(CommandListener commandListener) {
+        if (listeners != null) {
+            listeners.remove(commandListener);
+        }
+    }
+
     /**
      * Releases any resources allocated for this, making it eligible for garbage collection
      */
@@ -19,6 +19,7 @@
 package com.willwinder.universalgcodesender.uielements.components;
 
 import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.MessageType;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.UGSEvent;
@@ -40,6 +41,11 @@ import static com.willwinder.universalgcodesender.utils.GUIHelpers.displayErrorD
  */
 public class CommandTextArea extends JTextField implements KeyEventDispatcher, UGSEventListener {
     public static final String PLACEHOLDER_TEXT = " >\t";
+
+    /**
+     * A console command that will print the metrics instead of sending it to the controller
+     */
+    public static final String METRICS_COMMAND = "/metrics";
     private final transient CommandHistory commandHistory = new CommandHistory();
     // This is needed for unit testing.
     protected boolean focusNotNeeded = false;
@@ -114,11 +120,25 @@ public class CommandTextArea extends JTextField implements KeyEventDispatcher, U
             backend.sendGcodeCommand("");
         } else {
             for (String command : commands) {
-                backend.sendGcodeCommand(command);
+                if (METRICS_COMMAND.equalsIgnoreCase(command.trim())) {
+                    printMetrics();
+                } else {
+                    backend.sendGcodeCommand(command);
+                }
             }
         }
     }
 
+    /**
+     * Prints the current communication and streaming metrics to the console
+     */
+    private void printMetrics() {
+        StringBuilder message = new StringBuilder();
+        backend.getMetrics().getSnapshot().forEach((name, value) ->
+                message.append(String.format("%s: %.2f%n", name, value)));
+        backend.dispatchMessage(MessageType.INFO, message.toString());
+    }
+
     private boolean isArrowKey(KeyEvent e) {
         return switch (e.getKeyCode()) {
             case KeyEvent.VK_UP, KeyEvent.VK_DOWN -> true;
@@ -43,7 +43,18 @@ public class AutoLevelSettings implements Serializable {
     private double zRetract = 1.0;
     private double zSurface = 0;
 
+    /**
+     * If larger than zero, only every other point will be probed initially and the points in between
+     * will only be probed where the surrounding heights differs more than this threshold
+     */
+    private double adaptiveProbeThreshold = 0;
+
     private boolean applyToGcode = true;
+
+    /**
+     * If the height should be compensated for each command when streaming instead of when loading the program
+     */
+    private boolean compensateWhileStreaming = false;
     private transient final Set<SettingChangeListener> settingChangeListeners = ConcurrentHashMap.newKeySet();
 
     public AutoLevelSettings() {
@@ -54,7 +65,7 @@ public class AutoLevelSettings implements Serializable {
     }
 
     public boolean equals(AutoLevelSettings obj) {
-        return this.minX == obj.minX && this.minY == obj.minY && this.minZ == obj.minZ && this.maxX == obj.maxX && this.maxY == obj.maxY && this.maxZ == obj.maxZ && this.autoLevelProbeZeroHeight == obj.autoLevelProbeZeroHeight && Objects.equals(this.autoLevelProbeOffset, obj.autoLevelProbeOffset) && this.autoLevelArcSliceLength == obj.autoLevelArcSliceLength && this.stepResolution == obj.stepResolution && this.probeSpeed == obj.probeSpeed && this.probeScanFeedRate == obj.probeScanFeedRate && this.zRetract == obj.zRetract && this.zSurface == obj.zSurface;
+        return this.minX == obj.minX && this.minY == obj.minY && this.minZ == obj.minZ && this.maxX == obj.maxX && this.maxY == obj.maxY && this.maxZ == obj.maxZ && this.autoLevelProbeZeroHeight == obj.autoLevelProbeZeroHeight && Objects.equals(this.autoLevelProbeOffset, obj.autoLevelProbeOffset) && this.autoLevelArcSliceLength == obj.autoLevelArcSliceLength && this.stepResolution == obj.stepResolution && this.probeSpeed == obj.probeSpeed && this.probeScanFeedRate == obj.probeScanFeedRate && this.zRetract == obj.zRetract && this.zSurface == obj.zSurface && this.adaptiveProbeThreshold == obj.adaptiveProbeThreshold;
     }
 
     public void setSettingChangeListener(SettingChangeListener settingChangeListener) {
@@ -220,6 +231,17 @@ public class AutoLevelSettings implements Serializable {
         }
     }
 
+    public double getAdaptiveProbeThreshold() {
+        return adaptiveProbeThreshold;
+    }
+
+    public void setAdaptiveProbeThreshold(double adaptiveProbeThreshold) {
+        if (this.adaptiveProbeThreshold != adaptiveProbeThreshold) {
+            this.adaptiveProbeThreshold = adaptiveProbeThreshold;
+            changed();
+        }
+    }
+
     public boolean getApplyToGcode() {
         return applyToGcode;
     }
@@ -231,6 +253,17 @@ public class AutoLevelSettings implements Serializable {
         }
     }
 
+    public boolean getCompensateWhileStreaming() {
+        return compensateWhileStreaming;
+    }
+
+    public void setCompensateWhileStreaming(boolean compensateWhileStreaming) {
+        if (this.compensateWhileStreaming != compensateWhileStreaming) {
+            this.compensateWhileStreaming = compensateWhileStreaming;
+            changed();
+        }
+    }
+
     public void apply(AutoLevelSettings settings) {
         if (!this.equals(settings)) {
             autoLevelProbeZeroHeight = settings.getAutoLevelProbeZeroHeight();
@@ -247,7 +280,9 @@ public class AutoLevelSettings implements Serializable {
             maxZ = settings.getMaxZ();
             zSurface = settings.getZSurface();
             zRetract = settings.getZRetract();
+            adaptiveProbeThreshold = settings.getAdaptiveProbeThreshold();
             applyToGcode = settings.getApplyToGcode();
+            compensateWhileStreaming = settings.getCompensateWhileStreaming();
             changed();
         }
     }
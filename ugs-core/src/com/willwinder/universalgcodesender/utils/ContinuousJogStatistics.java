@@ -0,0 +1,32 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+/**
+ * A snapshot of the measurements used by the {@link ContinuousJogWorker} to size its jog commands.
+ *
+ * @param latency                the smoothed round trip time in milliseconds from sending a jog command until the "ok" was received
+ * @param commandsInFlight       the number of jog commands that are currently sent but not completed
+ * @param targetCommandsInFlight the number of jog commands the worker tries to keep in flight
+ * @param stepInterval           the time in milliseconds each jog command should take to execute
+ * @param plannerBlocksAvailable the last known number of free planner blocks in the controller, negative if unknown
+ */
+public record ContinuousJogStatistics(double latency, int commandsInFlight, int targetCommandsInFlight,
+                                      double stepInterval, int plannerBlocksAvailable) {
+}
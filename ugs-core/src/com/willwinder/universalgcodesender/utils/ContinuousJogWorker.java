@@ -18,6 +18,9 @@
  */
 package com.willwinder.universalgcodesender.utils;
 
+import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.listeners.BufferState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 import com.willwinder.universalgcodesender.model.Axis;
 import com.willwinder.universalgcodesender.model.BackendAPI;
@@ -27,13 +30,24 @@ import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.model.events.CommandEvent;
 import com.willwinder.universalgcodesender.model.events.CommandEventType;
 import com.willwinder.universalgcodesender.services.JogService;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * A continuous jog worker that will send small jog commands at a fixed interval so that
  * it will achieve the jog feed rate set in the {@link JogService#getFeedRate()}.
  * <p>
  * It will attempt to listen to completed commands to determine if a new jog command
- * can be sent.
+ * can be sent. The round trip time for each jog command is measured and used for
+ * deciding how long each jog command should be and how many that should be kept in
+ * flight, so that the controller planner is kept fed on high latency connections
+ * without building up a deep queue of moves.
  * <p>
  * Example usage:
  * ContinuousJogWorker worker = new ContinuousJogWorker(backendAPI, jogService);
@@ -44,6 +58,33 @@ import com.willwinder.universalgcodesender.services.JogService;
  * @author Joacim Breiler
  */
 public class ContinuousJogWorker implements UGSEventListener {
+    private static final Logger LOGGER = Logger.getLogger(ContinuousJogWorker.class.getName());
+
+    /**
+     * The minimum time in seconds each jog command should take to execute
+     */
+    private static final double MIN_STEP_INTERVAL = 0.010;
+
+    /**
+     * The maximum time in seconds each jog command should take to execute
+     */
+    private static final double MAX_STEP_INTERVAL = 0.100;
+
+    /**
+     * The maximum number of jog commands to keep in flight
+     */
+    private static final int MAX_COMMANDS_IN_FLIGHT = 4;
+
+    /**
+     * The number of planner blocks that should be kept free before sending more jog commands
+     */
+    private static final int MIN_PLANNER_BLOCKS_AVAILABLE = 2;
+
+    /**
+     * The weight of a new latency measurement in the smoothed latency
+     */
+    private static final double LATENCY_SMOOTHING_FACTOR = 0.2;
+
     private final JogService jogService;
     private final BackendAPI backendAPI;
     private float x;
@@ -52,8 +93,28 @@ public class ContinuousJogWorker implements UGSEventListener {
     private float a;
     private float b;
     private float c;
-    private boolean isRunning = false;
-    private boolean jogCanceled = true;
+    private volatile boolean isRunning = false;
+    private volatile boolean jogCanceled = true;
+
+    /**
+     * The number of jog commands that has been issued but not yet completed
+     */
+    private final AtomicInteger commandsInFlight = new AtomicInteger();
+
+    /**
+     * The number of jog commands that has been issued but not yet sent to the controller
+     */
+    private final AtomicInteger commandsPendingSend = new AtomicInteger();
+
+    /**
+     * The time in nanoseconds when each jog command in flight was sent to the controller
+     */
+    private final Map<GcodeCommand, Long> sentTimes = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * The smoothed round trip time in seconds
+     */
+    private volatile double latency = 0;
 
     public ContinuousJogWorker(BackendAPI backendAPI, JogService jogService) {
         this.jogService = jogService;
@@ -84,9 +145,10 @@ public class ContinuousJogWorker implements UGSEventListener {
      */
     public void start() {
         if (!isRunning) {
+            resetCommandsInFlight();
             isRunning = true;
             jogCanceled = false;
-            sendJogCommand();
+            sendJogCommands();
         }
     }
 
@@ -98,30 +160,95 @@ public class ContinuousJogWorker implements UGSEventListener {
     }
 
     /**
-     * puts one jog command in the buffer that will take JOG_COMMAND_INTERVAL ms to execute (excluding accelleration)
+     * Returns the measurements used for sizing the jog commands.
+     *
+     * @return a snapshot of the jog statistics
+     */
+    public ContinuousJogStatistics getStatistics() {
+        return new ContinuousJogStatistics(latency * 1000, commandsInFlight.get(), getTargetCommandsInFlight(),
+                getStepInterval() * 1000, getBufferState().plannerBlocksAvailable());
+    }
+
+    /**
+     * Fills up the controller with jog commands until the target number of commands in flight is reached
+     * or if the controller reports that its planner buffer is getting full.
+     */
+    private synchronized void sendJogCommands() {
+        while (isRunning && commandsInFlight.get() < getTargetCommandsInFlight() && hasPlannerBlocksAvailable()) {
+            commandsInFlight.incrementAndGet();
+            commandsPendingSend.incrementAndGet();
+            sendJogCommand(getStepInterval());
+        }
+    }
+
+    /**
+     * Returns the number of jog commands that needs to be in flight to cover the measured latency without
+     * making each jog command shorter than {@link #MIN_STEP_INTERVAL}.
+     *
+     * @return the number of commands to keep in flight
+     */
+    private int getTargetCommandsInFlight() {
+        int target = (int) Math.ceil(latency / MIN_STEP_INTERVAL);
+        return Math.max(1, Math.min(MAX_COMMANDS_IN_FLIGHT, target));
+    }
+
+    /**
+     * Returns the time each jog command should take to execute so that the commands in flight will cover
+     * the measured latency.
+     *
+     * @return the interval in seconds
+     */
+    private double getStepInterval() {
+        double stepInterval = latency / getTargetCommandsInFlight();
+        return Math.max(MIN_STEP_INTERVAL, Math.min(MAX_STEP_INTERVAL, stepInterval));
+    }
+
+    private boolean hasPlannerBlocksAvailable() {
+        BufferState bufferState = getBufferState();
+        return commandsInFlight.get() == 0 || !bufferState.isKnown() || bufferState.plannerBlocksAvailable() > MIN_PLANNER_BLOCKS_AVAILABLE;
+    }
+
+    private BufferState getBufferState() {
+        IController controller = backendAPI.getController();
+        if (controller == null || controller.getControllerStatus() == null) {
+            return BufferState.EMPTY_BUFFER_STATE;
+        }
+
+        ControllerStatus controllerStatus = controller.getControllerStatus();
+        return controllerStatus.getBufferState() == null ? BufferState.EMPTY_BUFFER_STATE : controllerStatus.getBufferState();
+    }
+
+    private void resetCommandsInFlight() {
+        commandsInFlight.set(0);
+        commandsPendingSend.set(0);
+        sentTimes.clear();
+    }
+
+    /**
+     * puts one jog command in the buffer that will take stepInterval seconds to execute (excluding accelleration)
      * 
      * This function calculates the feedrate and magnitude of an individual jog command based
      * on the algorithm described here: https://github.com/gnea/grbl/wiki/Grbl-v1.1-Jogging
      * The algorithm has been simplified by reducing consideration for:
      *    dt > v^2 / (2 * a * (N-1))
      * Instead, we make some assumptions that are expected for good jog performance:
-     *  1) The latency from when we send a jog command to GRBL and receive the "ok" back is less than 10ms (typically 1-7ms).
+     *  1) The step interval together with the number of commands in flight covers the measured latency from when
+     *     we send a jog command to GRBL and receive the "ok" back (typically 1-7ms on USB, but much more on WiFi).
      *  2) The Jog feedrate and machine acceleration are such that the machine can accelerate to it's full jog rate within
      *     the length of the command buffer (N=15 for regular GRBL).
-     *  3) The command buffer isn't larger than N=15 (if it is, we'll get increasing lag in response to direction/rate changes on the joystick)
-     * command to take 10ms to execute excluding acceleration time.
+     *  3) We never fill the planner buffer (if we do, we'll get increasing lag in response to direction/rate changes on the joystick)
      *
      * Note: the jog command total feedrate may exceed the set feedrate if moving in more than one axis at the same time. The max rate
      * in any 1 axis will never exceed the jog feedrate.
      *
+     * @param dt the time in seconds the jog command should take to execute
      */
-    private void sendJogCommand() {
+    private void sendJogCommand(double dt) {
         final UnitUtils.Units units = jogService.getUnits();
         final double jogVectorLength = Math.sqrt((x * x) + (y * y) + (z * z) + (a * a) + (b * b) + (c * c));
         final double speedFactor = jogVectorLength; //FIXME? Double.min(jogVectorLength, 1.0); // caps jog speed at 100% (1.0) of maxFeedRate
         final double maxFeedRate = jogService.getFeedRate() / 60.0; // maximum jog feed rate in units per second
         final double v = maxFeedRate * speedFactor; // scaled jog feed rate in units per second
-        final double dt = 0.010; // minimum dt in ms for grbl command latency
         final double s = v * dt; // s = distance in units that this jog command should travel
         final double scaleFactor = s / jogVectorLength; // determine scaleFactor required to scale jogVectorLength to s
 
@@ -177,19 +304,64 @@ public class ContinuousJogWorker implements UGSEventListener {
 
     @Override
     public void UGSEvent(UGSEvent event) {
-        if (event instanceof CommandEvent && ((CommandEvent) event).getCommandEventType() == CommandEventType.COMMAND_COMPLETE) {
+        if (!(event instanceof CommandEvent commandEvent)) {
+            return;
+        }
+
+        GcodeCommand command = commandEvent.getCommand();
+        if (commandEvent.getCommandEventType() == CommandEventType.COMMAND_SENT && commandsPendingSend.get() > 0 && isJogCommand(command)) {
+            commandsPendingSend.decrementAndGet();
+            sentTimes.put(command, System.nanoTime());
+        } else if (commandEvent.getCommandEventType() == CommandEventType.COMMAND_COMPLETE) {
+            // Only measure the jog commands that was issued by this worker
+            Long sentTime = sentTimes.remove(command);
+            if (sentTime == null) {
+                return;
+            }
+            updateLatency((System.nanoTime() - sentTime) / 1_000_000_000d);
+
+            if (commandsInFlight.get() > 0) {
+                commandsInFlight.decrementAndGet();
+            }
+
             if (isRunning) {
-                // still running, send the next jog command
-                sendJogCommand();
+                // still running, send the next jog commands
+                sendJogCommands();
             } else if (!jogCanceled) {
                 // a command has completed
                 // we've been stopped, so cancel jog commands in the buffer
+                LOGGER.log(Level.FINE, "Stopped continuous jogging: {0}", getStatistics());
                 jogService.cancelJog();
                 jogCanceled = true;
+                resetCommandsInFlight();
             }
         }
     }
 
+    /**
+     * Returns if the command is a relative jog command, such as the ones created by
+     * {@link IController#jogMachine} for the jog commands of this worker.
+     *
+     * @param command the command to check
+     * @return true if it is a relative jog command
+     */
+    private static boolean isJogCommand(GcodeCommand command) {
+        if (command == null || command.getCommandString() == null) {
+            return false;
+        }
+
+        String commandString = command.getCommandString();
+        return (commandString.startsWith("$J=") && commandString.contains("G91")) || commandString.contains("G91G1");
+    }
+
+    private void updateLatency(double measuredLatency) {
+        if (latency == 0) {
+            latency = measuredLatency;
+        } else {
+            latency = (LATENCY_SMOOTHING_FACTOR * measuredLatency) + ((1 - LATENCY_SMOOTHING_FACTOR) * latency);
+        }
+    }
+
     public void setDirection(Axis axis, float value) {
         switch (axis) {
             case X:
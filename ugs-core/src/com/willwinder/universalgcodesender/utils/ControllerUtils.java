@@ -28,7 +28,10 @@ import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.types.CommandListener;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 
+import java.util.List;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.logging.Level;
@@ -85,6 +88,48 @@ public class ControllerUtils {
         return sendAndWaitForCompletion(controller, command, MAX_EXECUTION_TIME);
     }
 
+    /**
+     * Queues all commands at once and blocks the thread until every command is done - either with an ok or error.
+     * The commands will be streamed by the communicator without waiting for a round trip from this thread between
+     * each command, any restrictions on how they may be buffered on the controller is handled by the communicator.
+     *
+     * @param controller       the controller to send the commands through
+     * @param commands         the commands to send in order
+     * @param maxExecutionTime the max number of milliseconds to wait for each command before throwing a timeout error
+     * @param <T>              a class extending from {@link GcodeCommand}
+     * @return the executed commands with their responses
+     * @throws InterruptedException if the thread was interrupted while waiting for the commands
+     * @throws TimeoutException     if all commands weren't finished within the max execution time
+     */
+    public static <T extends GcodeCommand> List<T> sendAllAndWaitForCompletion(IController controller, List<T> commands, long maxExecutionTime) throws InterruptedException, TimeoutException {
+        final AtomicInteger doneCount = new AtomicInteger(0);
+        CommandListener listener = c -> {
+            if (c.isDone()) {
+                doneCount.incrementAndGet();
+            }
+        };
+
+        try {
+            for (T command : commands) {
+                command.addListener(listener);
+                controller.sendCommandImmediately(command);
+            }
+
+            long startTime = System.currentTimeMillis();
+            long timeout = maxExecutionTime * Math.max(1, commands.size());
+            while (doneCount.get() < commands.size()) {
+                if (System.currentTimeMillis() > startTime + timeout) {
+                    throw new TimeoutException("The commands have timed out as only " + doneCount.get() + " of " + commands.size() + " were finished within " + timeout + "ms");
+                }
+                Thread.sleep(10);
+            }
+        } finally {
+            commands.forEach(command -> command.removeListener(listener));
+        }
+
+        return commands;
+    }
+
     /**
      * Waits for all commands to complete before continuing
      *
@@ -0,0 +1,38 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import java.io.IOException;
+
+/**
+ * An exception thrown by a gcode stream when a command could not be processed. The command
+ * is kept in the stream so that it will be retried when the next command is read, the stream
+ * should be paused instead of skipping it.
+ *
+ * @author agent
+ */
+public class GcodeStreamProcessingException extends IOException {
+    public GcodeStreamProcessingException(String message) {
+        super(message);
+    }
+
+    public GcodeStreamProcessingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
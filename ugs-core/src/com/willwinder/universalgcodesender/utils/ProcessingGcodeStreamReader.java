@@ -0,0 +1,136 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser.GcodeMeta;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.ICommandCreator;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserUtils;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A gcode stream that applies a command processor to each command when it is read from
+ * another stream. The processor is fetched for every command which makes it possible to
+ * replace it while streaming, the change will then take effect for the remaining commands.
+ * <p>
+ * The processor must return exactly one command for each command as the number of rows
+ * in the stream can not change while streaming. If the processor fails a
+ * {@link GcodeStreamProcessingException} is thrown and the command is kept in the stream,
+ * it will be processed again on the next read instead of being skipped.
+ * <p>
+ * The stream should only be used while a processor is set as it keeps track of the parser
+ * state for every command. The state is tracked even if the processor is temporarily
+ * removed, so that a replacing processor gets the correct positions.
+ *
+ * @author agent
+ */
+public class ProcessingGcodeStreamReader implements IGcodeStreamReader {
+    private final IGcodeStreamReader reader;
+    private final ICommandCreator commandCreator;
+    private final Supplier<CommandProcessor> commandProcessorSupplier;
+    private GcodeState state = new GcodeState();
+    private GcodeCommand failedCommand;
+
+    /**
+     * @param reader                   the stream to read the commands from
+     * @param commandCreator           the creator for the processed commands
+     * @param commandProcessorSupplier returns the processor to apply or null to send the commands unmodified
+     */
+    public ProcessingGcodeStreamReader(IGcodeStreamReader reader, ICommandCreator commandCreator, Supplier<CommandProcessor> commandProcessorSupplier) {
+        this.reader = reader;
+        this.commandCreator = commandCreator;
+        this.commandProcessorSupplier = commandProcessorSupplier;
+    }
+
+    @Override
+    public boolean ready() {
+        return failedCommand != null || reader.ready();
+    }
+
+    @Override
+    public int getNumRows() {
+        return reader.getNumRows();
+    }
+
+    @Override
+    public int getNumRowsRemaining() {
+        return reader.getNumRowsRemaining() + (failedCommand != null ? 1 : 0);
+    }
+
+    @Override
+    public GcodeCommand getNextCommand() throws IOException {
+        GcodeCommand command = failedCommand != null ? failedCommand : reader.getNextCommand();
+        failedCommand = null;
+        if (command == null || StringUtils.isBlank(command.getCommandString())) {
+            return command;
+        }
+
+        try {
+            GcodeCommand result = processCommand(command);
+
+            // The state is updated using the original command as the processors expects the unprocessed positions
+            updateState(command.getCommandString());
+            return result;
+        } catch (GcodeParserException | RuntimeException e) {
+            failedCommand = command;
+            throw new GcodeStreamProcessingException("Could not process the command \"" + command.getCommandString() + "\": " + e.getMessage(), e);
+        } catch (GcodeStreamProcessingException e) {
+            failedCommand = command;
+            throw e;
+        }
+    }
+
+    private GcodeCommand processCommand(GcodeCommand command) throws GcodeParserException, GcodeStreamProcessingException {
+        CommandProcessor commandProcessor = commandProcessorSupplier.get();
+        if (commandProcessor == null) {
+            return command;
+        }
+
+        List<String> processedCommands = commandProcessor.processCommand(command.getCommandString(), state.copy());
+        if (processedCommands.size() != 1) {
+            throw new GcodeStreamProcessingException("The command \"" + command.getCommandString() + "\" was processed into " + processedCommands.size() + " commands, expected exactly one");
+        }
+        return commandCreator.createCommand(processedCommands.get(0), command.getOriginalCommandString(), command.getComment(), command.getCommandNumber());
+    }
+
+    private void updateState(String command) throws GcodeParserException {
+        List<GcodeMeta> metaObjects = GcodeParserUtils.processCommand(command, 0, state);
+        if (metaObjects == null) {
+            return;
+        }
+
+        for (GcodeMeta meta : metaObjects) {
+            if (meta.state != null) {
+                state = meta.state;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -363,6 +363,19 @@ public class GrblUtilsTest {
         assertFalse(controllerStatus.getEnabledPins().cycleStart());
     }
 
+    @Test
+    public void getStatusFromStatusStringV1ShouldReturnBufferState() {
+        String status = "<Jog|MPos:0.000,0.000,0.000|Bf:12,110|FS:0,0>";
+        ControllerStatus controllerStatus = GrblUtils.getStatusFromStatusStringV1(null, status, MM);
+        assertTrue(controllerStatus.getBufferState().isKnown());
+        assertEquals(12, controllerStatus.getBufferState().plannerBlocksAvailable());
+        assertEquals(110, controllerStatus.getBufferState().rxBytesAvailable());
+
+        status = "<Idle|MPos:0.000,0.000,0.000|FS:0,0>";
+        controllerStatus = GrblUtils.getStatusFromStatusStringV1(controllerStatus, status, MM);
+        assertFalse(controllerStatus.getBufferState().isKnown());
+    }
+
     @Test
     public void getStatusFromStatusStringV1ShouldReturnAccessoryStates() {
         Capabilities version = new Capabilities();
@@ -23,11 +23,15 @@ import com.willwinder.universalgcodesender.connection.Connection;
 import com.willwinder.universalgcodesender.connection.ConnectionDriver;
 import com.willwinder.universalgcodesender.firmware.grbl.GrblCommandCreator;
 import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.GcodeStreamTest;
 import com.willwinder.universalgcodesender.utils.GcodeStreamWriter;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.ProcessingGcodeStreamReader;
 import org.apache.commons.io.FileUtils;
 import org.easymock.EasyMock;
 import org.junit.AfterClass;
@@ -45,6 +49,7 @@ import static org.mockito.Mockito.verify;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -127,6 +132,27 @@ public class BufferedCommunicatorTest {
         EasyMock.verify(mockConnection, mockScl);
     }
 
+    @Test
+    public void streamCommandsShouldWaitWhileConnectionIsNotWritable() throws Exception {
+        String input = "input";
+        mockConnection.sendStringToComm(input + "\n");
+        EasyMock.expect(EasyMock.expectLastCall()).times(2);
+        mockScl.commandSent(EasyMock.anyObject(GcodeCommand.class));
+        EasyMock.expect(EasyMock.expectLastCall()).times(2);
+        EasyMock.replay(mockConnection, mockScl);
+
+        instance.queueCommand(new GcodeCommand(input));
+        instance.queueCommand(new GcodeCommand(input));
+        instance.onConnectionWritableChanged(false);
+        instance.streamCommands();
+        assertEquals("No commands should have been sent", 0, asl.size());
+
+        // Resuming should stream the queued commands
+        instance.onConnectionWritableChanged(true);
+
+        EasyMock.verify(mockConnection, mockScl);
+    }
+
     @Test
     public void testSimpleStreamStream() throws Exception {
         String[] inputs = {"input1", "input2"};
@@ -159,6 +185,65 @@ public class BufferedCommunicatorTest {
         EasyMock.verify(mockConnection, mockScl);
     }
 
+    @Test
+    public void streamCommandsShouldPauseIfTheStreamFailsToProcessACommand() throws Exception {
+        mockConnection.sendStringToComm("input1\n");
+        EasyMock.expect(EasyMock.expectLastCall());
+        mockScl.commandSent(EasyMock.<GcodeCommand>anyObject());
+        EasyMock.expect(EasyMock.expectLastCall());
+        mockScl.communicatorPausedOnError();
+        EasyMock.expect(EasyMock.expectLastCall());
+        EasyMock.replay(mockConnection, mockScl);
+
+        File f = new File(tempDir, "gcodeFileWithFailingCommand");
+        try (GcodeStreamWriter gsw = new GcodeStreamWriter(f)) {
+            gsw.addLine("input1", "input1", null, 0);
+            gsw.addLine("input2", "input2", null, 1);
+            gsw.addLine("input3", "input3", null, 2);
+        }
+
+        AtomicBoolean failing = new AtomicBoolean(true);
+        CommandProcessor processor = new CommandProcessor() {
+            @Override
+            public List<String> processCommand(String command, GcodeState state) throws GcodeParserException {
+                if (failing.get() && command.equals("input2")) {
+                    throw new GcodeParserException("Out of bounds");
+                }
+                return List.of(command);
+            }
+
+            @Override
+            public String getHelp() {
+                return "";
+            }
+        };
+
+        DefaultCommandCreator commandCreator = new DefaultCommandCreator();
+        instance.queueStreamForComm(new ProcessingGcodeStreamReader(new GcodeStreamReader(f, commandCreator), commandCreator, () -> processor));
+        instance.streamCommands();
+
+        // The stream should stop at the failing command
+        assertTrue(instance.isPaused());
+        assertEquals("input1, 2 streaming commands.", instance.activeCommandSummary());
+        EasyMock.verify(mockConnection, mockScl);
+
+        // Resuming should retry the failing command instead of skipping it
+        EasyMock.reset(mockConnection, mockScl);
+        mockConnection.sendStringToComm("input2\n");
+        EasyMock.expect(EasyMock.expectLastCall());
+        mockConnection.sendStringToComm("input3\n");
+        EasyMock.expect(EasyMock.expectLastCall());
+        mockScl.commandSent(EasyMock.<GcodeCommand>anyObject());
+        EasyMock.expect(EasyMock.expectLastCall()).times(2);
+        EasyMock.replay(mockConnection, mockScl);
+
+        failing.set(false);
+        instance.resumeSend();
+
+        assertEquals("input1, input2, input3, 0 streaming commands.", instance.activeCommandSummary());
+        EasyMock.verify(mockConnection, mockScl);
+    }
+
     /**
      * Test of areActiveCommands method, of class BufferedCommunicator.
      */
@@ -321,6 +406,8 @@ public class BufferedCommunicatorTest {
         mockConnection.addListener(EasyMock.<AbstractCommunicator>anyObject());
         EasyMock.expect(EasyMock.expectLastCall()).once();
         EasyMock.expect(mockConnection.openPort()).andReturn(true).once();
+        mockConnection.setWriteBufferSize(101);
+        EasyMock.expect(EasyMock.expectLastCall()).once();
         EasyMock.replay(mockConnection);
 
         instance.connect(ConnectionDriver.JSERIALCOMM, name, baud);
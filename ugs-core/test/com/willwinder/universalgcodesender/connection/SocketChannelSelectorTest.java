@@ -0,0 +1,68 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class SocketChannelSelectorTest {
+    private ServerSocket serverSocket;
+    private SocketChannel channel;
+
+    @Before
+    public void setUp() throws Exception {
+        serverSocket = new ServerSocket(0);
+        channel = SocketChannel.open(new InetSocketAddress("localhost", serverSocket.getLocalPort()));
+        channel.configureBlocking(false);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        channel.close();
+        serverSocket.close();
+    }
+
+    @Test
+    public void registerFromSelectorThreadShouldNotBlock() throws Exception {
+        SocketChannelSelector selector = SocketChannelSelector.getInstance();
+        SocketChannelSelector.Handler handler = mock(SocketChannelSelector.Handler.class);
+        CompletableFuture<SelectionKey> result = new CompletableFuture<>();
+        selector.execute(() -> {
+            try {
+                result.complete(selector.register(channel, handler));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        SelectionKey selectionKey = result.get(1, TimeUnit.SECONDS);
+        assertTrue(selectionKey.isValid());
+    }
+}
@@ -0,0 +1,250 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import com.willwinder.universalgcodesender.communicator.BufferedCommunicator;
+import com.willwinder.universalgcodesender.communicator.event.CommunicatorEventDispatcher;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class TCPConnectionTest {
+
+    private ServerSocket serverSocket;
+    private TCPConnection connection;
+    private IConnectionListener listener;
+
+    @Before
+    public void setUp() throws Exception {
+        serverSocket = new ServerSocket(0);
+        connection = new TCPConnection();
+        connection.setUri("tcp://localhost:" + serverSocket.getLocalPort());
+        listener = mock(IConnectionListener.class);
+        connection.addListener(listener);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.closePort();
+        serverSocket.close();
+    }
+
+    @Test
+    public void sendStringToCommShouldWriteToSocket() throws Exception {
+        assertTrue(connection.openPort());
+        try (Socket client = serverSocket.accept()) {
+            connection.sendStringToComm("G0 X10\n");
+            connection.sendStringToComm("G0 Y10\n");
+
+            assertEquals("G0 X10\nG0 Y10\n", read(client.getInputStream(), 14));
+            waitUntil(() -> connection.getStatistics().bytesSent() == 14);
+            assertEquals(0, connection.getStatistics().pendingWriteBytes());
+            assertTrue(connection.isWritable());
+        }
+    }
+
+    @Test
+    public void responsesShouldBeDispatchedToListeners() throws Exception {
+        connection.openPort();
+        try (Socket client = serverSocket.accept()) {
+            OutputStream outputStream = client.getOutputStream();
+            outputStream.write("ok\nerror:1\n".getBytes(StandardCharsets.UTF_8));
+            outputStream.flush();
+
+            verify(listener, timeout(1000)).handleResponseMessage("ok");
+            verify(listener, timeout(1000)).handleResponseMessage("error:1");
+            assertEquals(11, connection.getStatistics().bytesReceived());
+        }
+    }
+
+    @Test
+    public void responsesShouldNotBeHandledInTheSelectorThread() throws Exception {
+        AtomicReference<Boolean> handledInSelectorThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            handledInSelectorThread.set(SocketChannelSelector.getInstance().isSelectorThread());
+            return null;
+        }).when(listener).handleResponseMessage("ok");
+
+        connection.openPort();
+        try (Socket client = serverSocket.accept()) {
+            OutputStream outputStream = client.getOutputStream();
+            outputStream.write("ok\n".getBytes(StandardCharsets.UTF_8));
+            outputStream.flush();
+
+            waitUntil(() -> handledInSelectorThread.get() != null);
+            assertFalse(handledInSelectorThread.get());
+        }
+    }
+
+    @Test
+    public void remoteDisconnectShouldNotifyListeners() throws Exception {
+        connection.openPort();
+        Socket client = serverSocket.accept();
+        client.close();
+
+        verify(listener, timeout(1000)).onConnectionClosed();
+        assertFalse(connection.isOpen());
+    }
+
+    @Test
+    public void sendByteImmediatelyShouldWriteToSocket() throws Exception {
+        connection.openPort();
+        try (Socket client = serverSocket.accept()) {
+            connection.sendByteImmediately((byte) '?');
+            assertEquals("?", read(client.getInputStream(), 1));
+        }
+    }
+
+    @Test
+    public void sendByteImmediatelyShouldBeSentBeforeCommandsWaitingInTheWriteBuffer() throws Exception {
+        connection.setWriteBufferSize(Integer.MAX_VALUE);
+        connection.openPort();
+        try (Socket client = serverSocket.accept()) {
+            // Queue data until the socket buffers are full without the remote end reading anything
+            String command = "G0 X1234567890 Y1234567890 Z1234567890\n";
+            int bytesQueued = 0;
+            while (connection.getStatistics().pendingWriteBytes() < 8192) {
+                connection.sendStringToComm(command);
+                bytesQueued += command.length();
+            }
+
+            long bytesSent = connection.getStatistics().bytesSent();
+            connection.sendByteImmediately((byte) '?');
+
+            // The real-time command should only wait for the command currently being sent
+            String data = read(client.getInputStream(), bytesQueued + 1);
+            int position = data.indexOf('?');
+            assertTrue("The real-time command was sent at " + position + " but " + bytesSent + " bytes was already sent",
+                    position <= bytesSent + command.length());
+            assertEquals(command.repeat(bytesQueued / command.length()), data.substring(0, position) + data.substring(position + 1));
+        }
+    }
+
+    @Test
+    public void stalledSocketShouldApplyBackpressureUntilDrained() throws Exception {
+        connection.openPort();
+        try (Socket client = serverSocket.accept()) {
+            // Queue data until the socket buffers are full without the remote end reading anything
+            String command = "G0 X1234567890 Y1234567890 Z1234567890\n";
+            int bytesQueued = 0;
+            while (connection.isWritable()) {
+                connection.sendStringToComm(command);
+                bytesQueued += command.length();
+            }
+            assertTrue(connection.getStatistics().pendingWriteBytes() > 0);
+
+            read(client.getInputStream(), bytesQueued);
+            verify(listener, timeout(1000).atLeastOnce()).onConnectionWritableChanged(false);
+            verify(listener, timeout(1000).atLeastOnce()).onConnectionWritableChanged(true);
+            assertTrue(connection.isWritable());
+        }
+    }
+
+    @Test
+    public void streamingToStalledSocketShouldWriteEveryCommandOnce() throws Exception {
+        AtomicBoolean communicatorWritable = new AtomicBoolean(true);
+        BufferedCommunicator communicator = new BufferedCommunicator(new LinkedBlockingDeque<>(), new LinkedBlockingDeque<>(), new CommunicatorEventDispatcher()) {
+            @Override
+            public int getBufferSize() {
+                return Integer.MAX_VALUE;
+            }
+
+            @Override
+            protected void sendingCommand(String command) {
+            }
+
+            @Override
+            public void onConnectionWritableChanged(boolean writable) {
+                communicatorWritable.set(writable);
+                super.onConnectionWritableChanged(writable);
+            }
+        };
+        communicator.setConnection(connection);
+        connection.setWriteBufferSize(1024);
+        connection.openPort();
+
+        try (Socket client = serverSocket.accept()) {
+            // Fill the socket buffers without the remote end reading anything
+            String fill = ";" + "x".repeat(98) + "\n";
+            int fillCount = 0;
+            while (connection.isWritable()) {
+                connection.sendStringToComm(fill);
+                fillCount++;
+            }
+            waitUntil(() -> !communicatorWritable.get());
+
+            int commandCount = 10000;
+            for (int i = 0; i < commandCount; i++) {
+                communicator.queueCommand(new GcodeCommand("G0 X" + i));
+            }
+            communicator.streamCommands();
+            assertEquals("Only the next command should have been taken from the buffer", commandCount - 1, communicator.numBufferedCommands());
+
+            // Draining the socket should resume the streaming from the selector thread
+            BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+            for (int i = 0; i < fillCount; i++) {
+                assertEquals(fill.trim(), reader.readLine());
+            }
+            for (int i = 0; i < commandCount; i++) {
+                assertEquals("G0 X" + i, reader.readLine());
+            }
+            assertEquals(commandCount, communicator.numActiveCommands());
+
+            // Nothing more should have been written
+            waitUntil(() -> connection.getStatistics().pendingWriteBytes() == 0);
+            connection.closePort();
+            assertNull(reader.readLine());
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < startTime + 1000) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static String read(InputStream inputStream, int length) throws IOException {
+        return new String(inputStream.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
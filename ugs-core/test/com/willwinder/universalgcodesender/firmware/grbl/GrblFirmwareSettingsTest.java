@@ -3,6 +3,7 @@ package com.willwinder.universalgcodesender.firmware.grbl;
 import com.willwinder.universalgcodesender.IController;
 import com.willwinder.universalgcodesender.firmware.FirmwareSetting;
 import com.willwinder.universalgcodesender.firmware.FirmwareSettingsException;
+import com.willwinder.universalgcodesender.firmware.FirmwareSettingsUpdateResult;
 import com.willwinder.universalgcodesender.firmware.IFirmwareSettingsListener;
 import com.willwinder.universalgcodesender.model.Axis;
 import com.willwinder.universalgcodesender.model.UnitUtils;
@@ -19,6 +20,7 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -437,6 +439,99 @@ public class GrblFirmwareSettingsTest {
         assertEquals(1000, target.getMaxSpindleSpeed());
     }
 
+    @Test
+    public void applySettingsShouldOnlySendChangedSettings() throws Exception {
+        when(controller.createCommand(anyString())).thenAnswer((InvocationOnMock invocation) -> new GcodeCommand(invocation.getArgument(0)));
+        doAnswer(invocation -> {
+            GcodeCommand command = invocation.getArgument(0);
+            command.setOk(true);
+            command.setDone(true);
+            return null;
+        }).when(controller).sendCommandImmediately(any());
+        setFirmwareSetting("$0", "10");
+        setFirmwareSetting("$1", "25");
+        setFirmwareSetting("$2", "0");
+
+        FirmwareSettingsUpdateResult result = target.applySettings(List.of(
+                new FirmwareSetting("$0", "10"),
+                new FirmwareSetting("$1", "30"),
+                new FirmwareSetting("$2", "1")));
+
+        assertTrue(result.isSuccessful());
+        assertEquals(1, result.getUnchanged().size());
+        assertEquals(2, result.getUpdated().size());
+        ArgumentCaptor<GcodeCommand> commandCaptor = ArgumentCaptor.forClass(GcodeCommand.class);
+        verify(controller, times(2)).sendCommandImmediately(commandCaptor.capture());
+        assertEquals("$1=30", commandCaptor.getAllValues().get(0).getCommandString());
+        assertEquals("$2=1", commandCaptor.getAllValues().get(1).getCommandString());
+        assertEquals("30", target.getSetting("$1").get().getValue());
+        assertEquals("1", target.getSetting("$2").get().getValue());
+    }
+
+    @Test
+    public void applySettingsShouldAggregateFailures() throws Exception {
+        when(controller.createCommand(anyString())).thenAnswer((InvocationOnMock invocation) -> new GcodeCommand(invocation.getArgument(0)));
+        doAnswer(invocation -> {
+            GcodeCommand command = invocation.getArgument(0);
+            if (command.getCommandString().startsWith("$1=")) {
+                command.setError(true);
+            } else {
+                command.setOk(true);
+            }
+            command.setDone(true);
+            return null;
+        }).when(controller).sendCommandImmediately(any());
+        setFirmwareSetting("$0", "10");
+        setFirmwareSetting("$1", "25");
+
+        FirmwareSettingsUpdateResult result = target.applySettings(List.of(
+                new FirmwareSetting("$0", "11"),
+                new FirmwareSetting("$1", "30"),
+                new FirmwareSetting("$99", "1")));
+
+        assertFalse(result.isSuccessful());
+        assertEquals(1, result.getUpdated().size());
+        assertEquals(2, result.getFailed().size());
+        assertEquals("11", target.getSetting("$0").get().getValue());
+        assertEquals("25", target.getSetting("$1").get().getValue());
+    }
+
+    @Test
+    public void applySettingsShouldCompareNumericValues() {
+        setFirmwareSetting("$0", "10");
+        setFirmwareSetting("$1", "0.010");
+
+        FirmwareSettingsUpdateResult result = target.applySettings(List.of(
+                new FirmwareSetting("$0", "10.0"),
+                new FirmwareSetting("$1", "0.01")));
+
+        assertTrue(result.isSuccessful());
+        assertEquals(2, result.getUnchanged().size());
+        verifyNoInteractions(controller);
+    }
+
+    @Test
+    public void setValueWithSameNumericValueShouldNotUpdate() throws FirmwareSettingsException {
+        setFirmwareSetting("$0", "10");
+
+        target.setValue("$0", "10.000");
+
+        verifyNoInteractions(controller);
+    }
+
+    @Test
+    public void applySettingsShouldKeepTheInterruptedFlag() throws Exception {
+        when(controller.createCommand(anyString())).thenAnswer((InvocationOnMock invocation) -> new GcodeCommand(invocation.getArgument(0)));
+        setFirmwareSetting("$0", "10");
+
+        Thread.currentThread().interrupt();
+        FirmwareSettingsUpdateResult result = target.applySettings(List.of(new FirmwareSetting("$0", "11")));
+
+        assertTrue(Thread.interrupted());
+        assertFalse(result.isSuccessful());
+        assertEquals("10", target.getSetting("$0").get().getValue());
+    }
+
     private void setFirmwareSetting(String key, String value) {
         target.updateFirmwareSetting(new FirmwareSetting(key, value));
     }
@@ -28,6 +28,7 @@ import static com.willwinder.universalgcodesender.model.UnitUtils.Units.MM;
 import org.assertj.core.util.Lists;
 import org.junit.Assert;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -416,4 +417,87 @@ public class MeshLevelerTest {
         sendCommandExpectResult(ml, state, "G1X5Y5", "G1X5Y5Z5");
         sendCommandExpectResult(ml, state, "G1X10Y10", "G1X10Y10Z10");
     }
+
+    @Test
+    public void subdivideShouldSplitLinesAtCellBoundaries() {
+        Position[][] grid = {
+                {new Position(0, 0, 0, MM), new Position(0, 10, 0, MM)},
+                {new Position(10, 0, 1, MM), new Position(10, 10, 1, MM)},
+                {new Position(20, 0, 0, MM), new Position(20, 10, 0, MM)}
+        };
+        MeshLeveler ml = new MeshLeveler(0.0, grid, MeshLeveler.DEFAULT_TOLERANCE_MM);
+
+        GcodeState state = new GcodeState();
+        state.currentPoint = new Position(0, 5, 0, MM);
+        state.inAbsoluteMode = true;
+
+        sendCommandExpectResult(ml, state, "G1X20F100", "F100", "G1X10Y5Z1", "G1X20Y5Z0");
+        sendCommandExpectResult(ml, state, "G1X5", "G1X5Z0.5");
+    }
+
+    @Test
+    public void subdivideShouldSplitLinesInRelativeMode() {
+        Position[][] grid = {
+                {new Position(0, 0, 0, MM), new Position(0, 10, 0, MM)},
+                {new Position(10, 0, 1, MM), new Position(10, 10, 1, MM)},
+                {new Position(20, 0, 0, MM), new Position(20, 10, 0, MM)}
+        };
+        MeshLeveler ml = new MeshLeveler(0.0, grid, MeshLeveler.DEFAULT_TOLERANCE_MM);
+
+        GcodeState state = new GcodeState();
+        state.currentPoint = new Position(0, 5, 0, MM);
+        state.inAbsoluteMode = false;
+
+        sendCommandExpectResult(ml, state, "G1X20", "G1X10Y0Z1", "G1X10Y0Z-1");
+    }
+
+    @Test
+    public void subdivideShouldSplitLinesWithinCellWhereSurfaceIsCurved() throws GcodeParserException {
+        // A twisted surface where the height along the diagonal is non-linear
+        Position[][] grid = {
+                {new Position(0, 0, 0, MM), new Position(0, 10, 0, MM)},
+                {new Position(10, 0, 0, MM), new Position(10, 10, 1, MM)}
+        };
+        MeshLeveler ml = new MeshLeveler(0.0, grid, 0.01);
+
+        GcodeState state = new GcodeState();
+        state.currentPoint = new Position(0, 0, 0, MM);
+        state.inAbsoluteMode = true;
+
+        // The deviation of a straight line is 0.25mm which needs five segments to stay within 0.01mm
+        List<String> result = ml.processCommand("G1X10Y10", state);
+        assertEquals(5, result.size());
+        assertEquals("G1X2Y2Z0.04", result.get(0));
+        assertEquals("G1X10Y10Z1", result.get(4));
+
+        // Lines along the axes are still straight
+        assertEquals(1, ml.processCommand("G1X10Y0", state).size());
+    }
+
+    @Test
+    public void subdivideShouldKeepArcsOnFlatSurface() throws GcodeParserException {
+        MeshLeveler ml = new MeshLeveler(1.0, BIG_FLAT_GRID_Z1, MeshLeveler.DEFAULT_TOLERANCE_MM);
+
+        GcodeState state = new GcodeState();
+        state.currentPoint = new Position(0, 5, 0, MM);
+        state.inAbsoluteMode = true;
+
+        List<String> result = ml.processCommand("G2X10Y5I5J0", state);
+        assertEquals(1, result.size());
+        assertTrue(result.get(0).startsWith("G2"));
+    }
+
+    @Test
+    public void subdivideShouldConvertArcsToLinesOnUnevenSurface() throws GcodeParserException {
+        MeshLeveler ml = new MeshLeveler(0.0, generateSlopeMesh(10, MM), MeshLeveler.DEFAULT_TOLERANCE_MM);
+
+        GcodeState state = new GcodeState();
+        state.currentPoint = new Position(-5, 0, 0, MM);
+        state.inAbsoluteMode = true;
+
+        List<String> result = ml.processCommand("G2X5Y0I5J0", state);
+        assertTrue(result.size() > 1);
+        result.forEach(command -> assertTrue(command.startsWith("G1")));
+        assertEquals("G1X5Y0Z5", result.get(result.size() - 1));
+    }
 }
@@ -0,0 +1,88 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void histogramShouldReturnPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(50, histogram.getPercentile(50), 0.01);
+        assertEquals(95, histogram.getPercentile(95), 0.01);
+        assertEquals(100, histogram.getPercentile(100), 0.01);
+        assertEquals(100, histogram.getCount());
+    }
+
+    @Test
+    public void histogramShouldOnlyKeepLatestSamples() {
+        LatencyHistogram histogram = new LatencyHistogram(10);
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1);
+        }
+
+        assertEquals(1, histogram.getPercentile(99), 0.01);
+        assertEquals(20, histogram.getCount());
+    }
+
+    @Test
+    public void rateMeterShouldCalculateRateOverWindow() {
+        AtomicLong time = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+        RateMeter rateMeter = new RateMeter(TimeUnit.SECONDS.toNanos(5), time::get);
+
+        for (int i = 0; i < 50; i++) {
+            rateMeter.mark(10);
+            time.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertEquals(100, rateMeter.getRate(), 0.01);
+
+        // After the window has passed there should be no rate
+        time.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertEquals(0, rateMeter.getRate(), 0.01);
+    }
+
+    @Test
+    public void snapshotShouldContainAllMetrics() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.getHistogram("latency").record(10);
+        registry.getRateMeter("rate").mark(1);
+        registry.registerGauge("gauge", () -> 42);
+
+        Map<String, Double> snapshot = registry.getSnapshot();
+        assertEquals(10, snapshot.get("latency.p50"), 0.01);
+        assertEquals(10, snapshot.get("latency.p99"), 0.01);
+        assertEquals(1, snapshot.get("latency.count"), 0.01);
+        assertEquals(42, snapshot.get("gauge"), 0.01);
+        assertEquals(true, snapshot.containsKey("rate"));
+    }
+}
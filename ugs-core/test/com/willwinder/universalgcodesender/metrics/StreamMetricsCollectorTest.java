@@ -0,0 +1,72 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StreamMetricsCollectorTest {
+    private IController controller;
+    private MetricsRegistry registry;
+    private StreamMetricsCollector collector;
+
+    @Before
+    public void setUp() {
+        controller = mock(IController.class);
+        BackendAPI backend = mock(BackendAPI.class);
+        when(backend.getController()).thenReturn(controller);
+        registry = new MetricsRegistry();
+        collector = new StreamMetricsCollector(backend, registry);
+    }
+
+    @Test
+    public void statusPollRoundTripShouldOnlyBeRecordedForNewMeasurements() {
+        when(controller.getStatusPollRoundTripTime()).thenReturn(new RoundTripTime(1, 10));
+        sendStatus();
+        sendStatus();
+        assertEquals(1, registry.getHistogram(StreamMetricsCollector.STATUS_POLL_ROUND_TRIP).getCount());
+
+        when(controller.getStatusPollRoundTripTime()).thenReturn(new RoundTripTime(2, 30));
+        sendStatus();
+        assertEquals(2, registry.getHistogram(StreamMetricsCollector.STATUS_POLL_ROUND_TRIP).getCount());
+        assertEquals(30, registry.getHistogram(StreamMetricsCollector.STATUS_POLL_ROUND_TRIP).getPercentile(100), 0.01);
+    }
+
+    @Test
+    public void statusPollRoundTripShouldNotBeRecordedIfUnknown() {
+        when(controller.getStatusPollRoundTripTime()).thenReturn(null);
+        sendStatus();
+        assertEquals(0, registry.getHistogram(StreamMetricsCollector.STATUS_POLL_ROUND_TRIP).getCount());
+    }
+
+    private void sendStatus() {
+        ControllerStatus status = ControllerStatusBuilder.newInstance().setState(ControllerState.IDLE).build();
+        collector.UGSEvent(new ControllerStatusEvent(status, status));
+    }
+}
@@ -18,6 +18,8 @@
  */
 package com.willwinder.universalgcodesender.uielements.components;
 
+import com.willwinder.universalgcodesender.listeners.MessageType;
+import com.willwinder.universalgcodesender.metrics.MetricsRegistry;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.utils.GUIHelpers;
 import java.awt.event.KeyEvent;
@@ -161,6 +163,21 @@ public class CommandTextAreaTest {
         EasyMock.verify(backend);
     }
 
+    @Test
+    public void actionWithMetricsCommandShouldPrintMetrics() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.registerGauge("test.gauge", () -> 1.5);
+        EasyMock.expect(backend.getMetrics()).andReturn(metrics).once();
+        backend.dispatchMessage(EasyMock.eq(MessageType.INFO), EasyMock.contains("test.gauge: 1"));
+        EasyMock.expect(EasyMock.expectLastCall()).once();
+        EasyMock.replay(backend);
+
+        cta.setText(CommandTextArea.METRICS_COMMAND);
+        cta.action(null);
+
+        EasyMock.verify(backend);
+    }
+
     /**
      * Send 10 commands, verify history works.
      * @throws Exception 
@@ -0,0 +1,136 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.Capabilities;
+import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.listeners.BufferState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.model.events.CommandEvent;
+import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.services.JogService;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ContinuousJogWorkerTest {
+    private JogService jogService;
+    private IController controller;
+    private ContinuousJogWorker worker;
+
+    @Before
+    public void setUp() {
+        BackendAPI backendAPI = mock(BackendAPI.class);
+        controller = mock(IController.class);
+        Capabilities capabilities = mock(Capabilities.class);
+        when(capabilities.hasAxis(any())).thenReturn(true);
+        when(controller.getCapabilities()).thenReturn(capabilities);
+        when(controller.getControllerStatus()).thenReturn(ControllerStatusBuilder.newInstance().build());
+        when(backendAPI.getController()).thenReturn(controller);
+
+        jogService = mock(JogService.class);
+        when(jogService.getUnits()).thenReturn(UnitUtils.Units.MM);
+        when(jogService.getFeedRate()).thenReturn(600);
+
+        worker = new ContinuousJogWorker(backendAPI, jogService);
+        worker.setDirection(1, 0, 0);
+    }
+
+    @Test
+    public void startShouldSendOneJogCommandWhenLatencyIsUnknown() {
+        worker.start();
+
+        verify(jogService, times(1)).adjustManualLocation(any(), anyDouble());
+        assertEquals(1, worker.getStatistics().commandsInFlight());
+        assertEquals(10, worker.getStatistics().stepInterval(), 0.001);
+    }
+
+    @Test
+    public void highLatencyShouldIncreaseTheNumberOfCommandsInFlight() throws InterruptedException {
+        worker.start();
+        completeJogCommandWithLatency(50);
+
+        ContinuousJogStatistics statistics = worker.getStatistics();
+        assertTrue(statistics.latency() >= 50);
+        assertEquals(4, statistics.targetCommandsInFlight());
+        assertEquals(4, statistics.commandsInFlight());
+        assertTrue(statistics.stepInterval() >= 12.5);
+        verify(jogService, times(5)).adjustManualLocation(any(), anyDouble());
+    }
+
+    @Test
+    public void fullPlannerBufferShouldLimitTheNumberOfCommandsInFlight() throws InterruptedException {
+        when(controller.getControllerStatus()).thenReturn(ControllerStatusBuilder.newInstance()
+                .setBufferState(new BufferState(1, 100))
+                .build());
+        worker.start();
+        completeJogCommandWithLatency(50);
+
+        assertEquals(1, worker.getStatistics().commandsInFlight());
+        assertEquals(1, worker.getStatistics().plannerBlocksAvailable());
+        verify(jogService, times(2)).adjustManualLocation(any(), anyDouble());
+    }
+
+    @Test
+    public void stopShouldCancelJogOnNextCompletedCommand() throws InterruptedException {
+        worker.start();
+        worker.stop();
+        completeJogCommandWithLatency(0);
+
+        verify(jogService, times(1)).cancelJog();
+        assertEquals(0, worker.getStatistics().commandsInFlight());
+    }
+
+    @Test
+    public void otherCommandsShouldNotAffectTheStatistics() throws InterruptedException {
+        worker.start();
+        completeCommandWithLatency(new GcodeCommand("G0X10"), 50);
+        completeCommandWithLatency(new GcodeCommand("$J=G90X10F600"), 50);
+
+        ContinuousJogStatistics statistics = worker.getStatistics();
+        assertEquals(0, statistics.latency(), 0.001);
+        assertEquals(1, statistics.commandsInFlight());
+        verify(jogService, times(1)).adjustManualLocation(any(), anyDouble());
+
+        completeJogCommandWithLatency(0);
+        assertEquals(1, worker.getStatistics().commandsInFlight());
+        verify(jogService, times(2)).adjustManualLocation(any(), anyDouble());
+    }
+
+    private void completeJogCommandWithLatency(long latency) throws InterruptedException {
+        completeCommandWithLatency(new GcodeCommand("$J=G21G91X1F600"), latency);
+    }
+
+    private void completeCommandWithLatency(GcodeCommand command, long latency) throws InterruptedException {
+        worker.UGSEvent(new CommandEvent(CommandEventType.COMMAND_SENT, command));
+        Thread.sleep(latency);
+        worker.UGSEvent(new CommandEvent(CommandEventType.COMMAND_COMPLETE, command));
+    }
+}
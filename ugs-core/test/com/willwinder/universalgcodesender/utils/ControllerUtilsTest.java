@@ -39,10 +39,13 @@ import org.junit.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
@@ -84,6 +87,15 @@ public class ControllerUtilsTest {
         assertThrows("The command \"blah\" has timed out as it wasn't finished within 100ms", InterruptedException.class, () -> ControllerUtils.sendAndWaitForCompletion(controller, command, 100));
     }
 
+    @Test
+    public void sendAllAndWaitForCompletionShouldRemoveListenersOnTimeout() {
+        IController controller = mock(IController.class);
+        GcodeCommand command = spy(new GcodeCommand("blah"));
+
+        assertThrows(TimeoutException.class, () -> ControllerUtils.sendAllAndWaitForCompletion(controller, List.of(command), 100));
+        verify(command).removeListener(any());
+    }
+
     @Test
     public void sendAndWaitForCompletionWithRetryShouldRetryOnErrors() throws Exception {
         IController controller = mock(IController.class);
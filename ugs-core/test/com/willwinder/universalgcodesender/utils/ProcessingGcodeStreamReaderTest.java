@@ -0,0 +1,126 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.LineSplitter;
+import com.willwinder.universalgcodesender.gcode.processors.MeshLeveler;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ProcessingGcodeStreamReaderTest {
+
+    private static IGcodeStreamReader createStream(String... commands) throws GcodeStreamReader.NotGcodeStreamFile {
+        StringBuilder data = new StringBuilder("gsw_meta:" + commands.length + "\n");
+        for (int i = 0; i < commands.length; i++) {
+            data.append(commands[i]).append(GcodeStream.FIELD_SEPARATOR)
+                    .append(commands[i]).append(GcodeStream.FIELD_SEPARATOR)
+                    .append(i).append(GcodeStream.FIELD_SEPARATOR)
+                    .append("\n");
+        }
+        return new GcodeStreamReader(new ByteArrayInputStream(data.toString().getBytes(StandardCharsets.UTF_8)), new DefaultCommandCreator());
+    }
+
+    private static MeshLeveler createLeveler(double slope) {
+        Position[][] mesh = new Position[][]{
+                {new Position(0, 0, 0, UnitUtils.Units.MM), new Position(0, 10, 0, UnitUtils.Units.MM)},
+                {new Position(10, 0, 10 * slope, UnitUtils.Units.MM), new Position(10, 10, 10 * slope, UnitUtils.Units.MM)}
+        };
+        return new MeshLeveler(0, mesh);
+    }
+
+    @Test
+    public void getNextCommandShouldReturnUnmodifiedCommandsWithoutProcessor() throws Exception {
+        ProcessingGcodeStreamReader reader = new ProcessingGcodeStreamReader(createStream("G21", "G1 X10 Y0 Z0"), new DefaultCommandCreator(), () -> null);
+        assertEquals(2, reader.getNumRows());
+        assertEquals("G21", reader.getNextCommand().getCommandString());
+        assertEquals("G1 X10 Y0 Z0", reader.getNextCommand().getCommandString());
+        assertEquals(0, reader.getNumRowsRemaining());
+        assertNull(reader.getNextCommand());
+    }
+
+    @Test
+    public void getNextCommandShouldApplyProcessorUsingStateFromPreviousCommands() throws Exception {
+        ProcessingGcodeStreamReader reader = new ProcessingGcodeStreamReader(createStream("G21 G90", "G0 X0 Y0 Z0", "G1 X5 Z0", "G91", "G1 X5"), new DefaultCommandCreator(), () -> createLeveler(0.1));
+
+        reader.getNextCommand();
+        reader.getNextCommand();
+
+        GcodeCommand command = reader.getNextCommand();
+        assertEquals("G1X5Z0.5", command.getCommandString().replace(" ", ""));
+        assertEquals("G1 X5 Z0", command.getOriginalCommandString());
+        assertEquals(2, command.getCommandNumber());
+
+        reader.getNextCommand();
+
+        // In relative mode only the change in height from the previous point should be added
+        assertEquals("G1X5Z0.5", reader.getNextCommand().getCommandString().replace(" ", ""));
+    }
+
+    @Test
+    public void getNextCommandShouldUseTheCurrentProcessor() throws Exception {
+        AtomicReference<CommandProcessor> processor = new AtomicReference<>(createLeveler(0.1));
+        ProcessingGcodeStreamReader reader = new ProcessingGcodeStreamReader(createStream("G21 G90", "G1 X10 Y0 Z0", "G1 X10 Y5 Z0"), new DefaultCommandCreator(), processor::get);
+
+        reader.getNextCommand();
+        assertEquals("G1X10Y0Z1", reader.getNextCommand().getCommandString().replace(" ", ""));
+
+        processor.set(createLeveler(0.2));
+        assertEquals("G1X10Y5Z2", reader.getNextCommand().getCommandString().replace(" ", ""));
+    }
+
+    @Test
+    public void getNextCommandShouldThrowExceptionIfProcessorChangesTheNumberOfCommands() throws Exception {
+        ProcessingGcodeStreamReader reader = new ProcessingGcodeStreamReader(createStream("G21 G90", "G0 X0 Y0 Z0", "G1 X10 Y0 Z0"), new DefaultCommandCreator(), () -> new LineSplitter(1));
+
+        reader.getNextCommand();
+        reader.getNextCommand();
+        assertThrows(GcodeStreamProcessingException.class, reader::getNextCommand);
+    }
+
+    @Test
+    public void getNextCommandShouldRetryTheFailedCommand() throws Exception {
+        AtomicReference<CommandProcessor> processor = new AtomicReference<>(new LineSplitter(1));
+        ProcessingGcodeStreamReader reader = new ProcessingGcodeStreamReader(createStream("G21 G90", "G0 X0 Y0 Z0", "G1 X10 Y0 Z0"), new DefaultCommandCreator(), processor::get);
+
+        reader.getNextCommand();
+        reader.getNextCommand();
+        assertThrows(GcodeStreamProcessingException.class, reader::getNextCommand);
+        assertEquals(1, reader.getNumRowsRemaining());
+        assertTrue(reader.ready());
+
+        processor.set(createLeveler(0.1));
+        GcodeCommand command = reader.getNextCommand();
+        assertEquals("G1X10Y0Z1", command.getCommandString().replace(" ", ""));
+        assertEquals(2, command.getCommandNumber());
+        assertEquals(0, reader.getNumRowsRemaining());
+    }
+}
@@ -24,8 +24,10 @@ import com.willwinder.universalgcodesender.model.UGSEvent;
 import com.willwinder.universalgcodesender.model.events.SettingChangedEvent;
 import com.willwinder.universalgcodesender.pendantui.html.StaticConfig;
 import com.willwinder.universalgcodesender.pendantui.v1.AppV1Config;
+import com.willwinder.universalgcodesender.pendantui.v1.ws.EventBroadcaster;
 import com.willwinder.universalgcodesender.pendantui.v1.ws.EventsSocket;
 import com.willwinder.universalgcodesender.services.JogService;
+import jakarta.websocket.server.ServerEndpointConfig;
 import jakarta.ws.rs.core.UriBuilder;
 import net.glxn.qrgen.QRCode;
 import net.glxn.qrgen.image.ImageType;
@@ -44,8 +46,11 @@ import java.net.NetworkInterface;
 import java.net.SocketException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
@@ -56,9 +61,20 @@ import java.util.logging.Logger;
 public class PendantUI implements UGSEventListener {
     public static final String WEBSOCKET_CONTEXT_PATH = "/ws/v1";
     public static final String API_CONTEXT_PATH = "/api/v1";
+    public static final String MACHINES_CONTEXT_PATH = "/machines";
     private static final Logger LOG = Logger.getLogger(PendantUI.class.getSimpleName());
     private final JogService jogService;
     private final BackendAPI backendAPI;
+
+    /**
+     * Additional machines that should be served, each in its own context path
+     */
+    private final Map<String, BackendAPI> machines = new LinkedHashMap<>();
+
+    /**
+     * The broadcasters publishing events to the websockets, one for each backend
+     */
+    private final List<EventBroadcaster> eventBroadcasters = new ArrayList<>();
     private int port = 8080;
     private Server server;
 
@@ -69,6 +85,30 @@ public class PendantUI implements UGSEventListener {
         BackendProvider.register(backendAPI);
     }
 
+    /**
+     * Adds a machine with its own backend that will be served using the context paths
+     * {@code /api/v1/machines/<machineId>} and {@code /ws/v1/machines/<machineId>}.
+     * This needs to be done before the server is started.
+     *
+     * @param machineId  a unique id for the machine that will be used in the path
+     * @param backendAPI the backend connected to the machine
+     */
+    public void addMachine(String machineId, BackendAPI backendAPI) {
+        if (machines.containsKey(machineId)) {
+            throw new IllegalArgumentException("A machine with the id \"" + machineId + "\" has already been added");
+        }
+        machines.put(machineId, backendAPI);
+    }
+
+    /**
+     * Returns the backends for all added machines mapped by their id
+     *
+     * @return an unmodifiable map with all machines
+     */
+    public Map<String, BackendAPI> getMachines() {
+        return Collections.unmodifiableMap(machines);
+    }
+
     /**
      * Launches the local web server.
      *
@@ -85,7 +125,14 @@ public class PendantUI implements UGSEventListener {
         contextHandlerCollection.addHandler(createResourceConfigHandler(new StaticConfig(), ""));
         contextHandlerCollection.addHandler(createResourceConfigHandler(new AppV1Config(backendAPI, jogService), API_CONTEXT_PATH));
         contextHandlerCollection.addHandler(createResourceConfigHandler(new StaticConfig(), "/*"));
-        contextHandlerCollection.addHandler(createWebSocketHandler(WEBSOCKET_CONTEXT_PATH));
+        contextHandlerCollection.addHandler(createWebSocketHandler(WEBSOCKET_CONTEXT_PATH, backendAPI));
+
+        machines.forEach((machineId, machineBackendAPI) -> {
+            String machinePath = MACHINES_CONTEXT_PATH + "/" + machineId;
+            contextHandlerCollection.addHandler(createResourceConfigHandler(new AppV1Config(machineBackendAPI, new JogService(machineBackendAPI)), API_CONTEXT_PATH + machinePath));
+            contextHandlerCollection.addHandler(createWebSocketHandler(WEBSOCKET_CONTEXT_PATH + machinePath, machineBackendAPI));
+            LOG.info(() -> "Serving machine \"" + machineId + "\" on " + API_CONTEXT_PATH + machinePath);
+        });
 
         try {
             server.start();
@@ -105,12 +152,22 @@ public class PendantUI implements UGSEventListener {
         return servletContextHandler;
     }
 
-    private ServletContextHandler createWebSocketHandler(String contextPath) {
+    private ServletContextHandler createWebSocketHandler(String contextPath, BackendAPI machineBackendAPI) {
+        EventBroadcaster eventBroadcaster = new EventBroadcaster(machineBackendAPI);
+        eventBroadcasters.add(eventBroadcaster);
+
         ServletContextHandler context = new ServletContextHandler(ServletContextHandler.SESSIONS);
         context.setContextPath(contextPath);
         JakartaWebSocketServletContainerInitializer.configure(context, (servletContext, wsContainer) -> {
             wsContainer.setDefaultMaxTextMessageBufferSize(65535);
-            wsContainer.addEndpoint(EventsSocket.class);
+            wsContainer.addEndpoint(ServerEndpointConfig.Builder.create(EventsSocket.class, "/events")
+                    .configurator(new ServerEndpointConfig.Configurator() {
+                        @Override
+                        public <T> T getEndpointInstance(Class<T> endpointClass) {
+                            return endpointClass.cast(new EventsSocket(eventBroadcaster));
+                        }
+                    })
+                    .build());
         });
         return context;
     }
@@ -155,6 +212,9 @@ public class PendantUI implements UGSEventListener {
             }
         } catch (Exception e) {
             throw new RuntimeException(e);
+        } finally {
+            eventBroadcasters.forEach(EventBroadcaster::close);
+            eventBroadcasters.clear();
         }
     }
 
@@ -21,6 +21,8 @@ package com.willwinder.universalgcodesender.pendantui.v1;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.pendantui.ExceptionMapper;
 import com.willwinder.universalgcodesender.pendantui.html.StaticResource;
+import com.willwinder.universalgcodesender.pendantui.v1.preview.ToolpathPreviewService;
+import com.willwinder.universalgcodesender.pendantui.v1.upload.FileUploadService;
 import com.willwinder.universalgcodesender.pendantui.v1.resources.CustomOpenApiResource;
 import com.willwinder.universalgcodesender.pendantui.v1.resources.FilesResource;
 import com.willwinder.universalgcodesender.pendantui.v1.resources.MachineResource;
@@ -54,6 +56,8 @@ public class AppV1Config extends ResourceConfig {
             protected void configure() {
                 bind(backendAPI).to(BackendAPI.class);
                 bind(jogService).to(JogService.class);
+                bind(new ToolpathPreviewService(backendAPI)).to(ToolpathPreviewService.class);
+                bind(new FileUploadService(backendAPI)).to(FileUploadService.class);
             }
         });
     }
@@ -0,0 +1,31 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.model;
+
+/**
+ * A continuous polyline of the toolpath preview
+ *
+ * @param rapid       if the polyline is a rapid movement
+ * @param points      the coordinates of the points as x, y and z triplets in millimeters
+ * @param lineNumbers the line number of the command in the processed file for each point, can be
+ *                    compared with the completed row count to render the completed part of the job
+ * @author agent
+ */
+public record ToolpathPolyline(boolean rapid, double[] points, int[] lineNumbers) {
+}
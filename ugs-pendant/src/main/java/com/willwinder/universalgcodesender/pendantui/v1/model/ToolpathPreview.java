@@ -0,0 +1,36 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.model;
+
+import java.util.List;
+
+/**
+ * A simplified toolpath of the loaded file for previewing the job
+ *
+ * @param level      the detail level of the preview, where zero is the coarsest
+ * @param levelCount the number of available detail levels
+ * @param tolerance  the maximum deviation in millimeters from the original toolpath
+ * @param min        the minimum x, y and z coordinates of the toolpath in millimeters
+ * @param max        the maximum x, y and z coordinates of the toolpath in millimeters
+ * @param polylines  the simplified polylines of the toolpath in the order they will be executed
+ * @author agent
+ */
+public record ToolpathPreview(int level, int levelCount, double tolerance, double[] min, double[] max,
+                              List<ToolpathPolyline> polylines) {
+}
@@ -0,0 +1,32 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.model;
+
+/**
+ * The status of a chunked file upload
+ *
+ * @param uploadId     the id of the upload to use when sending chunks
+ * @param fileName     the name of the file in the workspace directory
+ * @param size         the total size of the file in bytes
+ * @param receivedSize the number of bytes that has been received, the next chunk should start at this offset
+ * @param completed    if the file has been received and opened
+ * @author agent
+ */
+public record UploadStatus(String uploadId, String fileName, long size, long receivedSize, boolean completed) {
+}
@@ -0,0 +1,126 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.preview;
+
+import com.willwinder.universalgcodesender.pendantui.v1.model.ToolpathPolyline;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Simplifies polylines using the Ramer-Douglas-Peucker algorithm. The algorithm is
+ * implemented using a stack instead of recursion to handle polylines with millions of points.
+ *
+ * @author agent
+ */
+public class PolylineSimplifier {
+
+    private PolylineSimplifier() {
+    }
+
+    /**
+     * Simplifies the polyline by removing the points that deviates less than the tolerance
+     * from the simplified polyline. The first and last points are always kept.
+     *
+     * @param polyline  the polyline to simplify
+     * @param tolerance the maximum allowed deviation
+     * @return the simplified polyline or the same polyline if no points could be removed
+     */
+    public static ToolpathPolyline simplify(ToolpathPolyline polyline, double tolerance) {
+        double[] points = polyline.points();
+        int pointCount = points.length / 3;
+        if (pointCount <= 2) {
+            return polyline;
+        }
+
+        boolean[] keep = new boolean[pointCount];
+        keep[0] = true;
+        keep[pointCount - 1] = true;
+        int keptCount = 2;
+
+        double toleranceSquared = tolerance * tolerance;
+        Deque<int[]> ranges = new ArrayDeque<>();
+        ranges.push(new int[]{0, pointCount - 1});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.pop();
+            int start = range[0];
+            int end = range[1];
+
+            double maxDistance = 0;
+            int maxIndex = -1;
+            for (int i = start + 1; i < end; i++) {
+                double distance = getDistanceSquared(points, i, start, end);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    maxIndex = i;
+                }
+            }
+
+            if (maxIndex >= 0 && maxDistance > toleranceSquared) {
+                keep[maxIndex] = true;
+                keptCount++;
+                ranges.push(new int[]{start, maxIndex});
+                ranges.push(new int[]{maxIndex, end});
+            }
+        }
+
+        if (keptCount == pointCount) {
+            return polyline;
+        }
+
+        double[] simplifiedPoints = new double[keptCount * 3];
+        int[] simplifiedLineNumbers = new int[keptCount];
+        int index = 0;
+        for (int i = 0; i < pointCount; i++) {
+            if (keep[i]) {
+                System.arraycopy(points, i * 3, simplifiedPoints, index * 3, 3);
+                simplifiedLineNumbers[index] = polyline.lineNumbers()[i];
+                index++;
+            }
+        }
+        return new ToolpathPolyline(polyline.rapid(), simplifiedPoints, simplifiedLineNumbers);
+    }
+
+    /**
+     * Returns the squared distance from a point to the line segment between two other points
+     */
+    private static double getDistanceSquared(double[] points, int pointIndex, int startIndex, int endIndex) {
+        double px = points[pointIndex * 3];
+        double py = points[pointIndex * 3 + 1];
+        double pz = points[pointIndex * 3 + 2];
+        double sx = points[startIndex * 3];
+        double sy = points[startIndex * 3 + 1];
+        double sz = points[startIndex * 3 + 2];
+        double dx = points[endIndex * 3] - sx;
+        double dy = points[endIndex * 3 + 1] - sy;
+        double dz = points[endIndex * 3 + 2] - sz;
+
+        double lengthSquared = dx * dx + dy * dy + dz * dz;
+        double t = 0;
+        if (lengthSquared > 0) {
+            t = ((px - sx) * dx + (py - sy) * dy + (pz - sz) * dz) / lengthSquared;
+            t = Math.max(0, Math.min(1, t));
+        }
+
+        double ex = sx + t * dx - px;
+        double ey = sy + t * dy - py;
+        double ez = sz + t * dz - pz;
+        return ex * ex + ey * ey + ez * ez;
+    }
+}
@@ -0,0 +1,249 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.preview;
+
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.pendantui.v1.model.ToolpathPolyline;
+import com.willwinder.universalgcodesender.pendantui.v1.model.ToolpathPreview;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+import com.willwinder.universalgcodesender.visualizer.GcodeViewParse;
+import com.willwinder.universalgcodesender.visualizer.LineSegment;
+import com.willwinder.universalgcodesender.visualizer.VisualizerUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Creates simplified previews of the toolpath of the loaded file in multiple detail levels.
+ * The previews are created once in the background for every loaded file and are then cached
+ * until a new file is loaded.
+ *
+ * @author agent
+ */
+public class ToolpathPreviewService {
+    /**
+     * The number of detail levels, each level has half the tolerance of the previous
+     */
+    public static final int LEVEL_COUNT = 6;
+
+    /**
+     * The number of tolerance steps that the toolpath diagonal is divided into at the coarsest level
+     */
+    private static final double COARSEST_RESOLUTION = 128;
+    private static final double ARC_SEGMENT_LENGTH = 0.5;
+    private static final double POINT_EPSILON = 0.000001;
+
+    private final BackendAPI backendAPI;
+    private FileKey fileKey;
+    private CompletableFuture<List<ToolpathPreview>> previews;
+
+    public ToolpathPreviewService(BackendAPI backendAPI) {
+        this.backendAPI = backendAPI;
+    }
+
+    private static List<LineSegment> parse(File file) throws IOException, GcodeParserException {
+        GcodeViewParse gcodeViewParse = new GcodeViewParse();
+        try (IGcodeStreamReader reader = new GcodeStreamReader(file, new DefaultCommandCreator())) {
+            return gcodeViewParse.toObjFromReader(reader, ARC_SEGMENT_LENGTH);
+        } catch (GcodeStreamReader.NotGcodeStreamFile e) {
+            List<String> lines = VisualizerUtils.readFiletoArrayList(file.getAbsolutePath());
+            return gcodeViewParse.toObjRedux(lines, ARC_SEGMENT_LENGTH);
+        }
+    }
+
+    /**
+     * Joins the line segments into continuous polylines, a new polyline is started whenever
+     * there is a gap or when switching between rapid and feed movements
+     */
+    static List<ToolpathPolyline> createPolylines(List<LineSegment> lineSegments) {
+        List<ToolpathPolyline> polylines = new ArrayList<>();
+        PolylineBuilder builder = null;
+        for (LineSegment lineSegment : lineSegments) {
+            double[] start = toArray(lineSegment.getStart().x, lineSegment.getStart().y, lineSegment.getStart().z);
+            double[] end = toArray(lineSegment.getEnd().x, lineSegment.getEnd().y, lineSegment.getEnd().z);
+            if (hasNaN(start) || hasNaN(end)) {
+                continue;
+            }
+
+            if (builder == null || builder.rapid != lineSegment.isFastTraverse() || !builder.endsAt(start)) {
+                if (builder != null) {
+                    polylines.add(builder.build());
+                }
+                builder = new PolylineBuilder(lineSegment.isFastTraverse());
+                builder.add(start, lineSegment.getLineNumber());
+            }
+            builder.add(end, lineSegment.getLineNumber());
+        }
+
+        if (builder != null) {
+            polylines.add(builder.build());
+        }
+        return polylines;
+    }
+
+    /**
+     * Creates the previews for all levels starting with the most detailed level, the coarser
+     * levels are then simplified from the previous level to reduce the amount of points to process.
+     */
+    static List<ToolpathPreview> createPreviews(List<ToolpathPolyline> polylines) {
+        double[] min = new double[]{Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        double[] max = new double[]{-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        polylines.forEach(polyline -> {
+            double[] points = polyline.points();
+            for (int i = 0; i < points.length; i++) {
+                min[i % 3] = Math.min(min[i % 3], points[i]);
+                max[i % 3] = Math.max(max[i % 3], points[i]);
+            }
+        });
+
+        if (polylines.isEmpty()) {
+            Arrays.fill(min, 0);
+            Arrays.fill(max, 0);
+        }
+
+        double diagonal = Math.sqrt(Math.pow(max[0] - min[0], 2) + Math.pow(max[1] - min[1], 2) + Math.pow(max[2] - min[2], 2));
+        ToolpathPreview[] previews = new ToolpathPreview[LEVEL_COUNT];
+        List<ToolpathPolyline> levelPolylines = polylines;
+        for (int level = LEVEL_COUNT - 1; level >= 0; level--) {
+            double tolerance = diagonal / (COARSEST_RESOLUTION * Math.pow(2, level));
+            levelPolylines = levelPolylines.parallelStream()
+                    .map(polyline -> PolylineSimplifier.simplify(polyline, tolerance))
+                    .toList();
+            previews[level] = new ToolpathPreview(level, LEVEL_COUNT, tolerance, min, max, levelPolylines);
+        }
+        return List.of(previews);
+    }
+
+    private static int clampLevel(int level) {
+        return Math.max(0, Math.min(LEVEL_COUNT - 1, level));
+    }
+
+    private static double[] toArray(double x, double y, double z) {
+        return new double[]{x, y, z};
+    }
+
+    private static boolean hasNaN(double[] point) {
+        return Double.isNaN(point[0]) || Double.isNaN(point[1]) || Double.isNaN(point[2]);
+    }
+
+    /**
+     * Returns an identifier for the preview of the currently loaded file which
+     * can be used for validating cached previews
+     *
+     * @param level the detail level of the preview
+     * @return the identifier or null if no file is loaded
+     */
+    public String getPreviewId(int level) {
+        File file = backendAPI.getProcessedGcodeFile();
+        if (file == null) {
+            return null;
+        }
+        return Integer.toHexString(FileKey.of(file).hashCode()) + "-" + clampLevel(level);
+    }
+
+    /**
+     * Returns a preview of the loaded file, the preview is created the first time it is
+     * requested for the file.
+     *
+     * @param level the detail level of the preview, where zero is the coarsest level
+     * @return the preview or null if no file is loaded
+     * @throws IOException          if the file could not be read
+     * @throws GcodeParserException if the file could not be parsed
+     * @throws InterruptedException if interrupted while waiting for the preview
+     */
+    public ToolpathPreview getPreview(int level) throws IOException, GcodeParserException, InterruptedException {
+        File file = backendAPI.getProcessedGcodeFile();
+        if (file == null) {
+            return null;
+        }
+
+        try {
+            return getPreviews(file).get().get(clampLevel(level));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            } else if (e.getCause() instanceof GcodeParserException gcodeParserException) {
+                throw gcodeParserException;
+            }
+            throw new IOException("Could not create toolpath preview", e.getCause());
+        }
+    }
+
+    private synchronized CompletableFuture<List<ToolpathPreview>> getPreviews(File file) {
+        FileKey key = FileKey.of(file);
+        if (previews == null || !key.equals(fileKey) || previews.isCompletedExceptionally()) {
+            fileKey = key;
+            previews = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return createPreviews(createPolylines(parse(file)));
+                } catch (IOException | GcodeParserException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        }
+        return previews;
+    }
+
+    private record FileKey(String path, long lastModified, long length) {
+        private static FileKey of(File file) {
+            return new FileKey(file.getAbsolutePath(), file.lastModified(), file.length());
+        }
+    }
+
+    private static class PolylineBuilder {
+        private final boolean rapid;
+        private double[] points = new double[12];
+        private int[] lineNumbers = new int[4];
+        private int size;
+
+        private PolylineBuilder(boolean rapid) {
+            this.rapid = rapid;
+        }
+
+        private void add(double[] point, int lineNumber) {
+            if (size == lineNumbers.length) {
+                points = Arrays.copyOf(points, points.length * 2);
+                lineNumbers = Arrays.copyOf(lineNumbers, lineNumbers.length * 2);
+            }
+            System.arraycopy(point, 0, points, size * 3, 3);
+            lineNumbers[size] = lineNumber;
+            size++;
+        }
+
+        private boolean endsAt(double[] point) {
+            int index = (size - 1) * 3;
+            return Math.abs(points[index] - point[0]) < POINT_EPSILON &&
+                    Math.abs(points[index + 1] - point[1]) < POINT_EPSILON &&
+                    Math.abs(points[index + 2] - point[2]) < POINT_EPSILON;
+        }
+
+        private ToolpathPolyline build() {
+            return new ToolpathPolyline(rapid, Arrays.copyOf(points, size * 3), Arrays.copyOf(lineNumbers, size));
+        }
+    }
+}
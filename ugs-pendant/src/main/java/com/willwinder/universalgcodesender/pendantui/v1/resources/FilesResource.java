@@ -20,21 +20,35 @@ package com.willwinder.universalgcodesender.pendantui.v1.resources;
 
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.pendantui.v1.model.FileStatus;
+import com.willwinder.universalgcodesender.pendantui.v1.model.ToolpathPreview;
+import com.willwinder.universalgcodesender.pendantui.v1.model.UploadStatus;
 import com.willwinder.universalgcodesender.pendantui.v1.model.WorkspaceFileList;
+import com.willwinder.universalgcodesender.pendantui.v1.preview.ToolpathPreviewService;
+import com.willwinder.universalgcodesender.pendantui.v1.upload.FileUploadService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
 import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
 import org.glassfish.jersey.media.multipart.FormDataParam;
 
 import java.io.File;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
@@ -47,6 +61,12 @@ public class FilesResource {
     @Inject
     private BackendAPI backendAPI;
 
+    @Inject
+    private ToolpathPreviewService toolpathPreviewService;
+
+    @Inject
+    private FileUploadService fileUploadService;
+
     @POST
     @Path("uploadAndOpen")
     @Consumes(MediaType.MULTIPART_FORM_DATA)
@@ -62,6 +82,31 @@ public class FilesResource {
         backendAPI.setGcodeFile(renamedFile);
     }
 
+    @POST
+    @Path("uploads")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Start or resume a chunked upload of a file, the file is opened when all chunks are received")
+    public UploadStatus createUpload(@QueryParam("fileName") String fileName, @QueryParam("size") long size, @QueryParam("sha256") String sha256) throws Exception {
+        return fileUploadService.createUpload(fileName, size, sha256);
+    }
+
+    @GET
+    @Path("uploads/{uploadId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Get the status of an unfinished upload")
+    public UploadStatus getUploadStatus(@PathParam("uploadId") String uploadId) {
+        return fileUploadService.getUploadStatus(uploadId);
+    }
+
+    @PUT
+    @Path("uploads/{uploadId}")
+    @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Upload a chunk of a file starting at the given offset")
+    public UploadStatus uploadChunk(@PathParam("uploadId") String uploadId, @QueryParam("offset") long offset, InputStream inputStream) throws Exception {
+        return fileUploadService.writeChunk(uploadId, offset, inputStream);
+    }
+
     @POST
     @Path("send")
     @Produces(MediaType.APPLICATION_JSON)
@@ -116,4 +161,30 @@ public class FilesResource {
                 backendAPI.getSendDuration(),
                 backendAPI.getSendRemainingDuration());
     }
+
+    @GET
+    @Path("getToolpathPreview")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Get a simplified toolpath of the loaded file, where level zero is the least detailed")
+    public Response getToolpathPreview(@QueryParam("level") @DefaultValue("0") int level, @Context Request request) throws Exception {
+        String previewId = toolpathPreviewService.getPreviewId(level);
+        if (previewId == null) {
+            throw new NotFoundException("No file is loaded");
+        }
+
+        // The preview is only recreated when a new file is loaded, let clients revalidate using the entity tag
+        EntityTag entityTag = new EntityTag(previewId);
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+        Response.ResponseBuilder notModifiedResponse = request.evaluatePreconditions(entityTag);
+        if (notModifiedResponse != null) {
+            return notModifiedResponse.cacheControl(cacheControl).build();
+        }
+
+        ToolpathPreview preview = toolpathPreviewService.getPreview(level);
+        if (preview == null) {
+            throw new NotFoundException("No file is loaded");
+        }
+        return Response.ok(preview).tag(entityTag).cacheControl(cacheControl).build();
+    }
 }
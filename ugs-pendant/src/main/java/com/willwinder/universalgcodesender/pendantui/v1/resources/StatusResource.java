@@ -31,6 +31,8 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
 
+import java.util.Map;
+
 @Tag(name = "Status", description = "Endpoints for getting status")
 @Path("/status")
 public class StatusResource {
@@ -73,4 +75,11 @@ public class StatusResource {
 
         return status;
     }
+
+    @GET
+    @Path("getMetrics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Double> getMetrics() {
+        return backendAPI.getMetrics().getSnapshot();
+    }
 }
\ No newline at end of file
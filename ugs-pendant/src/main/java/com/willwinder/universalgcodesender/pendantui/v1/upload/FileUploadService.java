@@ -0,0 +1,403 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.upload;
+
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.pendantui.v1.model.UploadStatus;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Handles resumable file uploads that are sent in chunks. The chunks are written directly to
+ * a partial file in the workspace directory and the written content is hashed.
+ * When all chunks have been received the file is opened.
+ * <p>
+ * The SHA-256 hash of the file is optional. If given, the upload is verified against it when
+ * completed and unchanged files can be skipped before uploading. Without it the upload
+ * relies on the offset of each chunk and the size of the file.
+ * <p>
+ * An upload of a file that already exists in the workspace directory with the same content
+ * is skipped and the existing file is opened instead. Existing files are never replaced,
+ * if a file with the same name but different content exists the uploaded file is given
+ * a numbered name, such as {@code file (1).gcode}.
+ *
+ * @author agent
+ */
+public class FileUploadService {
+    private static final Logger LOGGER = Logger.getLogger(FileUploadService.class.getSimpleName());
+    private static final String PARTIAL_FILE_SUFFIX = ".part";
+
+    /**
+     * The size of the buffer used when hashing the written chunks
+     */
+    private static final int DIGEST_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * The time before an abandoned upload is removed
+     */
+    private static final long UPLOAD_EXPIRY_TIME = TimeUnit.HOURS.toMillis(24);
+
+    private final BackendAPI backendAPI;
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+    private final Map<FileKey, String> fileHashes = new ConcurrentHashMap<>();
+
+    public FileUploadService(BackendAPI backendAPI) {
+        this.backendAPI = backendAPI;
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Returns the file name to try for the given index, the first index is the original name
+     * and the following are numbered such as {@code file (1).gcode}
+     */
+    private static File getCandidateFile(File target, int index) {
+        if (index == 0) {
+            return target;
+        }
+
+        String name = target.getName();
+        int extensionIndex = name.lastIndexOf('.');
+        String numberedName = extensionIndex > 0 ?
+                name.substring(0, extensionIndex) + " (" + index + ")" + name.substring(extensionIndex) :
+                name + " (" + index + ")";
+        return new File(target.getParentFile(), numberedName);
+    }
+
+    /**
+     * Reserves a file name for the target by creating an empty file, an existing file is never replaced
+     */
+    private static File reserveFile(File target) throws IOException {
+        for (int index = 0; ; index++) {
+            File candidate = getCandidateFile(target, index);
+            try {
+                Files.createFile(candidate.toPath());
+                return candidate;
+            } catch (FileAlreadyExistsException e) {
+                // Try the next name
+            }
+        }
+    }
+
+    /**
+     * Moves the source file to the target which should have been reserved using {@link #reserveFile(File)}
+     */
+    private static void moveFile(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Starts a new upload or resumes an unfinished upload of the same file
+     *
+     * @param fileName the name of the file
+     * @param size     the size of the file in bytes
+     * @param sha256   the SHA-256 hash of the file content as a hex string or null if not known
+     * @return the status of the upload
+     * @throws Exception if the file could not be opened
+     */
+    public UploadStatus createUpload(String fileName, long size, String sha256) throws Exception {
+        String name = StringUtils.isBlank(fileName) ? "" : new File(fileName).getName();
+        if (StringUtils.isBlank(name) || size < 0) {
+            throw new BadRequestException("A file name and size must be given");
+        } else if (StringUtils.isNotBlank(sha256) && !sha256.matches("[0-9a-fA-F]{64}")) {
+            throw new BadRequestException("The SHA-256 hash must be given as a hex string");
+        }
+
+        removeExpiredUploads();
+        String hash = StringUtils.isBlank(sha256) ? null : sha256.toLowerCase();
+        File target = new File(getUploadDirectory(), name);
+        File existingFile = hash == null ? null : findExistingFile(target, size, hash);
+        if (existingFile != null) {
+            LOGGER.info(() -> "The file " + existingFile + " is unchanged, skipping upload");
+            backendAPI.setGcodeFile(existingFile);
+            return new UploadStatus(null, existingFile.getName(), size, size, true);
+        }
+
+        for (Upload upload : uploads.values()) {
+            if (upload.target.equals(target) && Objects.equals(upload.sha256, hash) && upload.size == size) {
+                return upload.getStatus();
+            }
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        File partialFile = new File(target.getParentFile(), "." + name + "." + uploadId + PARTIAL_FILE_SUFFIX);
+        Files.deleteIfExists(partialFile.toPath());
+        Upload upload = new Upload(uploadId, target, partialFile, size, hash);
+        uploads.put(uploadId, upload);
+
+        // Empty files has nothing more to upload
+        if (size == 0) {
+            Files.createFile(partialFile.toPath());
+            return complete(upload);
+        }
+        return upload.getStatus();
+    }
+
+    /**
+     * Returns the status of an unfinished upload
+     *
+     * @param uploadId the id of the upload
+     * @return the status of the upload
+     * @throws NotFoundException if there is no unfinished upload with the given id
+     */
+    public UploadStatus getUploadStatus(String uploadId) {
+        return getUpload(uploadId).getStatus();
+    }
+
+    /**
+     * Writes a chunk to the upload, the chunk must start where the previous chunk ended.
+     * When the last chunk is received the content is verified and the file is opened.
+     *
+     * @param uploadId    the id of the upload
+     * @param offset      the position in the file where the chunk starts
+     * @param inputStream the chunk content
+     * @return the status of the upload
+     * @throws Exception if the chunk could not be written or the file could not be opened
+     */
+    public UploadStatus writeChunk(String uploadId, long offset, InputStream inputStream) throws Exception {
+        Upload upload = getUpload(uploadId);
+        synchronized (upload) {
+            if (offset != upload.receivedSize) {
+                throw new ClientErrorException(Response.status(Response.Status.CONFLICT)
+                        .type(MediaType.APPLICATION_JSON_TYPE)
+                        .entity(upload.getStatus())
+                        .build());
+            }
+
+            upload.lastUpdated = System.currentTimeMillis();
+            try (FileChannel channel = FileChannel.open(upload.partialFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                transfer(upload, channel, inputStream);
+            }
+
+            if (inputStream.read() >= 0) {
+                discard(upload);
+                throw new BadRequestException("The chunk exceeds the size of the file");
+            }
+
+            if (upload.receivedSize < upload.size) {
+                return upload.getStatus();
+            }
+            return complete(upload);
+        }
+    }
+
+    /**
+     * Transfers the source to the partial file. If the source fails in the middle of a chunk
+     * the transfer returns the number of bytes that were written and the failure is thrown on
+     * the next attempt, the digest and the received size are therefore updated from what was
+     * written to the file so that the upload can be resumed from there.
+     */
+    private void transfer(Upload upload, FileChannel channel, InputStream source) throws IOException {
+        ReadableByteChannel sourceChannel = Channels.newChannel(source);
+        while (upload.receivedSize < upload.size) {
+            long transferred = channel.transferFrom(sourceChannel, upload.receivedSize, upload.size - upload.receivedSize);
+            if (transferred <= 0) {
+                return;
+            }
+
+            updateDigest(upload.digest, channel, upload.receivedSize, transferred);
+            upload.receivedSize += transferred;
+        }
+    }
+
+    private static void updateDigest(MessageDigest digest, FileChannel channel, long position, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(DIGEST_BUFFER_SIZE, length));
+        long end = position + length;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("The written chunk could not be read from " + channel);
+            }
+
+            buffer.flip();
+            digest.update(buffer);
+            position += read;
+        }
+    }
+
+    private UploadStatus complete(Upload upload) throws Exception {
+        String hash = HexFormat.of().formatHex(upload.digest.digest());
+        if (upload.sha256 != null && !hash.equals(upload.sha256)) {
+            discard(upload);
+            throw new BadRequestException("The content of the uploaded file does not match the given hash");
+        }
+
+        File target = findExistingFile(upload.target, upload.size, hash);
+        if (target != null) {
+            // The same file has already been uploaded
+            discard(upload);
+        } else {
+            try (FileChannel channel = FileChannel.open(upload.partialFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(upload.size);
+            }
+
+            target = reserveFile(upload.target);
+            try {
+                moveFile(upload.partialFile, target);
+            } catch (IOException e) {
+                Files.deleteIfExists(target.toPath());
+                throw e;
+            }
+            uploads.remove(upload.uploadId);
+            fileHashes.put(FileKey.of(target), hash);
+        }
+
+        File receivedFile = target;
+        LOGGER.info(() -> "Received file " + receivedFile);
+        backendAPI.setGcodeFile(receivedFile);
+        return new UploadStatus(upload.uploadId, receivedFile.getName(), upload.size, upload.size, true);
+    }
+
+    private void discard(Upload upload) {
+        uploads.remove(upload.uploadId);
+        try {
+            Files.deleteIfExists(upload.partialFile.toPath());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, e, () -> "Could not remove partial file " + upload.partialFile);
+        }
+    }
+
+    private void removeExpiredUploads() {
+        long expiryTime = System.currentTimeMillis() - UPLOAD_EXPIRY_TIME;
+        uploads.values().stream()
+                .filter(upload -> upload.lastUpdated < expiryTime)
+                .toList()
+                .forEach(this::discard);
+    }
+
+    private Upload getUpload(String uploadId) {
+        Upload upload = uploadId == null ? null : uploads.get(uploadId);
+        if (upload == null) {
+            throw new NotFoundException("Could not find upload " + uploadId);
+        }
+        return upload;
+    }
+
+    /**
+     * Finds a file with the given content that has the target name or a numbered version of it
+     *
+     * @return the existing file or null if there is no file with the given content
+     */
+    private File findExistingFile(File target, long size, String hash) throws IOException {
+        for (int index = 0; ; index++) {
+            File candidate = getCandidateFile(target, index);
+            if (!candidate.exists()) {
+                return null;
+            } else if (candidate.isFile() && candidate.length() == size && hash.equals(getHash(candidate))) {
+                return candidate;
+            }
+        }
+    }
+
+    private String getHash(File file) throws IOException {
+        FileKey fileKey = FileKey.of(file);
+        String hash = fileHashes.get(fileKey);
+        if (hash == null) {
+            MessageDigest digest = createDigest();
+            try (InputStream inputStream = new DigestInputStream(Files.newInputStream(file.toPath()), digest)) {
+                inputStream.transferTo(OutputStream.nullOutputStream());
+            }
+            hash = HexFormat.of().formatHex(digest.digest());
+            fileHashes.put(fileKey, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the directory to upload files to, the workspace directory if it is configured
+     */
+    private File getUploadDirectory() throws IOException {
+        String workspaceDirectory = backendAPI.getSettings().getWorkspaceDirectory();
+        File directory = StringUtils.isBlank(workspaceDirectory) ?
+                new File(System.getProperty("java.io.tmpdir"), "ugs-uploads") :
+                new File(workspaceDirectory);
+        Files.createDirectories(directory.toPath());
+        return directory;
+    }
+
+    private record FileKey(String path, long lastModified, long length) {
+        private static FileKey of(File file) {
+            return new FileKey(file.getAbsolutePath(), file.lastModified(), file.length());
+        }
+    }
+
+    private static class Upload {
+        private final String uploadId;
+        private final File target;
+        private final File partialFile;
+        private final long size;
+        private final String sha256;
+        private final MessageDigest digest = createDigest();
+        private volatile long receivedSize;
+        private volatile long lastUpdated = System.currentTimeMillis();
+
+        private Upload(String uploadId, File target, File partialFile, long size, String sha256) {
+            this.uploadId = uploadId;
+            this.target = target;
+            this.partialFile = partialFile;
+            this.size = size;
+            this.sha256 = sha256;
+        }
+
+        private UploadStatus getStatus() {
+            return new UploadStatus(uploadId, target.getName(), size, receivedSize, false);
+        }
+    }
+}
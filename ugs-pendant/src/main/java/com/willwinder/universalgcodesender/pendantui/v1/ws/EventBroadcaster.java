@@ -0,0 +1,125 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.ws;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
+import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.UGSEvent;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.pendantui.v1.model.Event;
+import com.willwinder.universalgcodesender.utils.Settings;
+import jakarta.websocket.Session;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Broadcasts the events from a backend to all connected websocket sessions. Every event
+ * is serialized once and is then queued for each session, so that a slow client will
+ * never block the event dispatching of the application. Controller statuses are encoded
+ * using a {@link StatusStream} so that only the changed fields are sent to the clients.
+ *
+ * @author agent
+ */
+public class EventBroadcaster implements UGSEventListener {
+    private static final Logger LOGGER = Logger.getLogger(EventBroadcaster.class.getSimpleName());
+    private final Map<String, SessionPublisher> publishers = new ConcurrentHashMap<>();
+    private final Gson gson;
+    private final StatusStream statusStream;
+    private final BackendAPI backendAPI;
+
+    /**
+     * Creates a broadcaster that will publish the events from the given backend
+     *
+     * @param backendAPI the backend to listen to events from
+     */
+    public EventBroadcaster(BackendAPI backendAPI) {
+        this.backendAPI = backendAPI;
+        gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+        statusStream = new StatusStream();
+        if (backendAPI != null) {
+            backendAPI.addUGSEventListener(this);
+        }
+    }
+
+    private static ControllerStatus convertToPreferredUnits(ControllerStatus controllerStatusEvent, UnitUtils.Units units) {
+        return ControllerStatusBuilder.newInstance(controllerStatusEvent)
+                .setMachineCoord(controllerStatusEvent.getMachineCoord().getPositionIn(units))
+                .setWorkCoord(controllerStatusEvent.getWorkCoord().getPositionIn(units))
+                .build();
+    }
+
+    public void addSession(Session session) {
+        publishers.put(session.getId(), new SessionPublisher(session));
+    }
+
+    public void removeSession(Session session) {
+        publishers.remove(session.getId());
+    }
+
+    public int getSessionCount() {
+        return publishers.size();
+    }
+
+    /**
+     * Stops listening to events from the backend
+     */
+    public void close() {
+        if (backendAPI != null) {
+            backendAPI.removeUGSEventListener(this);
+        }
+        publishers.clear();
+    }
+
+    @Override
+    public void UGSEvent(UGSEvent evt) {
+        if (publishers.isEmpty()) {
+            return;
+        }
+
+        try {
+            if (evt instanceof ControllerStatusEvent controllerStatusEvent) {
+                publishStatus(controllerStatusEvent.getStatus());
+            } else {
+                String data = gson.toJson(new Event(evt));
+                publishers.values().forEach(publisher -> publisher.publish(data));
+            }
+            publishers.values().removeIf(SessionPublisher::isClosed);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, e, () -> "Could not publish event " + evt.getClass().getSimpleName());
+        }
+    }
+
+    private void publishStatus(ControllerStatus status) {
+        Settings settings = backendAPI.getSettings();
+        StatusStream.StatusFrame frame = statusStream.update(convertToPreferredUnits(status, settings.getPreferredUnits()));
+        if (frame == null) {
+            return;
+        }
+
+        publishers.values().forEach(publisher -> publisher.publishStatus(frame));
+    }
+}
@@ -0,0 +1,188 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.ws;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+import com.willwinder.universalgcodesender.pendantui.v1.ws.StatusStream.StatusFrame;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publishes messages to a websocket session without blocking the caller. Messages are
+ * queued and sent one at the time using the asynchronous remote of the session.
+ * <p>
+ * Status messages are coalesced, if there already is a status message waiting to be sent
+ * it will be replaced with a keyframe of the new status. This will make slow clients receive
+ * fewer status updates instead of falling behind. Status patches are only sent if the client
+ * has been sent the version the patch is based on. If a client is too slow to keep up with
+ * the other messages it will be disconnected.
+ *
+ * @author agent
+ */
+public class SessionPublisher implements SendHandler {
+    /**
+     * The maximum number of messages waiting to be sent before the client is considered too slow
+     */
+    static final int MAX_QUEUED_MESSAGES = 200;
+    private static final Logger LOGGER = Logger.getLogger(SessionPublisher.class.getSimpleName());
+
+    private final Session session;
+    private final Deque<Message> queue = new ArrayDeque<>();
+
+    /**
+     * A status message that is waiting in the queue to be sent
+     */
+    private Message queuedStatusMessage;
+
+    /**
+     * The status version that was last queued to be sent to the session
+     */
+    private long statusVersion;
+    private boolean isSending;
+    private boolean isClosed;
+
+    public SessionPublisher(Session session) {
+        this.session = session;
+    }
+
+    /**
+     * Queues the message to be sent to the session
+     *
+     * @param data the message to send
+     */
+    public synchronized void publish(String data) {
+        if (isClosed) {
+            return;
+        }
+
+        queue(new Message(data));
+    }
+
+    /**
+     * Queues the status to be sent to the session, replacing any previously queued status.
+     * The patch of the frame will only be sent if the session has been sent the previous
+     * version, otherwise the keyframe is sent.
+     *
+     * @param frame the status frame to send
+     */
+    public synchronized void publishStatus(StatusFrame frame) {
+        if (isClosed) {
+            return;
+        }
+
+        long previousVersion = statusVersion;
+        statusVersion = frame.version();
+        if (queuedStatusMessage != null) {
+            queuedStatusMessage.data = frame.keyframe().get();
+            return;
+        }
+
+        String data = previousVersion == frame.version() - 1 ? frame.data() : frame.keyframe().get();
+        queuedStatusMessage = new Message(data);
+        queue(queuedStatusMessage);
+    }
+
+    private void queue(Message message) {
+        if (queue.size() >= MAX_QUEUED_MESSAGES) {
+            close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Client is too slow"));
+            return;
+        }
+
+        queue.add(message);
+        sendNext();
+    }
+
+    /**
+     * Returns the number of messages that are waiting to be sent
+     *
+     * @return the number of queued messages
+     */
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    public synchronized boolean isClosed() {
+        return isClosed;
+    }
+
+    @Override
+    public synchronized void onResult(SendResult result) {
+        isSending = false;
+        if (!result.isOK()) {
+            LOGGER.log(Level.FINE, result.getException(), () -> "Could not send message to " + session.getId());
+            close(new CloseReason(CloseReason.CloseCodes.CLOSED_ABNORMALLY, "Could not send message"));
+            return;
+        }
+        sendNext();
+    }
+
+    private void sendNext() {
+        if (isSending || isClosed || queue.isEmpty()) {
+            return;
+        }
+
+        if (!session.isOpen()) {
+            isClosed = true;
+            queue.clear();
+            return;
+        }
+
+        Message message = queue.poll();
+        if (message == queuedStatusMessage) {
+            queuedStatusMessage = null;
+        }
+
+        isSending = true;
+        try {
+            session.getAsyncRemote().sendText(message.data, this);
+        } catch (RuntimeException e) {
+            isSending = false;
+            LOGGER.log(Level.FINE, e, () -> "Could not send message to " + session.getId());
+            close(new CloseReason(CloseReason.CloseCodes.CLOSED_ABNORMALLY, "Could not send message"));
+        }
+    }
+
+    private void close(CloseReason closeReason) {
+        isClosed = true;
+        queue.clear();
+        queuedStatusMessage = null;
+        LOGGER.info(() -> "Closing WebSocket " + session.getId() + ": " + closeReason.getReasonPhrase());
+        try {
+            session.close(closeReason);
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, e, () -> "Could not close WebSocket " + session.getId());
+        }
+    }
+
+    private static class Message {
+        private String data;
+
+        private Message(String data) {
+            this.data = data;
+        }
+    }
+}
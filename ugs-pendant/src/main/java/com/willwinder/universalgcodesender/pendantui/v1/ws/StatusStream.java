@@ -0,0 +1,165 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.ws;
+
+import com.google.common.base.Suppliers;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Encodes a stream of controller statuses as versioned frames. A keyframe contains the
+ * complete status while a patch only contains the fields that has changed since the previous
+ * version, using the JSON merge patch format. A keyframe is created periodically so that
+ * clients can recover if they would miss a patch.
+ * <p>
+ * Keyframes are sent as a {@code ControllerStatusEvent} with the status, patches are sent as
+ * a {@code ControllerStatusPatchEvent}. Both contain the status version, patches also
+ * contain the version it should be applied on.
+ *
+ * @author agent
+ */
+public class StatusStream {
+    /**
+     * The number of versions between each keyframe
+     */
+    static final int KEYFRAME_INTERVAL = 100;
+
+    private final Gson gson;
+    private JsonObject currentStatus;
+    private long version;
+
+    public StatusStream() {
+        // Special values are serialized so that they can be removed
+        gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+    }
+
+    private static JsonObject createPatch(JsonObject previous, JsonObject current) {
+        JsonObject patch = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : current.entrySet()) {
+            JsonElement previousValue = previous.get(entry.getKey());
+            JsonElement value = entry.getValue();
+            if (previousValue != null && previousValue.isJsonObject() && value.isJsonObject()) {
+                JsonObject childPatch = createPatch(previousValue.getAsJsonObject(), value.getAsJsonObject());
+                if (!childPatch.isEmpty()) {
+                    patch.add(entry.getKey(), childPatch);
+                }
+            } else if (!value.equals(previousValue)) {
+                patch.add(entry.getKey(), value);
+            }
+        }
+
+        // Fields that are removed are set to null
+        previous.keySet().stream()
+                .filter(key -> !current.has(key))
+                .forEach(key -> patch.add(key, JsonNull.INSTANCE));
+        return patch;
+    }
+
+    /**
+     * JSON doesn't support NaN or infinite numbers, fields with these values are removed.
+     * A null value would mean that the field should be deleted in a merge patch, by omitting
+     * them a client will get the same status from a keyframe as from applying the patches.
+     */
+    private static JsonObject removeSpecialFloatingPointValues(JsonObject object) {
+        JsonObject result = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+            JsonElement value = entry.getValue();
+            if (value.isJsonObject()) {
+                result.add(entry.getKey(), removeSpecialFloatingPointValues(value.getAsJsonObject()));
+            } else if (!isSpecialFloatingPointValue(value)) {
+                result.add(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isSpecialFloatingPointValue(JsonElement element) {
+        if (!element.isJsonPrimitive() || !element.getAsJsonPrimitive().isNumber()) {
+            return false;
+        }
+
+        double value = element.getAsDouble();
+        return Double.isNaN(value) || Double.isInfinite(value);
+    }
+
+    /**
+     * Adds the status to the stream
+     *
+     * @param status the new status
+     * @return the frames for the status or null if the status hasn't changed
+     */
+    public synchronized StatusFrame update(ControllerStatus status) {
+        JsonObject statusObject = removeSpecialFloatingPointValues(gson.toJsonTree(status).getAsJsonObject());
+        if (currentStatus != null && currentStatus.equals(statusObject)) {
+            return null;
+        }
+
+        JsonObject previousStatus = currentStatus;
+        currentStatus = statusObject;
+        version++;
+
+        long currentVersion = version;
+        Supplier<String> keyframe = Suppliers.memoize(() -> createKeyframe(statusObject, currentVersion));
+        if (previousStatus == null || version % KEYFRAME_INTERVAL == 0) {
+            return new StatusFrame(version, keyframe, keyframe.get());
+        }
+
+        return new StatusFrame(version, keyframe, createPatchEvent(createPatch(previousStatus, statusObject)));
+    }
+
+    private static String createKeyframe(JsonObject status, long version) {
+        JsonObject event = new JsonObject();
+        event.add("status", status);
+        return createEvent("ControllerStatusEvent", event, version).toString();
+    }
+
+    private String createPatchEvent(JsonObject patch) {
+        JsonObject event = new JsonObject();
+        event.add("patch", patch);
+        JsonObject result = createEvent("ControllerStatusPatchEvent", event, version);
+        result.add("baseVersion", new JsonPrimitive(version - 1));
+        return result.toString();
+    }
+
+    private static JsonObject createEvent(String eventType, JsonObject event, long version) {
+        JsonObject result = new JsonObject();
+        result.add("eventType", new JsonPrimitive(eventType));
+        result.add("version", new JsonPrimitive(version));
+        result.add("event", event);
+        return result;
+    }
+
+    /**
+     * The encoded frames for a status version
+     *
+     * @param version  the version of the status
+     * @param keyframe a supplier for the complete status, only created when needed
+     * @param data     the data to send to clients that has received the previous version, either a patch or a keyframe
+     */
+    public record StatusFrame(long version, Supplier<String> keyframe, String data) {
+    }
+}
@@ -2,5 +2,5 @@ import { Status } from "./Status";
 
 export type ControllerStatusEvent = {
   status: Status;
-  previousStatus: Status;
+  previousStatus?: Status;
 };
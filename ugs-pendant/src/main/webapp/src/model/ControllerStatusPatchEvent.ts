@@ -0,0 +1,7 @@
+/**
+ * A patch with the fields of the status that has changed since the
+ * base version, in the JSON merge patch format.
+ */
+export type ControllerStatusPatchEvent = {
+  patch: object;
+};
@@ -1,8 +1,20 @@
 import { ControllerStateEvent } from "./ControllerStateEvent";
 import { ControllerStatusEvent } from "./ControllerStatusEvent";
+import { ControllerStatusPatchEvent } from "./ControllerStatusPatchEvent";
 import { FileStateEvent } from "./FileStateEvent";
 
 export type UGSEvent = {
-  eventType: "ControllerStatusEvent" | "ControllerStateEvent" | "SettingChangedEvent" | "FileStateEvent";
-  event: ControllerStateEvent | ControllerStatusEvent | FileStateEvent;
+  eventType:
+    | "ControllerStatusEvent"
+    | "ControllerStatusPatchEvent"
+    | "ControllerStateEvent"
+    | "SettingChangedEvent"
+    | "FileStateEvent";
+  event:
+    | ControllerStateEvent
+    | ControllerStatusEvent
+    | ControllerStatusPatchEvent
+    | FileStateEvent;
+  version?: number;
+  baseVersion?: number;
 };
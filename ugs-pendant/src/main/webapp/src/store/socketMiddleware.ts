@@ -2,6 +2,9 @@ import { socketActions } from "./socketSlice";
 import { Socket } from "../utils/Socket";
 import { UGSEvent } from "../model/UGSEvent";
 import { ControllerStatusEvent } from "../model/ControllerStatusEvent";
+import { ControllerStatusPatchEvent } from "../model/ControllerStatusPatchEvent";
+import { Status } from "../model/Status";
+import { mergePatch } from "../utils/mergePatch";
 import { statusActions } from "./statusSlice";
 import {
   Action,
@@ -57,6 +60,10 @@ export const socketMiddleware: ThunkMiddleware<RootState, Action, void> =
       }, 4000);
     });
 
+    // The last received status, patches are only applied on the version they are based on
+    let status: Status | undefined;
+    let statusVersion: number | undefined;
+
     socket.on("close", () => {
       console.log("Closing websocket");
       store.dispatch(socketActions.connectionClosed());
@@ -65,11 +72,20 @@ export const socketMiddleware: ThunkMiddleware<RootState, Action, void> =
     socket.onMessage((messageEvent: MessageEvent) => {
       const ugsEvent = JSON.parse(messageEvent.data) as UGSEvent;
       if (ugsEvent.eventType === "ControllerStatusEvent") {
-        store.dispatch(
-          statusActions.setStatus(
-            (ugsEvent.event as ControllerStatusEvent).status
-          )
+        status = (ugsEvent.event as ControllerStatusEvent).status;
+        statusVersion = ugsEvent.version;
+        store.dispatch(statusActions.setStatus(status));
+      } else if (ugsEvent.eventType === "ControllerStatusPatchEvent") {
+        if (!status || statusVersion !== ugsEvent.baseVersion) {
+          // Missed a version, wait for the next keyframe
+          return;
+        }
+        status = mergePatch(
+          status,
+          (ugsEvent.event as ControllerStatusPatchEvent).patch
         );
+        statusVersion = ugsEvent.version;
+        store.dispatch(statusActions.setStatus(status));
       } else if (ugsEvent.eventType === "FileStateEvent") {
         store.dispatch(fetchFileStatus());
       } else if (ugsEvent.eventType === "SettingChangedEvent") {
@@ -0,0 +1,24 @@
+const isObject = (value: unknown): value is Record<string, unknown> =>
+  typeof value === "object" && value !== null && !Array.isArray(value);
+
+/**
+ * Applies a JSON merge patch (RFC 7396) to the target and returns the
+ * result as a new object, the target is not modified.
+ */
+export const mergePatch = <T>(target: T, patch: unknown): T => {
+  if (!isObject(patch)) {
+    return patch as T;
+  }
+
+  const result: Record<string, unknown> = isObject(target)
+    ? { ...target }
+    : {};
+  Object.entries(patch).forEach(([key, value]) => {
+    if (value === null) {
+      delete result[key];
+    } else {
+      result[key] = mergePatch(result[key], value);
+    }
+  });
+  return result as T;
+};
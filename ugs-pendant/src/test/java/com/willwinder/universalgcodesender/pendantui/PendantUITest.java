@@ -3,13 +3,23 @@ package com.willwinder.universalgcodesender.pendantui;
 import com.willwinder.universalgcodesender.AbstractController;
 import com.willwinder.universalgcodesender.IController;
 import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.utils.Settings;
 import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
 
 public class PendantUITest {
 	private final BackendAPI mockBackend = EasyMock.createStrictMock(BackendAPI.class);
@@ -32,4 +42,65 @@ public class PendantUITest {
         assertTrue(test.startsWith("http://"));
         assertTrue(test.contains("8080"));
 	}
+
+    @Test
+    public void requestsShouldBeRoutedToTheBackendOfTheMachine() throws Exception {
+        PendantUI multiMachinePendantUI = createMultiMachinePendantUI();
+        try {
+            multiMachinePendantUI.start();
+
+            assertTrue(get("/api/v1/status/getStatus").body().contains("\"rowCount\":10"));
+            assertTrue(get("/api/v1/machines/router/status/getStatus").body().contains("\"rowCount\":20"));
+            assertTrue(get("/api/v1/machines/laser/status/getStatus").body().contains("\"rowCount\":30"));
+        } finally {
+            multiMachinePendantUI.stop();
+        }
+    }
+
+    @Test
+    public void requestsToUnknownMachineShouldReturnNotFound() throws Exception {
+        PendantUI multiMachinePendantUI = createMultiMachinePendantUI();
+        try {
+            multiMachinePendantUI.start();
+
+            assertEquals(404, get("/api/v1/machines/unknown/status/getStatus").statusCode());
+        } finally {
+            multiMachinePendantUI.stop();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addMachineShouldNotAllowDuplicateIds() {
+        PendantUI multiMachinePendantUI = new PendantUI(createBackend(10));
+        multiMachinePendantUI.addMachine("router", createBackend(20));
+        multiMachinePendantUI.addMachine("router", createBackend(30));
+    }
+
+    private int port;
+
+    private PendantUI createMultiMachinePendantUI() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+
+        BackendAPI backend = createBackend(10);
+        backend.getSettings().setPendantPort(port);
+        PendantUI multiMachinePendantUI = new PendantUI(backend);
+        multiMachinePendantUI.addMachine("router", createBackend(20));
+        multiMachinePendantUI.addMachine("laser", createBackend(30));
+        return multiMachinePendantUI;
+    }
+
+    private static BackendAPI createBackend(long rowCount) {
+        BackendAPI backend = Mockito.mock(BackendAPI.class);
+        when(backend.getSettings()).thenReturn(new Settings());
+        when(backend.getController()).thenReturn(Mockito.mock(IController.class));
+        when(backend.getNumRows()).thenReturn(rowCount);
+        return backend;
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
 }
@@ -0,0 +1,66 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.preview;
+
+import com.willwinder.universalgcodesender.pendantui.v1.model.ToolpathPolyline;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class PolylineSimplifierTest {
+
+    @Test
+    public void simplifyShouldRemovePointsWithinTolerance() {
+        ToolpathPolyline polyline = new ToolpathPolyline(false,
+                new double[]{0, 0, 0, 1, 0.01, 0, 2, -0.01, 0, 3, 0, 0, 3, 3, 0},
+                new int[]{1, 2, 3, 4, 5});
+
+        ToolpathPolyline result = PolylineSimplifier.simplify(polyline, 0.1);
+
+        assertArrayEquals(new double[]{0, 0, 0, 3, 0, 0, 3, 3, 0}, result.points(), 0.0001);
+        assertArrayEquals(new int[]{1, 4, 5}, result.lineNumbers());
+    }
+
+    @Test
+    public void simplifyShouldKeepPointsOutsideTolerance() {
+        ToolpathPolyline polyline = new ToolpathPolyline(false,
+                new double[]{0, 0, 0, 1, 0, 1, 2, 0, 0},
+                new int[]{1, 2, 3});
+
+        assertSame(polyline, PolylineSimplifier.simplify(polyline, 0.1));
+    }
+
+    @Test
+    public void simplifyShouldHandleLargePolylines() {
+        int pointCount = 1_000_000;
+        double[] points = new double[pointCount * 3];
+        int[] lineNumbers = new int[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            points[i * 3] = i;
+            points[i * 3 + 1] = Math.sin(i / 1000d);
+            lineNumbers[i] = i;
+        }
+
+        ToolpathPolyline result = PolylineSimplifier.simplify(new ToolpathPolyline(false, points, lineNumbers), 0.01);
+        assertArrayEquals(new double[]{0, 0, 0}, new double[]{result.points()[0], result.points()[1], result.points()[2]}, 0.0001);
+        assertEquals(pointCount - 1, result.lineNumbers()[result.lineNumbers().length - 1]);
+    }
+}
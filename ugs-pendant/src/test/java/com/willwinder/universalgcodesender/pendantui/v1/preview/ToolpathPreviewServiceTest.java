@@ -0,0 +1,115 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.preview;
+
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.pendantui.v1.model.ToolpathPolyline;
+import com.willwinder.universalgcodesender.pendantui.v1.model.ToolpathPreview;
+import com.willwinder.universalgcodesender.visualizer.LineSegment;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ToolpathPreviewServiceTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void createPolylinesShouldJoinConnectedSegmentsOfSameType() {
+        List<ToolpathPolyline> polylines = ToolpathPreviewService.createPolylines(List.of(
+                createSegment(0, 0, 10, 10, 1, true),
+                createSegment(10, 10, 20, 10, 2, false),
+                createSegment(20, 10, 20, 20, 3, false),
+                createSegment(30, 30, 40, 40, 4, false)));
+
+        assertEquals(3, polylines.size());
+        assertTrue(polylines.get(0).rapid());
+        assertFalse(polylines.get(1).rapid());
+        assertArrayEquals(new double[]{10, 10, 0, 20, 10, 0, 20, 20, 0}, polylines.get(1).points(), 0.0001);
+        assertArrayEquals(new int[]{2, 2, 3}, polylines.get(1).lineNumbers());
+        assertArrayEquals(new int[]{4, 4}, polylines.get(2).lineNumbers());
+    }
+
+    @Test
+    public void createPreviewsShouldCreateCoarserLevelsWithFewerPoints() {
+        List<LineSegment> segments = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            double angle = Math.toRadians(i * 0.36);
+            double nextAngle = Math.toRadians((i + 1) * 0.36);
+            segments.add(createSegment(Math.cos(angle) * 100, Math.sin(angle) * 100, Math.cos(nextAngle) * 100, Math.sin(nextAngle) * 100, i, false));
+        }
+
+        List<ToolpathPreview> previews = ToolpathPreviewService.createPreviews(ToolpathPreviewService.createPolylines(segments));
+
+        assertEquals(ToolpathPreviewService.LEVEL_COUNT, previews.size());
+        for (int level = 1; level < previews.size(); level++) {
+            assertTrue(previews.get(level - 1).tolerance() > previews.get(level).tolerance());
+            assertTrue(previews.get(level - 1).polylines().get(0).points().length <= previews.get(level).polylines().get(0).points().length);
+        }
+        assertTrue(previews.get(0).polylines().get(0).points().length < 1001 * 3);
+        assertArrayEquals(new double[]{-100, -100, 0}, previews.get(0).min(), 0.01);
+        assertArrayEquals(new double[]{100, 100, 0}, previews.get(0).max(), 0.01);
+    }
+
+    @Test
+    public void getPreviewShouldParseLoadedFile() throws Exception {
+        File file = temporaryFolder.newFile("test.gcode");
+        Files.writeString(file.toPath(), "G21\nG0 X0 Y0 Z0\nG1 X10 Y0\nG1 X10 Y10\nG0 Z5\n");
+        BackendAPI backendAPI = mock(BackendAPI.class);
+        when(backendAPI.getProcessedGcodeFile()).thenReturn(file);
+        ToolpathPreviewService service = new ToolpathPreviewService(backendAPI);
+
+        ToolpathPreview preview = service.getPreview(ToolpathPreviewService.LEVEL_COUNT - 1);
+
+        assertEquals(ToolpathPreviewService.LEVEL_COUNT - 1, preview.level());
+        assertEquals(2, preview.polylines().size());
+        assertArrayEquals(new double[]{0, 0, 0, 10, 0, 0, 10, 10, 0}, preview.polylines().get(0).points(), 0.0001);
+        assertNotEquals(service.getPreviewId(0), service.getPreviewId(1));
+    }
+
+    @Test
+    public void getPreviewShouldReturnNullWhenNoFileIsLoaded() throws Exception {
+        ToolpathPreviewService service = new ToolpathPreviewService(mock(BackendAPI.class));
+        assertNull(service.getPreview(0));
+        assertNull(service.getPreviewId(0));
+    }
+
+    private static LineSegment createSegment(double x1, double y1, double x2, double y2, int lineNumber, boolean rapid) {
+        LineSegment lineSegment = new LineSegment(new Position(x1, y1, 0, UnitUtils.Units.MM), new Position(x2, y2, 0, UnitUtils.Units.MM), lineNumber);
+        lineSegment.setIsFastTraverse(rapid);
+        return lineSegment;
+    }
+}
@@ -0,0 +1,257 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.upload;
+
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.pendantui.v1.model.UploadStatus;
+import com.willwinder.universalgcodesender.utils.Settings;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.NotFoundException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FileUploadServiceTest {
+    private static final byte[] CONTENT = "G21\nG0 X0 Y0\nG1 X10 Y10\n".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private BackendAPI backendAPI;
+    private FileUploadService service;
+    private File workspaceDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        workspaceDirectory = temporaryFolder.newFolder("workspace");
+        Settings settings = new Settings();
+        settings.setWorkspaceDirectory(workspaceDirectory.getAbsolutePath());
+        backendAPI = mock(BackendAPI.class);
+        when(backendAPI.getSettings()).thenReturn(settings);
+        service = new FileUploadService(backendAPI);
+    }
+
+    @Test
+    public void uploadInChunksShouldWriteAndOpenFile() throws Exception {
+        UploadStatus status = service.createUpload("test.gcode", CONTENT.length, sha256(CONTENT));
+        assertFalse(status.completed());
+        assertEquals(0, status.receivedSize());
+
+        status = service.writeChunk(status.uploadId(), 0, chunk(0, 10));
+        assertEquals(10, status.receivedSize());
+        assertFalse(status.completed());
+
+        status = service.writeChunk(status.uploadId(), 10, chunk(10, CONTENT.length));
+        assertTrue(status.completed());
+
+        File file = new File(workspaceDirectory, "test.gcode");
+        assertArrayEquals(CONTENT, Files.readAllBytes(file.toPath()));
+        verify(backendAPI).setGcodeFile(file);
+        assertEquals(1, workspaceDirectory.list().length);
+    }
+
+    @Test
+    public void createUploadShouldResumeUnfinishedUpload() throws Exception {
+        UploadStatus status = service.createUpload("test.gcode", CONTENT.length, sha256(CONTENT));
+        service.writeChunk(status.uploadId(), 0, chunk(0, 10));
+
+        UploadStatus resumedStatus = service.createUpload("test.gcode", CONTENT.length, sha256(CONTENT));
+        assertEquals(status.uploadId(), resumedStatus.uploadId());
+        assertEquals(10, resumedStatus.receivedSize());
+    }
+
+    @Test
+    public void writeChunkShouldFailIfOffsetDoesNotMatch() throws Exception {
+        UploadStatus status = service.createUpload("test.gcode", CONTENT.length, sha256(CONTENT));
+        ClientErrorException exception = assertThrows(ClientErrorException.class, () -> service.writeChunk(status.uploadId(), 5, chunk(5, 10)));
+        assertEquals(409, exception.getResponse().getStatus());
+    }
+
+    @Test
+    public void writeChunkShouldKeepReceivedBytesIfTransferFails() throws Exception {
+        UploadStatus status = service.createUpload("test.gcode", CONTENT.length, sha256(CONTENT));
+        InputStream failingStream = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+
+        assertThrows(IOException.class, () -> service.writeChunk(status.uploadId(), 0, failingStream));
+        assertEquals(0, service.getUploadStatus(status.uploadId()).receivedSize());
+
+        UploadStatus completedStatus = service.writeChunk(status.uploadId(), 0, chunk(0, CONTENT.length));
+        assertTrue(completedStatus.completed());
+    }
+
+    @Test
+    public void writeChunkShouldResumeAfterTransferFailsInTheMiddleOfAChunk() throws Exception {
+        UploadStatus status = service.createUpload("test.gcode", CONTENT.length, sha256(CONTENT));
+        InputStream failingStream = new InputStream() {
+            private final InputStream content = chunk(0, CONTENT.length);
+            private int readCount;
+
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                // Only return parts of the content before failing
+                if (readCount++ == 0) {
+                    return content.read(buffer, offset, Math.min(length, 10));
+                }
+                throw new IOException("Connection reset");
+            }
+        };
+
+        assertThrows(IOException.class, () -> service.writeChunk(status.uploadId(), 0, failingStream));
+        assertEquals(10, service.getUploadStatus(status.uploadId()).receivedSize());
+
+        UploadStatus completedStatus = service.writeChunk(status.uploadId(), 10, chunk(10, CONTENT.length));
+        assertTrue(completedStatus.completed());
+        assertArrayEquals(CONTENT, Files.readAllBytes(new File(workspaceDirectory, "test.gcode").toPath()));
+    }
+
+    @Test
+    public void writeChunkShouldFailIfHashDoesNotMatch() throws Exception {
+        UploadStatus status = service.createUpload("test.gcode", CONTENT.length, sha256("other".getBytes(StandardCharsets.UTF_8)));
+
+        assertThrows(BadRequestException.class, () -> service.writeChunk(status.uploadId(), 0, chunk(0, CONTENT.length)));
+        assertThrows(NotFoundException.class, () -> service.getUploadStatus(status.uploadId()));
+        assertEquals(0, workspaceDirectory.list().length);
+        verify(backendAPI, never()).setGcodeFile(any());
+    }
+
+    @Test
+    public void createUploadShouldSkipUnchangedFile() throws Exception {
+        File file = new File(workspaceDirectory, "test.gcode");
+        Files.write(file.toPath(), CONTENT);
+
+        UploadStatus status = service.createUpload("test.gcode", CONTENT.length, sha256(CONTENT));
+
+        assertTrue(status.completed());
+        verify(backendAPI).setGcodeFile(file);
+    }
+
+    @Test
+    public void uploadShouldNotReplaceFileWithDifferentContent() throws Exception {
+        byte[] otherContent = "G20\n".getBytes(StandardCharsets.UTF_8);
+        File existingFile = new File(workspaceDirectory, "test.gcode");
+        Files.write(existingFile.toPath(), otherContent);
+
+        UploadStatus status = service.createUpload("test.gcode", CONTENT.length, sha256(CONTENT));
+        assertFalse(status.completed());
+        status = service.writeChunk(status.uploadId(), 0, chunk(0, CONTENT.length));
+
+        assertTrue(status.completed());
+        assertEquals("test (1).gcode", status.fileName());
+        File file = new File(workspaceDirectory, "test (1).gcode");
+        assertArrayEquals(CONTENT, Files.readAllBytes(file.toPath()));
+        assertArrayEquals(otherContent, Files.readAllBytes(existingFile.toPath()));
+        verify(backendAPI).setGcodeFile(file);
+    }
+
+    @Test
+    public void createUploadShouldSkipUnchangedFileWithNumberedName() throws Exception {
+        Files.write(new File(workspaceDirectory, "test.gcode").toPath(), "G20\n".getBytes(StandardCharsets.UTF_8));
+        File file = new File(workspaceDirectory, "test (1).gcode");
+        Files.write(file.toPath(), CONTENT);
+
+        UploadStatus status = service.createUpload("test.gcode", CONTENT.length, sha256(CONTENT));
+
+        assertTrue(status.completed());
+        assertEquals("test (1).gcode", status.fileName());
+        verify(backendAPI).setGcodeFile(file);
+    }
+
+    @Test
+    public void uploadWithoutHashShouldWriteAndOpenFile() throws Exception {
+        UploadStatus status = service.createUpload("test.gcode", CONTENT.length, null);
+        status = service.writeChunk(status.uploadId(), 0, chunk(0, 10));
+        assertFalse(status.completed());
+
+        status = service.writeChunk(status.uploadId(), 10, chunk(10, CONTENT.length));
+
+        assertTrue(status.completed());
+        File file = new File(workspaceDirectory, "test.gcode");
+        assertArrayEquals(CONTENT, Files.readAllBytes(file.toPath()));
+        verify(backendAPI).setGcodeFile(file);
+    }
+
+    @Test
+    public void uploadWithoutHashShouldOpenExistingFileWithSameContent() throws Exception {
+        File file = new File(workspaceDirectory, "test.gcode");
+        Files.write(file.toPath(), CONTENT);
+
+        UploadStatus status = service.createUpload("test.gcode", CONTENT.length, "");
+        assertFalse(status.completed());
+        status = service.writeChunk(status.uploadId(), 0, chunk(0, CONTENT.length));
+
+        assertTrue(status.completed());
+        assertEquals("test.gcode", status.fileName());
+        assertEquals(1, workspaceDirectory.list().length);
+        verify(backendAPI).setGcodeFile(file);
+    }
+
+    @Test
+    public void createUploadShouldFailOnInvalidHash() {
+        assertThrows(BadRequestException.class, () -> service.createUpload("test.gcode", CONTENT.length, "abc"));
+    }
+
+    @Test
+    public void createUploadShouldNotAllowPathsOutsideTheUploadDirectory() throws Exception {
+        UploadStatus status = service.createUpload("../../test.gcode", CONTENT.length, sha256(CONTENT));
+        service.writeChunk(status.uploadId(), 0, chunk(0, CONTENT.length));
+
+        assertTrue(new File(workspaceDirectory, "test.gcode").exists());
+    }
+
+    private static InputStream chunk(int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(CONTENT, from, to));
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
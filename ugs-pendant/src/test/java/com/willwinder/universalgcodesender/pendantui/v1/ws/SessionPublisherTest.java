@@ -0,0 +1,131 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.ws;
+
+import com.willwinder.universalgcodesender.pendantui.v1.ws.StatusStream.StatusFrame;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SessionPublisherTest {
+    private Session session;
+    private RemoteEndpoint.Async asyncRemote;
+    private SessionPublisher publisher;
+
+    @Before
+    public void setUp() {
+        session = mock(Session.class);
+        asyncRemote = mock(RemoteEndpoint.Async.class);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getId()).thenReturn("1");
+        when(session.getAsyncRemote()).thenReturn(asyncRemote);
+        publisher = new SessionPublisher(session);
+    }
+
+    @Test
+    public void publishShouldSendOneMessageAtTheTime() {
+        publisher.publish("first");
+        publisher.publish("second");
+
+        verify(asyncRemote, times(1)).sendText(anyString(), any(SendHandler.class));
+        verify(asyncRemote).sendText("first", publisher);
+        assertEquals(1, publisher.getQueueSize());
+
+        publisher.onResult(new SendResult());
+        verify(asyncRemote).sendText("second", publisher);
+        assertEquals(0, publisher.getQueueSize());
+    }
+
+    @Test
+    public void publishStatusShouldReplaceQueuedStatusWithKeyframe() {
+        publisher.publish("event");
+        publisher.publishStatus(createFrame(1));
+        publisher.publishStatus(createFrame(2));
+        publisher.publish("other");
+        publisher.publishStatus(createFrame(3));
+        assertEquals(2, publisher.getQueueSize());
+
+        publisher.onResult(new SendResult());
+        publisher.onResult(new SendResult());
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(asyncRemote, times(3)).sendText(captor.capture(), any(SendHandler.class));
+        assertEquals("event", captor.getAllValues().get(0));
+        assertEquals("keyframe3", captor.getAllValues().get(1));
+        assertEquals("other", captor.getAllValues().get(2));
+    }
+
+    @Test
+    public void publishStatusShouldSendPatchWhenPreviousVersionWasSent() {
+        publisher.publishStatus(createFrame(5));
+        publisher.onResult(new SendResult());
+        publisher.publishStatus(createFrame(6));
+        publisher.onResult(new SendResult());
+        publisher.publishStatus(createFrame(8));
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(asyncRemote, times(3)).sendText(captor.capture(), any(SendHandler.class));
+        assertEquals("keyframe5", captor.getAllValues().get(0));
+        assertEquals("patch6", captor.getAllValues().get(1));
+        assertEquals("keyframe8", captor.getAllValues().get(2));
+    }
+
+    @Test
+    public void publishShouldCloseSessionWhenClientIsTooSlow() throws IOException {
+        for (int i = 0; i <= SessionPublisher.MAX_QUEUED_MESSAGES + 1; i++) {
+            publisher.publish("event" + i);
+        }
+
+        verify(session).close(any(CloseReason.class));
+        assertTrue(publisher.isClosed());
+        assertEquals(0, publisher.getQueueSize());
+    }
+
+    @Test
+    public void publishShouldCloseSessionWhenSendFails() throws IOException {
+        publisher.publish("event");
+        publisher.publish("other");
+        publisher.onResult(new SendResult(new IOException("Broken pipe")));
+
+        verify(session).close(any(CloseReason.class));
+        verify(asyncRemote, never()).sendText("other", publisher);
+        assertTrue(publisher.isClosed());
+    }
+
+    private static StatusFrame createFrame(long version) {
+        return new StatusFrame(version, () -> "keyframe" + version, "patch" + version);
+    }
+}
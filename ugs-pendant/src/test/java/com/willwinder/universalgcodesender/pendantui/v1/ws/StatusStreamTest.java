@@ -0,0 +1,141 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.ws;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.pendantui.v1.ws.StatusStream.StatusFrame;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StatusStreamTest {
+    private StatusStream statusStream;
+
+    @Before
+    public void setUp() {
+        statusStream = new StatusStream();
+    }
+
+    @Test
+    public void updateShouldCreateKeyframeForFirstStatus() {
+        StatusFrame frame = statusStream.update(createStatus(ControllerState.IDLE, 1, 2));
+
+        assertEquals(1, frame.version());
+        assertEquals(frame.keyframe().get(), frame.data());
+
+        JsonObject data = JsonParser.parseString(frame.data()).getAsJsonObject();
+        assertEquals("ControllerStatusEvent", data.get("eventType").getAsString());
+        assertEquals(1, data.get("version").getAsLong());
+        assertEquals("IDLE", data.getAsJsonObject("event").getAsJsonObject("status").get("state").getAsString());
+    }
+
+    @Test
+    public void updateShouldReturnNullIfStatusIsUnchanged() {
+        statusStream.update(createStatus(ControllerState.IDLE, 1, 2));
+        assertNull(statusStream.update(createStatus(ControllerState.IDLE, 1, 2)));
+    }
+
+    @Test
+    public void updateShouldCreatePatchWithChangedFields() {
+        statusStream.update(createStatus(ControllerState.IDLE, 1, 2));
+        StatusFrame frame = statusStream.update(createStatus(ControllerState.RUN, 1, 3));
+
+        JsonObject data = JsonParser.parseString(frame.data()).getAsJsonObject();
+        assertEquals("ControllerStatusPatchEvent", data.get("eventType").getAsString());
+        assertEquals(2, data.get("version").getAsLong());
+        assertEquals(1, data.get("baseVersion").getAsLong());
+
+        JsonObject patch = data.getAsJsonObject("event").getAsJsonObject("patch");
+        assertEquals("RUN", patch.get("state").getAsString());
+        JsonObject workCoord = patch.getAsJsonObject("workCoord");
+        assertEquals(1, workCoord.size());
+        assertEquals(3, workCoord.get("y").getAsDouble(), 0.001);
+        assertFalse(patch.has("machineCoord"));
+
+        JsonObject keyframe = JsonParser.parseString(frame.keyframe().get()).getAsJsonObject();
+        assertEquals("ControllerStatusEvent", keyframe.get("eventType").getAsString());
+        assertEquals(2, keyframe.get("version").getAsLong());
+    }
+
+    @Test
+    public void updateShouldOmitNaNFromKeyframes() {
+        StatusFrame frame = statusStream.update(createStatus(ControllerState.IDLE, Double.NaN, 2));
+
+        assertFalse(frame.data().contains("NaN"));
+        JsonObject status = JsonParser.parseString(frame.data()).getAsJsonObject().getAsJsonObject("event").getAsJsonObject("status");
+        assertFalse(status.getAsJsonObject("workCoord").has("x"));
+        assertEquals(2, status.getAsJsonObject("workCoord").get("y").getAsDouble(), 0.001);
+    }
+
+    @Test
+    public void updateShouldRemoveFieldsInPatchesWhenChangedToNaN() {
+        statusStream.update(createStatus(ControllerState.IDLE, 1, 2));
+        StatusFrame frame = statusStream.update(createStatus(ControllerState.IDLE, Double.NaN, 2));
+
+        assertFalse(frame.data().contains("NaN"));
+        JsonObject workCoordPatch = JsonParser.parseString(frame.data()).getAsJsonObject()
+                .getAsJsonObject("event").getAsJsonObject("patch").getAsJsonObject("workCoord");
+        assertEquals(1, workCoordPatch.size());
+        assertTrue(workCoordPatch.get("x").isJsonNull());
+
+        // The keyframe of the same version should not contain the removed field
+        JsonObject status = JsonParser.parseString(frame.keyframe().get()).getAsJsonObject().getAsJsonObject("event").getAsJsonObject("status");
+        assertFalse(status.getAsJsonObject("workCoord").has("x"));
+    }
+
+    @Test
+    public void updateShouldAddFieldsInPatchesWhenChangedFromNaN() {
+        statusStream.update(createStatus(ControllerState.IDLE, Double.NaN, 2));
+        StatusFrame frame = statusStream.update(createStatus(ControllerState.IDLE, 1, 2));
+
+        JsonObject workCoordPatch = JsonParser.parseString(frame.data()).getAsJsonObject()
+                .getAsJsonObject("event").getAsJsonObject("patch").getAsJsonObject("workCoord");
+        assertEquals(1, workCoordPatch.size());
+        assertEquals(1, workCoordPatch.get("x").getAsDouble(), 0.001);
+    }
+
+    @Test
+    public void updateShouldCreateKeyframesPeriodically() {
+        StatusFrame frame = null;
+        for (int i = 0; i < StatusStream.KEYFRAME_INTERVAL; i++) {
+            frame = statusStream.update(createStatus(ControllerState.RUN, i, 0));
+        }
+
+        assertEquals(StatusStream.KEYFRAME_INTERVAL, frame.version());
+        assertEquals(frame.keyframe().get(), frame.data());
+    }
+
+    private static ControllerStatus createStatus(ControllerState state, double x, double y) {
+        return ControllerStatusBuilder.newInstance()
+                .setState(state)
+                .setMachineCoord(new Position(10, 10, 10, UnitUtils.Units.MM))
+                .setWorkCoord(new Position(x, y, 0, UnitUtils.Units.MM))
+                .build();
+    }
+}
@@ -25,6 +25,7 @@ import com.willwinder.universalgcodesender.utils.Settings;
 import net.miginfocom.swing.MigLayout;
 import org.openide.util.NbPreferences;
 
+import javax.swing.SpinnerNumberModel;
 import java.util.prefs.Preferences;
 
 /**
@@ -32,7 +33,10 @@ import java.util.prefs.Preferences;
  */
 public class EditorOptionsPanel extends AbstractUGSSettings {
     public static final String SHOW_ON_OPEN = "showOnOpen";
+    public static final String LARGE_FILE_THRESHOLD_MB = "largeFileThresholdMb";
+    public static final int DEFAULT_LARGE_FILE_THRESHOLD_MB = 50;
     private final AbstractUGSSettings.Checkbox showOnOpen = new AbstractUGSSettings.Checkbox(Localization.getString("platform.plugin.editor.showOnOpen"));
+    private final AbstractUGSSettings.Spinner largeFileThreshold = new AbstractUGSSettings.Spinner(Localization.getString("platform.plugin.editor.largeFileThreshold"), new SpinnerNumberModel(DEFAULT_LARGE_FILE_THRESHOLD_MB, 1, 2048, 1));
 
     public EditorOptionsPanel(Settings settings, IChanged changer) {
         super(settings, changer);
@@ -44,15 +48,18 @@ public class EditorOptionsPanel extends AbstractUGSSettings {
 
         Preferences prefs = NbPreferences.forModule(EditorOptionsPanel.class);
         this.showOnOpen.box.setSelected(prefs.getBoolean(SHOW_ON_OPEN, true));
+        this.largeFileThreshold.setValue(prefs.getInt(LARGE_FILE_THRESHOLD_MB, DEFAULT_LARGE_FILE_THRESHOLD_MB));
 
         setLayout(new MigLayout("wrap 1", "grow, fill"));
         add(this.showOnOpen);
+        add(this.largeFileThreshold);
     }
 
     @Override
     public void save() {
         Preferences prefs = NbPreferences.forModule(EditorOptionsPanel.class);
         prefs.putBoolean(SHOW_ON_OPEN, showOnOpen.getValue());
+        prefs.putInt(LARGE_FILE_THRESHOLD_MB, (Integer) largeFileThreshold.getValue());
     }
 
     @Override
@@ -64,5 +71,6 @@ public class EditorOptionsPanel extends AbstractUGSSettings {
     public void restoreDefaults() throws Exception {
         Preferences prefs = NbPreferences.forModule(EditorOptionsPanel.class);
         prefs.putBoolean(SHOW_ON_OPEN, true);
+        prefs.putInt(LARGE_FILE_THRESHOLD_MB, DEFAULT_LARGE_FILE_THRESHOLD_MB);
     }
 }
@@ -25,24 +25,41 @@ import org.netbeans.api.editor.mimelookup.MimePath;
 import org.openide.cookies.EditorCookie;
 import org.openide.text.Line;
 
+import javax.swing.Timer;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.prefs.Preferences;
 
 /**
  * Updates the cursor in the editor to the current line of the completed gcode command.
- * The updater is activated by the {@link FollowAction}.
+ * The updater is activated by the {@link FollowAction}. The line updates are coalesced
+ * so that the editor is moved at most once every refresh interval.
  *
  * @author Joacim Breiler
  */
 public class FollowLineUpdater {
+    /**
+     * The minimum time between cursor updates, roughly the refresh rate of the display
+     */
+    private static final int REFRESH_INTERVAL_MS = 1000 / 60;
+
     private final Preferences preferences;
+    private final Timer updateTimer;
+    private final AtomicInteger pendingLineNumber = new AtomicInteger(-1);
+    private volatile GcodeDataObject dataObject;
 
     public FollowLineUpdater() {
         preferences = MimeLookup.getLookup(MimePath.get(GcodeLanguageConfig.MIME_TYPE)).lookup(Preferences.class);
+
+        // Only one update will be scheduled at a time, any line completed in between will be coalesced
+        updateTimer = new Timer(REFRESH_INTERVAL_MS, e -> showPendingLine());
+        updateTimer.setRepeats(false);
     }
 
     /**
      * Sets the current line and tries to update the editor cursor to that position.
-     * If the line number is less than zero or if the follow l
+     * If the line number is less than zero or if the follow line option is disabled
+     * the cursor will not be moved. Can be called from any thread, the cursor will be
+     * moved on the event dispatch thread within the refresh interval.
      *
      * @param dataObject the current data object for
      * @param lineNumber the line number of the command that was completed
@@ -56,7 +73,27 @@ public class FollowLineUpdater {
             return;
         }
 
-        EditorCookie ec = dataObject.getCookie(EditorCookie.class);
+        this.dataObject = dataObject;
+        pendingLineNumber.set(lineNumber);
+        updateTimer.start();
+    }
+
+    /**
+     * Cancels any pending cursor update
+     */
+    public void cancel() {
+        updateTimer.stop();
+        pendingLineNumber.set(-1);
+    }
+
+    private void showPendingLine() {
+        int lineNumber = pendingLineNumber.getAndSet(-1);
+        GcodeDataObject currentDataObject = dataObject;
+        if (lineNumber < 0 || currentDataObject == null) {
+            return;
+        }
+
+        EditorCookie ec = currentDataObject.getCookie(EditorCookie.class);
         if (ec == null) {
             return;
         }
@@ -18,6 +18,7 @@
 */
 package com.willwinder.ugs.nbp.editor;
 
+import com.willwinder.ugs.nbp.editor.largefile.LargeFileTopComponent;
 import com.willwinder.ugs.nbp.lib.lookup.EditorCookie;
 import org.openide.cookies.OpenCookie;
 import org.openide.filesystems.FileObject;
@@ -25,6 +26,7 @@ import org.openide.filesystems.MIMEResolver;
 import org.openide.loaders.DataObject;
 import org.openide.loaders.MultiDataObject;
 import org.openide.loaders.MultiFileLoader;
+import org.openide.util.Mutex;
 import org.openide.util.NbBundle.Messages;
 import org.openide.util.NbPreferences;
 
@@ -54,8 +56,14 @@ public class GcodeDataObject extends MultiDataObject {
 
         Preferences prefs = NbPreferences.forModule(EditorOptionsPanel.class);
         boolean loadEditor = prefs.getBoolean(EditorOptionsPanel.SHOW_ON_OPEN, true);
+        long largeFileThreshold = prefs.getInt(EditorOptionsPanel.LARGE_FILE_THRESHOLD_MB, EditorOptionsPanel.DEFAULT_LARGE_FILE_THRESHOLD_MB) * 1024L * 1024L;
 
-        if (loadEditor) {
+        if (loadEditor && pf.getSize() > largeFileThreshold) {
+            // The file is too large for the text editor, use a read only viewer that loads the lines on demand
+            OpenCookie openCookie = () -> Mutex.EVENT.readAccess(this::openLargeFileViewer);
+            getCookieSet().add(openCookie);
+            getCookieSet().add((EditorCookie) openCookie::open);
+        } else if (loadEditor) {
             registerEditor(GcodeLanguageConfig.MIME_TYPE, true);
 
             // Add an editor cookie so that EditorUtils can find it
@@ -70,6 +78,15 @@ public class GcodeDataObject extends MultiDataObject {
         }
     }
 
+    private void openLargeFileViewer() {
+        LargeFileTopComponent topComponent = LargeFileTopComponent.findOpened(this);
+        if (topComponent == null) {
+            topComponent = new LargeFileTopComponent(this);
+            topComponent.open();
+        }
+        topComponent.requestActive();
+    }
+
     @Override
     protected int associateLookup() {
         return 1;
@@ -100,6 +100,7 @@ public class SourceMultiviewElement extends MultiViewEditorElement implements UG
     @Override
     public void componentClosed() {
         backend.removeUGSEventListener(this);
+        followLineUpdater.cancel();
         obj.getPrimaryFile().removeFileChangeListener(fileListener);
         if (getEditorPane() != null) {
             getEditorPane().removeCaretListener(editorListener);
@@ -117,13 +118,12 @@ public class SourceMultiviewElement extends MultiViewEditorElement implements UG
 
     @Override
     public void UGSEvent(UGSEvent ugsEvent) {
-        SwingUtilities.invokeLater(() -> {
-            if (ugsEvent instanceof ControllerStateEvent) {
-                setEditable();
-            } else if (ugsEvent instanceof CommandEvent && ((CommandEvent) ugsEvent).getCommandEventType() == CommandEventType.COMMAND_COMPLETE) {
-                followLineUpdater.updateCurrentLine(obj, ((CommandEvent) ugsEvent).getCommand().getCommandNumber());             
-            }
-        });
+        if (ugsEvent instanceof ControllerStateEvent) {
+            SwingUtilities.invokeLater(this::setEditable);
+        } else if (ugsEvent instanceof CommandEvent && ((CommandEvent) ugsEvent).getCommandEventType() == CommandEventType.COMMAND_COMPLETE) {
+            // The updater will coalesce the lines and move the cursor on the event dispatch thread
+            followLineUpdater.updateCurrentLine(obj, ((CommandEvent) ugsEvent).getCommand().getCommandNumber());
+        }
     }
 
     private void setEditable() {
@@ -34,15 +34,20 @@ import org.netbeans.spi.editor.highlighting.ReleasableHighlightsContainer;
 import org.netbeans.spi.editor.highlighting.support.AbstractHighlightsContainer;
 import org.netbeans.spi.editor.highlighting.support.OffsetsBag;
 
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.Document;
 import javax.swing.text.Element;
 import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * When a gcode file is sent this highlighter will style the sent lines
+ * When a gcode file is sent this highlighter will style the sent lines. The completed
+ * commands are coalesced and the highlight is updated at most once every refresh interval
+ * by growing a single highlighted range from the start of the document.
  *
  * @author Joacim Breiler
  */
@@ -50,10 +55,26 @@ public class SentCommandsHighlightContainer extends AbstractHighlightsContainer
     private static final Logger LOGGER = Logger.getLogger(SentCommandsHighlightContainer.class.getSimpleName());
     private static final String FONT_STYLE = "EXECUTED";
 
+    /**
+     * The minimum time between highlight updates, roughly the refresh rate of the display
+     */
+    private static final int REFRESH_INTERVAL_MS = 1000 / 60;
+
     private final AttributeSet highlightAttributes;
     private final OffsetsBag bag;
     private final WeakReference<Document> weakDocument;
     private final BackendAPI backend;
+    private final Timer refreshTimer;
+
+    /**
+     * The last completed line that has not yet been highlighted, or -1 if none
+     */
+    private final AtomicInteger pendingLineNumber = new AtomicInteger(-1);
+
+    /**
+     * The end offset of the highlighted range, only accessed on the event dispatch thread
+     */
+    private int highlightedEndOffset = 0;
 
     public SentCommandsHighlightContainer(Document doc) {
         FontColorSettings fontColorSettings = MimeLookup.getLookup(GcodeLanguageConfig.MIME_TYPE).lookup(FontColorSettings.class);
@@ -63,6 +84,10 @@ public class SentCommandsHighlightContainer extends AbstractHighlightsContainer
 
         bag = new OffsetsBag(doc);
         weakDocument = new WeakReference<>(doc);
+
+        // Only one update will be scheduled at a time, any line completed in between will be coalesced
+        refreshTimer = new Timer(REFRESH_INTERVAL_MS, e -> refreshHighlight());
+        refreshTimer.setRepeats(false);
     }
 
     @Override
@@ -71,14 +96,17 @@ public class SentCommandsHighlightContainer extends AbstractHighlightsContainer
     }
 
     private void clearHighlights() {
+        pendingLineNumber.set(-1);
+        refreshTimer.stop();
         bag.clear();
-        notifyHighlightsChanged();
+        highlightedEndOffset = 0;
+        notifyHighlightsChanged(0, Integer.MAX_VALUE);
     }
 
-    private void notifyHighlightsChanged() {
+    private void notifyHighlightsChanged(int startOffset, int endOffset) {
         Document document = getDocument();
         if (document != null) {
-            fireHighlightsChange(document.getStartPosition().getOffset(), document.getEndPosition().getOffset());
+            fireHighlightsChange(Math.max(startOffset, document.getStartPosition().getOffset()), Math.min(endOffset, document.getEndPosition().getOffset()));
         }
     }
 
@@ -86,25 +114,51 @@ public class SentCommandsHighlightContainer extends AbstractHighlightsContainer
         return weakDocument.get();
     }
 
+    /**
+     * Highlights all lines before the given line. Can be called from any thread, the update
+     * will be made on the event dispatch thread within the refresh interval.
+     *
+     * @param lineNumber the zero based line number of the last completed command
+     */
     public void updateHighlight(int lineNumber) {
+        pendingLineNumber.set(lineNumber);
+        refreshTimer.start();
+    }
+
+    private void refreshHighlight() {
+        int lineNumber = pendingLineNumber.getAndSet(-1);
+        if (lineNumber < 0) {
+            return;
+        }
+
         Document document = getDocument();
         if (document == null) {
             clearHighlights();
             return;
         }
 
-        Element root = document.getDefaultRootElement();
-        Element element = root.getElement(lineNumber);
-        bag.clear();
-        if (element != null) {
-            bag.addHighlight(0, element.getStartOffset(), highlightAttributes);
+        Element element = document.getDefaultRootElement().getElement(lineNumber);
+        if (element == null) {
+            return;
         }
-        notifyHighlightsChanged();
+
+        int endOffset = element.getStartOffset();
+        if (endOffset < highlightedEndOffset) {
+            // A new program has been started, shrink the highlighted range
+            bag.clear();
+            bag.addHighlight(0, endOffset, highlightAttributes);
+            notifyHighlightsChanged(endOffset, highlightedEndOffset);
+        } else if (endOffset > highlightedEndOffset) {
+            // Extend the range which only affects the newly highlighted region
+            bag.addHighlight(0, endOffset, highlightAttributes);
+            notifyHighlightsChanged(highlightedEndOffset, endOffset);
+        }
+        highlightedEndOffset = endOffset;
     }
 
     @Override
     public void released() {
-        clearHighlights();
+        SwingUtilities.invokeLater(this::clearHighlights);
         backend.removeUGSEventListener(this);
     }
 
@@ -119,7 +173,7 @@ public class SentCommandsHighlightContainer extends AbstractHighlightsContainer
 
     private void handleControllerStateEvent(ControllerStateEvent event) {
         if (event.getState() == ControllerState.IDLE) {
-            clearHighlights();
+            SwingUtilities.invokeLater(this::clearHighlights);
         }
     }
 
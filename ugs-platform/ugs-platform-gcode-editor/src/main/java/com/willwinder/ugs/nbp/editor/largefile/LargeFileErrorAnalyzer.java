@@ -0,0 +1,104 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.largefile;
+
+import com.willwinder.ugs.nbp.editor.lexer.GcodeTokenId;
+import com.willwinder.ugs.nbp.editor.parser.GcodeError;
+import com.willwinder.ugs.nbp.editor.parser.GcodeParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.ErrorParser;
+import org.netbeans.api.lexer.Language;
+import org.netbeans.api.lexer.Token;
+import org.netbeans.api.lexer.TokenHierarchy;
+import org.netbeans.api.lexer.TokenSequence;
+import org.openide.filesystems.FileObject;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * Analyzes a large file for errors using the same error parsers as the editor. Instead of
+ * lexing the whole file at once, the lines are lexed in blocks which are then discarded so
+ * that only the found errors are kept in memory.
+ *
+ * @author agent
+ */
+public class LargeFileErrorAnalyzer {
+    private static final int LINES_PER_BLOCK = 10000;
+    private static final Language<GcodeTokenId> LANGUAGE = GcodeTokenId.getLanguage();
+
+    private final LineIndex lineIndex;
+    private final FileObject fileObject;
+
+    public LargeFileErrorAnalyzer(LineIndex lineIndex, FileObject fileObject) {
+        this.lineIndex = lineIndex;
+        this.fileObject = fileObject;
+    }
+
+    /**
+     * Analyzes all lines in the file. The line numbers of the returned errors are one based
+     * in the same way as when parsing the file in the editor.
+     *
+     * @param isCancelled returns true if the analysis should be aborted
+     * @param progress    receives the number of analyzed lines after each block
+     * @return all errors found in the file
+     * @throws CancellationException if the analysis was cancelled
+     */
+    public List<GcodeError> analyze(BooleanSupplier isCancelled, IntConsumer progress) {
+        List<ErrorParser> errorParsers = GcodeParser.createErrorParsers(fileObject);
+
+        int lineCount = lineIndex.getLineCount();
+        for (int firstLine = 0; firstLine < lineCount; firstLine += LINES_PER_BLOCK) {
+            if (isCancelled.getAsBoolean()) {
+                throw new CancellationException("The error analysis was cancelled");
+            }
+
+            String text = lineIndex.getLines(firstLine, LINES_PER_BLOCK);
+            TokenSequence<GcodeTokenId> tokenSequence = TokenHierarchy.create(text, LANGUAGE).tokenSequence(LANGUAGE);
+
+            int line = firstLine + 1;
+            while (tokenSequence.moveNext()) {
+                Token<GcodeTokenId> token = tokenSequence.token();
+                if (GcodeTokenId.END_OF_LINE.equals(token.id())) {
+                    line++;
+                }
+
+                for (ErrorParser errorParser : errorParsers) {
+                    errorParser.handleToken(token, line);
+                }
+            }
+            progress.accept(Math.min(lineCount, firstLine + LINES_PER_BLOCK));
+        }
+
+        return errorParsers.stream()
+                .flatMap(errorParser -> errorParser.getErrors().stream())
+                .toList();
+    }
+
+    /**
+     * Lexes a single line, used for highlighting the visible lines
+     *
+     * @param text the text of the line
+     * @return a token sequence for the line
+     */
+    public static TokenSequence<GcodeTokenId> lex(String text) {
+        return TokenHierarchy.create(text, LANGUAGE).tokenSequence(LANGUAGE);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.largefile;
+
+import com.willwinder.ugs.nbp.editor.GcodeLanguageConfig;
+import com.willwinder.ugs.nbp.editor.lexer.GcodeTokenId;
+import com.willwinder.ugs.nbp.editor.parser.GcodeError;
+import org.netbeans.api.editor.mimelookup.MimeLookup;
+import org.netbeans.api.editor.mimelookup.MimePath;
+import org.netbeans.api.editor.settings.FontColorSettings;
+import org.netbeans.api.lexer.Token;
+import org.netbeans.api.lexer.TokenSequence;
+
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.ListCellRenderer;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.StyleConstants;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Renders a line in the large file viewer with a line number and syntax highlighting.
+ * Only the visible lines are rendered so each line is lexed when it is painted.
+ *
+ * @author agent
+ */
+public class LargeFileLineRenderer extends JComponent implements ListCellRenderer<String> {
+    private static final Color ERROR_BACKGROUND = new Color(255, 220, 220);
+    private static final Color LINE_NUMBER_COLOR = Color.GRAY;
+    private static final int GUTTER_PADDING = 8;
+
+    private final Map<GcodeTokenId, Color> tokenColors = new EnumMap<>(GcodeTokenId.class);
+    private final Font boldFont;
+    private String text = "";
+    private String lineNumber = "";
+    private int gutterWidth;
+    private Color background;
+    private Color foreground;
+    private transient Map<Integer, List<GcodeError>> errorsByLine = Collections.emptyMap();
+
+    public LargeFileLineRenderer(Font font) {
+        setFont(font);
+        boldFont = font.deriveFont(Font.BOLD);
+        setOpaque(true);
+
+        FontColorSettings fontColorSettings = MimeLookup.getLookup(MimePath.get(GcodeLanguageConfig.MIME_TYPE)).lookup(FontColorSettings.class);
+        if (fontColorSettings != null) {
+            for (GcodeTokenId tokenId : GcodeTokenId.values()) {
+                AttributeSet attributes = fontColorSettings.getTokenFontColors(tokenId.name());
+                if (attributes != null && attributes.getAttribute(StyleConstants.Foreground) instanceof Color color) {
+                    tokenColors.put(tokenId, color);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the errors to highlight
+     *
+     * @param errors the errors found in the file
+     */
+    public void setErrors(List<GcodeError> errors) {
+        errorsByLine = errors.stream().collect(Collectors.groupingBy(GcodeError::getLine));
+    }
+
+    @Override
+    public JComponent getListCellRendererComponent(JList<? extends String> list, String value, int index, boolean isSelected, boolean cellHasFocus) {
+        text = value == null ? "" : value;
+        lineNumber = String.valueOf(index + 1);
+        gutterWidth = getFontMetrics(getFont()).stringWidth(String.valueOf(list.getModel().getSize())) + (GUTTER_PADDING * 2);
+
+        // The errors are registered with one based line numbers
+        List<GcodeError> errors = errorsByLine.get(index + 1);
+        if (isSelected) {
+            background = list.getSelectionBackground();
+            foreground = list.getSelectionForeground();
+        } else {
+            background = errors != null ? ERROR_BACKGROUND : list.getBackground();
+            foreground = list.getForeground();
+        }
+
+        setToolTipText(errors == null ? null : errors.stream()
+                .map(GcodeError::getDescription)
+                .collect(Collectors.joining("<br>", "<html>", "</html>")));
+        return this;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(background);
+        g.fillRect(0, 0, getWidth(), getHeight());
+
+        FontMetrics fontMetrics = g.getFontMetrics(getFont());
+        int baseline = fontMetrics.getAscent();
+        g.setFont(getFont());
+        g.setColor(LINE_NUMBER_COLOR);
+        g.drawString(lineNumber, gutterWidth - GUTTER_PADDING - fontMetrics.stringWidth(lineNumber), baseline);
+
+        int x = gutterWidth;
+        TokenSequence<GcodeTokenId> tokenSequence = LargeFileErrorAnalyzer.lex(text);
+        while (tokenSequence.moveNext() && x < getWidth()) {
+            Token<GcodeTokenId> token = tokenSequence.token();
+            String tokenText = token.text().toString();
+            boolean isKeyword = token.id() == GcodeTokenId.MOVEMENT || token.id() == GcodeTokenId.MACHINE || token.id() == GcodeTokenId.TOOL;
+            Font font = isKeyword ? boldFont : getFont();
+            g.setFont(font);
+            g.setColor(tokenColors.getOrDefault(token.id(), foreground));
+            g.drawString(tokenText, x, baseline);
+            x += g.getFontMetrics(font).stringWidth(tokenText);
+        }
+    }
+}
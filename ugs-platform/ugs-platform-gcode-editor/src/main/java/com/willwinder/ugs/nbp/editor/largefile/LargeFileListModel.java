@@ -0,0 +1,67 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.largefile;
+
+import javax.swing.AbstractListModel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A list model that reads the lines of a large file on demand. The lines are read in blocks
+ * and only a limited number of blocks are cached, so only the lines around the visible
+ * region are kept in memory.
+ *
+ * @author agent
+ */
+public class LargeFileListModel extends AbstractListModel<String> {
+    private static final int LINES_PER_BLOCK = 256;
+    private static final int MAX_CACHED_BLOCKS = 64;
+
+    private final transient LineIndex lineIndex;
+    private final transient Map<Integer, String[]> blockCache = new LinkedHashMap<>(MAX_CACHED_BLOCKS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+            return size() > MAX_CACHED_BLOCKS;
+        }
+    };
+
+    public LargeFileListModel(LineIndex lineIndex) {
+        this.lineIndex = lineIndex;
+    }
+
+    @Override
+    public int getSize() {
+        return lineIndex.getLineCount();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        String[] block = blockCache.computeIfAbsent(index / LINES_PER_BLOCK, this::readBlock);
+        return block[index % LINES_PER_BLOCK];
+    }
+
+    private String[] readBlock(int blockIndex) {
+        int firstLine = blockIndex * LINES_PER_BLOCK;
+        String[] block = new String[Math.min(LINES_PER_BLOCK, lineIndex.getLineCount() - firstLine)];
+        for (int i = 0; i < block.length; i++) {
+            block[i] = lineIndex.getLine(firstLine + i);
+        }
+        return block;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.largefile;
+
+import com.willwinder.ugs.nbp.editor.EditorUtils;
+import com.willwinder.ugs.nbp.editor.parser.GcodeError;
+import com.willwinder.universalgcodesender.i18n.Localization;
+import org.openide.ErrorManager;
+import org.openide.loaders.DataObject;
+import org.openide.nodes.Node;
+import org.openide.windows.TopComponent;
+
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JScrollPane;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+import java.awt.BorderLayout;
+import java.awt.Font;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A read only viewer for gcode files that are too large for the editor. The file is memory
+ * mapped and only the visible lines are read, lexed and rendered. The whole file is analyzed
+ * for errors in the background.
+ *
+ * @author agent
+ */
+public class LargeFileTopComponent extends TopComponent {
+    private static final Logger LOGGER = Logger.getLogger(LargeFileTopComponent.class.getName());
+
+    private final transient DataObject dataObject;
+    private final transient ExecutorService executor;
+    private final AtomicBoolean isClosed = new AtomicBoolean(false);
+    private final JList<String> lineList = new JList<>();
+    private final JLabel statusLabel = new JLabel();
+    private final LargeFileLineRenderer lineRenderer;
+    private transient volatile LineIndex lineIndex;
+
+    public LargeFileTopComponent(DataObject dataObject) {
+        this.dataObject = dataObject;
+        this.executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "LargeFileTopComponent " + dataObject.getPrimaryFile().getNameExt()));
+        setName(dataObject.getPrimaryFile().getNameExt());
+        setToolTipText(dataObject.getPrimaryFile().getPath());
+        setActivatedNodes(new Node[]{dataObject.getNodeDelegate()});
+
+        Font font = UIManager.getFont("TextArea.font");
+        Font monospacedFont = new Font(Font.MONOSPACED, Font.PLAIN, font == null ? 12 : font.getSize());
+        lineRenderer = new LargeFileLineRenderer(monospacedFont);
+
+        // Use a fixed cell size to prevent the list from measuring each line
+        lineList.setCellRenderer(lineRenderer);
+        lineList.setFixedCellHeight(lineRenderer.getFontMetrics(monospacedFont).getHeight());
+        lineList.setFixedCellWidth(10000);
+        lineList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        setLayout(new BorderLayout());
+        add(new JScrollPane(lineList), BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Finds the viewer for the data object if it is already opened
+     *
+     * @param dataObject the data object
+     * @return the opened viewer or null if not opened
+     */
+    public static LargeFileTopComponent findOpened(DataObject dataObject) {
+        return TopComponent.getRegistry().getOpened().stream()
+                .filter(LargeFileTopComponent.class::isInstance)
+                .map(LargeFileTopComponent.class::cast)
+                .filter(topComponent -> topComponent.dataObject.equals(dataObject))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Override
+    public int getPersistenceType() {
+        return PERSISTENCE_NEVER;
+    }
+
+    @Override
+    protected void componentOpened() {
+        super.componentOpened();
+        EditorUtils.openFile(dataObject.getPrimaryFile());
+        statusLabel.setText(Localization.getString("platform.plugin.editor.largeFile.indexing"));
+        executor.execute(this::loadFile);
+    }
+
+    private void loadFile() {
+        try {
+            File file = new File(dataObject.getPrimaryFile().getPath());
+            lineIndex = new LineIndex(file.toPath(), Integer.MAX_VALUE, isClosed::get);
+            LargeFileListModel model = new LargeFileListModel(lineIndex);
+            SwingUtilities.invokeLater(() -> lineList.setModel(model));
+
+            int lineCount = lineIndex.getLineCount();
+            LargeFileErrorAnalyzer errorAnalyzer = new LargeFileErrorAnalyzer(lineIndex, dataObject.getPrimaryFile());
+            List<GcodeError> errors = errorAnalyzer.analyze(isClosed::get, analyzedLines -> setStatus(String.format(Localization.getString("platform.plugin.editor.largeFile.analyzing"), analyzedLines, lineCount)));
+            SwingUtilities.invokeLater(() -> {
+                lineRenderer.setErrors(errors);
+                lineList.repaint();
+            });
+            setStatus(String.format(Localization.getString("platform.plugin.editor.largeFile.result"), lineCount, errors.size()));
+        } catch (CancellationException e) {
+            LOGGER.log(Level.FINE, "Loading of the file was cancelled", e);
+        } catch (IOException e) {
+            if (!isClosed.get()) {
+                setStatus(String.format(Localization.getString("platform.plugin.editor.largeFile.error"), e.getMessage()));
+                ErrorManager.getDefault().notify(ErrorManager.WARNING, e);
+            }
+        }
+    }
+
+    private void setStatus(String status) {
+        SwingUtilities.invokeLater(() -> statusLabel.setText(status));
+    }
+
+    @Override
+    protected void componentClosed() {
+        isClosed.set(true);
+        executor.shutdownNow();
+        try {
+            if (lineIndex != null) {
+                lineIndex.close();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not close the file", e);
+        }
+        EditorUtils.unloadFile();
+        super.componentClosed();
+    }
+}
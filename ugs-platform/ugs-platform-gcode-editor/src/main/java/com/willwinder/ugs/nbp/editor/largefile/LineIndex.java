@@ -0,0 +1,188 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.largefile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An index of the line offsets in a file which is memory mapped, making it possible to read
+ * any line without loading the whole file into memory. The file is mapped in segments as a
+ * single mapping is limited to two gigabytes.
+ *
+ * @author agent
+ */
+public class LineIndex implements Closeable {
+    private static final int DEFAULT_SEGMENT_SIZE = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long segmentSize;
+    private final long size;
+    private long[] lineOffsets = new long[1024];
+    private int lineCount;
+
+    /**
+     * Opens the file and indexes all lines
+     *
+     * @param path the file to index
+     * @throws IOException if the file couldn't be read
+     */
+    public LineIndex(Path path) throws IOException {
+        this(path, DEFAULT_SEGMENT_SIZE, () -> false);
+    }
+
+    /**
+     * Opens the file and indexes all lines
+     *
+     * @param path        the file to index
+     * @param segmentSize the maximum size in bytes of each mapped segment
+     * @param isCancelled returns true if the indexing should be aborted
+     * @throws IOException if the file couldn't be read or if the indexing was cancelled
+     */
+    public LineIndex(Path path, int segmentSize, BooleanSupplier isCancelled) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            this.segmentSize = segmentSize;
+            this.segments = new MappedByteBuffer[(int) ((size + segmentSize - 1) / segmentSize)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = i * this.segmentSize;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(this.segmentSize, size - position));
+            }
+            indexLines(isCancelled);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void indexLines(BooleanSupplier isCancelled) throws IOException {
+        if (size == 0) {
+            return;
+        }
+
+        addLine(0);
+        for (int segmentIndex = 0; segmentIndex < segments.length; segmentIndex++) {
+            if (isCancelled.getAsBoolean()) {
+                throw new IOException("The indexing of the file was cancelled");
+            }
+
+            MappedByteBuffer segment = segments[segmentIndex];
+            long segmentStart = segmentIndex * segmentSize;
+            int limit = segment.limit();
+            for (int i = 0; i < limit; i++) {
+                if (segment.get(i) == '\n' && segmentStart + i + 1 < size) {
+                    addLine(segmentStart + i + 1);
+                }
+            }
+        }
+    }
+
+    private void addLine(long offset) {
+        if (lineCount == lineOffsets.length) {
+            lineOffsets = Arrays.copyOf(lineOffsets, lineOffsets.length + (lineOffsets.length >> 1));
+        }
+        lineOffsets[lineCount++] = offset;
+    }
+
+    /**
+     * @return the number of lines in the file
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return the size of the file in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the byte offset of where the given line starts
+     *
+     * @param line the zero based line index
+     * @return the byte offset in the file
+     */
+    public long getLineOffset(int line) {
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("Line " + line + " is outside of the file with " + lineCount + " lines");
+        }
+        return lineOffsets[line];
+    }
+
+    /**
+     * Reads the given line without the line ending
+     *
+     * @param line the zero based line index
+     * @return the line text
+     */
+    public String getLine(int line) {
+        long start = getLineOffset(line);
+        long end = line + 1 < lineCount ? lineOffsets[line + 1] : size;
+
+        // Strip the line ending
+        if (end > start && getByte(end - 1) == '\n') {
+            end--;
+        }
+        if (end > start && getByte(end - 1) == '\r') {
+            end--;
+        }
+
+        byte[] bytes = new byte[(int) (end - start)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = getByte(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a range of lines, each line will be terminated with a line feed.
+     *
+     * @param firstLine the zero based index of the first line
+     * @param count     the number of lines to read
+     * @return the text of the lines
+     */
+    public String getLines(int firstLine, int count) {
+        StringBuilder result = new StringBuilder();
+        int lastLine = Math.min(lineCount, firstLine + count);
+        for (int line = firstLine; line < lastLine; line++) {
+            result.append(getLine(line)).append('\n');
+        }
+        return result.toString();
+    }
+
+    private byte getByte(long offset) {
+        return segments[(int) (offset / segmentSize)].get((int) (offset % segmentSize));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
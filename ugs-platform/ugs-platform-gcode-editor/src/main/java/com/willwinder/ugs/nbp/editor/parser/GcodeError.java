@@ -28,7 +28,30 @@ import org.openide.filesystems.FileObject;
  * @author Joacim Breiler
  */
 public class GcodeError extends DefaultError {
-    public GcodeError(String key, String displayName, String description, FileObject file, int start, int end, boolean lineError, Severity severity) {
+    private final int line;
+
+    public GcodeError(String key, String displayName, String description, FileObject file, int start, int end, boolean lineError, Severity severity, int line) {
         super(key, displayName, description, file, start, end, lineError, severity);
+        this.line = line;
+    }
+
+    /**
+     * Returns the line number where the error was found
+     *
+     * @return the line number
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Creates a copy of this error moved by the given offset and number of lines
+     *
+     * @param offsetDelta the number of characters to move the error
+     * @param lineDelta   the number of lines to move the error
+     * @return a new moved error
+     */
+    public GcodeError translate(int offsetDelta, int lineDelta) {
+        return new GcodeError(getKey(), getDisplayName(), getDescription(), getFile(), getStartPosition() + offsetDelta, getEndPosition() + offsetDelta, isLineError(), getSeverity(), line + lineDelta);
     }
 }
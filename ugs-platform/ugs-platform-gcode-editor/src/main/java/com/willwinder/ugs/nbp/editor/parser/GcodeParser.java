@@ -18,10 +18,11 @@
 */
 package com.willwinder.ugs.nbp.editor.parser;
 
-import com.willwinder.ugs.nbp.editor.lexer.GcodeTokenId;
 import com.willwinder.ugs.nbp.editor.parser.errors.*;
-import org.netbeans.api.lexer.Token;
-import org.netbeans.api.lexer.TokenSequence;
+import com.willwinder.ugs.nbp.lib.lookup.CentralLookup;
+import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.firmware.FirmwareSettingsException;
+import com.willwinder.universalgcodesender.model.BackendAPI;
 import org.netbeans.modules.parsing.api.Snapshot;
 import org.netbeans.modules.parsing.api.Task;
 import org.netbeans.modules.parsing.spi.Parser;
@@ -33,7 +34,7 @@ import org.openide.util.lookup.ServiceProvider;
 import javax.swing.event.ChangeListener;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 /**
  * A gcode parser that parses errors from gcode tokens
@@ -43,20 +44,59 @@ import java.util.stream.Collectors;
 @ServiceProvider(service = GcodeParser.class)
 public class GcodeParser extends Parser {
 
-
-
     /**
      * A support object for notifying listeners about that we need to reparse the document
      */
     private final ChangeSupport changeSupport = new ChangeSupport(this);
     private List<GcodeError> errors;
     private Snapshot snapshot;
+    private FileObject fileObject;
+    private IncrementalErrorAnalyzer errorAnalyzer;
+    private String backendState = "";
 
     @Override
     public void parse(Snapshot snapshot, Task task, SourceModificationEvent sourceModificationEvent) {
         this.snapshot = snapshot;
 
         FileObject fileObject = snapshot.getSource().getFileObject();
+        if (errorAnalyzer == null || !Objects.equals(fileObject, this.fileObject)) {
+            this.fileObject = fileObject;
+            errorAnalyzer = new IncrementalErrorAnalyzer(() -> createErrorParsers(fileObject));
+        }
+
+        // Some error parsers depends on the connected controller, the cached result can then no longer be used
+        String currentBackendState = getBackendState();
+        if (!currentBackendState.equals(backendState)) {
+            backendState = currentBackendState;
+            errorAnalyzer.clear();
+        }
+
+        this.errors = errorAnalyzer.analyze(snapshot.getText(), snapshot.getTokenHierarchy().tokenSequence());
+    }
+
+    private static String getBackendState() {
+        BackendAPI backend = CentralLookup.getDefault().lookup(BackendAPI.class);
+        if (backend == null || backend.getController() == null) {
+            return "";
+        }
+
+        IController controller = backend.getController();
+        boolean isHomingEnabled;
+        try {
+            isHomingEnabled = controller.getFirmwareSettings() == null || controller.getFirmwareSettings().isHomingEnabled();
+        } catch (FirmwareSettingsException e) {
+            isHomingEnabled = false;
+        }
+        return controller.getClass().getName() + ":" + backend.isConnected() + ":" + isHomingEnabled;
+    }
+
+    /**
+     * Creates all error parsers that should be used for analyzing a gcode file
+     *
+     * @param fileObject the file that is analyzed
+     * @return a list of new error parsers
+     */
+    public static List<ErrorParser> createErrorParsers(FileObject fileObject) {
         List<ErrorParser> errorParserList = new ArrayList<>();
         errorParserList.add(new SystemCommandsErrorParser(fileObject));
         errorParserList.add(new FeedRateMissingErrorParser(fileObject));
@@ -66,24 +106,7 @@ public class GcodeParser extends Parser {
         errorParserList.add(new InvalidGcodeErrorParser(fileObject));
         errorParserList.add(new UnitsMissingErrorParser(fileObject));
         errorParserList.add(new ReturnToHomeGcodeErrorParser(fileObject));
-
-        TokenSequence<?> tokenSequence = snapshot.getTokenHierarchy().tokenSequence();
-        tokenSequence.moveStart();
-
-        int line = 1; // The snapshot starts on line 1
-        while (tokenSequence.moveNext()) {
-            Token<?> token = tokenSequence.token();
-            if (GcodeTokenId.END_OF_LINE.equals(token.id())) {
-                line++;
-            }
-
-            final int currentLine = line;
-            errorParserList.forEach(errorParser -> errorParser.handleToken(token, currentLine));
-        }
-
-        this.errors = errorParserList.stream()
-                .flatMap(ep -> ep.getErrors().stream())
-                .collect(Collectors.toList());
+        return errorParserList;
     }
 
     @Override
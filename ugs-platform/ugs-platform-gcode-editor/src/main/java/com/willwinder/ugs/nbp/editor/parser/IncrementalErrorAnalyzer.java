@@ -0,0 +1,205 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.parser;
+
+import com.willwinder.ugs.nbp.editor.lexer.GcodeTokenId;
+import com.willwinder.ugs.nbp.editor.parser.errors.ErrorParser;
+import org.netbeans.api.lexer.Language;
+import org.netbeans.api.lexer.Token;
+import org.netbeans.api.lexer.TokenHierarchy;
+import org.netbeans.api.lexer.TokenSequence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Analyzes a document for errors and caches the result of each block of lines so that
+ * only the blocks that have been modified needs to be analyzed again.
+ * <p>
+ * The blocks are split on content defined line boundaries, meaning that inserting or
+ * removing lines will only change the blocks around the edit while the following blocks
+ * are kept intact. The blocks are analyzed with the error parsers that are not stateful
+ * and the modified blocks are analyzed in parallel. The stateful error parsers are run
+ * from the start of the document until they have found what they are looking for.
+ *
+ * @author agent
+ */
+public class IncrementalErrorAnalyzer {
+    private static final Language<GcodeTokenId> LANGUAGE = GcodeTokenId.getLanguage();
+
+    /**
+     * The minimum and maximum number of lines in a block
+     */
+    private static final int MIN_BLOCK_LINES = 16;
+    private static final int MAX_BLOCK_LINES = 1024;
+
+    /**
+     * A block will end on a line where the hash of the line has the leading bits unset,
+     * which on average gives blocks of 128 lines
+     */
+    private static final int BOUNDARY_SHIFT = 25;
+
+    private final Supplier<List<ErrorParser>> errorParserFactory;
+
+    /**
+     * The errors of each analyzed block with their position relative to the start of the block
+     */
+    private Map<String, List<GcodeError>> blockErrors = new HashMap<>();
+
+    /**
+     * Creates an analyzer
+     *
+     * @param errorParserFactory a factory for creating new instances of all error parsers
+     */
+    public IncrementalErrorAnalyzer(Supplier<List<ErrorParser>> errorParserFactory) {
+        this.errorParserFactory = errorParserFactory;
+    }
+
+    /**
+     * Analyzes the document for errors
+     *
+     * @param text          the text of the document
+     * @param tokenSequence the tokens of the document used for the stateful error parsers
+     * @return the errors found in the document
+     */
+    public List<GcodeError> analyze(CharSequence text, TokenSequence<?> tokenSequence) {
+        List<Block> blocks = splitBlocks(text);
+
+        // Analyze the blocks that are not cached in parallel
+        Map<String, List<GcodeError>> previousBlockErrors = blockErrors;
+        Map<String, List<GcodeError>> analyzedBlockErrors = blocks.stream()
+                .map(Block::text)
+                .filter(blockText -> !previousBlockErrors.containsKey(blockText))
+                .distinct()
+                .toList()
+                .parallelStream()
+                .collect(Collectors.toMap(Function.identity(), this::analyzeBlock));
+
+        // Only keep the blocks that still exists in the document
+        Map<String, List<GcodeError>> currentBlockErrors = new HashMap<>();
+        blocks.forEach(block -> currentBlockErrors.put(block.text(), previousBlockErrors.getOrDefault(block.text(), analyzedBlockErrors.get(block.text()))));
+        blockErrors = currentBlockErrors;
+
+        List<GcodeError> result = new ArrayList<>();
+        for (Block block : blocks) {
+            for (GcodeError error : currentBlockErrors.get(block.text())) {
+                result.add(error.translate(block.offset(), block.line() - 1));
+            }
+        }
+
+        result.addAll(analyzeStateful(tokenSequence));
+        return result;
+    }
+
+    /**
+     * Clears all cached results, needs to be done if the result of the error parsers
+     * depends on something other than the document.
+     */
+    public void clear() {
+        blockErrors = new HashMap<>();
+    }
+
+    private List<GcodeError> analyzeBlock(String blockText) {
+        List<ErrorParser> errorParsers = errorParserFactory.get().stream()
+                .filter(errorParser -> !errorParser.isStateful())
+                .toList();
+
+        handleTokens(TokenHierarchy.create(blockText, LANGUAGE).tokenSequence(LANGUAGE), errorParsers);
+        return errorParsers.stream()
+                .flatMap(errorParser -> errorParser.getErrors().stream())
+                .toList();
+    }
+
+    private List<GcodeError> analyzeStateful(TokenSequence<?> tokenSequence) {
+        List<ErrorParser> errorParsers = errorParserFactory.get().stream()
+                .filter(ErrorParser::isStateful)
+                .toList();
+
+        tokenSequence.moveStart();
+        handleTokens(tokenSequence, errorParsers);
+        return errorParsers.stream()
+                .flatMap(errorParser -> errorParser.getErrors().stream())
+                .toList();
+    }
+
+    private static void handleTokens(TokenSequence<?> tokenSequence, List<ErrorParser> errorParsers) {
+        List<ErrorParser> activeErrorParsers = new ArrayList<>(errorParsers);
+        int line = 1; // The text starts on line 1
+        while (!activeErrorParsers.isEmpty() && tokenSequence.moveNext()) {
+            Token<?> token = tokenSequence.token();
+            if (GcodeTokenId.END_OF_LINE.equals(token.id())) {
+                line++;
+            }
+
+            for (ErrorParser errorParser : activeErrorParsers) {
+                errorParser.handleToken(token, line);
+            }
+            activeErrorParsers.removeIf(ErrorParser::isComplete);
+        }
+    }
+
+    private static List<Block> splitBlocks(CharSequence text) {
+        List<Block> blocks = new ArrayList<>();
+        int blockOffset = 0;
+        int blockLine = 1;
+        int blockLineCount = 0;
+        int lineHash = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            if (character != '\n') {
+                lineHash = (31 * lineHash) + character;
+                continue;
+            }
+
+            blockLineCount++;
+            if (blockLineCount >= MAX_BLOCK_LINES || (blockLineCount >= MIN_BLOCK_LINES && isBoundary(lineHash))) {
+                blocks.add(new Block(text.subSequence(blockOffset, i + 1).toString(), blockOffset, blockLine));
+                blockOffset = i + 1;
+                blockLine += blockLineCount;
+                blockLineCount = 0;
+            }
+            lineHash = 0;
+        }
+
+        if (blockOffset < text.length()) {
+            blocks.add(new Block(text.subSequence(blockOffset, text.length()).toString(), blockOffset, blockLine));
+        }
+        return blocks;
+    }
+
+    private static boolean isBoundary(int lineHash) {
+        // Mix the bits of the hash as lines with similar text will have similar hashes
+        return ((lineHash ^ (lineHash >>> 16)) * 0x9E3779B9) >>> BOUNDARY_SHIFT == 0;
+    }
+
+    /**
+     * A block of lines in the document
+     *
+     * @param text   the text of the block including the line endings
+     * @param offset the offset of the block in the document
+     * @param line   the line number of the first line in the block starting from one
+     */
+    private record Block(String text, int offset, int line) {
+    }
+}
@@ -32,4 +32,25 @@ public interface ErrorParser {
     void handleToken(Token<?> token, int line);
 
     List<GcodeError> getErrors();
+
+    /**
+     * Returns if the result of this parser depends on the tokens before the current one.
+     * Parsers that are not stateful will only report errors on the handled token which
+     * makes it possible to analyze the document in separate blocks.
+     *
+     * @return true if the parser needs to handle all tokens from the start of the document
+     */
+    default boolean isStateful() {
+        return false;
+    }
+
+    /**
+     * Returns if the parser has found what it is looking for and that the result will
+     * not be affected by any further tokens.
+     *
+     * @return true if no more tokens needs to be handled
+     */
+    default boolean isComplete() {
+        return false;
+    }
 }
@@ -33,6 +33,7 @@ public class FeedRateMissingErrorParser implements ErrorParser {
     private final FileObject fileObject;
     private int firstFeedRateLine = 0;
     private int firstMovementLine = 0;
+    private int currentLine = 0;
     private Token<?> firstMovementToken;
     private Token<?> firstFeedRateToken;
 
@@ -42,6 +43,7 @@ public class FeedRateMissingErrorParser implements ErrorParser {
 
     @Override
     public void handleToken(Token<?> token, int line) {
+        currentLine = line;
         if (GcodeTokenId.MOVEMENT.equals(token.id())) {
             if (isMovementCommand(token) && firstMovementToken == null) {
                 firstMovementToken = token;
@@ -63,13 +65,24 @@ public class FeedRateMissingErrorParser implements ErrorParser {
                 StringUtils.equalsIgnoreCase(token.text(), Code.G42.name());
     }
 
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
+    @Override
+    public boolean isComplete() {
+        // The result is settled when both have been found or when the line with the first movement has ended
+        return firstMovementToken != null && (firstFeedRateToken != null || currentLine > firstMovementLine);
+    }
+
     @Override
     public List<GcodeError> getErrors() {
         if (firstFeedRateToken == null && firstMovementToken == null) {
             return Collections.emptyList();
         } else if (firstMovementToken != null && (firstFeedRateToken == null || firstMovementLine < firstFeedRateLine)) {
             int offset = firstMovementToken.offset(null);
-            GcodeError error = new GcodeError("no-feed-rate", "No feed rate", "No feed rate has been assigned before movement command", fileObject, offset, offset + firstMovementToken.length(), true, Severity.ERROR);
+            GcodeError error = new GcodeError("no-feed-rate", "No feed rate", "No feed rate has been assigned before movement command", fileObject, offset, offset + firstMovementToken.length(), true, Severity.ERROR, firstMovementLine);
             return Collections.singletonList(error);
         }
 
@@ -51,7 +51,7 @@ public class InvalidG2CommandErrorParser implements ErrorParser {
             // This is a temporary error because of the wierd state we end up in when using this
             if (Code.M0.name().equalsIgnoreCase(token.text().toString())) {
                 int offset = token.offset(null);
-                GcodeError error = new GcodeError("command-not-supported", "Command not supported", String.format("The command '%s' is not currently supported", token.text()), fileObject, offset, offset + token.length(), true, Severity.ERROR);
+                GcodeError error = new GcodeError("command-not-supported", "Command not supported", String.format("The command '%s' is not currently supported", token.text()), fileObject, offset, offset + token.length(), true, Severity.ERROR, line);
                 errorList.add(error);
             }
         }
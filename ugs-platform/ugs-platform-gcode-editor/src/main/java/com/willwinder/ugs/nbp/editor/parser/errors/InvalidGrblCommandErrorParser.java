@@ -78,7 +78,7 @@ public class InvalidGrblCommandErrorParser implements ErrorParser {
         }
 
         int offset = token.offset(null);
-        GcodeError error = new GcodeError("command-not-supported", "Command not supported", String.format("The command '%s' might not be supported by the controller", token.text()), fileObject, offset, offset + token.length(), true, Severity.WARNING);
+        GcodeError error = new GcodeError("command-not-supported", "Command not supported", String.format("The command '%s' might not be supported by the controller", token.text()), fileObject, offset, offset + token.length(), true, Severity.WARNING, line);
         errorList.add(error);
     }
 
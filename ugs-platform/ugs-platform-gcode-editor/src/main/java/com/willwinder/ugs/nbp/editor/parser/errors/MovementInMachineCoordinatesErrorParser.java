@@ -35,7 +35,8 @@ public class MovementInMachineCoordinatesErrorParser implements ErrorParser {
                     offset,
                     offset + token.length(),
                     true,
-                    Severity.WARNING);
+                    Severity.WARNING,
+                    line);
 
             errorList.add(error);
         }
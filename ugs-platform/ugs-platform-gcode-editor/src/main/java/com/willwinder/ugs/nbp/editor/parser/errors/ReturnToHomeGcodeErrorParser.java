@@ -47,7 +47,7 @@ public class ReturnToHomeGcodeErrorParser implements ErrorParser {
     public void handleToken(Token<?> token, int line) {
         if (GcodeTokenId.MOVEMENT.equals(token.id()) && StringUtils.equalsIgnoreCase(token.text(), Code.G28.toString())) {
             int offset = token.offset(null);
-            GcodeError error = new GcodeError("g28-used", "Using G28", "The command 'G28' will return to machine to a the predefined machine zero. Make sure that you have set a safe machine zero with 'G28.1' before running the program.", fileObject, offset, offset + token.length(), true, Severity.INFO);
+            GcodeError error = new GcodeError("g28-used", "Using G28", "The command 'G28' will return to machine to a the predefined machine zero. Make sure that you have set a safe machine zero with 'G28.1' before running the program.", fileObject, offset, offset + token.length(), true, Severity.INFO, line);
             errorList.add(error);
         }
     }
@@ -21,7 +21,7 @@ public class SystemCommandsErrorParser implements ErrorParser {
     public void handleToken(Token<?> token, int line) {
         if (GcodeTokenId.SYSTEM.equals(token.id())) {
             int offset = token.offset(null);
-            GcodeError error = new GcodeError("system-command-in-gcode", "System commands should not be included in gcode", String.format("The command '%s' is a system command and should not be included in the gcode. These types of commands are generally not included in the controllers planner buffer and the order of the commands can not be guaranteed or will exhaust the life span of the controllers flash memory.", token.text()), fileObject, offset, offset + token.length(), true, Severity.ERROR);
+            GcodeError error = new GcodeError("system-command-in-gcode", "System commands should not be included in gcode", String.format("The command '%s' is a system command and should not be included in the gcode. These types of commands are generally not included in the controllers planner buffer and the order of the commands can not be guaranteed or will exhaust the life span of the controllers flash memory.", token.text()), fileObject, offset, offset + token.length(), true, Severity.ERROR, line);
             errorList.add(error);
         }
     }
@@ -33,6 +33,7 @@ public class UnitsMissingErrorParser implements ErrorParser {
     private final FileObject fileObject;
     private int firstUnitLine = 0;
     private int firstMovementLine = 0;
+    private int currentLine = 0;
     private Token<?> firstMovementToken;
     private Token<?> firstUnitToken;
 
@@ -42,6 +43,7 @@ public class UnitsMissingErrorParser implements ErrorParser {
 
     @Override
     public void handleToken(Token<?> token, int line) {
+        currentLine = line;
         if (GcodeTokenId.MOVEMENT.equals(token.id())) {
             if (isMovementCommand(token) && firstMovementToken == null) {
                 firstMovementToken = token;
@@ -66,13 +68,24 @@ public class UnitsMissingErrorParser implements ErrorParser {
                 StringUtils.equalsIgnoreCase(token.text(), "G03");
     }
 
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
+    @Override
+    public boolean isComplete() {
+        // The result is settled when both have been found or when the line with the first movement has ended
+        return firstMovementToken != null && (firstUnitToken != null || currentLine > firstMovementLine);
+    }
+
     @Override
     public List<GcodeError> getErrors() {
         if (firstUnitToken == null && firstMovementToken == null) {
             return Collections.emptyList();
         } else if (firstMovementToken != null && (firstUnitToken == null || firstMovementLine < firstUnitLine)) {
            int offset = firstMovementToken.offset(null);
-            GcodeError error = new GcodeError("no-units", "No units defined", "No unit (G20/G21) has been assigned before movement command", fileObject, offset, offset + firstMovementToken.length(), true, Severity.ERROR);
+            GcodeError error = new GcodeError("no-units", "No units defined", "No unit (G20/G21) has been assigned before movement command", fileObject, offset, offset + firstMovementToken.length(), true, Severity.ERROR, firstMovementLine);
             return Collections.singletonList(error);
         }
 
@@ -0,0 +1,95 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.largefile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class LineIndexTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path createFile(String content) throws IOException {
+        Path path = temporaryFolder.newFile().toPath();
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    @Test
+    public void emptyFileShouldHaveNoLines() throws IOException {
+        try (LineIndex lineIndex = new LineIndex(createFile(""))) {
+            assertEquals(0, lineIndex.getLineCount());
+            assertEquals("", lineIndex.getLines(0, 10));
+        }
+    }
+
+    @Test
+    public void getLineShouldStripLineEndings() throws IOException {
+        try (LineIndex lineIndex = new LineIndex(createFile("G0 X1\r\nG1 Y2\nG2 Z3"))) {
+            assertEquals(3, lineIndex.getLineCount());
+            assertEquals("G0 X1", lineIndex.getLine(0));
+            assertEquals("G1 Y2", lineIndex.getLine(1));
+            assertEquals("G2 Z3", lineIndex.getLine(2));
+            assertEquals(7, lineIndex.getLineOffset(1));
+        }
+    }
+
+    @Test
+    public void trailingLineFeedShouldNotAddAnEmptyLine() throws IOException {
+        try (LineIndex lineIndex = new LineIndex(createFile("G0 X1\n\nG1 Y2\n"))) {
+            assertEquals(3, lineIndex.getLineCount());
+            assertEquals("", lineIndex.getLine(1));
+            assertEquals("G0 X1\n\nG1 Y2\n", lineIndex.getLines(0, 10));
+            assertEquals("\nG1 Y2\n", lineIndex.getLines(1, 2));
+        }
+    }
+
+    @Test
+    public void linesSpanningSegmentsShouldBeRead() throws IOException {
+        try (LineIndex lineIndex = new LineIndex(createFile("G0 X1\n(\u00e5\u00e4\u00f6)\nG1 Y2\n"), 4, () -> false)) {
+            assertEquals(3, lineIndex.getLineCount());
+            assertEquals("G0 X1", lineIndex.getLine(0));
+            assertEquals("(\u00e5\u00e4\u00f6)", lineIndex.getLine(1));
+            assertEquals("G1 Y2", lineIndex.getLine(2));
+        }
+    }
+
+    @Test
+    public void getLineOutsideOfFileShouldThrowException() throws IOException {
+        try (LineIndex lineIndex = new LineIndex(createFile("G0 X1"))) {
+            assertThrows(IndexOutOfBoundsException.class, () -> lineIndex.getLine(1));
+        }
+    }
+
+    @Test
+    public void cancelledIndexingShouldThrowException() throws IOException {
+        Path path = createFile("G0 X1\n");
+        assertThrows(IOException.class, () -> new LineIndex(path, 4, () -> true));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.parser;
+
+import com.willwinder.ugs.nbp.editor.lexer.GcodeTokenId;
+import com.willwinder.ugs.nbp.editor.parser.errors.ErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.FeedRateMissingErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.ReturnToHomeGcodeErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.SystemCommandsErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.UnitsMissingErrorParser;
+import org.junit.Before;
+import org.junit.Test;
+import org.netbeans.api.lexer.TokenHierarchy;
+import org.netbeans.api.lexer.TokenSequence;
+import org.openide.filesystems.FileObject;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class IncrementalErrorAnalyzerTest {
+
+    private final AtomicInteger createdParsers = new AtomicInteger();
+    private IncrementalErrorAnalyzer errorAnalyzer;
+
+    @Before
+    public void setUp() {
+        FileObject fileObject = mock(FileObject.class);
+        errorAnalyzer = new IncrementalErrorAnalyzer(() -> {
+            createdParsers.incrementAndGet();
+            return List.of(new SystemCommandsErrorParser(fileObject),
+                    new ReturnToHomeGcodeErrorParser(fileObject),
+                    new UnitsMissingErrorParser(fileObject),
+                    new FeedRateMissingErrorParser(fileObject));
+        });
+    }
+
+    @Test
+    public void analyzeShouldReturnSameErrorsAsParsingTheWholeDocument() {
+        String text = createProgram(2000, 1000);
+
+        assertErrors(analyzeWholeDocument(text), errorAnalyzer.analyze(text, tokenSequence(text)));
+    }
+
+    @Test
+    public void analyzeShouldOnlyAnalyzeModifiedBlocks() {
+        String text = createProgram(5000, 4000);
+        errorAnalyzer.analyze(text, tokenSequence(text));
+        int initialBlocks = createdParsers.getAndSet(0) - 1;
+
+        // Insert a line in the middle of the document
+        int offset = text.indexOf("G1 X2500 ");
+        String modifiedText = text.substring(0, offset) + "G28\n" + text.substring(offset);
+        List<GcodeError> errors = errorAnalyzer.analyze(modifiedText, tokenSequence(modifiedText));
+
+        int analyzedBlocks = createdParsers.get() - 1;
+        assertTrue(initialBlocks > 10);
+        assertTrue(analyzedBlocks > 0 && analyzedBlocks <= 2);
+        assertErrors(analyzeWholeDocument(modifiedText), errors);
+    }
+
+    @Test
+    public void analyzeShouldReportStatefulErrors() {
+        String text = "G0 X1\nG1 X2\nF100\n$H\nG21\n";
+
+        List<GcodeError> errors = errorAnalyzer.analyze(text, tokenSequence(text));
+
+        assertErrors(analyzeWholeDocument(text), errors);
+        assertEquals(3, errors.size());
+        assertEquals(List.of("system-command-in-gcode", "no-units", "no-feed-rate"), errors.stream().map(GcodeError::getKey).toList());
+    }
+
+    @Test
+    public void clearShouldAnalyzeAllBlocksAgain() {
+        String text = createProgram(500, 100);
+        errorAnalyzer.analyze(text, tokenSequence(text));
+        int initialParsers = createdParsers.getAndSet(0);
+
+        errorAnalyzer.clear();
+        errorAnalyzer.analyze(text, tokenSequence(text));
+
+        assertEquals(initialParsers, createdParsers.get());
+    }
+
+    private static String createProgram(int lines, int homingLine) {
+        StringBuilder text = new StringBuilder("G21\n");
+        for (int i = 0; i < lines; i++) {
+            text.append(i == homingLine ? "G28\n" : "G1 X" + i + " Y" + (i % 7) + " F100\n");
+        }
+        return text.toString();
+    }
+
+    private List<GcodeError> analyzeWholeDocument(String text) {
+        FileObject fileObject = mock(FileObject.class);
+        List<ErrorParser> errorParsers = List.of(new SystemCommandsErrorParser(fileObject),
+                new ReturnToHomeGcodeErrorParser(fileObject),
+                new UnitsMissingErrorParser(fileObject),
+                new FeedRateMissingErrorParser(fileObject));
+
+        TokenSequence<?> tokenSequence = tokenSequence(text);
+        int line = 1;
+        while (tokenSequence.moveNext()) {
+            if (GcodeTokenId.END_OF_LINE.equals(tokenSequence.token().id())) {
+                line++;
+            }
+            for (ErrorParser errorParser : errorParsers) {
+                errorParser.handleToken(tokenSequence.token(), line);
+            }
+        }
+        return errorParsers.stream().flatMap(errorParser -> errorParser.getErrors().stream()).toList();
+    }
+
+    private static void assertErrors(List<GcodeError> expected, List<GcodeError> actual) {
+        assertEquals(toString(expected), toString(actual));
+    }
+
+    private static List<String> toString(List<GcodeError> errors) {
+        return errors.stream()
+                .sorted(Comparator.comparingInt(GcodeError::getStartPosition).thenComparing(GcodeError::getKey))
+                .map(error -> error.getKey() + ":" + error.getLine() + ":" + error.getStartPosition() + "-" + error.getEndPosition())
+                .toList();
+    }
+
+    private static TokenSequence<?> tokenSequence(String text) {
+        return TokenHierarchy.create(text, GcodeTokenId.getLanguage()).tokenSequence();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer;
+
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * A debouncer class that delays the execution until there has been no new
+ * calls within the given delay time in milliseconds. Any pending execution will
+ * be rescheduled on every call, so only the last call will be executed.
+ * <p>
+ * The execution is scheduled on the shared {@link ThreadHelper} executor, so a debouncer
+ * doesn't hold any threads of its own.
+ *
+ * @author agent
+ */
+public class Debouncer {
+    private final Runnable runnable;
+    private final long delayMillis;
+    private ScheduledFuture<?> scheduledFuture;
+
+    public Debouncer(Runnable runnable, long delayMillis) {
+        this.runnable = runnable;
+        this.delayMillis = delayMillis;
+    }
+
+    public synchronized void run() {
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+        }
+        scheduledFuture = ThreadHelper.invokeLater(runnable, delayMillis);
+    }
+
+    /**
+     * Cancels any pending execution
+     */
+    public synchronized void cancel() {
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+            scheduledFuture = null;
+        }
+    }
+}
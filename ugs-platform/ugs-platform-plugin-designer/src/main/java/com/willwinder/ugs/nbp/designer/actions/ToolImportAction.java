@@ -34,6 +34,7 @@ import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.utils.SwingHelpers;
 import com.willwinder.universalgcodesender.utils.ThreadHelper;
 import org.apache.commons.lang3.StringUtils;
+import org.netbeans.api.progress.ProgressHandle;
 import org.openide.awt.ActionID;
 import org.openide.awt.ActionRegistration;
 import org.openide.util.ImageUtilities;
@@ -44,6 +45,8 @@ import java.awt.event.ActionEvent;
 import java.io.File;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -88,8 +91,7 @@ public final class ToolImportAction extends AbstractDesignAction {
             SvgReader svgReader = new SvgReader();
             optionalDesign = svgReader.read(f);
         } else if (StringUtils.endsWithIgnoreCase(f.getName(), ".dxf")) {
-            DxfReader reader = new DxfReader(backend.getSettings());
-            optionalDesign = reader.read(f);
+            optionalDesign = readDxf(backend, f);
         } else if (StringUtils.endsWithIgnoreCase(f.getName(), ".c2d")) {
             C2dReader reader = new C2dReader();
             optionalDesign = reader.read(f);
@@ -116,6 +118,30 @@ public final class ToolImportAction extends AbstractDesignAction {
         }
     }
 
+    private static Optional<Design> readDxf(BackendAPI backend, File f) {
+        AtomicReference<DxfReader> readerReference = new AtomicReference<>();
+        ProgressHandle progressHandle = ProgressHandle.createHandle("Importing " + f.getName(), () -> {
+            readerReference.get().cancel();
+            return true;
+        });
+
+        DxfReader reader = new DxfReader(backend.getSettings(), (completed, total) -> {
+            if (completed == 0 && total > 0) {
+                progressHandle.switchToDeterminate(total);
+            } else if (completed > 0) {
+                progressHandle.progress(completed);
+            }
+        });
+        readerReference.set(reader);
+
+        progressHandle.start();
+        try {
+            return reader.read(f);
+        } finally {
+            progressHandle.finish();
+        }
+    }
+
     @Override
     public void actionPerformed(ActionEvent e) {
         JFileChooser fileDialog = new JFileChooser();
@@ -130,6 +156,8 @@ public final class ToolImportAction extends AbstractDesignAction {
             if (f != null) {
                 try {
                     readDesign(controller, backend, f);
+                } catch (CancellationException exception) {
+                    LOGGER.info("The import of " + f.getName() + " was cancelled");
                 } catch (Exception exception) {
                     LOGGER.log(Level.SEVERE, "Could not import file " + f.getName(), exception);
                 }
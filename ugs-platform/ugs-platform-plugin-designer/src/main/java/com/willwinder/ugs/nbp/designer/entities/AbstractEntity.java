@@ -36,12 +36,33 @@ import java.util.Set;
  */
 public abstract class AbstractEntity implements Entity {
 
+    /**
+     * If the entity class overrides {@link #getShape()}, the cached shape is then not used by the
+     * entity and its bounds needs to be taken from the overridden shape
+     */
+    private static final ClassValue<Boolean> OVERRIDES_GET_SHAPE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("getShape").getDeclaringClass() != AbstractEntity.class;
+            } catch (NoSuchMethodException e) {
+                return true;
+            }
+        }
+    };
+
     private final Set<EntityListener> listeners = Sets.newConcurrentHashSet();
 
     private AffineTransform transform = new AffineTransform();
     private String name = "AbstractEntity";
     private String description;
 
+    /**
+     * The last transformed shape and its bounds, the transform is kept to be able to detect
+     * if it has been modified directly through {@link #getTransform()}
+     */
+    private volatile CachedShape cachedShape;
+
     protected AbstractEntity() {
         this(0, 0);
     }
@@ -108,12 +129,41 @@ public abstract class AbstractEntity implements Entity {
 
     @Override
     public Rectangle2D getBounds() {
-        return getShape().getBounds2D();
+        // Entities that delegates their shape to something else, such as the controls, can't use the cache
+        if (OVERRIDES_GET_SHAPE.get(getClass())) {
+            return getShape().getBounds2D();
+        }
+        return (Rectangle2D) getCachedShape().bounds().clone();
     }
 
+    /**
+     * Returns the shape transformed to real space. The shape is cached until the transform or the
+     * geometry is changed and must not be modified.
+     *
+     * @return the transformed shape
+     */
     @Override
     public Shape getShape() {
-        return getTransform().createTransformedShape(getRelativeShape());
+        return getCachedShape().shape();
+    }
+
+    private CachedShape getCachedShape() {
+        CachedShape cached = cachedShape;
+        AffineTransform currentTransform = getTransform();
+        if (cached == null || !cached.transform().equals(currentTransform)) {
+            Shape shape = currentTransform.createTransformedShape(getRelativeShape());
+            cached = new CachedShape(new AffineTransform(currentTransform), shape, shape.getBounds2D());
+            cachedShape = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * Clears the cached transformed shape, this needs to be called by subclasses whenever
+     * the relative shape is modified.
+     */
+    protected void invalidateShape() {
+        cachedShape = null;
     }
 
     @Override
@@ -189,6 +239,7 @@ public abstract class AbstractEntity implements Entity {
         }
 
         this.transform = transform;
+        invalidateShape();
     }
 
     @Override
@@ -196,6 +247,7 @@ public abstract class AbstractEntity implements Entity {
         try {
             if (deltaMovement.distance(new Point2D.Double(0d, 0d)) > 0) {
                 transform.preConcatenate(AffineTransform.getTranslateInstance(deltaMovement.getX(), deltaMovement.getY()));
+                invalidateShape();
                 notifyEvent(new EntityEvent(this, EventType.MOVED));
             }
         } catch (Exception e) {
@@ -232,22 +284,26 @@ public abstract class AbstractEntity implements Entity {
     public void scale(double sx, double sy) {
         Point2D originalPosition = getPosition();
         transform.preConcatenate(AffineTransform.getScaleInstance(sx, sy));
+        invalidateShape();
 
         // Restore position
         Point2D currentPosition = getPosition();
         transform.preConcatenate(AffineTransform.getTranslateInstance(originalPosition.getX() - currentPosition.getX(), originalPosition.getY() - currentPosition.getY()));
+        invalidateShape();
         notifyEvent(new EntityEvent(this, EventType.RESIZED));
     }
 
     @Override
     public void rotate(Point2D center, double angle) {
         transform.preConcatenate(AffineTransform.getRotateInstance(-Math.toRadians(angle), center.getX(), center.getY()));
+        invalidateShape();
         notifyEvent(new EntityEvent(this, EventType.ROTATED));
     }
 
     @Override
     public void applyTransform(AffineTransform transform) {
         this.transform.preConcatenate(transform);
+        invalidateShape();
     }
 
     public String getName() {
@@ -311,4 +367,7 @@ public abstract class AbstractEntity implements Entity {
     public List<EntitySetting> getSettings() {
         return Collections.emptyList();
     }
+
+    private record CachedShape(AffineTransform transform, Shape shape, Rectangle2D bounds) {
+    }
 }
@@ -105,10 +105,7 @@ public class SelectionControl extends AbstractControl {
         Set<Entity> entitiesIntersecting = controller.getDrawing()
                 .getEntitiesIntersecting(shape)
                 .stream()
-                .filter(e -> e != this)
-                .filter(e -> !(e instanceof Control))
                 .filter(e -> !(e instanceof Cuttable && ((Cuttable) e).isHidden()))
-                .filter(e -> e != controller.getSelectionManager())
                 .collect(Collectors.toSet());
 
         if (selectMultiple) {
@@ -122,10 +119,7 @@ public class SelectionControl extends AbstractControl {
         Set<Entity> entitiesAt = controller.getDrawing()
                 .getEntitiesAt(mousePosition)
                 .stream()
-                .filter(e -> e != this)
-                .filter(e -> !(e instanceof Control))
                 .filter(e -> !(e instanceof Cuttable && ((Cuttable) e).isHidden()))
-                .filter(e -> e != controller.getSelectionManager())
                 .collect(Collectors.toSet());
 
         if (selectMultiple) {
@@ -296,6 +296,9 @@ public abstract class AbstractCuttable extends AbstractEntity implements Cuttabl
         copy.setCutType(getCutType());
         copy.setSpindleSpeed(getSpindleSpeed());
         copy.setPasses(getPasses());
+        copy.setFeedRate(getFeedRate());
+        copy.setLeadInPercent(getLeadInPercent());
+        copy.setLeadOutPercent(getLeadOutPercent());
         copy.setHidden(isHidden());
         copy.setIncludeInExport(getIncludeInExport());
     }
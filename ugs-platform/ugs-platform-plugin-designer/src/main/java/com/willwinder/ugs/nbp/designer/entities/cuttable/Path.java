@@ -49,6 +49,7 @@ public class Path extends AbstractCuttable {
         try {
             Point2D relativePoint = getTransform().inverseTransform(new Point2D.Double(x, y), null);
             shape.moveTo(relativePoint.getX(), relativePoint.getY());
+            invalidateShape();
         } catch (NoninvertibleTransformException e) {
             throw new EntityException(e);
         }
@@ -58,6 +59,7 @@ public class Path extends AbstractCuttable {
         try {
             Point2D relativePoint = getTransform().inverseTransform(new Point2D.Double(x, y), null);
             shape.lineTo(relativePoint.getX(), relativePoint.getY());
+            invalidateShape();
         } catch (NoninvertibleTransformException e) {
             throw new EntityException(e);
         }
@@ -68,6 +70,7 @@ public class Path extends AbstractCuttable {
             Point2D relativePoint1 = getTransform().inverseTransform(new Point2D.Double(x1, y1), null);
             Point2D relativePoint2 = getTransform().inverseTransform(new Point2D.Double(x2, y2), null);
             shape.quadTo(relativePoint1.getX(), relativePoint1.getY(), relativePoint2.getX(), relativePoint2.getY());
+            invalidateShape();
         } catch (NoninvertibleTransformException e) {
             throw new EntityException(e);
         }
@@ -79,6 +82,7 @@ public class Path extends AbstractCuttable {
             Point2D relativePoint2 = getTransform().inverseTransform(new Point2D.Double(x2, y2), null);
             Point2D relativePoint3 = getTransform().inverseTransform(new Point2D.Double(x3, y3), null);
             shape.curveTo(relativePoint1.getX(), relativePoint1.getY(), relativePoint2.getX(), relativePoint2.getY(), relativePoint3.getX(), relativePoint3.getY());
+            invalidateShape();
         } catch (NoninvertibleTransformException e) {
             throw new EntityException(e);
         }
@@ -86,6 +90,7 @@ public class Path extends AbstractCuttable {
 
     public void append(Shape s) {
         shape.append(s, true);
+        invalidateShape();
     }
 
     /**
@@ -117,5 +122,6 @@ public class Path extends AbstractCuttable {
 
     public void close() {
         shape.closePath();
+        invalidateShape();
     }
 }
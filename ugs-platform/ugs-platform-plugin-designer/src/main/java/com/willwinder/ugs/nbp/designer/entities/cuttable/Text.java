@@ -70,6 +70,7 @@ public class Text extends AbstractCuttable {
             shape = transform.createTransformedShape(new Rectangle2D.Double(0, 0, 2, 12));
         }
 
+        invalidateShape();
         notifyEvent(new EntityEvent(this, EventType.RESIZED));
     }
 
@@ -69,11 +69,18 @@ import java.util.Set;
 public class Drawing extends JPanel implements ISnapToGridListener {
 
     public static final double MIN_SCALE = 0.05;
+
+    /**
+     * The margin in pixels around the visible area for rendering entities with strokes outside their bounds
+     */
+    private static final double RENDER_MARGIN = 4;
     @Serial
     private static final long serialVersionUID = 1298712398723987873L;
     private final transient EntityGroup globalRoot;
     private final transient EntityGroup entitiesRoot;
     private final transient EntityGroup controlsRoot;
+    private final transient EntityIndex entityIndex;
+    private final transient EntityTileCache entityTileCache;
     private final transient Set<DrawingListener> listeners = Sets.newConcurrentHashSet();
     private final transient Throttler refreshThrottler;
     private final transient Rectangle2D currentBounds = new Rectangle(0, 0, 8, 8);
@@ -93,6 +100,9 @@ public class Drawing extends JPanel implements ISnapToGridListener {
         globalRoot.addListener(event -> refreshThrottler.run());
 
         entitiesRoot = new EntityGroup();
+        entityIndex = new EntityIndex(entitiesRoot);
+        entityTileCache = new EntityTileCache(entityIndex, controller.getSelectionManager());
+        controller.getSettings().addListener(entityTileCache::clear);
         globalRoot.addChild(entitiesRoot);
         globalRoot.addChild(controller.getSelectionManager());
 
@@ -144,12 +154,24 @@ public class Drawing extends JPanel implements ISnapToGridListener {
         return bi;
     }
 
+    /**
+     * Returns the entities in the drawing at the given point
+     *
+     * @param p the point in real space
+     * @return a list of entities in paint order
+     */
     public List<Entity> getEntitiesAt(Point2D p) {
-        return globalRoot.getChildrenAt(p);
+        return entityIndex.getEntitiesAt(p);
     }
 
+    /**
+     * Returns the entities in the drawing that are intersecting the given shape
+     *
+     * @param shape the shape in real space
+     * @return a list of entities in paint order
+     */
     public List<Entity> getEntitiesIntersecting(Shape shape) {
-        return globalRoot.getChildrenIntersecting(shape);
+        return entityIndex.getEntitiesIntersecting(shape);
     }
 
     public void insertEntity(Entity entity) {
@@ -158,6 +180,9 @@ public class Drawing extends JPanel implements ISnapToGridListener {
     }
 
     public void notifyListeners(DrawingEvent event) {
+        if (event != DrawingEvent.SCALE_CHANGED) {
+            entityIndex.invalidate();
+        }
         listeners.forEach(l -> l.onDrawingEvent(event));
         refresh();
     }
@@ -193,26 +218,57 @@ public class Drawing extends JPanel implements ISnapToGridListener {
         Graphics2D g2 = (Graphics2D) g;
         AffineTransform previousTransform = g2.getTransform();
 
-        AffineTransform affineTransform = new AffineTransform(g2.getTransform());
-        affineTransform.concatenate(getTransform());
-        g2.setTransform(affineTransform);
-
         RenderingHints rh = ((Graphics2D) g).getRenderingHints();
         rh.put(KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
         rh.put(KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY);
         rh.put(KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         rh.put(KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
         g2.setRenderingHints(rh);
-        globalRoot.render(g2, this);
+
+        AffineTransform affineTransform = new AffineTransform(previousTransform);
+        affineTransform.concatenate(getTransform());
+        g2.setTransform(affineTransform);
+        renderEntities(g2, previousTransform);
         g2.setTransform(previousTransform);
     }
 
+    private void renderEntities(Graphics2D g2, AffineTransform componentTransform) {
+        Shape clip = g2.getClip();
+        Rectangle2D visibleArea = getVisibleArea(clip);
+        AffineTransform drawingTransform = g2.getTransform();
+        globalRoot.getChildren().forEach(child -> {
+            if (child == entitiesRoot) {
+                // Unselected entities are rendered from the tile cache while selected entities are rendered live
+                g2.setTransform(componentTransform);
+                entityTileCache.render(g2, this);
+                g2.setTransform(drawingTransform);
+                entityIndex.query(visibleArea).stream()
+                        .filter(entityTileCache::isExcluded)
+                        .forEach(entity -> entity.render(g2, this));
+            } else {
+                child.render(g2, this);
+            }
+        });
+    }
+
+    private Rectangle2D getVisibleArea(Shape clip) {
+        if (clip == null) {
+            return globalRoot.getBounds();
+        }
+
+        // Only render the entities that are within the visible area
+        Rectangle2D clipBounds = clip.getBounds2D();
+        double margin = RENDER_MARGIN / scale;
+        return new Rectangle2D.Double(clipBounds.getX() - margin, clipBounds.getY() - margin, clipBounds.getWidth() + (margin * 2), clipBounds.getHeight() + (margin * 2));
+    }
+
     public void removeEntity(Entity entity) {
         removeEntities(Collections.singletonList(entity));
     }
 
     public void removeEntities(List<Entity> entities) {
         removeEntitiesRecursively(globalRoot, entities);
+        entityIndex.invalidate();
         ThreadHelper.invokeLater(() -> listeners.forEach(l -> l.onDrawingEvent(DrawingEvent.ENTITY_REMOVED)));
         refresh();
     }
@@ -293,6 +349,7 @@ public class Drawing extends JPanel implements ISnapToGridListener {
 
     public void clear() {
         entitiesRoot.removeAll();
+        entityIndex.invalidate();
     }
 
     @Override
@@ -0,0 +1,242 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui;
+
+import com.google.common.collect.Sets;
+import com.willwinder.ugs.nbp.designer.entities.Entity;
+import com.willwinder.ugs.nbp.designer.entities.EntityEvent;
+import com.willwinder.ugs.nbp.designer.entities.EntityGroup;
+import com.willwinder.ugs.nbp.designer.entities.EventType;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.CutType;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Cuttable;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.quadtree.Quadtree;
+
+import java.awt.Shape;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A spatial index of the bounds of all entities in an entity group, used for finding the
+ * entities at a point or within an area without testing the shape of every entity.
+ * <p>
+ * The index is updated when entities are moved, resized or rotated. Any structural
+ * changes to the group needs to be signaled using {@link #invalidate()} which will
+ * rebuild the index the next time it is queried. Listeners will be notified with the
+ * region of any entity that changes its appearance.
+ *
+ * @author agent
+ */
+public class EntityIndex {
+    private static final Set<EventType> GEOMETRY_EVENTS = Set.of(EventType.MOVED, EventType.RESIZED, EventType.ROTATED, EventType.SETTINGS_CHANGED);
+
+    private final EntityGroup root;
+    private final Map<Entity, Entry> entries = new HashMap<>();
+    private final Set<EntityIndexListener> listeners = Sets.newConcurrentHashSet();
+
+    /**
+     * Entities that can be rendered outside their bounds, these are always included in the result
+     */
+    private final List<Entry> unboundedEntries = new ArrayList<>();
+    private Quadtree quadtree = new Quadtree();
+    private boolean isDirty = true;
+
+    public EntityIndex(EntityGroup root) {
+        this.root = root;
+        root.addListener(this::onEvent);
+    }
+
+    /**
+     * Marks the index as outdated, it will be rebuilt the next time it is queried
+     */
+    public void invalidate() {
+        synchronized (this) {
+            isDirty = true;
+        }
+        listeners.forEach(EntityIndexListener::onIndexInvalidated);
+    }
+
+    public void addListener(EntityIndexListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(EntityIndexListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns all entities which bounds are within one unit from the given point
+     *
+     * @param point the point to search for entities at
+     * @return a list of entities in paint order
+     */
+    public List<Entity> getEntitiesAt(Point2D point) {
+        return query(new Rectangle2D.Double(point.getX() - 1, point.getY() - 1, 2, 2))
+                .stream()
+                .filter(entity -> entity.isWithin(point))
+                .toList();
+    }
+
+    /**
+     * Returns all entities which bounds are intersecting the given shape
+     *
+     * @param shape the shape to search for entities in
+     * @return a list of entities in paint order
+     */
+    public List<Entity> getEntitiesIntersecting(Shape shape) {
+        return query(shape.getBounds2D())
+                .stream()
+                .filter(entity -> entity.isIntersecting(shape))
+                .toList();
+    }
+
+    /**
+     * Returns all entities which indexed bounds are intersecting the given area. The
+     * result may contain entities that are close to the area so it needs to be checked
+     * further if a precise result is needed.
+     *
+     * @param area the area to search for entities in
+     * @return a list of entities in paint order
+     */
+    public synchronized List<Entity> query(Rectangle2D area) {
+        if (isDirty) {
+            rebuild();
+        }
+
+        Envelope envelope = toEnvelope(area);
+        List<Entry> result = new ArrayList<>(unboundedEntries);
+        for (Object item : quadtree.query(envelope)) {
+            Entry entry = (Entry) item;
+            if (entry.envelope().intersects(envelope)) {
+                result.add(entry);
+            }
+        }
+
+        return result.stream()
+                .sorted(Comparator.comparingInt(Entry::order))
+                .map(Entry::entity)
+                .toList();
+    }
+
+    public synchronized int size() {
+        if (isDirty) {
+            rebuild();
+        }
+        return entries.size();
+    }
+
+    private void onEvent(EntityEvent entityEvent) {
+        boolean isGeometryEvent = GEOMETRY_EVENTS.contains(entityEvent.getType());
+        if (!isGeometryEvent && entityEvent.getType() != EventType.HIDDEN) {
+            return;
+        }
+
+        Entity target = entityEvent.getTarget();
+        List<Entity> entities = target instanceof EntityGroup entityGroup ? entityGroup.getAllChildren() : List.of(target);
+        List<Change> changes = new ArrayList<>();
+        boolean isInvalidated = false;
+        synchronized (this) {
+            if (isDirty) {
+                return;
+            }
+
+            for (Entity entity : entities) {
+                Entry entry = entries.get(entity);
+                if (entry == null) {
+                    // The entity has been added without invalidating the index
+                    isDirty = true;
+                    isInvalidated = true;
+                    break;
+                }
+
+                Entry updatedEntry = isGeometryEvent ? update(entry) : entry;
+                changes.add(new Change(entity, entry.envelope(), updatedEntry.envelope()));
+            }
+        }
+
+        if (isInvalidated) {
+            listeners.forEach(EntityIndexListener::onIndexInvalidated);
+        } else {
+            changes.forEach(change -> listeners.forEach(listener -> listener.onEntityChanged(change.entity(), toRectangle(change.previousEnvelope()), toRectangle(change.envelope()))));
+        }
+    }
+
+    private Entry update(Entry entry) {
+        Entry updatedEntry = new Entry(entry.entity(), toEnvelope(entry.entity().getBounds()), entry.order());
+        remove(entry);
+        add(updatedEntry);
+        return updatedEntry;
+    }
+
+    private void rebuild() {
+        entries.clear();
+        unboundedEntries.clear();
+        quadtree = new Quadtree();
+
+        List<Entity> entities = root.getAllChildren();
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            add(new Entry(entity, toEnvelope(entity.getBounds()), i));
+        }
+        isDirty = false;
+    }
+
+    private void add(Entry entry) {
+        entries.put(entry.entity(), entry);
+        if (isUnbounded(entry.entity())) {
+            unboundedEntries.add(entry);
+        } else {
+            quadtree.insert(entry.envelope(), entry);
+        }
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.entity());
+        if (!unboundedEntries.remove(entry)) {
+            quadtree.remove(entry.envelope(), entry);
+        }
+    }
+
+    /**
+     * Surfacing is rendered with lead in and out outside the bounds of the entity
+     */
+    private static boolean isUnbounded(Entity entity) {
+        return entity instanceof Cuttable cuttable && cuttable.getCutType() == CutType.SURFACE;
+    }
+
+    private static Envelope toEnvelope(Rectangle2D bounds) {
+        return new Envelope(bounds.getMinX(), bounds.getMaxX(), bounds.getMinY(), bounds.getMaxY());
+    }
+
+    private static Rectangle2D toRectangle(Envelope envelope) {
+        return new Rectangle2D.Double(envelope.getMinX(), envelope.getMinY(), envelope.getWidth(), envelope.getHeight());
+    }
+
+    private record Change(Entity entity, Envelope previousEnvelope, Envelope envelope) {
+    }
+
+    private record Entry(Entity entity, Envelope envelope, int order) {
+    }
+}
@@ -0,0 +1,45 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui;
+
+import com.willwinder.ugs.nbp.designer.entities.Entity;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * A listener for getting notified about changes to the entities in an {@link EntityIndex}
+ *
+ * @author agent
+ */
+public interface EntityIndexListener {
+
+    /**
+     * Called when an entity has changed its appearance
+     *
+     * @param entity         the entity that has changed
+     * @param previousBounds the bounds of the entity before the change
+     * @param bounds         the bounds of the entity after the change
+     */
+    void onEntityChanged(Entity entity, Rectangle2D previousBounds, Rectangle2D bounds);
+
+    /**
+     * Called when the index has been invalidated and any entity may have changed
+     */
+    void onIndexInvalidated();
+}
@@ -0,0 +1,250 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui;
+
+import com.willwinder.ugs.nbp.designer.entities.Entity;
+import com.willwinder.ugs.nbp.designer.entities.EntityGroup;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.CutType;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Cuttable;
+import com.willwinder.ugs.nbp.designer.entities.selection.SelectionManager;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Renders the entities of a drawing into cached image tiles for the current zoom level.
+ * The selected entities are never rendered into the tiles as they are likely to be
+ * modified, they are instead rendered live on top of the tiles.
+ * <p>
+ * Tiles are invalidated for the region of any entity that changes and all tiles are
+ * discarded when the zoom level changes.
+ *
+ * @author agent
+ */
+public class EntityTileCache implements EntityIndexListener {
+    /**
+     * The width and height of a tile in device pixels
+     */
+    static final int TILE_SIZE = 256;
+
+    /**
+     * The maximum number of tiles to keep in memory, the least recently used tiles will be discarded
+     */
+    private static final int MAX_TILES = 256;
+
+    /**
+     * The margin in pixels around an entity for strokes outside its bounds
+     */
+    private static final double RENDER_MARGIN = 4;
+
+    private final EntityIndex entityIndex;
+    private final SelectionManager selectionManager;
+    private final Map<TileKey, Optional<BufferedImage>> tiles = new LinkedHashMap<>(MAX_TILES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TileKey, Optional<BufferedImage>> eldest) {
+            return size() > MAX_TILES;
+        }
+    };
+
+    /**
+     * The entities that are excluded from the tiles
+     */
+    private Set<Entity> excludedEntities = new HashSet<>();
+
+    /**
+     * The entities in the tiles that are rendered outside their bounds
+     */
+    private final Set<Entity> unboundedEntities = new HashSet<>();
+
+    /**
+     * The number of device pixels per millimeter for the cached tiles
+     */
+    private double tileScale;
+
+    public EntityTileCache(EntityIndex entityIndex, SelectionManager selectionManager) {
+        this.entityIndex = entityIndex;
+        this.selectionManager = selectionManager;
+        entityIndex.addListener(this);
+        selectionManager.addSelectionListener(event -> onSelectionChanged());
+        onSelectionChanged();
+    }
+
+    /**
+     * Renders the tiles that are within the clip of the given graphics
+     *
+     * @param graphics the graphics in component space
+     * @param drawing  the drawing to render
+     */
+    public synchronized void render(Graphics2D graphics, Drawing drawing) {
+        AffineTransform previousTransform = graphics.getTransform();
+        double deviceScale = previousTransform.getScaleX() > 0 ? previousTransform.getScaleX() : 1;
+        double scale = drawing.getScale() * deviceScale;
+        if (scale != tileScale) {
+            tiles.clear();
+            tileScale = scale;
+        }
+
+        // The offset in device pixels from the component origin to the origin of the tile space
+        AffineTransform drawingTransform = drawing.getTransform();
+        long originX = Math.round(drawingTransform.getTranslateX() * deviceScale);
+        long originY = Math.round(drawingTransform.getTranslateY() * deviceScale);
+
+        Rectangle clipBounds = Optional.ofNullable(graphics.getClipBounds()).orElse(new Rectangle(0, 0, drawing.getWidth(), drawing.getHeight()));
+        int startColumn = (int) Math.floor((clipBounds.getMinX() * deviceScale - originX) / TILE_SIZE);
+        int endColumn = (int) Math.ceil((clipBounds.getMaxX() * deviceScale - originX) / TILE_SIZE) - 1;
+        int startRow = (int) Math.floor((clipBounds.getMinY() * deviceScale - originY) / TILE_SIZE);
+        int endRow = (int) Math.ceil((clipBounds.getMaxY() * deviceScale - originY) / TILE_SIZE) - 1;
+
+        graphics.scale(1 / deviceScale, 1 / deviceScale);
+        for (int row = startRow; row <= endRow; row++) {
+            for (int column = startColumn; column <= endColumn; column++) {
+                TileKey key = new TileKey(column, row);
+                Optional<BufferedImage> tile = tiles.computeIfAbsent(key, k -> renderTile(k, graphics, drawing));
+                if (tile.isPresent()) {
+                    graphics.drawImage(tile.get(), (int) (originX + (long) column * TILE_SIZE), (int) (originY + (long) row * TILE_SIZE), null);
+                }
+            }
+        }
+        graphics.setTransform(previousTransform);
+    }
+
+    /**
+     * Returns if the entity is excluded from the tiles and needs to be rendered live
+     *
+     * @param entity the entity to check
+     * @return true if the entity needs to be rendered live
+     */
+    public synchronized boolean isExcluded(Entity entity) {
+        return excludedEntities.contains(entity);
+    }
+
+    public synchronized int size() {
+        return tiles.size();
+    }
+
+    public synchronized void clear() {
+        tiles.clear();
+        unboundedEntities.clear();
+    }
+
+    private Optional<BufferedImage> renderTile(TileKey key, Graphics2D graphics, Drawing drawing) {
+        // The tile space has its Y axis pointing downwards
+        double margin = RENDER_MARGIN / drawing.getScale();
+        double size = TILE_SIZE / tileScale;
+        Rectangle2D area = new Rectangle2D.Double(key.column() * size - margin, -(key.row() + 1) * size - margin, size + margin * 2, size + margin * 2);
+        List<Entity> entities = entityIndex.query(area).stream()
+                .filter(entity -> !excludedEntities.contains(entity))
+                .toList();
+
+        if (entities.isEmpty()) {
+            return Optional.empty();
+        }
+
+        BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D tileGraphics = image.createGraphics();
+        try {
+            tileGraphics.setRenderingHints(graphics.getRenderingHints());
+            tileGraphics.translate(-key.column() * (double) TILE_SIZE, -key.row() * (double) TILE_SIZE);
+            tileGraphics.scale(tileScale, -tileScale);
+            entities.forEach(entity -> {
+                if (isUnbounded(entity)) {
+                    unboundedEntities.add(entity);
+                }
+                entity.render(tileGraphics, drawing);
+            });
+        } finally {
+            tileGraphics.dispose();
+        }
+        return Optional.of(image);
+    }
+
+    private synchronized void invalidate(Rectangle2D region) {
+        if (tileScale <= 0) {
+            return;
+        }
+
+        double margin = RENDER_MARGIN;
+        int startColumn = (int) Math.floor((region.getMinX() * tileScale - margin) / TILE_SIZE);
+        int endColumn = (int) Math.floor((region.getMaxX() * tileScale + margin) / TILE_SIZE);
+        int startRow = (int) Math.floor((-region.getMaxY() * tileScale - margin) / TILE_SIZE);
+        int endRow = (int) Math.floor((-region.getMinY() * tileScale + margin) / TILE_SIZE);
+        tiles.keySet().removeIf(key -> key.column() >= startColumn && key.column() <= endColumn && key.row() >= startRow && key.row() <= endRow);
+    }
+
+    private void onSelectionChanged() {
+        // The index only contains the leaf entities, so the children of selected groups needs to be excluded
+        Set<Entity> selection = new HashSet<>();
+        selectionManager.getSelection().forEach(entity -> {
+            if (entity instanceof EntityGroup entityGroup) {
+                selection.addAll(entityGroup.getAllChildren());
+            } else {
+                selection.add(entity);
+            }
+        });
+        Set<Entity> changedEntities = new HashSet<>();
+        synchronized (this) {
+            excludedEntities.stream().filter(entity -> !selection.contains(entity)).forEach(changedEntities::add);
+            selection.stream().filter(entity -> !excludedEntities.contains(entity)).forEach(changedEntities::add);
+            excludedEntities = selection;
+        }
+        changedEntities.forEach(entity -> invalidate(entity, entity.getBounds()));
+    }
+
+    private synchronized void invalidate(Entity entity, Rectangle2D bounds) {
+        if (isUnbounded(entity) || unboundedEntities.contains(entity)) {
+            clear();
+        } else {
+            invalidate(bounds);
+        }
+    }
+
+    /**
+     * Surfacing is rendered with lead in and out outside the bounds of the entity
+     */
+    private static boolean isUnbounded(Entity entity) {
+        return entity instanceof Cuttable cuttable && cuttable.getCutType() == CutType.SURFACE;
+    }
+
+    @Override
+    public void onEntityChanged(Entity entity, Rectangle2D previousBounds, Rectangle2D bounds) {
+        if (isExcluded(entity)) {
+            return;
+        }
+
+        invalidate(entity, previousBounds);
+        invalidate(entity, bounds);
+    }
+
+    @Override
+    public void onIndexInvalidated() {
+        clear();
+    }
+
+    private record TileKey(int column, int row) {
+    }
+}
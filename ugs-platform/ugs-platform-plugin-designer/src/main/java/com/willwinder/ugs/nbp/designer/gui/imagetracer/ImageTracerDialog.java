@@ -18,17 +18,16 @@
  */
 package com.willwinder.ugs.nbp.designer.gui.imagetracer;
 
-import com.willwinder.ugs.nbp.designer.Throttler;
+import com.willwinder.ugs.nbp.designer.Debouncer;
 import com.willwinder.ugs.nbp.designer.entities.Entity;
 import com.willwinder.ugs.nbp.designer.entities.cuttable.CutType;
 import com.willwinder.ugs.nbp.designer.entities.cuttable.Group;
 import com.willwinder.ugs.nbp.designer.entities.cuttable.Path;
 import com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils;
-import com.willwinder.ugs.nbp.designer.io.svg.SvgReader;
-import com.willwinder.ugs.nbp.designer.model.Design;
 import com.willwinder.universalgcodesender.utils.ThreadHelper;
 import net.miginfocom.swing.MigLayout;
 import org.apache.commons.lang3.StringUtils;
+import org.netbeans.api.progress.ProgressHandle;
 import org.locationtech.jts.awt.ShapeWriter;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -43,6 +42,7 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JTabbedPane;
 import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.Color;
@@ -52,29 +52,57 @@ import java.awt.Shape;
 import java.awt.geom.Area;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Rectangle2D;
-import java.io.ByteArrayInputStream;
+import java.awt.image.BufferedImage;
 import java.io.File;
-import java.nio.charset.Charset;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * @author Joacim Breiler
  */
 public class ImageTracerDialog extends JDialog {
-    private final static String DEFAULT_SVG = "<svg height='30' width='200' xmlns='http://www.w3.org/2000/svg'>\n<text x='5' y='15' fill='black'>No File Selected</text>\n</svg>";
+    private static final Logger LOGGER = Logger.getLogger(ImageTracerDialog.class.getSimpleName());
     public static final double FLATNESS_PRECISION = 0.1d;
 
+    /**
+     * The time to wait for more changes to the settings before refreshing the preview
+     */
+    private static final long REFRESH_DELAY_MILLIS = 300;
+
     private transient List<Entity> entities = new ArrayList<>();
-    private final transient Throttler refreshThrottler;
-    private final SVGCanvas svgCanvas = new SVGCanvas();
+    private final transient Debouncer refreshDebouncer;
+    private final TracePreviewPanel previewPanel = new TracePreviewPanel();
     private final TraceSettingsPanel settingsPanel = new TraceSettingsPanel();
 
-    private File selectedFile;
-    private String generatedSvgData;
+    /**
+     * A counter that is increased whenever the image or the settings are changed
+     */
+    private final AtomicLong settingsVersion = new AtomicLong();
+
+    /**
+     * A cancellation flag for the currently running trace
+     */
+    private final AtomicReference<AtomicBoolean> currentTrace = new AtomicReference<>(new AtomicBoolean());
+
+    private transient BufferedImage selectedImage;
+
+    /**
+     * The latest started trace and the settings version it was started for
+     */
+    private transient CompletableFuture<TraceResult> trace = CompletableFuture.completedFuture(null);
+    private long traceVersion = -1;
     private final JTabbedPane tabs = new JTabbedPane();
     
     public ImageTracerDialog() {
@@ -84,9 +112,9 @@ public class ImageTracerDialog extends JDialog {
         setMinimumSize(new Dimension(500, 500));
         setLayout(new MigLayout("fill, insets 5", "[170px][grow]", "[grow][20px]"));
 
-        svgCanvas.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY, 1));
+        previewPanel.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY, 1));
         add(settingsPanel, "grow");
-        tabs.addTab("Preview", svgCanvas);
+        tabs.addTab("Preview", previewPanel);
         add(tabs, "grow, wrap");
 
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
@@ -103,23 +131,77 @@ public class ImageTracerDialog extends JDialog {
         buttonPanel.add(okButton);
         add(buttonPanel, "spanx, grow");
 
-        refreshThrottler = new Throttler(this::refreshSvg, 1000);
-        settingsPanel.addListener(e -> refreshThrottler.run());
+        refreshDebouncer = new Debouncer(this::refreshPreview, REFRESH_DELAY_MILLIS);
+        settingsPanel.addListener(e -> {
+            settingsVersion.incrementAndGet();
+            refreshDebouncer.run();
+        });
         setResizable(true);
         pack();
-        refreshThrottler.run();
     }
 
-    private void refreshSvg() {
+    /**
+     * Cancels any running trace and starts tracing the image with the current settings
+     */
+    private synchronized CompletableFuture<TraceResult> refreshPreview() {
+        AtomicBoolean isCancelled = new AtomicBoolean();
+        currentTrace.getAndSet(isCancelled).set(true);
+
+        traceVersion = settingsVersion.get();
+        BufferedImage image = selectedImage;
+        if (image == null) {
+            trace = CompletableFuture.completedFuture(null);
+            SwingUtilities.invokeLater(() -> previewPanel.setTraceResult(null));
+            return trace;
+        }
+
+        TraceSettings settings = settingsPanel.getSettings();
+        CompletableFuture<TraceResult> newTrace = new CompletableFuture<>();
+        trace = newTrace;
         ThreadHelper.invokeLater(() -> {
-            if (selectedFile != null) {
-                generatedSvgData = TraceUtils.traceImage(selectedFile, settingsPanel.getSettings());
-                svgCanvas.setSvgData(generatedSvgData);
-            } else {
-                svgCanvas.setSvgData(DEFAULT_SVG);
-//                svgCanvas.setSVGDocument(null);
+            try {
+                TraceResult result = TraceUtils.traceImage(image, settings, isCancelled::get);
+                newTrace.complete(result);
+                SwingUtilities.invokeLater(() -> previewPanel.setTraceResult(result));
+            } catch (RuntimeException e) {
+                // A CancellationException means that the settings were changed and a new trace has been started
+                newTrace.completeExceptionally(e);
             }
         });
+        return newTrace;
+    }
+
+    /**
+     * Waits for the trace of the current settings, starting it directly if the preview is not
+     * yet up-to-date. This must not be called from the event dispatch thread.
+     *
+     * @return the trace result or null if there is no image or if the trace was cancelled
+     */
+    private TraceResult getTraceResult() {
+        CompletableFuture<TraceResult> currentResult;
+        synchronized (this) {
+            currentResult = trace;
+            if (traceVersion != settingsVersion.get()) {
+                refreshDebouncer.cancel();
+                currentResult = refreshPreview();
+            }
+        }
+
+        ProgressHandle progressHandle = ProgressHandle.createHandle("Tracing image", () -> {
+            currentTrace.get().set(true);
+            return true;
+        });
+        progressHandle.start();
+        try {
+            return currentResult.join();
+        } catch (CancellationException e) {
+            return null;
+        } catch (CompletionException e) {
+            LOGGER.log(Level.WARNING, "Could not trace the image", e.getCause());
+            return null;
+        } finally {
+            progressHandle.finish();
+        }
     }
     private String lastOpenedFile = null;
             
@@ -177,13 +259,12 @@ public class ImageTracerDialog extends JDialog {
         double minumumItemSize = settings.getMinimumDetailSize(); // Speed optimization. 
         Rectangle2D.Double outputBounds = new Rectangle2D.Double(0,0,1,1);
         
-        SvgReader svgReader = new SvgReader();
-        Optional<Design> designOptional = svgReader.read(new ByteArrayInputStream(generatedSvgData.getBytes(Charset.defaultCharset())));
-        designOptional.ifPresent(design -> {
+        Optional<Group> groupOptional = Optional.ofNullable(getTraceResult()).map(TraceUtils::createGroup);
+        groupOptional.ifPresent(group -> {
             
             
             Map<String, List<Entity>> entityLayersMap = new HashMap<>();
-            ((Group) design.getEntities().get(0)).getAllChildren().forEach(entity -> {
+            group.getAllChildren().forEach(entity -> {
                 String layerId = StringUtils.substringBetween(entity.getDescription(), "l ", " ");
                 List<Entity> layerEntities = entityLayersMap.getOrDefault(layerId, new ArrayList<>());
                 layerEntities.add(entity);
@@ -316,8 +397,22 @@ public class ImageTracerDialog extends JDialog {
         
     }
     private void setSelectedFile(File selectedFile) {
-        this.selectedFile = selectedFile;
-        refreshThrottler.run();
+        ThreadHelper.invokeLater(() -> {
+            try {
+                selectedImage = TraceUtils.loadImage(selectedFile);
+                settingsVersion.incrementAndGet();
+                refreshPreview();
+            } catch (IOException e) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, "Could not load image: " + e.getMessage()));
+            }
+        });
+    }
+
+    @Override
+    public void dispose() {
+        refreshDebouncer.cancel();
+        currentTrace.get().set(true);
+        super.dispose();
     }
 
     public static void main(String[] args) {
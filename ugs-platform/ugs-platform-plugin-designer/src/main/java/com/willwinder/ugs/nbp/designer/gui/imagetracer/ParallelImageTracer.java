@@ -0,0 +1,247 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui.imagetracer;
+
+import jankovicsandras.imagetracer.ImageTracer;
+import jankovicsandras.imagetracer.ImageTracer.ImageData;
+import jankovicsandras.imagetracer.ImageTracer.IndexedImage;
+
+import java.awt.Color;
+import java.awt.geom.Path2D;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Traces an image using the same algorithm as {@link ImageTracer} but processes the
+ * color quantization in bands of rows and each color layer in parallel. The traced paths
+ * are returned as shapes instead of being converted to an SVG document.
+ *
+ * @author agent
+ */
+public class ParallelImageTracer {
+
+    /**
+     * The number of rows in each band when quantizing colors in parallel
+     */
+    private static final int ROWS_PER_BAND = 64;
+
+    private ParallelImageTracer() {
+    }
+
+    /**
+     * Traces the image data
+     *
+     * @param imageData   the image to trace
+     * @param options     the tracing options, see {@link ImageTracer#checkoptions(HashMap)}
+     * @param palette     the color palette to use or null to generate one
+     * @param isCancelled returns true if the tracing should be aborted
+     * @return the traced shapes
+     * @throws CancellationException if the tracing was cancelled
+     */
+    public static TraceResult trace(ImageData imageData, HashMap<String, Float> options, byte[][] palette, BooleanSupplier isCancelled) {
+        options = ImageTracer.checkoptions(options);
+
+        // 1. Color quantization
+        IndexedImage indexedImage = colorQuantization(imageData, palette, options, isCancelled);
+        checkCancelled(isCancelled);
+
+        // 2. Layer separation and edge detection
+        int[][][] layers = ImageTracer.layering(indexedImage);
+        checkCancelled(isCancelled);
+
+        // 3 - 5. Path scan, interpolation and tracing of each layer
+        float pathOmit = (float) Math.floor(options.get("pathomit"));
+        float lineThreshold = options.get("ltres");
+        float quadThreshold = options.get("qtres");
+        List<ArrayList<ArrayList<Double[]>>> tracedLayers = IntStream.range(0, layers.length)
+                .parallel()
+                .mapToObj(layer -> {
+                    checkCancelled(isCancelled);
+                    ArrayList<ArrayList<Integer[]>> paths = ImageTracer.pathscan(layers[layer], pathOmit);
+                    checkCancelled(isCancelled);
+                    return ImageTracer.batchtracepaths(ImageTracer.internodes(paths), lineThreshold, quadThreshold);
+                })
+                .toList();
+
+        return createResult(imageData, indexedImage.palette, tracedLayers);
+    }
+
+    private static TraceResult createResult(ImageData imageData, byte[][] palette, List<ArrayList<ArrayList<Double[]>>> tracedLayers) {
+        List<TracedPath> tracedPaths = new ArrayList<>();
+        for (int layer = 0; layer < tracedLayers.size(); layer++) {
+            ArrayList<ArrayList<Double[]>> paths = tracedLayers.get(layer);
+            for (int index = 0; index < paths.size(); index++) {
+                ArrayList<Double[]> segments = paths.get(index);
+                if (!segments.isEmpty()) {
+                    // Paths are painted in the order of their start point, same as when generating SVG
+                    double zIndex = (segments.get(0)[2] * imageData.width) + segments.get(0)[1];
+                    tracedPaths.add(new TracedPath(zIndex, new TraceResult.TracedShape(layer, index, toShape(segments))));
+                }
+            }
+        }
+
+        List<Color> colors = new ArrayList<>();
+        for (byte[] color : palette) {
+            colors.add(new Color(color[0] + 128, color[1] + 128, color[2] + 128, color[3] + 128));
+        }
+
+        List<TraceResult.TracedShape> shapes = tracedPaths.stream()
+                .sorted(Comparator.comparingDouble(TracedPath::zIndex))
+                .map(TracedPath::shape)
+                .toList();
+        return new TraceResult(imageData.width, imageData.height, colors, shapes);
+    }
+
+    private static Path2D toShape(List<Double[]> segments) {
+        Path2D path = new Path2D.Double();
+        path.moveTo(segments.get(0)[1], segments.get(0)[2]);
+        for (Double[] segment : segments) {
+            if (segment[0] == 1.0) {
+                path.lineTo(segment[3], segment[4]);
+            } else {
+                path.quadTo(segment[3], segment[4], segment[5], segment[6]);
+            }
+        }
+        path.closePath();
+        return path;
+    }
+
+    /**
+     * Color quantization based on K-means clustering, see {@link ImageTracer#colorquantization(ImageData, byte[][], HashMap)}.
+     * Each clustering cycle is processed in bands of rows in parallel which are then merged.
+     */
+    private static IndexedImage colorQuantization(ImageData imageData, byte[][] palette, HashMap<String, Float> options, BooleanSupplier isCancelled) {
+        int numberOfColors = (int) Math.floor(options.get("numberofcolors"));
+        float minRatio = options.get("mincolorratio");
+        int cycles = (int) Math.floor(options.get("colorquantcycles"));
+
+        // Creating indexed color array which has a boundary filled with -1 in every direction
+        int[][] indexedColors = new int[imageData.height + 2][imageData.width + 2];
+        for (int j = 0; j < (imageData.height + 2); j++) {
+            indexedColors[j][0] = -1;
+            indexedColors[j][imageData.width + 1] = -1;
+        }
+        for (int i = 0; i < (imageData.width + 2); i++) {
+            indexedColors[0][i] = -1;
+            indexedColors[imageData.height + 1][i] = -1;
+        }
+
+        if (palette == null) {
+            palette = options.get("colorsampling") != 0 ? ImageTracer.samplepalette(numberOfColors, imageData) : ImageTracer.generatepalette(numberOfColors);
+        }
+
+        // Selective Gaussian blur preprocessing
+        ImageData data = options.get("blurradius") > 0 ? ImageTracer.blur(imageData, options.get("blurradius"), options.get("blurdelta")) : imageData;
+
+        long[][] paletteAccumulator = new long[palette.length][5];
+        int bandCount = (data.height + ROWS_PER_BAND - 1) / ROWS_PER_BAND;
+        for (int cycle = 0; cycle < cycles; cycle++) {
+            if (cycle > 0) {
+                averagePalette(palette, paletteAccumulator, (double) data.width * data.height, minRatio, cycle < cycles - 1);
+            }
+
+            byte[][] currentPalette = palette;
+            paletteAccumulator = IntStream.range(0, bandCount)
+                    .parallel()
+                    .mapToObj(band -> {
+                        checkCancelled(isCancelled);
+                        return quantizeRows(data, currentPalette, indexedColors, band * ROWS_PER_BAND, Math.min(data.height, (band + 1) * ROWS_PER_BAND));
+                    })
+                    .reduce(new long[palette.length][5], ParallelImageTracer::mergeAccumulators);
+        }
+
+        return new IndexedImage(indexedColors, palette);
+    }
+
+    private static void averagePalette(byte[][] palette, long[][] paletteAccumulator, double pixelCount, float minRatio, boolean hasMoreCycles) {
+        for (int k = 0; k < palette.length; k++) {
+            if (paletteAccumulator[k][3] > 0) {
+                palette[k][0] = (byte) (-128 + (paletteAccumulator[k][0] / paletteAccumulator[k][4]));
+                palette[k][1] = (byte) (-128 + (paletteAccumulator[k][1] / paletteAccumulator[k][4]));
+                palette[k][2] = (byte) (-128 + (paletteAccumulator[k][2] / paletteAccumulator[k][4]));
+                palette[k][3] = (byte) (-128 + (paletteAccumulator[k][3] / paletteAccumulator[k][4]));
+            }
+
+            // Randomizing a color, if there are too few pixels and there will be a new cycle
+            double ratio = paletteAccumulator[k][4] / pixelCount;
+            if (ratio < minRatio && hasMoreCycles) {
+                palette[k][0] = (byte) (-128 + Math.floor(Math.random() * 255));
+                palette[k][1] = (byte) (-128 + Math.floor(Math.random() * 255));
+                palette[k][2] = (byte) (-128 + Math.floor(Math.random() * 255));
+                palette[k][3] = (byte) (-128 + Math.floor(Math.random() * 255));
+            }
+        }
+    }
+
+    private static long[][] quantizeRows(ImageData data, byte[][] palette, int[][] indexedColors, int startRow, int endRow) {
+        long[][] accumulator = new long[palette.length][5];
+        for (int j = startRow; j < endRow; j++) {
+            for (int i = 0; i < data.width; i++) {
+                int idx = ((j * data.width) + i) * 4;
+
+                // Find the closest color from palette by measuring the rectilinear color distance
+                int closestDistance = 256 + 256 + 256 + 256;
+                int closestIndex = 0;
+                for (int k = 0; k < palette.length; k++) {
+                    int distance = Math.abs(palette[k][0] - data.data[idx]) +
+                            Math.abs(palette[k][1] - data.data[idx + 1]) +
+                            Math.abs(palette[k][2] - data.data[idx + 2]) +
+                            (Math.abs(palette[k][3] - data.data[idx + 3]) * 4);
+
+                    if (distance < closestDistance) {
+                        closestDistance = distance;
+                        closestIndex = k;
+                    }
+                }
+
+                accumulator[closestIndex][0] += 128 + data.data[idx];
+                accumulator[closestIndex][1] += 128 + data.data[idx + 1];
+                accumulator[closestIndex][2] += 128 + data.data[idx + 2];
+                accumulator[closestIndex][3] += 128 + data.data[idx + 3];
+                accumulator[closestIndex][4]++;
+                indexedColors[j + 1][i + 1] = closestIndex;
+            }
+        }
+        return accumulator;
+    }
+
+    private static long[][] mergeAccumulators(long[][] first, long[][] second) {
+        long[][] result = new long[first.length][5];
+        for (int k = 0; k < first.length; k++) {
+            for (int c = 0; c < 5; c++) {
+                result[k][c] = first[k][c] + second[k][c];
+            }
+        }
+        return result;
+    }
+
+    private static void checkCancelled(BooleanSupplier isCancelled) {
+        if (isCancelled.getAsBoolean()) {
+            throw new CancellationException("The image tracing was cancelled");
+        }
+    }
+
+    private record TracedPath(double zIndex, TraceResult.TracedShape shape) {
+    }
+}
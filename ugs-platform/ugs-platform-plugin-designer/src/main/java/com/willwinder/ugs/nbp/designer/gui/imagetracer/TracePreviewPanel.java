@@ -0,0 +1,75 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui.imagetracer;
+
+import javax.swing.JPanel;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+/**
+ * A panel for previewing the shapes of a traced image, the shapes are scaled to
+ * fit the panel while preserving the aspect ratio of the image.
+ *
+ * @author agent
+ */
+public class TracePreviewPanel extends JPanel {
+    private static final String NO_FILE_SELECTED = "No File Selected";
+    private transient TraceResult traceResult;
+
+    public TracePreviewPanel() {
+        setBackground(Color.WHITE);
+    }
+
+    /**
+     * Sets the traced image to preview
+     *
+     * @param traceResult the traced image or null to clear the preview
+     */
+    public void setTraceResult(TraceResult traceResult) {
+        this.traceResult = traceResult;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            TraceResult result = traceResult;
+            if (result == null || result.width() <= 0 || result.height() <= 0) {
+                g2.setColor(Color.BLACK);
+                g2.drawString(NO_FILE_SELECTED, 5, 15);
+                return;
+            }
+
+            double scale = Math.min((double) getWidth() / result.width(), (double) getHeight() / result.height());
+            g2.translate((getWidth() - result.width() * scale) / 2d, (getHeight() - result.height() * scale) / 2d);
+            g2.scale(scale, scale);
+            result.shapes().forEach(tracedShape -> {
+                g2.setColor(result.palette().get(tracedShape.layer()));
+                g2.fill(tracedShape.shape());
+            });
+        } finally {
+            g2.dispose();
+        }
+    }
+}
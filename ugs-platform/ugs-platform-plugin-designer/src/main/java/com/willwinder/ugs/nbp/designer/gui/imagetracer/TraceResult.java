@@ -0,0 +1,45 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui.imagetracer;
+
+import java.awt.Color;
+import java.awt.Shape;
+import java.util.List;
+
+/**
+ * The result of a traced image with the traced shapes in image pixel coordinates
+ *
+ * @param width   the width of the traced image in pixels
+ * @param height  the height of the traced image in pixels
+ * @param palette the color palette, one color for each layer
+ * @param shapes  the traced shapes in the order they should be painted
+ * @author agent
+ */
+public record TraceResult(int width, int height, List<Color> palette, List<TracedShape> shapes) {
+
+    /**
+     * A traced shape
+     *
+     * @param layer the index of the color layer the shape belongs to
+     * @param index the index of the shape within its layer
+     * @param shape the shape in image pixel coordinates
+     */
+    public record TracedShape(int layer, int index, Shape shape) {
+    }
+}
@@ -18,21 +18,59 @@
  */
 package com.willwinder.ugs.nbp.designer.gui.imagetracer;
 
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Group;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Path;
 import jankovicsandras.imagetracer.ImageTracer;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.WritableRaster;
 import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 
 /**
  * @author Joacim Breiler
  */
 public class TraceUtils {
+    /**
+     * The size of a pixel in millimeters, using the same resolution as when importing SVG files
+     */
+    private static final double PIXEL_UNIT_TO_MM = 25.4 / 96;
 
-    public static String traceImage(File selectedFile, TraceSettings settingsPanel) {
+    private TraceUtils() {
+    }
+
+    /**
+     * Loads the image from the given file
+     *
+     * @param selectedFile the image file to load
+     * @return the loaded image
+     * @throws IOException if the file could not be read as an image
+     */
+    public static BufferedImage loadImage(File selectedFile) throws IOException {
+        BufferedImage image = ImageIO.read(selectedFile);
+        if (image == null) {
+            throw new IOException("Unsupported image format: " + selectedFile.getName());
+        }
+        return image;
+    }
+
+    /**
+     * Traces the image into shapes using the given settings
+     *
+     * @param image         the image to trace
+     * @param settingsPanel the trace settings
+     * @param isCancelled   returns true if the tracing should be aborted
+     * @return the traced shapes
+     * @throws CancellationException if the tracing was cancelled
+     */
+    public static TraceResult traceImage(BufferedImage image, TraceSettings settingsPanel, BooleanSupplier isCancelled) {
         // Options
         HashMap<String, Float> options = new HashMap<>();
 
@@ -48,24 +86,15 @@ public class TraceUtils {
         options.put("mincolorratio", 0f);
         options.put("colorquantcycles", Integer.valueOf(settingsPanel.getColorQuantize()).floatValue());
 
-        // SVG rendering
-        options.put("scale", 1f);
-        options.put("roundcoords", 0f); // 1f means rounded to 1 decimal places, like 7.3 ; 3f means rounded to 3 places, like 7.356 ; etc.
-        options.put("lcpr", 0f);
-        options.put("qcpr", 0f);
-        options.put("desc", 1f); // 1f means true ; 0f means false: SVG descriptions deactivated
-        options.put("viewbox", 0f); // 1f means true ; 0f means false: fixed width and height
-
         // Selective Gauss Blur
         options.put("blurradius", Integer.valueOf(settingsPanel.getBlurRadius()).floatValue()); // 0f means deactivated; 1f .. 5f : blur with this radius
         options.put("blurdelta", Integer.valueOf(settingsPanel.getBlurDelta()).floatValue()); // smaller than this RGB difference will be blurred
 
-
         try {
-            BufferedImage img = ImageIO.read(selectedFile);
-            BufferedImage gray = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+            BufferedImage gray = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
             Graphics2D g = gray.createGraphics();
-            g.drawImage(img, 0, 0, null);
+            g.drawImage(image, 0, 0, null);
+            g.dispose();
             
             double[] dArray={0.0, 0.0, 0.0 };
             
@@ -84,12 +113,39 @@ public class TraceUtils {
             }
             
             byte[][] palette = generatePalette(numberOfColors, settingsPanel.getStartColor(), settingsPanel.getEndColor());
-            return ImageTracer.imageToSVG(gray, options, palette);
+            return ParallelImageTracer.trace(ImageTracer.loadImageData(gray), options, palette, isCancelled);
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Could not trace image", e);
         }
     }
 
+    /**
+     * Creates a group with a path for every traced shape. The paths are scaled to millimeters
+     * with the Y axis pointing upwards and are described with their layer and index in the same
+     * format as traced SVG paths, ie "l 2 p 5".
+     *
+     * @param traceResult the traced image
+     * @return a group with all paths
+     */
+    public static Group createGroup(TraceResult traceResult) {
+        Group group = new Group();
+        traceResult.shapes().forEach(tracedShape -> {
+            Path path = new Path();
+            path.append(tracedShape.shape());
+            path.setDescription("l " + tracedShape.layer() + " p " + tracedShape.index());
+            group.addChild(path);
+        });
+
+        AffineTransform transform = new AffineTransform();
+        transform.scale(1, -1); // Invert Y-coordinate
+        transform.scale(PIXEL_UNIT_TO_MM, PIXEL_UNIT_TO_MM);
+        group.applyTransform(transform);
+        group.move(new Point2D.Double(-group.getPosition().getX(), -group.getPosition().getY()));
+        return group;
+    }
+
     private static byte[][] generatePalette(int numberOfColors, int startColorValue, int endColorValue) {
         int step = (startColorValue - endColorValue) / numberOfColors;
         byte[][] palette = new byte[numberOfColors][4];
@@ -1,62 +1,138 @@
 package com.willwinder.ugs.nbp.designer.io.dxf;
 
+import com.google.common.io.CountingInputStream;
 import com.willwinder.ugs.nbp.designer.entities.Entity;
 import com.willwinder.ugs.nbp.designer.entities.cuttable.Group;
 import com.willwinder.ugs.nbp.designer.io.DesignReader;
 import com.willwinder.ugs.nbp.designer.io.DesignReaderException;
+import com.willwinder.ugs.nbp.designer.io.DesignReaderProgressListener;
 import com.willwinder.ugs.nbp.designer.model.Design;
 import com.willwinder.universalgcodesender.utils.Settings;
 import org.kabeja.dxf.DXFConstants;
 import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFEntity;
 import org.kabeja.dxf.DXFLayer;
+import org.kabeja.parser.DXFBlocksSectionHandler;
+import org.kabeja.parser.DXFHeaderSectionHandler;
 import org.kabeja.parser.DXFParser;
+import org.kabeja.parser.DXFTableSectionHandler;
+import org.kabeja.parser.HandlerManager;
 import org.kabeja.parser.ParseException;
-import org.kabeja.parser.Parser;
-import org.kabeja.parser.ParserBuilder;
+import org.kabeja.parser.entities.DXFArcHandler;
+import org.kabeja.parser.entities.DXFCircleHandler;
+import org.kabeja.parser.entities.DXFEllipseHandler;
+import org.kabeja.parser.entities.DXFInsertHandler;
+import org.kabeja.parser.entities.DXFLWPolylineHandler;
+import org.kabeja.parser.entities.DXFLineHandler;
+import org.kabeja.parser.entities.DXFPointHandler;
+import org.kabeja.parser.entities.DXFPolylineHandler;
+import org.kabeja.parser.entities.DXFSplineHandler;
+import org.kabeja.parser.table.DXFLayerTableHandler;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Reads a DXF file and converts its entities to designer entities. Only the entities that
+ * can be converted are parsed and they are converted in parallel while the file is being
+ * read, without building the complete DXF document in memory.
+ *
+ * @author Joacim Breiler
+ */
 public class DxfReader implements DesignReader {
 
     public static final double MILLIMETERS_PER_INCH = 25.4;
+    private static final int BYTES_PER_KILOBYTE = 1024;
     private final DxfConverter converter;
+    private final DesignReaderProgressListener progressListener;
+    private volatile boolean cancelled;
 
     public DxfReader(Settings settings) {
+        this(settings, (completed, total) -> {
+            // Not interested in progress
+        });
+    }
+
+    /**
+     * Creates a DXF reader that will report the progress when reading files
+     *
+     * @param settings         the settings
+     * @param progressListener a listener that will be notified with the number of kilobytes read
+     */
+    public DxfReader(Settings settings, DesignReaderProgressListener progressListener) {
         this.converter = new DxfConverter(settings);
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Cancels the reading, causing it to throw a {@link java.util.concurrent.CancellationException}
+     */
+    public void cancel() {
+        cancelled = true;
     }
 
     @Override
     public Optional<Design> read(File file) {
-        try {
-            return read(new FileInputStream(file));
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return read(inputStream, file.length());
         } catch (FileNotFoundException e) {
             throw new DesignReaderException("Could not read file", e);
+        } catch (IOException e) {
+            throw new DesignReaderException("Could not close file", e);
         }
     }
 
     @Override
     public Optional<Design> read(InputStream resourceAsStream) {
-        Parser parser = ParserBuilder.createDefaultParser();
+        return read(resourceAsStream, -1);
+    }
+
+    private Optional<Design> read(InputStream inputStream, long size) {
+        CountingInputStream countingInputStream = new CountingInputStream(inputStream);
+        DxfStreamConverter streamConverter = new DxfStreamConverter(converter, () -> cancelled);
+        int total = (int) (size / BYTES_PER_KILOBYTE);
+        progressListener.onProgress(0, total);
+
+        AtomicInteger completed = new AtomicInteger();
+        DXFParser parser = createParser(entity -> {
+            streamConverter.accept(entity);
+
+            // Only report when another kilobyte has been read
+            int kilobytesRead = (int) (countingInputStream.getCount() / BYTES_PER_KILOBYTE);
+            if (size > 0 && completed.getAndSet(kilobytesRead) != kilobytesRead) {
+                progressListener.onProgress(kilobytesRead, total);
+            }
+        });
+
+        Map<String, Map<String, List<Entity>>> entitiesByLayer;
         try {
-            parser.parse(resourceAsStream, DXFParser.DEFAULT_ENCODING);
+            parser.parse(countingInputStream, DXFParser.DEFAULT_ENCODING);
+            entitiesByLayer = streamConverter.getEntities();
         } catch (ParseException e) {
+            streamConverter.cancel();
             throw new DesignReaderException("Could not parse file", e);
+        } catch (CompletionException e) {
+            throw new DesignReaderException("Could not convert file", e);
         }
 
         DXFDocument doc = parser.getDocument();
-
         Group group = new Group();
         Iterator layerIterator = doc.getDXFLayerIterator();
         while (layerIterator.hasNext()) {
             DXFLayer layer = (DXFLayer) layerIterator.next();
-            parseAndAddLayerGroup(group, layer);
+            parseAndAddLayerGroup(group, layer.getName(), entitiesByLayer.getOrDefault(layer.getName(), Collections.emptyMap()));
         }
 
         Design design = new Design();
@@ -68,12 +144,47 @@ public class DxfReader implements DesignReader {
         return Optional.of(design);
     }
 
-    private void parseAndAddLayerGroup(Group group, DXFLayer layer) {
+    /**
+     * Creates a parser that will only parse the entities that can be converted. The parsed
+     * entities are passed on to the given consumer and are not added to the document.
+     */
+    private static DXFParser createParser(Consumer<DXFEntity> entityConsumer) {
+        DXFParser parser = new DXFParser();
+        parser.addHandler(new DXFHeaderSectionHandler());
+
+        // The blocks are needed when converting inserts
+        HandlerManager blocksHandler = new DXFBlocksSectionHandler();
+        addEntityHandlers(blocksHandler);
+        parser.addHandler(blocksHandler);
+
+        HandlerManager tableHandler = new DXFTableSectionHandler();
+        tableHandler.addHandler(new DXFLayerTableHandler());
+        parser.addHandler(tableHandler);
+
+        HandlerManager entitiesHandler = new StreamingEntitiesSectionHandler(entityConsumer);
+        addEntityHandlers(entitiesHandler);
+        parser.addHandler(entitiesHandler);
+        return parser;
+    }
+
+    private static void addEntityHandlers(HandlerManager handlerManager) {
+        handlerManager.addHandler(new DXFLineHandler());
+        handlerManager.addHandler(new DXFPointHandler());
+        handlerManager.addHandler(new DXFCircleHandler());
+        handlerManager.addHandler(new DXFArcHandler());
+        handlerManager.addHandler(new DXFPolylineHandler());
+        handlerManager.addHandler(new DXFLWPolylineHandler());
+        handlerManager.addHandler(new DXFInsertHandler());
+        handlerManager.addHandler(new DXFEllipseHandler());
+        handlerManager.addHandler(new DXFSplineHandler());
+    }
+
+    private void parseAndAddLayerGroup(Group group, String layerName, Map<String, List<Entity>> layerEntities) {
         Group layerGroup = new Group();
-        layerGroup.setName(layer.getName());
+        layerGroup.setName(layerName);
 
         Group pointsGroup = new Group();
-        pointsGroup.addAll(converter.convertPoints(layer.getDXFEntities(DXFConstants.ENTITY_TYPE_POINT)));
+        pointsGroup.addAll(getEntities(layerEntities, DXFConstants.ENTITY_TYPE_POINT));
         pointsGroup.setName("Points");
         if (!pointsGroup.getChildren().isEmpty()) {
             layerGroup.addChild(pointsGroup);
@@ -81,44 +192,44 @@ public class DxfReader implements DesignReader {
 
         Group circlesGroup = new Group();
         circlesGroup.setName("Circles");
-        circlesGroup.addAll(converter.convertCircles(layer.getDXFEntities(DXFConstants.ENTITY_TYPE_CIRCLE)));
+        circlesGroup.addAll(getEntities(layerEntities, DXFConstants.ENTITY_TYPE_CIRCLE));
         if (!circlesGroup.getChildren().isEmpty()) {
             layerGroup.addChild(circlesGroup);
         }
 
         Group linesGroup = new Group();
         linesGroup.setName("Lines");
-        linesGroup.addAll(converter.convertLines(layer.getDXFEntities(DXFConstants.ENTITY_TYPE_LINE)));
+        linesGroup.addAll(getEntities(layerEntities, DXFConstants.ENTITY_TYPE_LINE));
         if (!linesGroup.getChildren().isEmpty()) {
             layerGroup.addChild(linesGroup);
         }
 
         Group arcsGroup = new Group();
         arcsGroup.setName("Arcs");
-        arcsGroup.addAll(converter.convertArcs(layer.getDXFEntities(DXFConstants.ENTITY_TYPE_ARC)));
+        arcsGroup.addAll(getEntities(layerEntities, DXFConstants.ENTITY_TYPE_ARC));
         if (!arcsGroup.getChildren().isEmpty()) {
             layerGroup.addChild(arcsGroup);
         }
 
         Group polylinesGroup = new Group();
         polylinesGroup.setName("Polyline");
-        polylinesGroup.addAll(converter.convert(layer.getDXFEntities(DXFConstants.ENTITY_TYPE_POLYLINE)));
-        polylinesGroup.addAll(converter.convert(layer.getDXFEntities(DXFConstants.ENTITY_TYPE_SPLINE)));
-        polylinesGroup.addAll(converter.convert(layer.getDXFEntities(DXFConstants.ENTITY_TYPE_LWPOLYLINE)));
+        polylinesGroup.addAll(getEntities(layerEntities, DXFConstants.ENTITY_TYPE_POLYLINE));
+        polylinesGroup.addAll(getEntities(layerEntities, DXFConstants.ENTITY_TYPE_SPLINE));
+        polylinesGroup.addAll(getEntities(layerEntities, DXFConstants.ENTITY_TYPE_LWPOLYLINE));
         if (!polylinesGroup.getChildren().isEmpty()) {
             layerGroup.addChild(polylinesGroup);
         }
 
         Group ellipseGroup = new Group();
         ellipseGroup.setName("Ellipse");
-        ellipseGroup.addAll(converter.convertEllipses(layer.getDXFEntities(DXFConstants.ENTITY_TYPE_ELLIPSE)));
+        ellipseGroup.addAll(getEntities(layerEntities, DXFConstants.ENTITY_TYPE_ELLIPSE));
         if (!ellipseGroup.getChildren().isEmpty()) {
             layerGroup.addChild(ellipseGroup);
         }
 
         Group insertsGroup = new Group();
         insertsGroup.setName("Blocks");
-        insertsGroup.addAll(converter.convertInserts(layer.getDXFEntities(DXFConstants.ENTITY_TYPE_INSERT)));
+        insertsGroup.addAll(getEntities(layerEntities, DXFConstants.ENTITY_TYPE_INSERT));
         if (!insertsGroup.getChildren().isEmpty()) {
             layerGroup.addChild(insertsGroup);
         }
@@ -127,4 +238,8 @@ public class DxfReader implements DesignReader {
             group.addChild(layerGroup);
         }
     }
+
+    private static List<Entity> getEntities(Map<String, List<Entity>> layerEntities, String type) {
+        return layerEntities.getOrDefault(type, Collections.emptyList());
+    }
 }
@@ -0,0 +1,169 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.dxf;
+
+import com.willwinder.ugs.nbp.designer.entities.Entity;
+import org.kabeja.dxf.DXFConstants;
+import org.kabeja.dxf.DXFEntity;
+import org.kabeja.dxf.DXFLine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Converts DXF entities to designer entities while they are being parsed. The entities
+ * are collected in batches which are converted in parallel, the number of batches
+ * waiting to be converted is limited so that the parsing doesn't run away from the
+ * conversion.
+ * <p>
+ * Lines are kept until all entities have been parsed as consecutive lines in a layer
+ * are joined into paths.
+ *
+ * @author agent
+ */
+class DxfStreamConverter implements Consumer<DXFEntity> {
+    /**
+     * The number of entities to convert in each batch
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * The maximum number of batches waiting to be converted
+     */
+    private static final int MAX_PENDING_BATCHES = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final DxfConverter converter;
+    private final BooleanSupplier isCancelled;
+    private final Semaphore pendingBatches = new Semaphore(MAX_PENDING_BATCHES);
+    private final List<CompletableFuture<List<ConvertedEntity>>> batches = new ArrayList<>();
+    private final Map<String, List<DXFLine>> linesByLayer = new HashMap<>();
+    private List<LayerEntity> currentBatch = new ArrayList<>(BATCH_SIZE);
+
+    DxfStreamConverter(DxfConverter converter, BooleanSupplier isCancelled) {
+        this.converter = converter;
+        this.isCancelled = isCancelled;
+    }
+
+    @Override
+    public void accept(DXFEntity entity) {
+        checkCancelled();
+
+        // Entities on unknown layers will be placed on the default layer
+        String layerName = entity.getDXFDocument().getDXFLayer(entity.getLayerName()).getName();
+        if (entity instanceof DXFLine line) {
+            linesByLayer.computeIfAbsent(layerName, key -> new ArrayList<>()).add(line);
+            return;
+        }
+
+        currentBatch.add(new LayerEntity(layerName, entity));
+        if (currentBatch.size() >= BATCH_SIZE) {
+            submitBatch();
+        }
+    }
+
+    /**
+     * Waits for all entities to be converted and returns them grouped by their layer and type
+     *
+     * @return a map with the layer name as key and the converted entities grouped by their DXF entity type
+     * @throws CancellationException if the conversion was cancelled
+     */
+    public Map<String, Map<String, List<Entity>>> getEntities() {
+        submitBatch();
+
+        Map<String, Map<String, List<Entity>>> result = new LinkedHashMap<>();
+        try {
+            for (CompletableFuture<List<ConvertedEntity>> batch : batches) {
+                checkCancelled();
+                batch.join().forEach(convertedEntity -> getEntities(result, convertedEntity.layerName(), convertedEntity.type()).add(convertedEntity.entity()));
+            }
+        } catch (CancellationException e) {
+            cancel();
+            throw e;
+        }
+
+        linesByLayer.forEach((layerName, lines) -> getEntities(result, layerName, DXFConstants.ENTITY_TYPE_LINE).addAll(converter.convertLines(lines)));
+        return result;
+    }
+
+    /**
+     * Cancels all batches that are waiting to be converted
+     */
+    public void cancel() {
+        batches.forEach(batch -> batch.cancel(false));
+    }
+
+    private static List<Entity> getEntities(Map<String, Map<String, List<Entity>>> result, String layerName, String type) {
+        return result.computeIfAbsent(layerName, key -> new HashMap<>())
+                .computeIfAbsent(type, key -> new ArrayList<>());
+    }
+
+    private void submitBatch() {
+        if (currentBatch.isEmpty()) {
+            return;
+        }
+
+        try {
+            pendingBatches.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new CancellationException("The conversion was interrupted");
+        }
+
+        List<LayerEntity> batch = currentBatch;
+        currentBatch = new ArrayList<>(BATCH_SIZE);
+        batches.add(CompletableFuture.supplyAsync(() -> convert(batch))
+                .whenComplete((result, throwable) -> pendingBatches.release()));
+    }
+
+    private List<ConvertedEntity> convert(List<LayerEntity> batch) {
+        List<ConvertedEntity> result = new ArrayList<>(batch.size());
+        for (LayerEntity layerEntity : batch) {
+            if (isCancelled.getAsBoolean()) {
+                return result;
+            }
+
+            DXFEntity dxfEntity = layerEntity.entity();
+            converter.convertDxfEntity(dxfEntity)
+                    .forEach(entity -> result.add(new ConvertedEntity(layerEntity.layerName(), dxfEntity.getType(), entity)));
+        }
+        return result;
+    }
+
+    private void checkCancelled() {
+        if (isCancelled.getAsBoolean()) {
+            cancel();
+            throw new CancellationException("The conversion was cancelled");
+        }
+    }
+
+    private record LayerEntity(String layerName, DXFEntity entity) {
+    }
+
+    private record ConvertedEntity(String layerName, String type, Entity entity) {
+    }
+}
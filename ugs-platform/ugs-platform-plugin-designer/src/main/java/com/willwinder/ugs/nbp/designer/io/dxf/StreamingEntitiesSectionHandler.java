@@ -0,0 +1,50 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.dxf;
+
+import org.kabeja.dxf.DXFEntity;
+import org.kabeja.parser.DXFEntitiesSectionHandler;
+
+import java.util.function.Consumer;
+
+/**
+ * A handler for the entities section that passes on every parsed entity to a consumer
+ * instead of adding it to the document. This makes it possible to process the entities
+ * while the file is being parsed without keeping them all in memory.
+ *
+ * @author agent
+ */
+class StreamingEntitiesSectionHandler extends DXFEntitiesSectionHandler {
+    private final Consumer<DXFEntity> entityConsumer;
+
+    StreamingEntitiesSectionHandler(Consumer<DXFEntity> entityConsumer) {
+        this.entityConsumer = entityConsumer;
+    }
+
+    @Override
+    protected void endEntity() {
+        if (parseEntity) {
+            handler.endDXFEntity();
+
+            DXFEntity entity = handler.getDXFEntity();
+            entity.setDXFDocument(doc);
+            entityConsumer.accept(entity);
+        }
+    }
+}
@@ -23,14 +23,18 @@ import com.willwinder.ugs.nbp.designer.entities.cuttable.Cuttable;
 import com.willwinder.ugs.nbp.designer.io.DesignWriter;
 import com.willwinder.ugs.nbp.designer.io.DesignWriterException;
 import com.willwinder.ugs.nbp.designer.logic.Controller;
-import org.apache.commons.io.IOUtils;
+import com.willwinder.ugs.nbp.designer.model.Settings;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.stream.Collectors;
 
 /**
@@ -39,6 +43,33 @@ import java.util.stream.Collectors;
  * @author Joacim Breiler
  */
 public class GcodeDesignWriter implements DesignWriter {
+    private final ToolPathProgressListener progressListener;
+    private boolean cancelled;
+    private SimpleGcodeRouter gcodeRouter;
+
+    public GcodeDesignWriter() {
+        this((completed, total) -> {
+        });
+    }
+
+    /**
+     * Creates a gcode writer that will report the progress of the tool path generation
+     *
+     * @param progressListener a listener that will be notified with the progress
+     */
+    public GcodeDesignWriter(ToolPathProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Cancels the gcode generation, any ongoing or future write will throw a {@link CancellationException}
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        if (gcodeRouter != null) {
+            gcodeRouter.cancel();
+        }
+    }
 
     @Override
     public void write(File file, Controller controller) {
@@ -51,19 +82,60 @@ public class GcodeDesignWriter implements DesignWriter {
 
     @Override
     public void write(OutputStream outputStream, Controller controller) {
+        write(outputStream, controller.getSettings(), controller.getToolPathCache(), getCuttables(controller));
+    }
+
+    /**
+     * Writes the gcode for the given cuttables to a file. This makes it possible to generate the
+     * gcode in the background from a copy of the design while the design is being edited.
+     *
+     * @param file          the file to write the gcode to
+     * @param settings      the tool settings
+     * @param toolPathCache a cache with previously generated tool paths
+     * @param cuttables     the cuttables to generate gcode for
+     */
+    public void write(File file, Settings settings, ToolPathCache toolPathCache, List<Cuttable> cuttables) {
+        try (FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+            write(fileOutputStream, settings, toolPathCache, cuttables);
+        } catch (IOException e) {
+            throw new DesignWriterException("Could not write gcode to file: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    private void write(OutputStream outputStream, Settings settings, ToolPathCache toolPathCache, List<Cuttable> cuttables) {
         try {
-            SimpleGcodeRouter gcodeRouter = new SimpleGcodeRouter(controller.getSettings());
-            List<Cuttable> cuttables = controller.getDrawing().getEntities().stream()
-                    .filter(Cuttable.class::isInstance)
-                    .map(Cuttable.class::cast)
-                    .filter(cuttable -> !cuttable.isHidden())
-                    .filter(cuttable -> cuttable.getCutType() != CutType.NONE)
-                    .collect(Collectors.toList());
-
-            String gcode = gcodeRouter.toGcode( cuttables);
-            IOUtils.write(gcode, outputStream, StandardCharsets.UTF_8);
+            SimpleGcodeRouter gcodeRouter = createGcodeRouter(settings, toolPathCache);
+
+            // Stream the gcode directly to the output to prevent the whole program to be kept in memory
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            gcodeRouter.toGcode(writer, cuttables);
+            writer.flush();
         } catch (IOException e) {
             throw new DesignWriterException("Could not write gcode to stream", e);
         }
     }
+
+    /**
+     * Returns the cuttables in the design that should be exported as gcode
+     *
+     * @param controller the controller with the design
+     * @return a list of visible cuttables with a cut type
+     */
+    public static List<Cuttable> getCuttables(Controller controller) {
+        return controller.getDrawing().getEntities().stream()
+                .filter(Cuttable.class::isInstance)
+                .map(Cuttable.class::cast)
+                .filter(cuttable -> !cuttable.isHidden())
+                .filter(cuttable -> cuttable.getCutType() != CutType.NONE)
+                .collect(Collectors.toList());
+    }
+
+    private synchronized SimpleGcodeRouter createGcodeRouter(Settings settings, ToolPathCache toolPathCache) {
+        gcodeRouter = new SimpleGcodeRouter(settings, toolPathCache);
+        gcodeRouter.setProgressListener(progressListener);
+        if (cancelled) {
+            gcodeRouter.cancel();
+        }
+        return gcodeRouter;
+    }
 }
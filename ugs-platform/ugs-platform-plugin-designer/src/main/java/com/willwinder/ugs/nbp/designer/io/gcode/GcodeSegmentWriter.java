@@ -0,0 +1,146 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.gcode;
+
+import com.willwinder.ugs.nbp.designer.io.gcode.path.Segment;
+import com.willwinder.ugs.nbp.designer.io.gcode.path.SegmentType;
+import com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathStats;
+import com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils;
+import com.willwinder.ugs.nbp.designer.model.Settings;
+import com.willwinder.universalgcodesender.model.PartialPosition;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Converts path segments to gcode one at a time and writes them directly to a writer
+ * which makes it possible to generate gcode without keeping all segments in memory.
+ *
+ * @author agent
+ */
+public class GcodeSegmentWriter {
+    private static final PartialPosition ORIGIN = new PartialPosition(0d, 0d, 0d, UnitUtils.Units.MM);
+    private final Writer writer;
+    private final Settings settings;
+    private boolean hasFeedRateSet = false;
+    private double totalFeedLength;
+    private double totalRapidLength;
+
+    public GcodeSegmentWriter(Writer writer, Settings settings) {
+        this.writer = writer;
+        this.settings = settings;
+    }
+
+    /**
+     * Converts the segment to gcode and writes it
+     *
+     * @param s the segment to write
+     * @throws IOException if the gcode couldn't be written
+     */
+    public void write(Segment s) throws IOException {
+        updateStats(s);
+
+        // Write any label
+        if (StringUtils.isNotEmpty(s.getLabel())) {
+            writer.write(";" + s.getLabel() + "\n" );
+        }
+
+        if (s.getSpindleSpeed() != null) {
+            writer.write(settings.getSpindleDirection() + " S" + s.getSpindleSpeed() + "\n" );
+        }
+
+        switch (s.type) {
+            // Seam are just markers.
+            case SEAM:
+                if (!hasFeedRateSet && s.getFeedSpeed() != null) {
+                    writer.write("F" );
+                    writer.write(String.valueOf(s.getFeedSpeed()));
+                    writer.write(' ');
+                    hasFeedRateSet = true;
+                }
+                break;
+
+            // Rapid move
+            // Go to safe Z height, move over the target point and plunge down
+            case MOVE:
+                // The rapid over target point is skipped when we do multiple passes
+                // and the end point is the same as the starting point.
+                writer.write(SegmentType.MOVE.gcode);
+                writer.write(" " );
+                writer.write(s.point.getFormattedGCode());
+                writer.write("\n" );
+                hasFeedRateSet = false;
+                break;
+
+            // Drill down using the plunge speed
+            case POINT:
+                writer.write(SegmentType.POINT.gcode);
+                writer.write(" " );
+                writer.write("F" + settings.getPlungeSpeed() + " " );
+                writer.write(s.point.getFormattedGCode());
+                writer.write("\n" );
+                hasFeedRateSet = false;
+                break;
+
+            // Motion at feed rate
+            case LINE:
+            case CWARC:
+            case CCWARC:
+                writer.write(s.type.gcode);
+                writer.write(' ');
+
+                if (!hasFeedRateSet && s.getFeedSpeed() != null) {
+                    writer.write("F" );
+                    writer.write(String.valueOf(s.getFeedSpeed()));
+                    writer.write(' ');
+                    hasFeedRateSet = true;
+                }
+
+                writer.write(s.point.getFormattedGCode());
+                writer.write("\n" );
+                break;
+            default:
+                throw new RuntimeException("BUG! Unhandled segment type " + s.type);
+        }
+    }
+
+    /**
+     * Returns the statistics of all segments written so far, calculated in the same way as
+     * {@link ToolPathUtils#getToolPathStats}.
+     *
+     * @return the tool path statistics
+     */
+    public ToolPathStats getToolPathStats() {
+        return new ToolPathStats(totalFeedLength, totalRapidLength);
+    }
+
+    private void updateStats(Segment segment) {
+        if (segment.getType() == SegmentType.SEAM) {
+            return;
+        }
+
+        if (segment.getType() == SegmentType.MOVE) {
+            totalRapidLength += ToolPathUtils.distanceBetween(ORIGIN, segment.getPoint());
+        } else {
+            totalFeedLength += ToolPathUtils.distanceBetween(ORIGIN, segment.getPoint());
+        }
+    }
+}
@@ -19,7 +19,7 @@ package com.willwinder.ugs.nbp.designer.io.gcode;
 import com.willwinder.ugs.nbp.designer.entities.cuttable.Cuttable;
 import com.willwinder.ugs.nbp.designer.io.gcode.path.GcodePath;
 import com.willwinder.ugs.nbp.designer.io.gcode.path.Segment;
-import com.willwinder.ugs.nbp.designer.io.gcode.path.SegmentType;
+import com.willwinder.ugs.nbp.designer.io.gcode.path.StreamingGcodePath;
 import com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.DrillCenterToolPath;
 import com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.LaserFillToolPath;
 import com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.LaserOutlineToolPath;
@@ -31,12 +31,23 @@ import com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils;
 import com.willwinder.ugs.nbp.designer.model.Settings;
 import com.willwinder.universalgcodesender.gcode.util.Code;
 import com.willwinder.universalgcodesender.utils.Version;
-import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.io.output.TeeWriter;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 /**
@@ -45,11 +56,58 @@ import java.util.logging.Logger;
  */
 public class SimpleGcodeRouter {
     private static final Logger LOGGER = Logger.getLogger(SimpleGcodeRouter.class.getSimpleName());
+    /**
+     * The maximum number of tool paths that are generated or waiting to be written at the same time
+     */
+    private static final int MAX_TOOL_PATHS_IN_PROGRESS = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * The maximum length of the generated gcode of a tool path for it to be kept in memory and cached,
+     * larger tool paths are written directly to the output or to a temporary file
+     */
+    private static final int MAX_CACHED_TOOL_PATH_LENGTH = 1_000_000;
     private static final String HEADER = "; This file was generated with \"Universal Gcode Sender " + Version.getVersionString() + "\"\n;\n";
     private final Settings settings;
+    private final ToolPathCache toolPathCache;
+    private ToolPathProgressListener progressListener = (completed, total) -> {
+    };
+    private volatile boolean cancelled;
+    private int maxCachedToolPathLength = MAX_CACHED_TOOL_PATH_LENGTH;
 
     public SimpleGcodeRouter(Settings settings) {
+        this(settings, new ToolPathCache());
+    }
+
+    /**
+     * Creates a gcode router that will reuse previously generated tool paths from the given cache
+     *
+     * @param settings      the tool settings
+     * @param toolPathCache a cache with previously generated tool paths
+     */
+    public SimpleGcodeRouter(Settings settings, ToolPathCache toolPathCache) {
         this.settings = settings;
+        this.toolPathCache = toolPathCache;
+    }
+
+    public void setProgressListener(ToolPathProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Sets the maximum length of the generated gcode of a tool path for it to be kept in memory and cached
+     *
+     * @param maxCachedToolPathLength the maximum number of characters
+     */
+    void setMaxCachedToolPathLength(int maxCachedToolPathLength) {
+        this.maxCachedToolPathLength = maxCachedToolPathLength;
+    }
+
+    /**
+     * Cancels the generation of the tool paths, any ongoing or future call to
+     * {@link #toGcode(List)} will throw a {@link CancellationException}.
+     */
+    public void cancel() {
+        cancelled = true;
     }
 
     protected String toGcode(GcodePath gcodePath) throws IOException {
@@ -63,7 +121,24 @@ public class SimpleGcodeRouter {
     }
 
     public String toGcode(List<Cuttable> entities) {
-        StringBuilder result = new StringBuilder(HEADER +
+        StringWriter stringWriter = new StringWriter();
+        try {
+            toGcode(stringWriter, entities);
+        } catch (IOException e) {
+            throw new RuntimeException("An error occured while trying to generate gcode", e);
+        }
+        return stringWriter.toString();
+    }
+
+    /**
+     * Generates the gcode for the given entities and writes it to the writer while it is being generated.
+     *
+     * @param writer   the writer to write the gcode to
+     * @param entities the entities to generate gcode for
+     * @throws IOException if the gcode couldn't be written
+     */
+    public void toGcode(Writer writer, List<Cuttable> entities) throws IOException {
+        writer.write(HEADER +
                 generateToolHeader() + "\n" +
                 Code.G21.name() + " ; millimeters\n" +
                 Code.G90.name() + " ; absolute coordinate\n" +
@@ -71,80 +146,173 @@ public class SimpleGcodeRouter {
                 Code.G94.name() + " ; units per minute feed rate mode\n"
         );
 
-        result.append("\n" );
+        writer.write("\n" );
 
         try {
-            result.append(toGcode(getGcodePathFromCuttables(entities)));
-        } catch (IOException e) {
-            throw new RuntimeException("An error occured while trying to generate gcode", e);
+            writeGcodeFromCuttables(writer, entities);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.write("\n; Turning off spindle\n" );
+        writer.write(Code.M5.name() + "\n" );
+        writer.flush();
+    }
+
+    /**
+     * Writes the gcode for all cuttables. The tool paths are fetched from the cache and will
+     * only be generated for cuttables that has changed since the last time. The tool paths that
+     * needs to be generated are independent of each other and are generated in parallel, but
+     * only a limited number at a time to keep the memory usage down. They are then written in
+     * the original order and released as soon as they are no longer needed.
+     */
+    private void writeGcodeFromCuttables(Writer writer, List<Cuttable> cuttables) throws IOException {
+        List<String> keys = new ArrayList<>(cuttables.size());
+        Map<String, Integer> lastUsages = new HashMap<>();
+        Map<String, ToolPathCache.CachedToolPath> cachedToolPaths = new HashMap<>();
+        Map<String, Cuttable> toolPathsToGenerate = new LinkedHashMap<>();
+        for (int i = 0; i < cuttables.size(); i++) {
+            Cuttable cuttable = cuttables.get(i);
+            String key = cuttable.getIncludeInExport() ? ToolPathCache.createKey(settings, cuttable) : null;
+            keys.add(key);
+            if (key != null && !lastUsages.containsKey(key)) {
+                toolPathCache.get(key).ifPresentOrElse(toolPath -> cachedToolPaths.put(key, toolPath), () -> toolPathsToGenerate.put(key, cuttable));
+            }
+
+            if (key != null) {
+                lastUsages.put(key, i);
+            }
         }
 
-        result.append("\n; Turning off spindle\n" )
-                .append(Code.M5.name()).append("\n" );
-        return result.toString();
-    }
-
-    private GcodePath getGcodePathFromCuttables(List<Cuttable> cuttables) {
-        GcodePath gcodePath = new GcodePath();
-        int index = 0;
-        
-        for (Cuttable cuttable : cuttables) {
-            
-            index++;
-            gcodePath.addSegment(new Segment(" " + cuttable.getName() + " - " + cuttable.getCutType().getName() + " (" + index + "/" + cuttables.size() + ")" ));
-            if (cuttable.getIncludeInExport()) {                            
-                switch (cuttable.getCutType()) {
-                    case POCKET:
-                        PocketToolPath simplePocket = new PocketToolPath(settings, cuttable);
-                        simplePocket.setStartDepth(cuttable.getStartDepth());
-                        simplePocket.setTargetDepth(cuttable.getTargetDepth());
-                        simplePocket.appendGcodePath(gcodePath, settings);
-                        break;
-                    case SURFACE:
-                        SurfaceToolPath surfaceToolPath = new SurfaceToolPath(settings, cuttable);
-                        surfaceToolPath.setStartDepth(cuttable.getStartDepth());
-                        surfaceToolPath.setTargetDepth(cuttable.getTargetDepth());
-                        surfaceToolPath.appendGcodePath(gcodePath, settings);
-                        break;
-                    case OUTSIDE_PATH:
-                        OutlineToolPath simpleOutsidePath = new OutlineToolPath(settings, cuttable);
-                        simpleOutsidePath.setOffset(settings.getToolDiameter() / 2d);
-                        simpleOutsidePath.setStartDepth(cuttable.getStartDepth());
-                        simpleOutsidePath.setTargetDepth(cuttable.getTargetDepth());
-                        simpleOutsidePath.appendGcodePath(gcodePath, settings);
-                        break;
-                    case INSIDE_PATH:
-                        OutlineToolPath simpleInsidePath = new OutlineToolPath(settings, cuttable);
-                        simpleInsidePath.setOffset(-settings.getToolDiameter() / 2d);
-                        simpleInsidePath.setStartDepth(cuttable.getStartDepth());
-                        simpleInsidePath.setTargetDepth(cuttable.getTargetDepth());
-                        simpleInsidePath.appendGcodePath(gcodePath, settings);
-                        break;
-                    case ON_PATH:
-                        OutlineToolPath simpleOnPath = new OutlineToolPath(settings, cuttable);
-                        simpleOnPath.setStartDepth(cuttable.getStartDepth());
-                        simpleOnPath.setTargetDepth(cuttable.getTargetDepth());
-                        simpleOnPath.appendGcodePath(gcodePath, settings);
-                        break;
-                    case CENTER_DRILL:
-                        DrillCenterToolPath drillToolPath = new DrillCenterToolPath(settings, cuttable);
-                        drillToolPath.setStartDepth(cuttable.getStartDepth());
-                        drillToolPath.setTargetDepth(cuttable.getTargetDepth());
-                        drillToolPath.appendGcodePath(gcodePath, settings);
-                        break;
-                    case LASER_ON_PATH:
-                        LaserOutlineToolPath laserOutlineToolPath = new LaserOutlineToolPath(settings, cuttable);
-                        laserOutlineToolPath.appendGcodePath(gcodePath, settings);
-                        break;
-                    case LASER_FILL:
-                        LaserFillToolPath laserFillToolPath = new LaserFillToolPath(settings, cuttable);
-                        laserFillToolPath.appendGcodePath(gcodePath, settings);
-                        break;
-                    default:
+        ToolPathTasks toolPathTasks = new ToolPathTasks(toolPathsToGenerate);
+        Map<String, GeneratedToolPath> generatedToolPaths = new HashMap<>();
+        double totalFeedLength = 0;
+        double totalRapidLength = 0;
+        try {
+            for (int i = 0; i < cuttables.size(); i++) {
+                Cuttable cuttable = cuttables.get(i);
+                writer.write("; " + cuttable.getName() + " - " + cuttable.getCutType().getName() + " (" + (i + 1) + "/" + cuttables.size() + ")\n");
+
+                String key = keys.get(i);
+                if (key == null) {
+                    continue;
+                }
+
+                ToolPathStats stats;
+                ToolPathCache.CachedToolPath cachedToolPath = cachedToolPaths.get(key);
+                GeneratedToolPath generatedToolPath = generatedToolPaths.get(key);
+                if (cachedToolPath != null) {
+                    writer.write(cachedToolPath.gcode());
+                    stats = cachedToolPath.stats();
+                } else if (generatedToolPath != null) {
+                    generatedToolPath.buffer().transferTo(writer);
+                    stats = generatedToolPath.stats();
+                } else {
+                    generatedToolPath = toolPathTasks.write(key, writer, lastUsages.get(key) > i);
+                    stats = generatedToolPath.stats();
+                    if (generatedToolPath.buffer().isInMemory()) {
+                        cachedToolPath = new ToolPathCache.CachedToolPath(generatedToolPath.buffer().getGcode(), stats);
+                        toolPathCache.put(key, cachedToolPath);
+                        cachedToolPaths.put(key, cachedToolPath);
+                        generatedToolPath.buffer().close();
+                    } else {
+                        generatedToolPaths.put(key, generatedToolPath);
+                    }
+                }
+
+                totalFeedLength += stats.getTotalFeedLength();
+                totalRapidLength += stats.getTotalRapidLength();
+
+                // Release the tool path if it isn't needed anymore
+                if (lastUsages.get(key) == i) {
+                    cachedToolPaths.remove(key);
+                    generatedToolPath = generatedToolPaths.remove(key);
+                    if (generatedToolPath != null) {
+                        generatedToolPath.buffer().close();
+                    }
                 }
             }
+        } catch (IOException | RuntimeException e) {
+            toolPathTasks.cancel();
+            for (GeneratedToolPath generatedToolPath : generatedToolPaths.values()) {
+                generatedToolPath.buffer().close();
+            }
+            throw e;
+        }
+
+        if (cancelled) {
+            throw new CancellationException("The tool path generation was cancelled");
+        }
+
+        toolPathCache.retainAll(lastUsages.keySet());
+        LOGGER.info("Generated a tool path with total length of " + Math.round(totalFeedLength) + "mm and " + Math.round(totalRapidLength) + "mm of rapid movement, " + toolPathsToGenerate.size() + " of " + lastUsages.size() + " tool paths were regenerated" );
+    }
+
+    /**
+     * Generates the tool path for the cuttable and writes the gcode to the given writer as it is generated
+     */
+    private ToolPathStats generateToolPath(Cuttable cuttable, Writer writer) {
+        GcodeSegmentWriter segmentWriter = new GcodeSegmentWriter(writer, settings);
+        appendToolPath(new StreamingGcodePath(segment -> {
+            try {
+                segmentWriter.write(segment);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }), cuttable);
+        return segmentWriter.getToolPathStats();
+    }
+
+    private void appendToolPath(GcodePath gcodePath, Cuttable cuttable) {
+        switch (cuttable.getCutType()) {
+            case POCKET:
+                PocketToolPath simplePocket = new PocketToolPath(settings, cuttable);
+                simplePocket.setStartDepth(cuttable.getStartDepth());
+                simplePocket.setTargetDepth(cuttable.getTargetDepth());
+                simplePocket.appendGcodePath(gcodePath, settings);
+                break;
+            case SURFACE:
+                SurfaceToolPath surfaceToolPath = new SurfaceToolPath(settings, cuttable);
+                surfaceToolPath.setStartDepth(cuttable.getStartDepth());
+                surfaceToolPath.setTargetDepth(cuttable.getTargetDepth());
+                surfaceToolPath.appendGcodePath(gcodePath, settings);
+                break;
+            case OUTSIDE_PATH:
+                OutlineToolPath simpleOutsidePath = new OutlineToolPath(settings, cuttable);
+                simpleOutsidePath.setOffset(settings.getToolDiameter() / 2d);
+                simpleOutsidePath.setStartDepth(cuttable.getStartDepth());
+                simpleOutsidePath.setTargetDepth(cuttable.getTargetDepth());
+                simpleOutsidePath.appendGcodePath(gcodePath, settings);
+                break;
+            case INSIDE_PATH:
+                OutlineToolPath simpleInsidePath = new OutlineToolPath(settings, cuttable);
+                simpleInsidePath.setOffset(-settings.getToolDiameter() / 2d);
+                simpleInsidePath.setStartDepth(cuttable.getStartDepth());
+                simpleInsidePath.setTargetDepth(cuttable.getTargetDepth());
+                simpleInsidePath.appendGcodePath(gcodePath, settings);
+                break;
+            case ON_PATH:
+                OutlineToolPath simpleOnPath = new OutlineToolPath(settings, cuttable);
+                simpleOnPath.setStartDepth(cuttable.getStartDepth());
+                simpleOnPath.setTargetDepth(cuttable.getTargetDepth());
+                simpleOnPath.appendGcodePath(gcodePath, settings);
+                break;
+            case CENTER_DRILL:
+                DrillCenterToolPath drillToolPath = new DrillCenterToolPath(settings, cuttable);
+                drillToolPath.setStartDepth(cuttable.getStartDepth());
+                drillToolPath.setTargetDepth(cuttable.getTargetDepth());
+                drillToolPath.appendGcodePath(gcodePath, settings);
+                break;
+            case LASER_ON_PATH:
+                LaserOutlineToolPath laserOutlineToolPath = new LaserOutlineToolPath(settings, cuttable);
+                laserOutlineToolPath.appendGcodePath(gcodePath, settings);
+                break;
+            case LASER_FILL:
+                LaserFillToolPath laserFillToolPath = new LaserFillToolPath(settings, cuttable);
+                laserFillToolPath.appendGcodePath(gcodePath, settings);
+                break;
+            default:
         }
-        return gcodePath;
     }
 
     private String generateToolHeader() {
@@ -163,71 +331,149 @@ public class SimpleGcodeRouter {
     }
 
     protected void runPath(Writer writer, List<Segment> segments) throws IOException {
-        boolean hasFeedRateSet = false;
-        // Convert path segments to G codes
-        for (Segment s : segments) {
-            // Write any label
-            if (StringUtils.isNotEmpty(s.getLabel())) {
-                writer.write(";" + s.getLabel() + "\n" );
+        GcodeSegmentWriter segmentWriter = new GcodeSegmentWriter(writer, settings);
+        for (Segment segment : segments) {
+            segmentWriter.write(segment);
+        }
+    }
+
+    /**
+     * A generated tool path that isn't cached
+     *
+     * @param buffer the buffer with the generated gcode
+     * @param stats  the statistics of the tool path
+     */
+    private record GeneratedToolPath(ToolPathBuffer buffer, ToolPathStats stats) {
+    }
+
+    /**
+     * A tool path to generate, it will either be generated on the fork join pool or directly
+     * to the output if it hasn't been started when it is about to be written.
+     */
+    private static class ToolPathTask {
+        private final Cuttable cuttable;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private ForkJoinTask<GeneratedToolPath> future;
+
+        /**
+         * The tool path generated in the background, guarded by the {@link ToolPathTasks} lock
+         */
+        private GeneratedToolPath generatedToolPath;
+
+        ToolPathTask(Cuttable cuttable) {
+            this.cuttable = cuttable;
+        }
+
+        boolean start() {
+            return started.compareAndSet(false, true);
+        }
+    }
+
+    /**
+     * Generates tool paths in parallel on the fork join pool. The tool paths are generated in the
+     * order they were given and only a limited number of generated tool paths are kept waiting
+     * to be written. Tool paths that are too large to be kept in memory are written to temporary
+     * files until they are written.
+     */
+    private class ToolPathTasks {
+        private final Iterator<Map.Entry<String, Cuttable>> cuttablesToSubmit;
+        private final Map<String, ToolPathTask> tasks = new HashMap<>();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final int total;
+        private volatile boolean aborted;
+
+        ToolPathTasks(Map<String, Cuttable> cuttables) {
+            this.cuttablesToSubmit = cuttables.entrySet().iterator();
+            this.total = cuttables.size();
+            progressListener.onProgress(0, total);
+            submitTasks();
+        }
+
+        /**
+         * Writes the tool path with the given key. If it hasn't been started it will be generated
+         * directly to the writer, otherwise it will be written when it has been generated. The
+         * tool paths must be written in the same order as they were given.
+         *
+         * @param key         the key of the tool path
+         * @param writer      the writer to write the gcode to
+         * @param spillToDisk true if the gcode will be needed again even if it is too large to keep in memory
+         * @return the generated tool path
+         */
+        GeneratedToolPath write(String key, Writer writer, boolean spillToDisk) throws IOException {
+            if (cancelled) {
+                throw new CancellationException("The tool path generation was cancelled");
             }
 
-            if (s.getSpindleSpeed() != null) {
-                writer.write(settings.getSpindleDirection() + " S" + s.getSpindleSpeed() + "\n" );
+            ToolPathTask task = tasks.remove(key);
+            GeneratedToolPath toolPath;
+            if (task.start()) {
+                ToolPathBuffer buffer = new ToolPathBuffer(maxCachedToolPathLength, spillToDisk);
+                ToolPathStats stats = generateToolPath(task.cuttable, new TeeWriter(writer, buffer));
+                progressListener.onProgress(completed.incrementAndGet(), total);
+                toolPath = new GeneratedToolPath(buffer, stats);
+            } else {
+                toolPath = task.future.join();
+                toolPath.buffer().transferTo(writer);
             }
 
-            switch (s.type) {
-                // Seam are just markers.
-                case SEAM:
-                    if (!hasFeedRateSet && s.getFeedSpeed() != null) {
-                        writer.write("F" );
-                        writer.write(String.valueOf(s.getFeedSpeed()));
-                        writer.write(' ');
-                        hasFeedRateSet = true;
-                    }
-                    continue;
+            submitTasks();
+            return toolPath;
+        }
 
-                    // Rapid move
-                    // Go to safe Z height, move over the target point and plunge down
-                case MOVE:
-                    // The rapid over target point is skipped when we do multiple passes
-                    // and the end point is the same as the starting point.
-                    writer.write(SegmentType.MOVE.gcode);
-                    writer.write(" " );
-                    writer.write(s.point.getFormattedGCode());
-                    writer.write("\n" );
-                    hasFeedRateSet = false;
-                    break;
-
-                // Drill down using the plunge speed
-                case POINT:
-                    writer.write(SegmentType.POINT.gcode);
-                    writer.write(" " );
-                    writer.write("F" + settings.getPlungeSpeed() + " " );
-                    writer.write(s.point.getFormattedGCode());
-                    writer.write("\n" );
-                    hasFeedRateSet = false;
-                    break;
-
-                // Motion at feed rate
-                case LINE:
-                case CWARC:
-                case CCWARC:
-                    writer.write(s.type.gcode);
-                    writer.write(' ');
-
-                    if (!hasFeedRateSet && s.getFeedSpeed() != null) {
-                        writer.write("F" );
-                        writer.write(String.valueOf(s.getFeedSpeed()));
-                        writer.write(' ');
-                        hasFeedRateSet = true;
-                    }
+        /**
+         * Cancels the tool paths that hasn't been written and removes their temporary files. Tool
+         * paths that are still being generated will remove their files when they are finished.
+         */
+        synchronized void cancel() throws IOException {
+            aborted = true;
+            for (ToolPathTask task : tasks.values()) {
+                task.future.cancel(true);
+                if (task.generatedToolPath != null) {
+                    task.generatedToolPath.buffer().close();
+                }
+            }
+            tasks.clear();
+        }
 
-                    writer.write(s.point.getFormattedGCode());
-                    writer.write("\n" );
-                    break;
-                default:
-                    throw new RuntimeException("BUG! Unhandled segment type " + s.type);
+        private void submitTasks() {
+            while (tasks.size() < MAX_TOOL_PATHS_IN_PROGRESS && cuttablesToSubmit.hasNext()) {
+                Map.Entry<String, Cuttable> entry = cuttablesToSubmit.next();
+                ToolPathTask task = new ToolPathTask(entry.getValue());
+                task.future = ForkJoinPool.commonPool().submit(() -> generate(task));
+                tasks.put(entry.getKey(), task);
+            }
+        }
+
+        private GeneratedToolPath generate(ToolPathTask task) throws IOException {
+            if (!task.start()) {
+                // The tool path is being generated directly to the output instead
+                return null;
+            }
+
+            if (cancelled || aborted) {
+                throw new CancellationException("The tool path generation was cancelled");
+            }
+
+            ToolPathBuffer buffer = new ToolPathBuffer(maxCachedToolPathLength, true);
+            ToolPathStats stats;
+            try {
+                stats = generateToolPath(task.cuttable, buffer);
+            } catch (RuntimeException e) {
+                buffer.close();
+                throw e;
+            }
+
+            // Synchronized with cancel so that the buffer is always closed if the tasks are aborted
+            GeneratedToolPath generatedToolPath = new GeneratedToolPath(buffer, stats);
+            synchronized (this) {
+                if (aborted) {
+                    buffer.close();
+                    throw new CancellationException("The tool path generation was cancelled");
+                }
+                task.generatedToolPath = generatedToolPath;
             }
+            progressListener.onProgress(completed.incrementAndGet(), total);
+            return generatedToolPath;
         }
     }
 }
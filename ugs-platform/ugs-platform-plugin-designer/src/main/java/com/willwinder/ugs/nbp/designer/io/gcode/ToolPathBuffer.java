@@ -0,0 +1,155 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.gcode;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * A buffer for generated gcode that is kept in memory until it exceeds a limit. After that
+ * it is either spilled to a temporary file or discarded, which keeps the memory usage down
+ * when generating very large tool paths.
+ *
+ * @author agent
+ */
+class ToolPathBuffer extends Writer {
+    private final int memoryLimit;
+    private final boolean spillToDisk;
+    private StringBuilder memory = new StringBuilder();
+    private File file;
+    private Writer fileWriter;
+    private boolean discarded;
+
+    /**
+     * Creates a buffer for gcode
+     *
+     * @param memoryLimit the maximum number of characters to keep in memory
+     * @param spillToDisk true if the gcode should be written to a temporary file when exceeding
+     *                    the memory limit, otherwise it will be discarded
+     */
+    ToolPathBuffer(int memoryLimit, boolean spillToDisk) {
+        this.memoryLimit = memoryLimit;
+        this.spillToDisk = spillToDisk;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+        if (discarded) {
+            return;
+        }
+
+        if (fileWriter == null && memory.length() + length > memoryLimit) {
+            if (!spillToDisk) {
+                discarded = true;
+                memory = null;
+                return;
+            }
+            spill();
+        }
+
+        if (fileWriter != null) {
+            fileWriter.write(buffer, offset, length);
+        } else {
+            memory.append(buffer, offset, length);
+        }
+    }
+
+    private void spill() throws IOException {
+        file = File.createTempFile("ugs-toolpath", ".gcode");
+        file.deleteOnExit();
+        fileWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+        fileWriter.append(memory);
+        memory = null;
+    }
+
+    /**
+     * Returns if all the gcode is kept in memory
+     *
+     * @return true if the gcode is kept in memory
+     */
+    public boolean isInMemory() {
+        return !discarded && file == null;
+    }
+
+    /**
+     * Returns the buffered gcode if it is kept in memory
+     *
+     * @return the buffered gcode
+     * @throws IllegalStateException if the gcode isn't kept in memory
+     */
+    public String getGcode() {
+        if (!isInMemory()) {
+            throw new IllegalStateException("The gcode is not kept in memory");
+        }
+        return memory.toString();
+    }
+
+    /**
+     * Writes the buffered gcode to the given writer
+     *
+     * @param writer the writer to write to
+     * @throws IOException           if the gcode couldn't be written
+     * @throws IllegalStateException if the gcode has been discarded
+     */
+    public void transferTo(Writer writer) throws IOException {
+        if (discarded) {
+            throw new IllegalStateException("The gcode has been discarded");
+        }
+
+        if (fileWriter == null) {
+            writer.append(memory);
+            return;
+        }
+
+        fileWriter.flush();
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            reader.transferTo(writer);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (fileWriter != null) {
+            fileWriter.flush();
+        }
+    }
+
+    /**
+     * Releases the buffered gcode and removes any temporary file
+     */
+    @Override
+    public void close() throws IOException {
+        memory = null;
+        discarded = true;
+        if (fileWriter != null) {
+            fileWriter.close();
+            fileWriter = null;
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+}
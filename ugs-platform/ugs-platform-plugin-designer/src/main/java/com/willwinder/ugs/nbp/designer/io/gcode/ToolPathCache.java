@@ -0,0 +1,180 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.gcode;
+
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Cuttable;
+import com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathStats;
+import com.willwinder.ugs.nbp.designer.model.Settings;
+
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of generated gcode for cuttables. The cache key is created from everything that
+ * affects the generated tool path: the transformed geometry of the cuttable, its cut settings
+ * and the tool settings. This makes it possible to only regenerate the tool paths for the
+ * entities that have changed since the last time the gcode was generated.
+ *
+ * @author agent
+ */
+public class ToolPathCache {
+    private final Map<String, CachedToolPath> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cached tool path for the given key
+     *
+     * @param key the key created using {@link #createKey(Settings, Cuttable)}
+     * @return the cached tool path or empty if it isn't cached
+     */
+    public Optional<CachedToolPath> get(String key) {
+        return Optional.ofNullable(cache.get(key));
+    }
+
+    public void put(String key, CachedToolPath toolPath) {
+        cache.put(key, toolPath);
+    }
+
+    /**
+     * Removes all cached tool paths except the ones with the given keys, this should be called
+     * after generating the gcode to prevent tool paths of removed or changed entities to be kept.
+     *
+     * @param keys the keys to keep
+     */
+    public void retainAll(Collection<String> keys) {
+        cache.keySet().retainAll(keys);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Creates a key for the tool path of the given cuttable using the given settings.
+     *
+     * @param settings the tool settings
+     * @param cuttable the cuttable to create the key for
+     * @return a key that will only be the same if the generated tool path would be the same
+     */
+    public static String createKey(Settings settings, Cuttable cuttable) {
+        KeyBuilder keyBuilder = new KeyBuilder()
+                .add(settings.getToolDiameter())
+                .add(settings.getDepthPerPass())
+                .add(settings.getFlatnessPrecision())
+                .add(settings.getLaserDiameter())
+                .add(settings.getMaxSpindleSpeed())
+                .add(settings.getSafeHeight())
+                .add(settings.getToolStepOver())
+                .add(settings.getPlungeSpeed())
+                .add(settings.getFeedSpeed())
+                .add(settings.getSpindleDirection())
+                .add(cuttable.getCutType().name())
+                .add(cuttable.getStartDepth())
+                .add(cuttable.getTargetDepth())
+                .add(cuttable.getSpindleSpeed())
+                .add(cuttable.getFeedRate())
+                .add(cuttable.getPasses())
+                .add(cuttable.getLeadInPercent())
+                .add(cuttable.getLeadOutPercent());
+
+        Point2D center = cuttable.getCenter();
+        keyBuilder.add(center.getX()).add(center.getY());
+
+        double[] coords = new double[6];
+        PathIterator pathIterator = cuttable.getShape().getPathIterator(null);
+        while (!pathIterator.isDone()) {
+            int type = pathIterator.currentSegment(coords);
+            keyBuilder.add(type);
+            for (int i = 0; i < getCoordinateCount(type); i++) {
+                keyBuilder.add(coords[i]);
+            }
+            pathIterator.next();
+        }
+
+        return keyBuilder.build();
+    }
+
+    private static int getCoordinateCount(int segmentType) {
+        return switch (segmentType) {
+            case PathIterator.SEG_MOVETO, PathIterator.SEG_LINETO -> 2;
+            case PathIterator.SEG_QUADTO -> 4;
+            case PathIterator.SEG_CUBICTO -> 6;
+            default -> 0;
+        };
+    }
+
+    /**
+     * The generated gcode for a single cuttable
+     *
+     * @param gcode the generated gcode
+     * @param stats the statistics of the tool path
+     */
+    public record CachedToolPath(String gcode, ToolPathStats stats) {
+    }
+
+    /**
+     * Creates a digest of the given values to avoid keeping the full geometry as key in memory
+     */
+    private static class KeyBuilder {
+        private final MessageDigest digest;
+        private final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+
+        KeyBuilder() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("Could not create digest for tool path cache", e);
+            }
+        }
+
+        KeyBuilder add(double value) {
+            return add(Double.doubleToLongBits(value));
+        }
+
+        KeyBuilder add(long value) {
+            buffer.clear();
+            buffer.putLong(value);
+            digest.update(buffer.array());
+            return this;
+        }
+
+        KeyBuilder add(String value) {
+            byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+            add(bytes.length);
+            digest.update(bytes);
+            return this;
+        }
+
+        String build() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
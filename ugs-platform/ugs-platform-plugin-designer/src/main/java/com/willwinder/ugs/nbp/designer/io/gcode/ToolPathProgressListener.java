@@ -0,0 +1,35 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.gcode;
+
+/**
+ * A listener for getting notified about the progress when generating tool paths
+ *
+ * @author agent
+ */
+public interface ToolPathProgressListener {
+
+    /**
+     * Called when a tool path has been generated. This may be called from any thread.
+     *
+     * @param completed the number of tool paths that are completed
+     * @param total     the total number of tool paths to generate
+     */
+    void onProgress(int completed, int total);
+}
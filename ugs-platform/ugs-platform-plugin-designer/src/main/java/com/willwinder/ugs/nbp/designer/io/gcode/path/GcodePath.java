@@ -44,15 +44,15 @@ public class GcodePath implements PathGenerator {
      * @param point segment coordinates
      */
     public void addSegment(SegmentType type, PartialPosition point) {
-        segments.add(new Segment(type, point));
+        addSegment(new Segment(type, point));
     }
 
     public void addSegment(SegmentType type, PartialPosition point, String comment) {
-        segments.add(new Segment(type, point, comment));
+        addSegment(new Segment(type, point, comment));
     }
 
     public void addSegment(SegmentType type, PartialPosition point, int feedRate) {
-        segments.add(new Segment(type, point, null, null, feedRate));
+        addSegment(new Segment(type, point, null, null, feedRate));
     }
 
     public void addSegment(Segment segment) {
@@ -64,7 +64,7 @@ public class GcodePath implements PathGenerator {
     }
 
     public void appendGcodePath(GcodePath gcodePath) {
-        segments.addAll(gcodePath.getSegments());
+        gcodePath.getSegments().forEach(this::addSegment);
     }
 
     /**
@@ -0,0 +1,65 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.gcode.path;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A gcode path that doesn't keep its segments in memory, instead every added segment is
+ * passed on directly to a consumer. This is used when generating large tool paths where
+ * the segments would otherwise use a lot of memory before being converted to gcode.
+ *
+ * @author agent
+ */
+public class StreamingGcodePath extends GcodePath {
+    private final Consumer<Segment> segmentConsumer;
+    private int size;
+
+    public StreamingGcodePath(Consumer<Segment> segmentConsumer) {
+        this.segmentConsumer = segmentConsumer;
+    }
+
+    @Override
+    public void addSegment(Segment segment) {
+        segmentConsumer.accept(segment);
+        size++;
+    }
+
+    /**
+     * The segments are not kept in a streaming path
+     *
+     * @return an empty list
+     */
+    @Override
+    public List<Segment> getSegments() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
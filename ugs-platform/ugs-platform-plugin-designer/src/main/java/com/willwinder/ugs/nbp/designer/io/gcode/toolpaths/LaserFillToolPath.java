@@ -1,21 +1,18 @@
 package com.willwinder.ugs.nbp.designer.io.gcode.toolpaths;
 
-import com.google.common.collect.Lists;
 import com.willwinder.ugs.nbp.designer.entities.cuttable.Cuttable;
 import com.willwinder.ugs.nbp.designer.io.gcode.path.GcodePath;
 import com.willwinder.ugs.nbp.designer.io.gcode.path.Segment;
 import com.willwinder.ugs.nbp.designer.io.gcode.path.SegmentType;
 import com.willwinder.ugs.nbp.designer.model.Settings;
 import com.willwinder.universalgcodesender.model.PartialPosition;
-import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.CoordinateXY;
+import com.willwinder.universalgcodesender.model.UnitUtils;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.geom.LineString;
-import org.locationtech.jts.geom.MultiPoint;
 
 import java.awt.geom.Area;
 import java.util.List;
+import java.util.stream.DoubleStream;
 
 public class LaserFillToolPath extends AbstractToolPath {
     private final Cuttable source;
@@ -40,47 +37,45 @@ public class LaserFillToolPath extends AbstractToolPath {
         List<Geometry> geometries = getGeometries();
         geometries.forEach(g -> {
             Envelope envelope = g.getEnvelopeInternal();
+            double[] rows = getRows(envelope, settings.getLaserDiameter());
+
+            // The rows are the same for every pass so they only need to be rasterized once
+            List<List<ScanlineRasterizer.Span>> spans = new ScanlineRasterizer(g, ScanlineRasterizer.FillRule.EVEN_ODD).getSpans(rows, true);
 
             int currentPass = 0;
             while (currentPass < source.getPasses()) {
                 currentPass++;
 
                 boolean reverse = false;
-                double currentY = envelope.getMinY();
-                while (currentY <= envelope.getMaxY()) {
-                    LineString lineString = getGeometryFactory().createLineString(new Coordinate[]{
-                            new CoordinateXY(envelope.getMinX(), currentY),
-                            new CoordinateXY(envelope.getMaxX(), currentY),
-                    });
-
-                    addLineIntersectionSegments(gcodePath, g, lineString, reverse);
-                    currentY += settings.getLaserDiameter();
+                for (int i = 0; i < rows.length; i++) {
+                    addSpanSegments(gcodePath, spans.get(i), rows[i], reverse);
                     reverse = !reverse;
                 }
             }
         });
     }
 
-    private static void addLineIntersectionSegments(GcodePath gcodePath, Geometry geometry, LineString lineString, boolean reverse) {
-        Geometry intersection = geometry.intersection(lineString);
-
-        // If the intersection is a multipoint we should not connect the points with a line
-        if (intersection instanceof MultiPoint) {
-            return;
+    private static double[] getRows(Envelope envelope, double laserDiameter) {
+        DoubleStream.Builder rows = DoubleStream.builder();
+        double currentY = envelope.getMinY();
+        while (currentY <= envelope.getMaxY()) {
+            rows.add(currentY);
+            currentY += laserDiameter;
         }
+        return rows.build().toArray();
+    }
 
-        List<PartialPosition> geometryCoordinates = ToolPathUtils.geometryToCoordinates(intersection);
-        List<PartialPosition> partialPosition = geometryCoordinates.stream()
-                .map(numericCoordinate -> PartialPosition.builder(numericCoordinate).build()).toList();
-
-        if (partialPosition.size() > 1) {
-            if (reverse) {
-                partialPosition = Lists.reverse(partialPosition);
+    private static void addSpanSegments(GcodePath gcodePath, List<ScanlineRasterizer.Span> spans, double y, boolean reverse) {
+        if (reverse) {
+            for (int i = spans.size() - 1; i >= 0; i--) {
+                ScanlineRasterizer.Span span = spans.get(i);
+                gcodePath.addSegment(SegmentType.MOVE, new PartialPosition(span.endX(), y, UnitUtils.Units.MM));
+                gcodePath.addSegment(SegmentType.LINE, new PartialPosition(span.startX(), y, UnitUtils.Units.MM));
             }
-
-            for (int i = 0; i + 1 < partialPosition.size(); i += 2) {
-                gcodePath.addSegment(SegmentType.MOVE, partialPosition.get(i));
-                gcodePath.addSegment(SegmentType.LINE, partialPosition.get(i + 1));
+        } else {
+            for (ScanlineRasterizer.Span span : spans) {
+                gcodePath.addSegment(SegmentType.MOVE, new PartialPosition(span.startX(), y, UnitUtils.Units.MM));
+                gcodePath.addSegment(SegmentType.LINE, new PartialPosition(span.endX(), y, UnitUtils.Units.MM));
             }
         }
     }
@@ -20,11 +20,13 @@ package com.willwinder.ugs.nbp.designer.io.gcode.toolpaths;
 
 import com.willwinder.ugs.nbp.designer.entities.cuttable.Cuttable;
 import com.willwinder.ugs.nbp.designer.io.gcode.path.GcodePath;
-import static com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils.addGeometriesToCoordinatesList;
+import static com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils.addCuttingPlanToCoordinatesList;
 import static com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils.bufferAndCollectGeometries;
 import static com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils.convertAreaToGeometry;
+import static com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils.createCuttingPlan;
 import com.willwinder.ugs.nbp.designer.model.Settings;
 import com.willwinder.universalgcodesender.model.PartialPosition;
+import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 
 import java.awt.geom.Area;
@@ -49,8 +51,11 @@ public class PocketToolPath extends AbstractToolPath {
         Geometry shell = geometryCollection.buffer(-settings.getToolDiameter() / 2d);
         List<Geometry> geometries = bufferAndCollectGeometries(geometryCollection, settings.getToolDiameter(), stepOver);
 
+        // The order of the geometries are the same for every depth pass so it only needs to be created once
+        List<List<Coordinate>> cuttingPlan = createCuttingPlan(shell, geometries);
+
         List<List<PartialPosition>> coordinateList = new ArrayList<>();
-        addGeometriesToCoordinatesList(shell, geometries, coordinateList, getStartDepth());
+        addCuttingPlanToCoordinatesList(cuttingPlan, coordinateList, getStartDepth());
 
         double currentDepth = getStartDepth();
         while (currentDepth < getTargetDepth()) {
@@ -59,7 +64,7 @@ public class PocketToolPath extends AbstractToolPath {
                 currentDepth = getTargetDepth();
             }
 
-            addGeometriesToCoordinatesList(shell, geometries, coordinateList, currentDepth);
+            addCuttingPlanToCoordinatesList(cuttingPlan, coordinateList, currentDepth);
         }
 
         addToGcodePath(gcodePath, coordinateList, source);
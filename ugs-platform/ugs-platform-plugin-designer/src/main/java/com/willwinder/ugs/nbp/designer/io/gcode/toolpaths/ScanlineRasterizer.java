@@ -0,0 +1,239 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.gcode.toolpaths;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Rasterizes a polygonal geometry into horizontal fill spans using a scanline algorithm.
+ * The edges of the geometry are collected once into an edge table sorted on their lowest
+ * Y coordinate, for each row only the edges crossing that row are kept in an active edge
+ * list. This is a lot faster than intersecting the geometry with a line for every row.
+ *
+ * @author agent
+ */
+public class ScanlineRasterizer {
+    /**
+     * The number of rows to process in each band when rasterizing in parallel
+     */
+    private static final int ROWS_PER_BAND = 256;
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * The tolerance used when comparing coordinates, spans shorter than this are ignored
+     */
+    private static final double TOLERANCE = 1e-6;
+
+    private final Edge[] edges;
+    private final FillRule fillRule;
+    private final double maxY;
+
+    /**
+     * Creates a rasterizer for the polygons in the given geometry. Any open line strings
+     * in the geometry can not be filled and will be ignored.
+     *
+     * @param geometry the geometry to rasterize
+     * @param fillRule the rule for determining what is inside the geometry
+     */
+    public ScanlineRasterizer(Geometry geometry, FillRule fillRule) {
+        this.fillRule = fillRule;
+
+        List<Edge> edgeList = new ArrayList<>();
+        collectEdges(geometry, edgeList);
+        edges = edgeList.toArray(new Edge[0]);
+        Arrays.sort(edges, Comparator.comparingDouble(Edge::minY));
+        maxY = Arrays.stream(edges).mapToDouble(Edge::maxY).max().orElse(Double.NEGATIVE_INFINITY);
+    }
+
+    private static void collectEdges(Geometry geometry, List<Edge> edgeList) {
+        if (geometry instanceof Polygon polygon) {
+            collectEdges(polygon.getExteriorRing().getCoordinates(), edgeList);
+            for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                collectEdges(polygon.getInteriorRingN(i).getCoordinates(), edgeList);
+            }
+        } else if (geometry instanceof LineString lineString) {
+            if (lineString.isClosed()) {
+                collectEdges(lineString.getCoordinates(), edgeList);
+            }
+        } else {
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                Geometry child = geometry.getGeometryN(i);
+                if (child != geometry) {
+                    collectEdges(child, edgeList);
+                }
+            }
+        }
+    }
+
+    private static void collectEdges(Coordinate[] coordinates, List<Edge> edgeList) {
+        for (int i = 0; i + 1 < coordinates.length; i++) {
+            Coordinate start = coordinates[i];
+            Coordinate end = coordinates[i + 1];
+
+            // Horizontal edges never cross a scanline
+            if (start.getY() == end.getY()) {
+                continue;
+            }
+
+            if (start.getY() < end.getY()) {
+                edgeList.add(new Edge(start.getX(), start.getY(), end.getX(), end.getY(), 1));
+            } else {
+                edgeList.add(new Edge(end.getX(), end.getY(), start.getX(), start.getY(), -1));
+            }
+        }
+    }
+
+    /**
+     * Returns the fill spans for the given row
+     *
+     * @param y the Y coordinate of the row
+     * @return a list of spans sorted from left to right
+     */
+    public List<Span> getSpans(double y) {
+        return new RowScanner().getSpans(y);
+    }
+
+    /**
+     * Returns the fill spans for all given rows. If the rows are processed in parallel they
+     * will be divided into bands where each band is rasterized on its own.
+     *
+     * @param rows     the Y coordinates of the rows in ascending order
+     * @param parallel if the rows should be processed in parallel
+     * @return a list with the spans for each row in the same order as the given rows
+     */
+    public List<List<Span>> getSpans(double[] rows, boolean parallel) {
+        List<List<Span>> result = new ArrayList<>(rows.length);
+        if (!parallel || rows.length <= ROWS_PER_BAND) {
+            RowScanner rowScanner = new RowScanner();
+            for (double row : rows) {
+                result.add(rowScanner.getSpans(row));
+            }
+            return result;
+        }
+
+        int bandCount = (rows.length + ROWS_PER_BAND - 1) / ROWS_PER_BAND;
+        IntStream.range(0, bandCount)
+                .parallel()
+                .mapToObj(band -> {
+                    RowScanner rowScanner = new RowScanner();
+                    int end = Math.min(rows.length, (band + 1) * ROWS_PER_BAND);
+                    List<List<Span>> bandSpans = new ArrayList<>(end - band * ROWS_PER_BAND);
+                    for (int i = band * ROWS_PER_BAND; i < end; i++) {
+                        bandSpans.add(rowScanner.getSpans(rows[i]));
+                    }
+                    return bandSpans;
+                })
+                .forEachOrdered(result::addAll);
+        return result;
+    }
+
+    /**
+     * Keeps track of the active edges while scanning rows in ascending order
+     */
+    private class RowScanner {
+        private final List<Edge> activeEdges = new ArrayList<>();
+        private int nextEdgeIndex = 0;
+        private double lastY = Double.NEGATIVE_INFINITY;
+
+        List<Span> getSpans(double y) {
+            // Rows on the top boundary are nudged inside the geometry as the edges are half-open
+            double scanY = Math.abs(y - maxY) < TOLERANCE ? maxY - EPSILON : y;
+            if (scanY < lastY) {
+                activeEdges.clear();
+                nextEdgeIndex = 0;
+            }
+            lastY = scanY;
+
+            while (nextEdgeIndex < edges.length && edges[nextEdgeIndex].minY() <= scanY) {
+                activeEdges.add(edges[nextEdgeIndex]);
+                nextEdgeIndex++;
+            }
+            activeEdges.removeIf(edge -> edge.maxY() <= scanY);
+
+            Crossing[] crossings = new Crossing[activeEdges.size()];
+            for (int i = 0; i < crossings.length; i++) {
+                Edge edge = activeEdges.get(i);
+                crossings[i] = new Crossing(edge.getX(scanY), edge.direction());
+            }
+            Arrays.sort(crossings, Comparator.comparingDouble(Crossing::x));
+            return createSpans(crossings);
+        }
+
+        private List<Span> createSpans(Crossing[] crossings) {
+            List<Span> spans = new ArrayList<>();
+            int winding = 0;
+            double startX = 0;
+            for (Crossing crossing : crossings) {
+                boolean wasInside = isInside(winding);
+                winding += fillRule == FillRule.EVEN_ODD ? 1 : crossing.direction();
+                boolean isInside = isInside(winding);
+
+                if (!wasInside && isInside) {
+                    startX = crossing.x();
+                } else if (wasInside && !isInside && crossing.x() - startX > TOLERANCE) {
+                    spans.add(new Span(startX, crossing.x()));
+                }
+            }
+            return spans;
+        }
+
+        private boolean isInside(int winding) {
+            return fillRule == FillRule.EVEN_ODD ? winding % 2 != 0 : winding != 0;
+        }
+    }
+
+    public enum FillRule {
+        /**
+         * A point is inside if a ray from it crosses the edges an odd number of times
+         */
+        EVEN_ODD,
+
+        /**
+         * A point is inside if the edges winds around it a non-zero number of times
+         */
+        NON_ZERO
+    }
+
+    /**
+     * A horizontal fill span on a row
+     *
+     * @param startX the left X coordinate
+     * @param endX   the right X coordinate
+     */
+    public record Span(double startX, double endX) {
+    }
+
+    private record Crossing(double x, int direction) {
+    }
+
+    private record Edge(double bottomX, double minY, double topX, double maxY, int direction) {
+        double getX(double y) {
+            return bottomX + (y - minY) * (topX - bottomX) / (maxY - minY);
+        }
+    }
+}
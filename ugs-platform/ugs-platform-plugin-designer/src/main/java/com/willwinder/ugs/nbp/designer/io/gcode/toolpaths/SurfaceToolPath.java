@@ -26,15 +26,14 @@ import com.willwinder.ugs.nbp.designer.model.Settings;
 import com.willwinder.universalgcodesender.model.PartialPosition;
 import com.willwinder.universalgcodesender.model.UnitUtils;
 import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.CoordinateXY;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.LinearRing;
-import org.locationtech.jts.geom.MultiPoint;
 
 import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.DoubleStream;
 
 public class SurfaceToolPath extends AbstractToolPath {
     private final Cuttable source;
@@ -68,9 +67,13 @@ public class SurfaceToolPath extends AbstractToolPath {
         List<Geometry> geometries = getGeometries();
         geometries.forEach(g -> {
             Envelope envelope = g.getEnvelopeInternal();
+            double[] rows = getRows(envelope, stepOver);
+
+            // The rows are the same for every depth so they only need to be rasterized once
+            List<List<ScanlineRasterizer.Span>> spans = getSpans(g, envelope, rows);
 
             double currentDepth = getStartDepth();
-            addGeometriesToGcodePath(gcodePath, settings, g, envelope, currentDepth, stepOver);
+            addSpansToGcodePath(gcodePath, settings, rows, spans, currentDepth);
 
             while (currentDepth < getTargetDepth()) {
                 currentDepth += settings.getDepthPerPass();
@@ -78,64 +81,45 @@ public class SurfaceToolPath extends AbstractToolPath {
                     currentDepth = getTargetDepth();
                 }
 
-                addGeometriesToGcodePath(gcodePath, settings, g, envelope, currentDepth, stepOver);
+                addSpansToGcodePath(gcodePath, settings, rows, spans, currentDepth);
             }
         });
         addSafeHeightSegment(gcodePath, null, true);
     }
 
-    private void addGeometriesToGcodePath(GcodePath gcodePath, Settings settings, Geometry g, Envelope envelope, double currentDepth, double stepOver) {
+    private static double[] getRows(Envelope envelope, double stepOver) {
+        DoubleStream.Builder rows = DoubleStream.builder();
         double currentY = envelope.getMinY();
-        double minX = envelope.getMinX();
-        double maxX = envelope.getMaxX();
-
         while (currentY < envelope.getMaxY()) {
-            addLineSegment(gcodePath, settings, g, currentDepth, minX, maxX, currentY);
+            rows.add(currentY);
             currentY += stepOver;
         }
 
         // Add the last line
         if (currentY - stepOver < envelope.getMaxY()) {
-            addLineSegment(gcodePath, settings, g, currentDepth, minX, maxX, envelope.getMaxY());
+            rows.add(envelope.getMaxY());
         }
+        return rows.build().toArray();
     }
 
-    private void addLineSegment(GcodePath gcodePath, Settings settings, Geometry g, double currentDepth, double minX, double maxX, double currentY) {
-        LineString lineString = getGeometryFactory().createLineString(new Coordinate[]{
-                new CoordinateXY(minX, currentY),
-                new CoordinateXY(maxX, currentY),
-        });
-
-        addLineIntersectionSegments(gcodePath, g, lineString, currentDepth, (-getStartDepth()) + settings.getSafeHeight());
-    }
-
-    private void addLineIntersectionSegments(GcodePath gcodePath, Geometry geometry, LineString lineString, double currentDepth, double safeHeight) {
-        Geometry intersection = geometry.intersection(lineString);
-
-        // If the intersection is a multipoint we should not connect the points with a line
-        if (intersection instanceof MultiPoint) {
-            return;
+    private static List<List<ScanlineRasterizer.Span>> getSpans(Geometry geometry, Envelope envelope, double[] rows) {
+        // If the surface is only a line there is no area to rasterize, instead we cut along the line
+        if (envelope.getHeight() == 0) {
+            List<ScanlineRasterizer.Span> spans = envelope.getWidth() > 0 ? List.of(new ScanlineRasterizer.Span(envelope.getMinX(), envelope.getMaxX())) : List.of();
+            return Arrays.stream(rows).mapToObj(row -> spans).toList();
         }
 
-        List<PartialPosition> geometryCoordinates = ToolPathUtils.geometryToCoordinates(intersection);
-        List<PartialPosition> partialPosition = geometryCoordinates.stream()
-                .map(numericCoordinate -> PartialPosition.builder(numericCoordinate).build()).toList();
-
-        if (partialPosition.size() > 1) {
-            for (int i = 0; i + 1 < partialPosition.size(); i += 2) {
-                PartialPosition startPosition = partialPosition.get(i);
-                PartialPosition endPosition = partialPosition.get(i + 1);
-
-                // Make sure we are working from left to right
-                if (startPosition.getX() > endPosition.getX()) {
-                    startPosition = partialPosition.get(i + 1);
-                    endPosition = partialPosition.get(i);
-                }
+        return new ScanlineRasterizer(geometry, ScanlineRasterizer.FillRule.EVEN_ODD).getSpans(rows, true);
+    }
 
+    private void addSpansToGcodePath(GcodePath gcodePath, Settings settings, double[] rows, List<List<ScanlineRasterizer.Span>> spans, double currentDepth) {
+        double safeHeight = (-getStartDepth()) + settings.getSafeHeight();
+        for (int i = 0; i < rows.length; i++) {
+            for (ScanlineRasterizer.Span span : spans.get(i)) {
                 gcodePath.addSegment(SegmentType.MOVE, PartialPosition.builder(UnitUtils.Units.MM).setZ(safeHeight).build());
-                gcodePath.addSegment(SegmentType.MOVE, startPosition);
+                gcodePath.addSegment(SegmentType.MOVE, new PartialPosition(span.startX(), rows[i], UnitUtils.Units.MM));
                 gcodePath.addSegment(SegmentType.MOVE, PartialPosition.builder(UnitUtils.Units.MM).setZ(-currentDepth).build());
-                gcodePath.addSegment(SegmentType.LINE, endPosition, source.getFeedRate());
+                gcodePath.addSegment(SegmentType.LINE, new PartialPosition(span.endX(), rows[i], UnitUtils.Units.MM), source.getFeedRate());
             }
         }
     }
@@ -32,6 +32,8 @@ import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.LinearRing;
 import org.locationtech.jts.geom.Polygon;
 import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 import org.locationtech.jts.operation.polygonize.Polygonizer;
 import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
 
@@ -171,7 +173,7 @@ public class ToolPathUtils {
     }
 
 
-    private static double distanceBetween(PartialPosition position, PartialPosition point) {
+    public static double distanceBetween(PartialPosition position, PartialPosition point) {
         CNCPoint point1 = new CNCPoint(position.getX(), position.getY(), position.getZ(), 0, 0, 0);
         CNCPoint point2 = new CNCPoint(point.hasX() ? point.getX() : position.getX(), point.hasY() ? point.getY() : position.getY(), point.hasZ() ? point.getZ() : position.getZ(), 0, 0, 0);
         return point1.distanceXYZ(point2);
@@ -245,36 +247,65 @@ public class ToolPathUtils {
     }
 
     public static void addGeometriesToCoordinatesList(Geometry shell, List<Geometry> geometries, List<List<PartialPosition>> coordinateList, double currentDepth) {
+        addCuttingPlanToCoordinatesList(createCuttingPlan(shell, geometries), coordinateList, currentDepth);
+    }
+
+    /**
+     * Links the geometries into continuous lines in the cutting order. A new line is started if
+     * moving to the next geometry would cross the shell. The plan only depends on the XY-coordinates
+     * which makes it possible to create it once and reuse it for every depth pass.
+     *
+     * @param shell      the shell that the tool should not cross when moving between geometries
+     * @param geometries the geometries in the order they should be cut
+     * @return a list of lines with coordinates
+     */
+    public static List<List<Coordinate>> createCuttingPlan(Geometry shell, List<Geometry> geometries) {
+        // A prepared geometry builds a spatial index of its segments making repeated cross checks a lot faster
+        PreparedGeometry preparedShell = PreparedGeometryFactory.prepare(shell);
+
+        List<List<Coordinate>> cuttingPlan = new ArrayList<>();
         Geometry previousGeometry = null;
-        List<PartialPosition> geometryLine = new ArrayList<>();
+        List<Coordinate> geometryLine = new ArrayList<>();
         for (int x = 0; x < geometries.size(); x++) {
             Geometry geometry = geometries.get(x);
 
             if (x > 0) {
-                PartialPosition fromPosition = ToolPathUtils.toPartialPosition(getLastPosition(previousGeometry), currentDepth);
-                int newStartIndex = ToolPathUtils.findNearestCoordinateIndex(geometry.getCoordinates(), new Coordinate(fromPosition.getX(), fromPosition.getY(), fromPosition.getZ()));
+                Coordinate fromCoordinate = getLastPosition(previousGeometry);
+                int newStartIndex = ToolPathUtils.findNearestCoordinateIndex(geometry.getCoordinates(), fromCoordinate);
 
                 if (geometry instanceof LinearRing linearRing) {
                     geometry = rotateCoordinates(linearRing, newStartIndex);
                 }
 
                 Coordinate firstCoordinate = geometry.getCoordinates()[0];
-                PartialPosition nextPosition = toPartialPosition(firstCoordinate, currentDepth);
-
-                LineString lineString = ToolPathUtils.createLineString(fromPosition, nextPosition);
-                if (shell.crosses(lineString) || geometry.getClass().equals(LineString.class)) {
-                    coordinateList.add(geometryLine);
+                LineString lineString = GEOMETRY_FACTORY.createLineString(new Coordinate[]{fromCoordinate, firstCoordinate});
+                if (preparedShell.crosses(lineString) || geometry.getClass().equals(LineString.class)) {
+                    cuttingPlan.add(geometryLine);
                     geometryLine = new ArrayList<>();
                 }
             }
 
-            geometryLine.addAll(geometryToCoordinates(geometry, currentDepth));
+            geometryLine.addAll(Arrays.asList(geometry.getCoordinates()));
             previousGeometry = geometry;
         }
 
         if (!geometryLine.isEmpty()) {
-            coordinateList.add(geometryLine);
+            cuttingPlan.add(geometryLine);
         }
+        return cuttingPlan;
+    }
+
+    /**
+     * Adds the lines from the cutting plan to the coordinate list at the given depth
+     *
+     * @param cuttingPlan    the cutting plan created with {@link #createCuttingPlan(Geometry, List)}
+     * @param coordinateList the list to add the coordinates to
+     * @param currentDepth   the depth of the coordinates
+     */
+    public static void addCuttingPlanToCoordinatesList(List<List<Coordinate>> cuttingPlan, List<List<PartialPosition>> coordinateList, double currentDepth) {
+        cuttingPlan.forEach(line -> coordinateList.add(line.stream()
+                .map(coordinate -> toPartialPosition(coordinate, currentDepth))
+                .toList()));
     }
 
     private static Coordinate getLastPosition(Geometry geometry) {
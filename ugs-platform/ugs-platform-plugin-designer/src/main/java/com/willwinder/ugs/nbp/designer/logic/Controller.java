@@ -24,6 +24,7 @@ import com.willwinder.ugs.nbp.designer.actions.UndoManager;
 import com.willwinder.ugs.nbp.designer.entities.Entity;
 import com.willwinder.ugs.nbp.designer.entities.selection.SelectionManager;
 import com.willwinder.ugs.nbp.designer.gui.Drawing;
+import com.willwinder.ugs.nbp.designer.io.gcode.ToolPathCache;
 import com.willwinder.ugs.nbp.designer.io.ugsd.UgsDesignReader;
 import com.willwinder.ugs.nbp.designer.io.ugsd.UgsDesignWriter;
 import com.willwinder.ugs.nbp.designer.model.Design;
@@ -44,6 +45,7 @@ public class Controller {
     private final Set<ControllerListener> listeners = Sets.newConcurrentHashSet();
     private final UndoManager undoManager;
     private final Drawing drawing;
+    private final ToolPathCache toolPathCache = new ToolPathCache();
     private Tool tool;
 
     public Controller(SelectionManager selectionManager, UndoManager undoManager) {
@@ -98,6 +100,15 @@ public class Controller {
         return settings;
     }
 
+    /**
+     * Returns a cache with the previously generated tool paths for the entities in the drawing
+     *
+     * @return the tool path cache
+     */
+    public ToolPathCache getToolPathCache() {
+        return toolPathCache;
+    }
+
     public void addListener(ControllerListener controllerListener) {
         listeners.add(controllerListener);
     }
@@ -25,11 +25,17 @@ import com.willwinder.ugs.nbp.designer.actions.PasteAction;
 import com.willwinder.ugs.nbp.designer.actions.RedoAction;
 import com.willwinder.ugs.nbp.designer.actions.SelectAllAction;
 import com.willwinder.ugs.nbp.designer.actions.UndoAction;
-import com.willwinder.ugs.nbp.designer.io.DesignWriter;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Cuttable;
 import com.willwinder.ugs.nbp.designer.io.gcode.GcodeDesignWriter;
+import com.willwinder.ugs.nbp.designer.io.gcode.ToolPathCache;
+import com.willwinder.ugs.nbp.designer.logic.Controller;
 import com.willwinder.ugs.nbp.designer.logic.ControllerFactory;
+import com.willwinder.ugs.nbp.designer.model.Settings;
 import com.willwinder.ugs.nbp.lib.lookup.CentralLookup;
 import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.utils.GUIHelpers;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
+import org.netbeans.api.progress.ProgressHandle;
 import org.openide.util.Utilities;
 import org.openide.windows.Mode;
 import org.openide.windows.TopComponent;
@@ -38,8 +44,15 @@ import org.openide.windows.WindowManager;
 import javax.swing.ActionMap;
 import javax.swing.InputMap;
 import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
 import javax.swing.text.DefaultEditorKit;
 import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class PlatformUtils {
     public static final String UNDO_KEY = "undo";
@@ -54,6 +67,8 @@ public class PlatformUtils {
     private static final PasteAction PASTE_ACTION = new PasteAction();
     private static final UndoAction UNDO_ACTION = new UndoAction();
     private static final RedoAction REDO_ACTION = new RedoAction();
+    private static final Logger LOGGER = Logger.getLogger(PlatformUtils.class.getSimpleName());
+    private static GcodeDesignWriter currentGcodeWriter;
 
     private PlatformUtils() {
     }
@@ -78,14 +93,90 @@ public class PlatformUtils {
         inputMap.put(Utilities.stringToKey("SD-Z"), REDO_KEY);
     }
 
+    /**
+     * Generates the gcode for the current design in the background and loads it in the backend.
+     * Any previous generation that is still running will be cancelled.
+     *
+     * @param name the name of the gcode file
+     */
     public static void exportAndLoadGcode(String name) {
+        // The gcode is generated from a copy of the design as it may be edited while generating
+        Controller controller = ControllerFactory.getController();
+        List<Cuttable> cuttables;
         try {
-            DesignWriter designWriter = new GcodeDesignWriter();
-            File file = new File(Files.createTempDir(), name + ".gcode");
-            designWriter.write(file, ControllerFactory.getController());
+            cuttables = copyCuttables(controller);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (InvocationTargetException e) {
+            LOGGER.log(Level.WARNING, "Could not copy the design", e);
+            GUIHelpers.displayErrorDialog("Could not generate gcode");
+            return;
+        }
+
+        exportAndLoadGcode(name, new Settings(controller.getSettings()), controller.getToolPathCache(), cuttables);
+    }
+
+    /**
+     * Copies the cuttables to export in the event dispatch thread where the design is being edited
+     */
+    private static List<Cuttable> copyCuttables(Controller controller) throws InterruptedException, InvocationTargetException {
+        AtomicReference<List<Cuttable>> result = new AtomicReference<>();
+        Runnable copy = () -> result.set(GcodeDesignWriter.getCuttables(controller).stream()
+                .map(cuttable -> (Cuttable) cuttable.copy())
+                .toList());
+
+        if (SwingUtilities.isEventDispatchThread()) {
+            copy.run();
+        } else {
+            SwingUtilities.invokeAndWait(copy);
+        }
+        return result.get();
+    }
+
+    private static synchronized void exportAndLoadGcode(String name, Settings settings, ToolPathCache toolPathCache, List<Cuttable> cuttables) {
+        if (currentGcodeWriter != null) {
+            currentGcodeWriter.cancel();
+        }
+
+        AtomicReference<GcodeDesignWriter> designWriterReference = new AtomicReference<>();
+        ProgressHandle progressHandle = ProgressHandle.createHandle("Generating gcode", () -> {
+            designWriterReference.get().cancel();
+            return true;
+        });
+
+        GcodeDesignWriter designWriter = new GcodeDesignWriter((completed, total) -> {
+            if (completed == 0 && total > 0) {
+                progressHandle.switchToDeterminate(total);
+            } else if (completed > 0) {
+                progressHandle.progress(completed);
+            }
+        });
+        designWriterReference.set(designWriter);
+        currentGcodeWriter = designWriter;
+
+        ThreadHelper.invokeLater(() -> {
+            progressHandle.start();
+            try {
+                File file = new File(Files.createTempDir(), name + ".gcode");
+                designWriter.write(file, settings, toolPathCache, cuttables);
+                loadGcode(designWriter, file);
+            } catch (CancellationException e) {
+                LOGGER.info("The gcode generation was cancelled");
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Could not generate gcode", e);
+                GUIHelpers.displayErrorDialog("Could not generate gcode");
+            } finally {
+                progressHandle.finish();
+            }
+        });
+    }
+
+    private static synchronized void loadGcode(GcodeDesignWriter designWriter, File file) throws Exception {
+        // Only load the gcode if it hasn't been replaced by a newer export
+        if (currentGcodeWriter == designWriter) {
             CentralLookup.getDefault().lookup(BackendAPI.class).setGcodeFile(file);
-        } catch (Exception e) {
-            throw new RuntimeException("Could not generate gcode", e);
+            currentGcodeWriter = null;
         }
     }
 
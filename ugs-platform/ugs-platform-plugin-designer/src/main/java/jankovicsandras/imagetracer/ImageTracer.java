@@ -899,7 +899,7 @@ public class ImageTracer{
 
 
 	// Selective Gaussian blur for preprocessing
-	static ImageData blur (ImageData imgd, float rad, float del){
+	public static ImageData blur (ImageData imgd, float rad, float del){
 		int i,j,k,d,idx;
 		double racc,gacc,bacc,aacc,wacc;
 		ImageData imgd2 = new ImageData(imgd.width,imgd.height,new byte[imgd.width*imgd.height*4]);
@@ -117,6 +117,9 @@ public class DXFParser implements HandlerManager, Handler, Parser, DXFHandler {
                     encoding = p.parseEncoding(r);
                     buf.reset();
 
+                    // release the mark, otherwise the whole file is kept in the buffer
+                    buf.mark(0);
+
                     in = new BufferedReader(new InputStreamReader(buf, encoding));
                 } catch (IOException e1) {
                     buf.reset();
@@ -30,4 +30,15 @@ public class PathTest {
         assertEquals(0, size.getWidth(), 0.1);
         assertEquals(10, size.getHeight(), 0.1);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getSizeShouldBeUpdatedWhenPathIsModified() {
+        Path path = new Path();
+        path.moveTo(0, 0);
+        path.lineTo(10, 10);
+        assertEquals(10, path.getSize().getWidth(), 0.1);
+
+        path.lineTo(20, 10);
+        assertEquals(20, path.getSize().getWidth(), 0.1);
+    }
+}
@@ -2,11 +2,18 @@ package com.willwinder.ugs.nbp.designer.entities.cuttable;
 
 import com.willwinder.ugs.nbp.designer.entities.EntitySetting;
 import com.willwinder.ugs.nbp.designer.entities.EventType;
+import com.willwinder.ugs.nbp.designer.io.gcode.ToolPathCache;
+import com.willwinder.ugs.nbp.designer.model.Settings;
 import com.willwinder.ugs.nbp.designer.model.Size;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class RectangleTest {
@@ -50,4 +57,46 @@ public class RectangleTest {
         assertTrue(rectangle.getSettings().contains(EntitySetting.POSITION_Y));
         assertTrue(rectangle.getSettings().contains(EntitySetting.ROTATION));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getShapeShouldReuseShapeUntilTransformed() {
+        Rectangle rectangle = new Rectangle(1, 1);
+        rectangle.setSize(new Size(10, 10));
+        Shape shape = rectangle.getShape();
+        assertSame(shape, rectangle.getShape());
+
+        rectangle.move(new Point2D.Double(10, 0));
+        assertNotSame(shape, rectangle.getShape());
+        assertEquals(11, rectangle.getBounds().getX(), 0.1);
+    }
+
+    @Test
+    public void getShapeShouldBeUpdatedWhenTransformIsModifiedDirectly() {
+        Rectangle rectangle = new Rectangle(1, 1);
+        rectangle.setSize(new Size(10, 10));
+        assertEquals(1, rectangle.getBounds().getX(), 0.1);
+
+        rectangle.getTransform().preConcatenate(AffineTransform.getTranslateInstance(10, 0));
+        assertEquals(11, rectangle.getBounds().getX(), 0.1);
+        assertEquals(11, rectangle.getShape().getBounds2D().getX(), 0.1);
+    }
+
+    @Test
+    public void copyShouldGenerateTheSameToolPath() {
+        Rectangle rectangle = new Rectangle(1, 1);
+        rectangle.setSize(new Size(10, 10));
+        rectangle.setCutType(CutType.POCKET);
+        rectangle.setTargetDepth(2);
+        rectangle.setFeedRate(500);
+        rectangle.setLeadInPercent(10);
+        rectangle.setLeadOutPercent(20);
+
+        Settings settings = new Settings();
+        Rectangle copy = (Rectangle) rectangle.copy();
+        assertEquals(ToolPathCache.createKey(settings, rectangle), ToolPathCache.createKey(settings, copy));
+
+        // Modifying the original should not affect the copy
+        rectangle.setSize(new Size(20, 20));
+        assertEquals(10, copy.getSize().getWidth(), 0.1);
+    }
+}
@@ -1,13 +1,18 @@
 package com.willwinder.ugs.nbp.designer.entities.selection;
 
+import com.willwinder.ugs.nbp.designer.entities.EntityEvent;
+import com.willwinder.ugs.nbp.designer.entities.controls.AbstractControl;
 import com.willwinder.ugs.nbp.designer.entities.controls.MoveControl;
 import com.willwinder.ugs.nbp.designer.entities.cuttable.Rectangle;
+import com.willwinder.ugs.nbp.designer.gui.Drawing;
 import com.willwinder.ugs.nbp.designer.logic.Controller;
 import com.willwinder.ugs.nbp.designer.model.Size;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.Graphics2D;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
@@ -106,4 +111,42 @@ public class SelectionManagerTest {
 
         assertTrue(target.isEmpty());
     }
+
+    @Test
+    public void getBoundsOfControlShouldFollowTheSelection() {
+        AbstractControl control = new AbstractControl(target) {
+            @Override
+            public void render(Graphics2D graphics, Drawing drawing) {
+                // Not used
+            }
+
+            @Override
+            public void onEvent(EntityEvent entityEvent) {
+                // Not used
+            }
+        };
+
+        Rectangle rectangle = new Rectangle(10, 20);
+        rectangle.setSize(new Size(10, 10));
+        target.addSelection(rectangle);
+        assertBounds(10, 20, 10, 10, control.getBounds());
+
+        // Moving the entity without the control should update the bounds
+        rectangle.move(new Point2D.Double(5, 5));
+        assertBounds(15, 25, 10, 10, control.getBounds());
+        assertBounds(15, 25, 10, 10, target.getBounds());
+
+        Rectangle otherRectangle = new Rectangle(40, 40);
+        otherRectangle.setSize(new Size(10, 10));
+        target.addSelection(otherRectangle);
+        assertBounds(15, 25, 35, 25, control.getBounds());
+        assertBounds(15, 25, 35, 25, target.getBounds());
+    }
+
+    private static void assertBounds(double x, double y, double width, double height, Rectangle2D bounds) {
+        assertEquals(x, bounds.getX(), 0.01);
+        assertEquals(y, bounds.getY(), 0.01);
+        assertEquals(width, bounds.getWidth(), 0.01);
+        assertEquals(height, bounds.getHeight(), 0.01);
+    }
 }
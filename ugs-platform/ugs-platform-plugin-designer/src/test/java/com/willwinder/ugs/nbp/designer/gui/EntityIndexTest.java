@@ -0,0 +1,108 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui;
+
+import com.willwinder.ugs.nbp.designer.entities.EntityGroup;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Group;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Rectangle;
+import com.willwinder.ugs.nbp.designer.model.Size;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+public class EntityIndexTest {
+
+    private EntityGroup root;
+    private EntityIndex entityIndex;
+    private Rectangle rectangle1;
+    private Rectangle rectangle2;
+
+    @Before
+    public void setUp() {
+        root = new EntityGroup();
+        entityIndex = new EntityIndex(root);
+        rectangle1 = createRectangle(0, 0);
+        rectangle2 = createRectangle(100, 100);
+        root.addChild(rectangle1);
+        root.addChild(rectangle2);
+    }
+
+    @Test
+    public void getEntitiesAtShouldReturnEntitiesAtPoint() {
+        assertEquals(List.of(rectangle1), entityIndex.getEntitiesAt(new Point2D.Double(5, 5)));
+        assertEquals(List.of(rectangle2), entityIndex.getEntitiesAt(new Point2D.Double(105, 105)));
+        assertTrue(entityIndex.getEntitiesAt(new Point2D.Double(50, 50)).isEmpty());
+    }
+
+    @Test
+    public void getEntitiesIntersectingShouldReturnEntitiesInPaintOrder() {
+        Rectangle rectangle3 = createRectangle(5, 5);
+        Group group = new Group();
+        group.addChild(rectangle3);
+        root.addChild(group);
+        entityIndex.invalidate();
+
+        assertEquals(List.of(rectangle1, rectangle3), entityIndex.getEntitiesIntersecting(new Rectangle2D.Double(-10, -10, 30, 30)));
+        assertEquals(List.of(rectangle1, rectangle2, rectangle3), entityIndex.getEntitiesIntersecting(new Rectangle2D.Double(-10, -10, 150, 150)));
+    }
+
+    @Test
+    public void indexShouldBeUpdatedWhenEntitiesAreMoved() {
+        assertEquals(2, entityIndex.size());
+        rectangle1.move(new Point2D.Double(50, 50));
+
+        assertTrue(entityIndex.getEntitiesAt(new Point2D.Double(5, 5)).isEmpty());
+        assertEquals(List.of(rectangle1), entityIndex.getEntitiesAt(new Point2D.Double(55, 55)));
+    }
+
+    @Test
+    public void indexShouldBeUpdatedWhenGroupsAreMoved() {
+        Group group = new Group();
+        root.removeChild(rectangle1);
+        group.addChild(rectangle1);
+        root.addChild(group);
+        entityIndex.invalidate();
+        assertEquals(List.of(rectangle1), entityIndex.getEntitiesAt(new Point2D.Double(5, 5)));
+
+        group.move(new Point2D.Double(50, 50));
+        assertTrue(entityIndex.getEntitiesAt(new Point2D.Double(5, 5)).isEmpty());
+        assertEquals(List.of(rectangle1), entityIndex.getEntitiesAt(new Point2D.Double(55, 55)));
+    }
+
+    @Test
+    public void indexShouldBeRebuiltWhenInvalidated() {
+        Rectangle rectangle3 = createRectangle(50, 50);
+        root.addChild(rectangle3);
+        entityIndex.invalidate();
+
+        assertEquals(3, entityIndex.size());
+        assertEquals(List.of(rectangle3), entityIndex.getEntitiesAt(new Point2D.Double(55, 55)));
+    }
+
+    private static Rectangle createRectangle(double x, double y) {
+        Rectangle rectangle = new Rectangle(x, y);
+        rectangle.setSize(new Size(10, 10));
+        return rectangle;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui;
+
+import com.willwinder.ugs.nbp.designer.entities.EntityGroup;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Group;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Rectangle;
+import com.willwinder.ugs.nbp.designer.entities.selection.SelectionManager;
+import com.willwinder.ugs.nbp.designer.model.Size;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+public class EntityTileCacheTest {
+    private static final int SIZE = EntityTileCache.TILE_SIZE * 2;
+
+    private SelectionManager selectionManager;
+    private EntityIndex entityIndex;
+    private EntityTileCache entityTileCache;
+    private Drawing drawing;
+    private CountingRectangle rectangle;
+    private EntityGroup root;
+
+    @Before
+    public void setUp() {
+        root = new EntityGroup();
+        rectangle = new CountingRectangle(10, 10);
+        rectangle.setSize(new Size(10, 10));
+        root.addChild(rectangle);
+
+        selectionManager = spy(new SelectionManager());
+        entityIndex = new EntityIndex(root);
+        entityTileCache = new EntityTileCache(entityIndex, selectionManager);
+
+        AffineTransform transform = AffineTransform.getScaleInstance(1, -1);
+        transform.translate(0, -SIZE);
+        drawing = mock(Drawing.class);
+        when(drawing.getScale()).thenReturn(1d);
+        when(drawing.getWidth()).thenReturn(SIZE);
+        when(drawing.getHeight()).thenReturn(SIZE);
+        when(drawing.getTransform()).thenReturn(transform);
+    }
+
+    @Test
+    public void renderShouldReuseRenderedTiles() {
+        render();
+        assertEquals(4, entityTileCache.size());
+        assertEquals(1, rectangle.renderCount);
+
+        render();
+        assertEquals(1, rectangle.renderCount);
+    }
+
+    @Test
+    public void renderShouldRerenderTilesWhenEntityIsMoved() {
+        render();
+        rectangle.move(new Point2D.Double(10, 10));
+        render();
+        assertEquals(2, rectangle.renderCount);
+    }
+
+    @Test
+    public void renderShouldRerenderAllTilesWhenIndexIsInvalidated() {
+        render();
+        entityIndex.invalidate();
+        assertEquals(0, entityTileCache.size());
+
+        render();
+        assertEquals(2, rectangle.renderCount);
+    }
+
+    @Test
+    public void renderShouldExcludeSelectedEntities() {
+        selectionManager.setSelection(List.of(rectangle));
+        assertTrue(entityTileCache.isExcluded(rectangle));
+
+        render();
+        rectangle.move(new Point2D.Double(10, 10));
+        render();
+        assertEquals(0, rectangle.renderCount);
+
+        selectionManager.clearSelection();
+        assertFalse(entityTileCache.isExcluded(rectangle));
+        render();
+        assertEquals(1, rectangle.renderCount);
+    }
+
+    @Test
+    public void renderShouldExcludeChildrenOfSelectedGroups() {
+        Group group = new Group();
+        CountingRectangle child = new CountingRectangle(60, 60);
+        child.setSize(new Size(10, 10));
+        group.addChild(child);
+        root.addChild(group);
+        entityIndex.invalidate();
+        render();
+        assertEquals(1, child.renderCount);
+        assertEquals(1, rectangle.renderCount);
+
+        // Selecting the group rerenders the tiles without its children, even if the selection contains the group itself
+        doReturn(List.of(group)).when(selectionManager).getSelection();
+        selectionManager.setSelection(List.of(group));
+        assertTrue(entityTileCache.isExcluded(child));
+        render();
+        assertEquals(1, child.renderCount);
+        assertEquals(2, rectangle.renderCount);
+
+        // Dragging the group should not rerender the tiles
+        int tileCount = entityTileCache.size();
+        group.move(new Point2D.Double(10, 10));
+        group.move(new Point2D.Double(10, 10));
+        render();
+        assertEquals(tileCount, entityTileCache.size());
+        assertEquals(1, child.renderCount);
+        assertEquals(2, rectangle.renderCount);
+    }
+
+    private void render() {
+        BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        entityTileCache.render(graphics, drawing);
+        graphics.dispose();
+    }
+
+    private static class CountingRectangle extends Rectangle {
+        private int renderCount;
+
+        CountingRectangle(double x, double y) {
+            super(x, y);
+        }
+
+        @Override
+        public void render(Graphics2D graphics, Drawing drawing) {
+            renderCount++;
+            super.render(graphics, drawing);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui.imagetracer;
+
+import com.willwinder.ugs.nbp.designer.entities.Entity;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Group;
+import jankovicsandras.imagetracer.ImageTracer;
+import jankovicsandras.imagetracer.ImageTracer.ImageData;
+import jankovicsandras.imagetracer.ImageTracer.IndexedImage;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelImageTracerTest {
+
+    private ImageData imageData;
+    private HashMap<String, Float> options;
+
+    @Before
+    public void setUp() throws Exception {
+        BufferedImage image = new BufferedImage(200, 150, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, 200, 150);
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(20, 20, 60, 40);
+        graphics.fillRect(120, 70, 50, 60);
+        graphics.setColor(Color.GRAY);
+        graphics.fillOval(40, 90, 40, 40);
+        graphics.dispose();
+        imageData = ImageTracer.loadImageData(image);
+
+        options = new HashMap<>();
+        options.put("numberofcolors", 3f);
+        options.put("colorquantcycles", 3f);
+        options.put("mincolorratio", 0f);
+        options = ImageTracer.checkoptions(options);
+    }
+
+    @Test
+    public void traceShouldReturnSamePathsAsImageTracer() {
+        IndexedImage expected = ImageTracer.imagedataToTracedata(imageData, options, ImageTracer.generatepalette(3));
+        TraceResult result = ParallelImageTracer.trace(imageData, options, ImageTracer.generatepalette(3), () -> false);
+
+        long expectedPathCount = expected.layers.stream()
+                .mapToLong(layer -> layer.stream().filter(path -> !path.isEmpty()).count())
+                .sum();
+        assertEquals(expectedPathCount, result.shapes().size());
+        assertEquals(3, result.palette().size());
+        assertEquals(200, result.width());
+        assertEquals(150, result.height());
+
+        for (int i = 0; i < expected.palette.length; i++) {
+            assertArrayEquals(new int[]{expected.palette[i][0] + 128, expected.palette[i][1] + 128, expected.palette[i][2] + 128},
+                    new int[]{result.palette().get(i).getRed(), result.palette().get(i).getGreen(), result.palette().get(i).getBlue()});
+        }
+
+        result.shapes().forEach(tracedShape -> {
+            Rectangle2D bounds = tracedShape.shape().getBounds2D();
+            assertTrue(bounds.getMinX() >= 0 && bounds.getMinY() >= 0);
+            assertTrue(bounds.getMaxX() <= 201 && bounds.getMaxY() <= 151);
+        });
+    }
+
+    @Test
+    public void traceShouldThrowExceptionWhenCancelled() {
+        assertThrows(CancellationException.class, () -> ParallelImageTracer.trace(imageData, options, null, () -> true));
+    }
+
+    @Test
+    public void createGroupShouldCreatePathsInMillimetersWithLayerDescriptions() {
+        TraceResult result = ParallelImageTracer.trace(imageData, options, ImageTracer.generatepalette(3), () -> false);
+        Group group = TraceUtils.createGroup(result);
+
+        assertEquals(result.shapes().size(), group.getChildren().size());
+        for (int i = 0; i < result.shapes().size(); i++) {
+            TraceResult.TracedShape tracedShape = result.shapes().get(i);
+            Entity entity = group.getChildren().get(i);
+            assertEquals("l " + tracedShape.layer() + " p " + tracedShape.index(), entity.getDescription());
+        }
+
+        Rectangle2D bounds = group.getBounds();
+        assertEquals(0, bounds.getX(), 0.01);
+        assertEquals(0, bounds.getY(), 0.01);
+        assertTrue(bounds.getWidth() <= 201 * 25.4 / 96);
+        assertTrue(bounds.getHeight() <= 151 * 25.4 / 96);
+    }
+}
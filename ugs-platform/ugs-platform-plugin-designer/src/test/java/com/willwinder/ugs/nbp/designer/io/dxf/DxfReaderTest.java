@@ -1,12 +1,24 @@
 package com.willwinder.ugs.nbp.designer.io.dxf;
 
+import com.willwinder.ugs.nbp.designer.entities.Entity;
 import com.willwinder.ugs.nbp.designer.entities.cuttable.Group;
 import com.willwinder.ugs.nbp.designer.model.Design;
 import com.willwinder.universalgcodesender.utils.Settings;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 public class DxfReaderTest  {
     @Test
@@ -43,4 +55,57 @@ public class DxfReaderTest  {
         Group ellipses = (Group) layer.getChildren().get(1);
         assertEquals(2, ellipses.getChildren().size());
     }
+
+    @Test
+    public void readDxfWithManyEntitiesShouldKeepTheEntityOrder() {
+        DxfReader reader = new DxfReader(new Settings());
+        Design design = reader.read(new ByteArrayInputStream(createCirclesDxf(1234).getBytes(StandardCharsets.UTF_8))).orElse(null);
+        assertNotNull(design);
+
+        Group root = (Group) design.getEntities().get(0);
+        Group layer = (Group) root.getChildren().get(0);
+        Group circles = (Group) layer.getChildren().get(0);
+        assertEquals("Circles", circles.getName());
+
+        List<Entity> children = circles.getChildren();
+        assertEquals(1234, children.size());
+        for (int i = 0; i < children.size(); i++) {
+            assertEquals(i * 10d, children.get(i).getBounds().getCenterX(), 0.01);
+        }
+    }
+
+    @Test
+    public void readDxfShouldThrowExceptionWhenCancelled() {
+        DxfReader reader = new DxfReader(new Settings());
+        reader.cancel();
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(createCirclesDxf(10).getBytes(StandardCharsets.UTF_8));
+        assertThrows(CancellationException.class, () -> reader.read(inputStream));
+    }
+
+    @Test
+    public void readDxfFileShouldReportProgress() throws IOException {
+        File file = File.createTempFile("test", ".dxf");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), createCirclesDxf(1000));
+
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger total = new AtomicInteger();
+        DxfReader reader = new DxfReader(new Settings(), (c, t) -> {
+            completed.set(c);
+            total.set(t);
+        });
+        reader.read(file);
+
+        assertEquals(file.length() / 1024, total.get());
+        assertTrue(completed.get() > 0);
+        assertTrue(completed.get() <= total.get());
+    }
+
+    private static String createCirclesDxf(int count) {
+        StringBuilder dxf = new StringBuilder("0\nSECTION\n2\nENTITIES\n");
+        for (int i = 0; i < count; i++) {
+            dxf.append("0\nCIRCLE\n8\n0\n10\n").append(i * 10).append("\n20\n0\n40\n2\n");
+        }
+        return dxf.append("0\nENDSEC\n0\nEOF\n").toString();
+    }
 }
@@ -0,0 +1,225 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.gcode;
+
+import com.willwinder.ugs.nbp.designer.entities.cuttable.CutType;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Cuttable;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Rectangle;
+import com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.PocketToolPath;
+import com.willwinder.ugs.nbp.designer.model.Settings;
+import com.willwinder.ugs.nbp.designer.model.Size;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+public class SimpleGcodeRouterTest {
+
+    private Settings settings;
+    private Rectangle rectangle1;
+    private Rectangle rectangle2;
+
+    @Before
+    public void setUp() {
+        settings = new Settings();
+        settings.setSafeHeight(10);
+
+        rectangle1 = createRectangle(0, 0);
+        rectangle2 = createRectangle(20, 0);
+    }
+
+    @Test
+    public void toGcodeShouldOnlyRegenerateChangedEntities() {
+        ToolPathCache toolPathCache = new ToolPathCache();
+        SimpleGcodeRouter router = new SimpleGcodeRouter(settings, toolPathCache);
+        router.toGcode(List.of(rectangle1, rectangle2));
+        assertEquals(2, toolPathCache.size());
+
+        ToolPathCache.CachedToolPath cachedToolPath = toolPathCache.get(ToolPathCache.createKey(settings, rectangle1)).orElseThrow();
+        rectangle2.move(new Point2D.Double(5, 5));
+        String gcode = router.toGcode(List.of(rectangle1, rectangle2));
+
+        // The unchanged entity should be reused and the old tool path of the moved entity should be evicted
+        assertSame(cachedToolPath, toolPathCache.get(ToolPathCache.createKey(settings, rectangle1)).orElseThrow());
+        assertEquals(2, toolPathCache.size());
+
+        // The gcode should be the same as if it was generated without a cache
+        assertEquals(new SimpleGcodeRouter(settings).toGcode(List.of(rectangle1, rectangle2)), gcode);
+    }
+
+    @Test
+    public void toGcodeShouldGenerateTheSameGcodeInTheOriginalOrder() {
+        List<Cuttable> cuttables = createCuttables(20);
+        String gcode = new SimpleGcodeRouter(settings).toGcode(cuttables);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(gcode, new SimpleGcodeRouter(settings).toGcode(cuttables));
+        }
+
+        int lastIndex = -1;
+        for (Cuttable cuttable : cuttables) {
+            int index = gcode.indexOf("; " + cuttable.getName() + " - ");
+            assertTrue("The tool paths should be in the same order as the cuttables", index > lastIndex);
+            lastIndex = index;
+        }
+    }
+
+    @Test
+    public void toGcodeShouldReportProgress() {
+        List<Cuttable> cuttables = createCuttables(10);
+        List<Integer> progress = Collections.synchronizedList(new ArrayList<>());
+        SimpleGcodeRouter router = new SimpleGcodeRouter(settings);
+        router.setProgressListener((completed, total) -> {
+            assertEquals(10, total);
+            progress.add(completed);
+        });
+
+        router.toGcode(cuttables);
+
+        assertEquals(11, progress.size());
+        assertEquals(0, progress.get(0).intValue());
+        assertEquals(10, Collections.max(progress).intValue());
+    }
+
+    @Test(expected = CancellationException.class)
+    public void toGcodeShouldThrowExceptionWhenCancelled() {
+        SimpleGcodeRouter router = new SimpleGcodeRouter(settings);
+        router.cancel();
+        router.toGcode(createCuttables(10));
+    }
+
+    @Test
+    public void toGcodeShouldStreamTheSameGcodeAsGeneratedFromTheSegments() throws IOException {
+        PocketToolPath toolPath = new PocketToolPath(settings, rectangle1);
+        toolPath.setStartDepth(rectangle1.getStartDepth());
+        toolPath.setTargetDepth(rectangle1.getTargetDepth());
+        SimpleGcodeRouter router = new SimpleGcodeRouter(settings);
+        String expectedToolPath = router.toGcode(toolPath.toGcodePath());
+
+        StringWriter writer = new StringWriter();
+        router.toGcode(writer, List.of(rectangle1));
+
+        assertTrue(writer.toString().contains(expectedToolPath));
+        assertEquals(router.toGcode(List.of(rectangle1)), writer.toString());
+    }
+
+    @Test
+    public void toGcodeShouldNotCacheLargeToolPaths() {
+        List<Cuttable> cuttables = createCuttables(40);
+        cuttables.add(rectangle1);
+        cuttables.add(0, rectangle1);
+        String expectedGcode = new SimpleGcodeRouter(settings).toGcode(cuttables);
+
+        ToolPathCache toolPathCache = new ToolPathCache();
+        SimpleGcodeRouter router = new SimpleGcodeRouter(settings, toolPathCache);
+        router.setMaxCachedToolPathLength(100);
+
+        assertEquals(expectedGcode, router.toGcode(cuttables));
+        assertEquals(0, toolPathCache.size());
+    }
+
+    @Test
+    public void toGcodeShouldRemoveTemporaryFilesWhenWritingFails() throws Exception {
+        List<Cuttable> cuttables = createCuttables(40);
+        SimpleGcodeRouter router = new SimpleGcodeRouter(settings);
+        router.setMaxCachedToolPathLength(1);
+        Set<String> toolPathFiles = getToolPathFiles();
+
+        Writer failingWriter = new Writer() {
+            private int writeCount;
+
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                if (++writeCount > 100) {
+                    throw new IOException("The disk is full");
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        assertThrows(IOException.class, () -> router.toGcode(failingWriter, cuttables));
+
+        // Tool paths still being generated in the background should remove their files when finished
+        ForkJoinPool.commonPool().awaitQuiescence(10, TimeUnit.SECONDS);
+        assertEquals(toolPathFiles, getToolPathFiles());
+    }
+
+    @Test
+    public void createKeyShouldChangeWhenCutSettingsChanges() {
+        String key = ToolPathCache.createKey(settings, rectangle1);
+        assertEquals(key, ToolPathCache.createKey(settings, createRectangle(0, 0)));
+
+        rectangle1.setTargetDepth(2);
+        assertNotEquals(key, ToolPathCache.createKey(settings, rectangle1));
+    }
+
+    @Test
+    public void createKeyShouldChangeWhenToolSettingsChanges() {
+        String key = ToolPathCache.createKey(settings, rectangle1);
+
+        settings.setToolDiameter(settings.getToolDiameter() + 1);
+        assertNotEquals(key, ToolPathCache.createKey(settings, rectangle1));
+    }
+
+    private static Set<String> getToolPathFiles() {
+        String[] files = new File(System.getProperty("java.io.tmpdir")).list((dir, name) -> name.startsWith("ugs-toolpath"));
+        return files == null ? Set.of() : Set.of(files);
+    }
+
+    private static List<Cuttable> createCuttables(int count) {
+        List<Cuttable> cuttables = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Rectangle rectangle = createRectangle(i * 20d, 0);
+            rectangle.setName("Rectangle " + i);
+            rectangle.setCutType(i % 2 == 0 ? CutType.POCKET : CutType.OUTSIDE_PATH);
+            cuttables.add(rectangle);
+        }
+        return cuttables;
+    }
+
+    private static Rectangle createRectangle(double x, double y) {
+        Rectangle rectangle = new Rectangle(x, y);
+        rectangle.setSize(new Size(10, 10));
+        rectangle.setCutType(CutType.POCKET);
+        rectangle.setTargetDepth(1);
+        return rectangle;
+    }
+}
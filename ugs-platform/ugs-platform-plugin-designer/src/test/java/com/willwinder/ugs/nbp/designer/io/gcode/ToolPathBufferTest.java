@@ -0,0 +1,83 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.gcode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * @author agent
+ */
+public class ToolPathBufferTest {
+
+    @Test
+    public void bufferShouldKeepGcodeInMemoryWithinLimit() throws IOException {
+        try (ToolPathBuffer buffer = new ToolPathBuffer(10, false)) {
+            buffer.write("G0X1\n");
+            buffer.write("G0X2\n");
+
+            assertTrue(buffer.isInMemory());
+            assertEquals("G0X1\nG0X2\n", buffer.getGcode());
+        }
+    }
+
+    @Test
+    public void bufferShouldSpillToDiskWhenExceedingLimit() throws IOException {
+        try (ToolPathBuffer buffer = new ToolPathBuffer(10, true)) {
+            buffer.write("G0X1\n");
+            buffer.write("G0X2\n");
+            buffer.write("G0X3\n");
+
+            assertFalse(buffer.isInMemory());
+            assertThrows(IllegalStateException.class, buffer::getGcode);
+
+            StringWriter writer = new StringWriter();
+            buffer.transferTo(writer);
+            assertEquals("G0X1\nG0X2\nG0X3\n", writer.toString());
+        }
+    }
+
+    @Test
+    public void bufferShouldDiscardGcodeWhenExceedingLimit() throws IOException {
+        try (ToolPathBuffer buffer = new ToolPathBuffer(10, false)) {
+            buffer.write("G0X1\n");
+            buffer.write("G0X2\n");
+            buffer.write("G0X3\n");
+
+            assertFalse(buffer.isInMemory());
+            assertThrows(IllegalStateException.class, () -> buffer.transferTo(new StringWriter()));
+        }
+    }
+
+    @Test
+    public void closeShouldReleaseTheGcode() throws IOException {
+        ToolPathBuffer buffer = new ToolPathBuffer(10, true);
+        buffer.write("G0X1\nG0X2\nG0X3\n");
+        buffer.close();
+
+        assertFalse(buffer.isInMemory());
+        assertThrows(IllegalStateException.class, () -> buffer.transferTo(new StringWriter()));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.gcode.toolpaths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+
+import java.util.List;
+
+public class ScanlineRasterizerTest {
+    private final GeometryFactory geometryFactory = new GeometryFactory();
+
+    @Test
+    public void getSpansShouldReturnSpanForRectangle() {
+        ScanlineRasterizer rasterizer = new ScanlineRasterizer(createSquare(0, 0, 10), ScanlineRasterizer.FillRule.EVEN_ODD);
+
+        assertSpans(rasterizer.getSpans(0), 0, 10);
+        assertSpans(rasterizer.getSpans(5), 0, 10);
+        assertSpans(rasterizer.getSpans(10), 0, 10);
+        assertTrue(rasterizer.getSpans(-1).isEmpty());
+        assertTrue(rasterizer.getSpans(11).isEmpty());
+    }
+
+    @Test
+    public void getSpansShouldNotFillHoles() {
+        Geometry polygon = geometryFactory.createPolygon(createRing(0, 0, 10), new LinearRing[]{createRing(2, 2, 6)});
+        ScanlineRasterizer rasterizer = new ScanlineRasterizer(polygon, ScanlineRasterizer.FillRule.EVEN_ODD);
+
+        assertSpans(rasterizer.getSpans(1), 0, 10);
+        assertSpans(rasterizer.getSpans(5), 0, 2, 8, 10);
+    }
+
+    @Test
+    public void getSpansShouldUseFillRuleForOverlappingRings() {
+        Geometry geometry = geometryFactory.createGeometryCollection(new Geometry[]{createRing(0, 0, 10), createRing(5, 0, 10)});
+
+        ScanlineRasterizer evenOdd = new ScanlineRasterizer(geometry, ScanlineRasterizer.FillRule.EVEN_ODD);
+        assertSpans(evenOdd.getSpans(5), 0, 5, 10, 15);
+
+        ScanlineRasterizer nonZero = new ScanlineRasterizer(geometry, ScanlineRasterizer.FillRule.NON_ZERO);
+        assertSpans(nonZero.getSpans(5), 0, 15);
+    }
+
+    @Test
+    public void getSpansShouldIgnoreTouchingVertices() {
+        Geometry triangle = geometryFactory.createPolygon(new Coordinate[]{
+                new Coordinate(0, 0),
+                new Coordinate(10, 0),
+                new Coordinate(5, 10),
+                new Coordinate(0, 0)
+        });
+        ScanlineRasterizer rasterizer = new ScanlineRasterizer(triangle, ScanlineRasterizer.FillRule.EVEN_ODD);
+
+        assertSpans(rasterizer.getSpans(5), 2.5, 7.5);
+        assertTrue(rasterizer.getSpans(10).isEmpty());
+    }
+
+    @Test
+    public void getSpansInParallelShouldReturnTheSameAsSequential() {
+        Geometry polygon = geometryFactory.createPolygon(createRing(0, 0, 100), new LinearRing[]{createRing(20, 20, 30)});
+        ScanlineRasterizer rasterizer = new ScanlineRasterizer(polygon, ScanlineRasterizer.FillRule.EVEN_ODD);
+
+        double[] rows = new double[1001];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i * 0.1;
+        }
+
+        List<List<ScanlineRasterizer.Span>> spans = rasterizer.getSpans(rows, true);
+        assertEquals(rows.length, spans.size());
+        assertEquals(rasterizer.getSpans(rows, false), spans);
+    }
+
+    private void assertSpans(List<ScanlineRasterizer.Span> spans, double... expectedCoordinates) {
+        assertEquals(expectedCoordinates.length / 2, spans.size());
+        for (int i = 0; i < spans.size(); i++) {
+            assertEquals(expectedCoordinates[i * 2], spans.get(i).startX(), 0.0001);
+            assertEquals(expectedCoordinates[i * 2 + 1], spans.get(i).endX(), 0.0001);
+        }
+    }
+
+    private Geometry createSquare(double x, double y, double size) {
+        return geometryFactory.createPolygon(createRing(x, y, size));
+    }
+
+    private LinearRing createRing(double x, double y, double size) {
+        return geometryFactory.createLinearRing(new Coordinate[]{
+                new Coordinate(x, y),
+                new Coordinate(x + size, y),
+                new Coordinate(x + size, y + size),
+                new Coordinate(x, y + size),
+                new Coordinate(x, y)
+        });
+    }
+}
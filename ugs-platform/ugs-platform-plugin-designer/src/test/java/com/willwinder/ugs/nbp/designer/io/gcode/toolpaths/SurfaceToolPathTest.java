@@ -425,6 +425,32 @@ public class SurfaceToolPathTest {
         assertZPoint(segments.get(9).point, 10);
     }
 
+    @Test
+    public void toGcodePathShouldCutAlongTheLineWhenHeightIsSameAsTool() {
+        Rectangle rectangle = new Rectangle(0,0);
+        rectangle.setSize(new Size(10, 5));
+        rectangle.setLeadInPercent(0);
+        rectangle.setLeadOutPercent(0);
+
+        Settings settings = new Settings();
+        settings.setToolDiameter(5);
+        settings.setToolStepOver(1);
+        settings.setSafeHeight(10);
+
+        SurfaceToolPath toolPath = new SurfaceToolPath(settings, rectangle);
+        toolPath.setStartDepth(1);
+        toolPath.setTargetDepth(1);
+
+        List<Segment> segments = toolPath.toGcodePath().getSegments();
+        assertEquals(6, segments.size());
+
+        assertEquals(SegmentType.MOVE, segments.get(2).type);
+        assertXYPoint(segments.get(2).point, 2.5, 2.5);
+
+        assertEquals(SegmentType.LINE, segments.get(4).type);
+        assertXYPoint(segments.get(4).point, 7.5, 2.5);
+    }
+
     private static void assertXYPoint(PartialPosition point, double expectedX, double expectedY) {
         assertEquals(expectedX, point.getX(), 0.01);
         assertEquals(expectedY, point.getY(), 0.01);
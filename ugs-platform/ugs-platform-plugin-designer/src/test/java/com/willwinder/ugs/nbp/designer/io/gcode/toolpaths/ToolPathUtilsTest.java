@@ -1,13 +1,17 @@
 package com.willwinder.ugs.nbp.designer.io.gcode.toolpaths;
 
+import static com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils.addCuttingPlanToCoordinatesList;
 import static com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils.addGeometriesToCoordinatesList;
 import static com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils.bufferAndCollectGeometries;
 import static com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils.convertAreaToGeometry;
+import static com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils.createCuttingPlan;
 import com.willwinder.ugs.nbp.designer.io.ugsd.UgsDesignReader;
 import com.willwinder.ugs.nbp.designer.model.Design;
 import com.willwinder.universalgcodesender.model.PartialPosition;
+import com.willwinder.universalgcodesender.model.UnitUtils;
 import static org.junit.Assert.assertEquals;
 import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 
@@ -37,4 +41,44 @@ public class ToolPathUtilsTest {
         addGeometriesToCoordinatesList(shell, geometries, coordinateList, 0);
         assertEquals(3, coordinateList.size());
     }
+
+    @Test
+    public void addCuttingPlanToCoordinatesList_shouldReuseThePlanForEveryDepth() {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        Geometry shell = geometryFactory.createPolygon(createCoordinates(1, 1, 9, 1, 9, 9, 1, 9, 1, 1));
+        List<Geometry> geometries = List.of(
+                geometryFactory.createLinearRing(createCoordinates(2, 2, 8, 2, 8, 8, 2, 8, 2, 2)),
+                geometryFactory.createLinearRing(createCoordinates(6, 6, 4, 6, 4, 4, 6, 4, 6, 6)),
+                geometryFactory.createLinearRing(createCoordinates(20, 20, 22, 20, 22, 22, 20, 22, 20, 20)));
+
+        List<List<Coordinate>> cuttingPlan = createCuttingPlan(shell, geometries);
+
+        for (double depth : new double[]{0, 1.5, 3}) {
+            List<List<PartialPosition>> coordinateList = new ArrayList<>();
+            addCuttingPlanToCoordinatesList(cuttingPlan, coordinateList, depth);
+
+            // The second ring should start at the point closest to the end of the first ring, the third ring
+            // is outside the shell and should be cut as a separate line
+            List<List<PartialPosition>> expectedCoordinateList = List.of(
+                    createPositions(depth, 2, 2, 8, 2, 8, 8, 2, 8, 2, 2, 4, 4, 6, 4, 6, 6, 4, 6, 4, 4),
+                    createPositions(depth, 20, 20, 22, 20, 22, 22, 20, 22, 20, 20));
+            assertEquals(expectedCoordinateList, coordinateList);
+        }
+    }
+
+    private static Coordinate[] createCoordinates(double... xy) {
+        Coordinate[] coordinates = new Coordinate[xy.length / 2];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = new Coordinate(xy[i * 2], xy[i * 2 + 1]);
+        }
+        return coordinates;
+    }
+
+    private static List<PartialPosition> createPositions(double depth, double... xy) {
+        List<PartialPosition> positions = new ArrayList<>();
+        for (int i = 0; i < xy.length; i += 2) {
+            positions.add(new PartialPosition(xy[i], xy[i + 1], -depth, UnitUtils.Units.MM));
+        }
+        return positions;
+    }
 }
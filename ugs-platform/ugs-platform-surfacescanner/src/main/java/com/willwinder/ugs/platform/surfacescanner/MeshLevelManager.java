@@ -19,6 +19,8 @@
 package com.willwinder.ugs.platform.surfacescanner;
 
 import static com.willwinder.ugs.platform.surfacescanner.Utils.createCommandProcessor;
+import static com.willwinder.ugs.platform.surfacescanner.Utils.createStreamCommandProcessor;
+import static com.willwinder.ugs.platform.surfacescanner.Utils.createStreamPreprocessor;
 import com.willwinder.universalgcodesender.gcode.processors.CommandProcessorList;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.utils.AutoLevelSettings;
@@ -27,12 +29,19 @@ import org.openide.util.Exceptions;
 
 /**
  * A mesh leveler manager that handles all required command processors
- * to be able to do a mesh leveling
+ * to be able to do a mesh leveling.
+ * <p>
+ * When compensating while streaming, only the arc expander and line splitter are applied
+ * to the loaded program and the height is adjusted for each command when it is streamed.
+ * A new probe will then only replace the stream command processor without reprocessing the program.
  */
 public class MeshLevelManager {
     private final SurfaceScanner surfaceScanner;
     private final BackendAPI backend;
     private CommandProcessorList commandProcessorList;
+    private CommandProcessorList streamPreprocessor;
+    private double streamPreprocessorArcSliceLength;
+    private double streamPreprocessorStepResolution;
 
     public MeshLevelManager(SurfaceScanner surfaceScanner, BackendAPI backend) {
         this.surfaceScanner = surfaceScanner;
@@ -42,12 +51,19 @@ public class MeshLevelManager {
     public void update() {
         AutoLevelSettings autoLevelSettings = backend.getSettings().getAutoLevelSettings();
         try {
-            clear();
-
             if (!surfaceScanner.isValid() || !autoLevelSettings.getApplyToGcode()) {
+                clear();
+                return;
+            }
+
+            if (autoLevelSettings.getCompensateWhileStreaming()) {
+                removeCommandProcessor();
+                updateStreamPreprocessor(autoLevelSettings);
+                backend.setStreamCommandProcessor(createStreamCommandProcessor(autoLevelSettings, surfaceScanner));
                 return;
             }
 
+            clear();
             commandProcessorList = createCommandProcessor(autoLevelSettings, surfaceScanner);
             backend.applyCommandProcessor(commandProcessorList);
         } catch (Exception ex) {
@@ -56,7 +72,28 @@ public class MeshLevelManager {
         }
     }
 
+    private void updateStreamPreprocessor(AutoLevelSettings autoLevelSettings) throws Exception {
+        // The loaded program only needs to be reprocessed if the subdivision settings have changed
+        if (streamPreprocessor != null &&
+                streamPreprocessorArcSliceLength == autoLevelSettings.getAutoLevelArcSliceLength() &&
+                streamPreprocessorStepResolution == autoLevelSettings.getStepResolution()) {
+            return;
+        }
+
+        removeStreamPreprocessor();
+        streamPreprocessor = createStreamPreprocessor(autoLevelSettings);
+        streamPreprocessorArcSliceLength = autoLevelSettings.getAutoLevelArcSliceLength();
+        streamPreprocessorStepResolution = autoLevelSettings.getStepResolution();
+        backend.applyCommandProcessor(streamPreprocessor);
+    }
+
     public void clear() {
+        removeCommandProcessor();
+        removeStreamPreprocessor();
+        backend.setStreamCommandProcessor(null);
+    }
+
+    private void removeCommandProcessor() {
         // Remove previously active command processors
         if (commandProcessorList != null) {
             try {
@@ -67,4 +104,15 @@ public class MeshLevelManager {
             commandProcessorList = null;
         }
     }
+
+    private void removeStreamPreprocessor() {
+        if (streamPreprocessor != null) {
+            try {
+                backend.removeCommandProcessor(streamPreprocessor);
+            } catch (Exception e) {
+                Exceptions.printStackTrace(e);
+            }
+            streamPreprocessor = null;
+        }
+    }
 }
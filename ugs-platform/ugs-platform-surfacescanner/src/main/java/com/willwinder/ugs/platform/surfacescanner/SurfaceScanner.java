@@ -28,8 +28,9 @@ import com.willwinder.universalgcodesender.model.UnitUtils.Units;
 import com.willwinder.universalgcodesender.model.events.ProbeEvent;
 import com.willwinder.universalgcodesender.utils.AutoLevelSettings;
 
-import java.util.Deque;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,22 +40,48 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * Scans a surface by probing a grid of points.
+ * <p>
+ * To avoid waiting for a round trip to the controller for each point, the retract, traverse and probe
+ * commands for the next point are queued before the result of the current probe has been received.
+ * The retract height is based on the highest probed point so far which makes it independent of the
+ * pending probe while always retracting upwards.
+ * <p>
+ * If an adaptive threshold is configured, every other point is probed first and the points in between
+ * are only probed where the surrounding heights differ more than the threshold, the remaining points
+ * are interpolated.
+ * <p>
+ * The probe events are received from the controller while the scan state is read from the UI, all state
+ * is therefore guarded by the scanner instance. The listeners are notified without holding the lock.
+ *
  * @author wwinder
  */
 public class SurfaceScanner {
     private static final Logger logger = Logger.getLogger(SurfaceScanner.class.getSimpleName());
 
+    /**
+     * The maximum number of probe cycles that are queued on the controller at the same time
+     */
+    private static final int MAX_QUEUED_PROBES = 2;
+
     private final BackendAPI backend;
     private final AutoLevelSettings settings;
     private final Set<SurfaceScannerListener> listeners = ConcurrentHashMap.newKeySet();
     private Position[][] probePositionGrid = new Position[0][0];
-    private Deque<Position> pendingPositions = new LinkedList<>();
+    private LinkedList<Position> pendingPositions = new LinkedList<>();
     private Position minXYZ = Position.ZERO;
     private Position maxXYZ = Position.ZERO;
     private Position machineWorkOffset = new Position(Units.MM);
 
     private final AtomicBoolean isScanning = new AtomicBoolean(false);
 
+    /**
+     * The number of pending positions that have been sent to the controller
+     */
+    private int queuedProbes = 0;
+    private double highestProbedZ = Double.NaN;
+    private boolean isRefined = false;
+
     public SurfaceScanner(BackendAPI backend) {
         this.backend = backend;
         this.settings = backend.getSettings().getAutoLevelSettings();
@@ -81,21 +108,41 @@ public class SurfaceScanner {
         Position newMin = new Position(xMin, yMin, zMin, corner1.getUnits());
         Position newMax = new Position(xMax, yMax, zMax, corner1.getUnits());
 
-        // If we're 0 in any dimension there is nothing we can do yet.
-        if (newMin.getX() != newMax.getX() && newMin.getY() != newMax.getY() && newMin.getZ() != newMax.getZ()) {
-            this.minXYZ = newMin;
-            this.maxXYZ = newMax;
-        }
+        synchronized (this) {
+            // If we're 0 in any dimension there is nothing we can do yet.
+            if (newMin.getX() != newMax.getX() && newMin.getY() != newMax.getY() && newMin.getZ() != newMax.getZ()) {
+                this.minXYZ = newMin;
+                this.maxXYZ = newMax;
+            }
 
-        reset();
+            resetState();
+        }
+        notifyListeners();
     }
 
     public void handleEvent(ProbeEvent evt) {
-        if (pendingPositions.isEmpty() || !isScanning.get()) return;
+        boolean isUpdated = true;
+        try {
+            isUpdated = processProbeEvent(evt);
+        } finally {
+            if (isUpdated) {
+                notifyListeners();
+            }
+        }
+    }
+
+    /**
+     * Records the probed position and queues the next probe cycles
+     *
+     * @param evt the probe event from the controller
+     * @return true if the event was a part of the scan
+     */
+    private synchronized boolean processProbeEvent(ProbeEvent evt) {
+        if (pendingPositions.isEmpty() || !isScanning.get()) return false;
 
         Position probeMachinePosition = evt.getProbePosition();
         if (!Double.isFinite(probeMachinePosition.getZ())) {
-            reset();
+            resetState();
             throw new RuntimeException("Probe returned invalid position");
         }
 
@@ -107,23 +154,33 @@ public class SurfaceScanner {
 
         logger.log(Level.INFO, "Record ({0}, {1}, {2})",
                 new Object[]{probePosition.getX(), probePosition.getY(), probePosition.getZ()});
-        probeEvent(probePosition);
+        recordProbe(probePosition);
 
         if (pendingPositions.isEmpty()) {
             // The probing is done!
             moveToSafeStartPoint(probePosition);
         } else {
-            double retractedZ = retract(probePosition.getZ());
-            probeNextPoint(retractedZ);
+            queueProbes();
         }
-}
+        return true;
+    }
 
     private Units getPreferredUnits() {
         return this.backend.getSettings().getPreferredUnits();
     }
 
     public void reset() {
+        synchronized (this) {
+            resetState();
+        }
+        notifyListeners();
+    }
+
+    private void resetState() {
         isScanning.set(false);
+        queuedProbes = 0;
+        highestProbedZ = Double.NaN;
+        isRefined = settings.getAdaptiveProbeThreshold() <= 0;
         double resolution = settings.getStepResolution();
 
         int xAxisPoints = (int) (Math.ceil((maxXYZ.getX() - minXYZ.getX()) / resolution)) + 1;
@@ -142,38 +199,139 @@ public class SurfaceScanner {
             }
         }
 
-        // Move along grid in zigzag pattern
-        int yIncrement = 1;
-        int yIndex = 0;
+        // Move along the longest axis of the grid in a zigzag pattern to reduce the number of turns
         pendingPositions = new LinkedList<>();
-        for (Position[] columnPositions : probePositionGrid) {
-            while (yIndex >= 0 && yIndex < columnPositions.length) {
-                Position p = columnPositions[yIndex];
-                pendingPositions.add(p);
-                yIndex += yIncrement;
+        boolean alongY = yAxisPoints >= xAxisPoints;
+        int rows = alongY ? xAxisPoints : yAxisPoints;
+        int columns = alongY ? yAxisPoints : xAxisPoints;
+        boolean reversed = false;
+        for (int row = 0; row < rows; row++) {
+            int rowStart = pendingPositions.size();
+            for (int column = 0; column < columns; column++) {
+                int zigzagColumn = reversed ? columns - 1 - column : column;
+                int x = alongY ? row : zigzagColumn;
+                int y = alongY ? zigzagColumn : row;
+
+                // When scanning adaptively, start with every other point
+                if (isRefined || (isCoarsePoint(x, xAxisPoints) && isCoarsePoint(y, yAxisPoints))) {
+                    pendingPositions.add(probePositionGrid[x][y]);
+                }
+            }
+
+            if (pendingPositions.size() > rowStart) {
+                reversed = !reversed;
             }
-            yIncrement = -yIncrement;
-            yIndex += yIncrement;
         }
+    }
 
-        listeners.forEach(SurfaceScannerListener::onScannerUpdate);
+    private static boolean isCoarsePoint(int index, int length) {
+        return index % 2 == 0 || index == length - 1;
+    }
+
+    /**
+     * Finds the points between the coarse points that needs to be probed, which is where the
+     * surrounding probed heights differs more than the adaptive threshold. The other points
+     * are interpolated from the surrounding probed points.
+     *
+     * @param lastPosition the last probed position used for ordering the new points
+     */
+    private void refine(Position lastPosition) {
+        isRefined = true;
+        double threshold = settings.getAdaptiveProbeThreshold();
+        Position settingsOffset = settings.getAutoLevelProbeOffset().getPositionIn(getPreferredUnits());
+
+        List<Position> refinePositions = new ArrayList<>();
+        int xAxisPoints = probePositionGrid.length;
+        int yAxisPoints = probePositionGrid[0].length;
+        for (int x = 0; x < xAxisPoints; x++) {
+            for (int y = 0; y < yAxisPoints; y++) {
+                if (isCoarsePoint(x, xAxisPoints) && isCoarsePoint(y, yAxisPoints)) {
+                    continue;
+                }
+
+                int x1 = isCoarsePoint(x, xAxisPoints) ? x : x - 1;
+                int x2 = isCoarsePoint(x, xAxisPoints) ? x : x + 1;
+                int y1 = isCoarsePoint(y, yAxisPoints) ? y : y - 1;
+                int y2 = isCoarsePoint(y, yAxisPoints) ? y : y + 1;
+                Position q11 = probePositionGrid[x1][y1];
+                Position q21 = probePositionGrid[x2][y1];
+                Position q12 = probePositionGrid[x1][y2];
+                Position q22 = probePositionGrid[x2][y2];
+
+                double minZ = Math.min(Math.min(q11.getZ(), q21.getZ()), Math.min(q12.getZ(), q22.getZ()));
+                double maxZ = Math.max(Math.max(q11.getZ(), q21.getZ()), Math.max(q12.getZ(), q22.getZ()));
+                Position position = probePositionGrid[x][y];
+                if (maxZ - minZ > threshold) {
+                    refinePositions.add(position);
+                    continue;
+                }
+
+                // The probed points has been moved with the probe offset, use the relative distance between them
+                double u = x1 == x2 ? 0 : (position.getX() + settingsOffset.getX() - q11.getX()) / (q21.getX() - q11.getX());
+                double v = y1 == y2 ? 0 : (position.getY() + settingsOffset.getY() - q11.getY()) / (q12.getY() - q11.getY());
+                double z1 = q11.getZ() + (q21.getZ() - q11.getZ()) * u;
+                double z2 = q12.getZ() + (q22.getZ() - q12.getZ()) * u;
+                position.setX(position.getX() + settingsOffset.getX());
+                position.setY(position.getY() + settingsOffset.getY());
+                position.setZ(z1 + (z2 - z1) * v);
+            }
+        }
+
+        // Order the points to probe by always moving to the nearest point
+        Position current = lastPosition;
+        while (!refinePositions.isEmpty()) {
+            Position nearest = refinePositions.get(0);
+            for (Position position : refinePositions) {
+                if (distanceXY(current, position) < distanceXY(current, nearest)) {
+                    nearest = position;
+                }
+            }
+            refinePositions.remove(nearest);
+            pendingPositions.add(nearest);
+            current = nearest;
+        }
+        logger.log(Level.INFO, "Refining the scan with {0} additional points", pendingPositions.size());
+    }
+
+    private static double distanceXY(Position p1, Position p2) {
+        return Math.hypot(p1.getX() - p2.getX(), p1.getY() - p2.getY());
     }
 
     public void probeEvent(final Position p) {
+        recordProbe(p);
+        notifyListeners();
+    }
+
+    private synchronized void recordProbe(final Position p) {
         Position expectedProbePosition = pendingPositions.pop();
+        queuedProbes = Math.max(0, queuedProbes - 1);
         Position probedPosition = p.getPositionIn(expectedProbePosition.getUnits());
         Position settingsOffset = settings.getAutoLevelProbeOffset().getPositionIn(getPreferredUnits());
 
+        highestProbedZ = Double.isNaN(highestProbedZ) ? probedPosition.getZ() : Math.max(highestProbedZ, probedPosition.getZ());
         expectedProbePosition.setX(expectedProbePosition.getX() + settingsOffset.getX());
         expectedProbePosition.setY(expectedProbePosition.getY() + settingsOffset.getY());
         expectedProbePosition.setZ(probedPosition.getZ() + settingsOffset.getZ());
-        listeners.forEach(SurfaceScannerListener::onScannerUpdate);
+
+        if (pendingPositions.isEmpty() && !isRefined) {
+            refine(expectedProbePosition);
+        }
     }
 
     /**
      * Begin a scan the surface {@link #handleEvent(ProbeEvent)} must be called to properly progress through the scan.
      */
     public void scan() {
+        try {
+            startScan();
+        } catch (RuntimeException e) {
+            // The scan has been reset
+            notifyListeners();
+            throw e;
+        }
+    }
+
+    private synchronized void startScan() {
         isScanning.set(true);
         Position work = backend.getWorkPosition();
         Position machine = backend.getMachinePosition();
@@ -183,7 +341,26 @@ public class SurfaceScanner {
         machineWorkOffset.z = work.z - machine.z;
 
         moveToSafeStartPoint(work);
-        probeNextPoint(maxXYZ.getZ());
+        queuedProbes = 0;
+        highestProbedZ = Double.NaN;
+        probeNextPoint(null, maxXYZ.getZ());
+    }
+
+    /**
+     * Queues the probe cycles for the next pending positions. Until the first point has been probed
+     * the retract height is unknown and only one probe cycle is queued.
+     */
+    private void queueProbes() {
+        if (Double.isNaN(highestProbedZ)) {
+            return;
+        }
+
+        while (queuedProbes < MAX_QUEUED_PROBES && queuedProbes < pendingPositions.size()) {
+            // Every probe is started from a retract height that is at least as high as the previous
+            // one, so the pending probed point can never be above the retract height.
+            double retractHeight = getRetractHeight();
+            probeNextPoint(retractHeight, retractHeight);
+        }
     }
 
     private void moveToSafeStartPoint(Position currentPosition) {
@@ -216,18 +393,31 @@ public class SurfaceScanner {
             logger.log(Level.INFO, "Move to start height {0}", new Object[]{startHeight});
             backend.sendGcodeCommand(true, cmd);
         } catch (Exception e) {
-            reset();
+            resetState();
             throw new RuntimeException(e);
         }
     }
 
-    public Optional<Position> getNextProbePoint() {
+    public synchronized Optional<Position> getNextProbePoint() {
         return Optional.ofNullable(this.pendingPositions.peek());
     }
 
-    private void probeNextPoint(Double zBackoff) {
+    /**
+     * Sends the commands for probing the next pending position that has not been queued
+     *
+     * @param retractHeight the height to retract to before moving to the next position or null to not retract
+     * @param zBackoff      the height that the probing will start from
+     */
+    private void probeNextPoint(Double retractHeight, double zBackoff) {
         try {
-            Position p = this.pendingPositions.peek();
+            Position p = this.pendingPositions.get(queuedProbes);
+
+            if (retractHeight != null) {
+                PartialPosition safeZ = PartialPosition.builder(maxXYZ.getUnits()).setZ(retractHeight).build();
+                String retractCommand = GcodeUtils.generateMoveCommand("G90G0", getProbeScanFeedRate(), safeZ);
+                logger.log(Level.INFO, "Retract to {0} {1}", new Object[]{safeZ, retractCommand});
+                backend.sendGcodeCommand(true, retractCommand);
+            }
 
             // Position over next probe position
             PartialPosition startPos = PartialPosition.builder(p)
@@ -244,8 +434,9 @@ public class SurfaceScanner {
             double probeDistance = minXYZ.getZ() - zBackoff;
             logger.log(Level.INFO, "Probe {0}", probeDistance);
             backend.probe("Z", getProbeSpeed(), probeDistance, getPreferredUnits());
+            queuedProbes++;
         } catch (Exception e) {
-            reset();
+            resetState();
             throw new RuntimeException(e);
         }
     }
@@ -258,46 +449,33 @@ public class SurfaceScanner {
         return settings.getProbeScanFeedRate() * UnitUtils.scaleUnits(Units.MM, getPreferredUnits());
     }
 
-    private double retract(Double zLast) {
+    private double getRetractHeight() {
         double zRetract = settings.getZRetract() * maxXYZ.getZ();
         if (zRetract <= 0) {
             zRetract = maxXYZ.getZ() - minXYZ.getZ();
         }
 
-        // Start by backing off the current position
-        double zBackoff = Math.min(zLast + zRetract, maxXYZ.getZ());
-        PartialPosition safeZ = PartialPosition.builder(maxXYZ.getUnits()).setZ(zBackoff).build();
-        String retractCommand = GcodeUtils.generateMoveCommand(
-                "G90G0",
-                getProbeScanFeedRate(),
-                safeZ);
-
-        try {
-            logger.log(Level.INFO, "Retract to {0} {1}", new Object[]{safeZ, retractCommand});
-            backend.sendGcodeCommand(true, retractCommand);
-        } catch (Exception e) {
-            reset();
-            throw new RuntimeException(e);
-        }
-        return zBackoff;
+        return Math.min(highestProbedZ + zRetract, maxXYZ.getZ());
     }
 
     public void scanRandomData() {
-        machineWorkOffset.x = 0;
-        machineWorkOffset.y = 0;
-        machineWorkOffset.z = 0;
-
-        // Generate some random test data.
-        while (!pendingPositions.isEmpty()) {
-            Position p = new Position(pendingPositions.peek());
-            p.setZ(ThreadLocalRandom.current().nextDouble(minXYZ.getZ(), maxXYZ.getZ()));
-            probeEvent(p);
+        synchronized (this) {
+            machineWorkOffset.x = 0;
+            machineWorkOffset.y = 0;
+            machineWorkOffset.z = 0;
+
+            // Generate some random test data.
+            while (!pendingPositions.isEmpty()) {
+                Position p = new Position(pendingPositions.peek());
+                p.setZ(ThreadLocalRandom.current().nextDouble(minXYZ.getZ(), maxXYZ.getZ()));
+                recordProbe(p);
+            }
         }
 
-        listeners.forEach(SurfaceScannerListener::onScannerUpdate);
+        notifyListeners();
     }
 
-    public ImmutableList<Position> getProbeStartPositions() {
+    public synchronized ImmutableList<Position> getProbeStartPositions() {
         ImmutableList.Builder<Position> builder = ImmutableList.builder();
         double z = maxXYZ.getZ();
         for (Position[] columns : probePositionGrid) {
@@ -310,15 +488,31 @@ public class SurfaceScanner {
         return builder.build();
     }
 
-    public final Position[][] getProbePositionGrid() {
-        return this.probePositionGrid;
+    /**
+     * Returns a copy of the probe grid as the positions are updated while scanning
+     *
+     * @return the probe positions indexed by x and y
+     */
+    public final synchronized Position[][] getProbePositionGrid() {
+        Position[][] grid = new Position[probePositionGrid.length][];
+        for (int x = 0; x < probePositionGrid.length; x++) {
+            grid[x] = new Position[probePositionGrid[x].length];
+            for (int y = 0; y < probePositionGrid[x].length; y++) {
+                grid[x][y] = new Position(probePositionGrid[x][y]);
+            }
+        }
+        return grid;
     }
 
-    public boolean isValid() {
+    public synchronized boolean isValid() {
         return probePositionGrid.length > 0 && pendingPositions.isEmpty();
     }
 
     public void addListener(SurfaceScannerListener listener) {
         listeners.add(listener);
     }
+
+    private void notifyListeners() {
+        listeners.forEach(SurfaceScannerListener::onScannerUpdate);
+    }
 }
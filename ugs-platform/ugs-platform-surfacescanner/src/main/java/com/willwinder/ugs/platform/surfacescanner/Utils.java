@@ -107,16 +107,42 @@ public class Utils {
     public static CommandProcessorList createCommandProcessor(AutoLevelSettings autoLevelSettings, SurfaceScanner surfaceScanner) {
         CommandProcessorList result = new CommandProcessorList();
 
+        // Adjust Z heights codes based on mesh offsets, lines and arcs are subdivided only where needed to follow the surface
+        result.add(
+                new MeshLeveler(autoLevelSettings.getZSurface(),
+                        surfaceScanner.getProbePositionGrid(),
+                        MeshLeveler.DEFAULT_TOLERANCE_MM));
+        return result;
+    }
+
+    /**
+     * Creates the command processors needed for compensating the height while streaming. Arcs are expanded
+     * and lines are split when loading the program as the number of commands can not change while
+     * streaming, these only depend on the settings and not on the probed surface.
+     *
+     * @param autoLevelSettings the auto level settings
+     * @return the command processors to apply to the loaded program
+     */
+    public static CommandProcessorList createStreamPreprocessor(AutoLevelSettings autoLevelSettings) {
+        CommandProcessorList result = new CommandProcessorList();
+
         // Step 1: Convert arcs to line segments.
         result.add(new ArcExpander(true, autoLevelSettings.getAutoLevelArcSliceLength(), GcodePreprocessorUtils.getDecimalFormatter()));
 
         // Step 2: Line splitter. No line should be longer than some fraction of "resolution"
         result.add(new LineSplitter(autoLevelSettings.getStepResolution() / 4));
-
-        // Step 3: Adjust Z heights codes based on mesh offsets.
-        result.add(
-                new MeshLeveler(autoLevelSettings.getZSurface(),
-                        surfaceScanner.getProbePositionGrid()));
         return result;
     }
+
+    /**
+     * Creates a command processor that adjusts the Z height of each streamed command based on the
+     * probed surface. It will not subdivide any moves, see {@link #createStreamPreprocessor(AutoLevelSettings)}.
+     *
+     * @param autoLevelSettings the auto level settings
+     * @param surfaceScanner    the surface scanner with the probed surface
+     * @return a command processor to use while streaming
+     */
+    public static MeshLeveler createStreamCommandProcessor(AutoLevelSettings autoLevelSettings, SurfaceScanner surfaceScanner) {
+        return new MeshLeveler(autoLevelSettings.getZSurface(), surfaceScanner.getProbePositionGrid());
+    }
 }
@@ -0,0 +1,82 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.platform.surfacescanner.actions;
+
+import com.willwinder.ugs.nbp.lib.lookup.CentralLookup;
+import com.willwinder.ugs.platform.surfacescanner.MeshLevelManager;
+import com.willwinder.universalgcodesender.i18n.Localization;
+import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.UGSEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.SettingChangedEvent;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+
+/**
+ * Toggles if the surface height should be compensated when each command is streamed
+ * instead of when the program is loaded.
+ *
+ * @author agent
+ */
+public class ToggleCompensateWhileStreamingAction extends AbstractAction implements UGSEventListener {
+    private final MeshLevelManager meshLevelManager;
+    private final BackendAPI backend;
+
+    public ToggleCompensateWhileStreamingAction(MeshLevelManager meshLevelManager) {
+        this.backend = CentralLookup.getDefault().lookup(BackendAPI.class);
+        this.backend.addUGSEventListener(this);
+        this.meshLevelManager = meshLevelManager;
+        updateState();
+        setEnabled(isEnabled());
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return (backend.isConnected() && backend.isIdle()) || !backend.isConnected();
+    }
+
+    private void updateState() {
+        String title = Localization.getString("autoleveler.panel.compensate-while-streaming");
+        putValue(NAME, title);
+        putValue("menuText", title);
+        putValue(Action.SHORT_DESCRIPTION, Localization.getString("autoleveler.panel.compensate-while-streaming.tooltip"));
+        putValue(Action.SELECTED_KEY, backend.getSettings().getAutoLevelSettings().getCompensateWhileStreaming());
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        boolean isActive = (boolean) getValue(Action.SELECTED_KEY);
+        backend.getSettings().getAutoLevelSettings().setCompensateWhileStreaming(isActive);
+        meshLevelManager.update();
+        updateState();
+    }
+
+    @Override
+    public void UGSEvent(UGSEvent evt) {
+        if (evt instanceof SettingChangedEvent) {
+            updateState();
+        }
+
+        if (evt instanceof ControllerStatusEvent) {
+            setEnabled(isEnabled());
+        }
+    }
+}
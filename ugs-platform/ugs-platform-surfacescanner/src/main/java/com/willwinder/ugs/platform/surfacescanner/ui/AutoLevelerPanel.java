@@ -24,6 +24,7 @@ import com.willwinder.ugs.platform.surfacescanner.SurfaceScanner;
 import com.willwinder.ugs.platform.surfacescanner.Utils;
 import com.willwinder.ugs.platform.surfacescanner.actions.ScanSurfaceAction;
 import com.willwinder.ugs.platform.surfacescanner.actions.ToggleApplyToGcodeAction;
+import com.willwinder.ugs.platform.surfacescanner.actions.ToggleCompensateWhileStreamingAction;
 import com.willwinder.ugs.platform.surfacescanner.actions.TogglePreviewAction;
 import com.willwinder.ugs.platform.surfacescanner.actions.UpdateMinMaxFromGcode;
 import com.willwinder.ugs.platform.surfacescanner.renderable.AutoLevelPreview;
@@ -132,6 +133,7 @@ public class AutoLevelerPanel extends JPanel {
         jPanel3.add(new JLabel(" "), "growx, spanx, wrap");
         jPanel3.add(new JCheckBox(new TogglePreviewAction(autoLevelPreview)), "growx, wrap");
         jPanel3.add(new JCheckBox(new ToggleApplyToGcodeAction(meshLevelManager)), "growx, wrap");
+        jPanel3.add(new JCheckBox(new ToggleCompensateWhileStreamingAction(meshLevelManager)), "growx, wrap");
 
         setLayout(new MigLayout("fill"));
 
@@ -50,6 +50,10 @@ public class AutoLevelerSettingsPanel extends AbstractUGSSettings {
                 Localization.getString("autoleveler.option.arc-segment-length"),
                 new SpinnerNumberModel(0.2, 0.001, null, 0.1));
 
+    private final Spinner adaptiveThresholdSpinner = new Spinner(
+                Localization.getString("autoleveler.option.adaptive-threshold"),
+                new SpinnerNumberModel(0., 0., null, 0.1));
+
     private final Spinner xOffsetSpinner = new Spinner(
                 Localization.getString("autoleveler.option.offset-x"),
                 new SpinnerNumberModel(0., 0., null, 1.));
@@ -86,6 +90,9 @@ public class AutoLevelerSettingsPanel extends AbstractUGSSettings {
         this.arcSegmentLengthSpinner.setValue(autoLevelSettings.getAutoLevelArcSliceLength());
         add(this.arcSegmentLengthSpinner);
 
+        this.adaptiveThresholdSpinner.setValue(autoLevelSettings.getAdaptiveProbeThreshold());
+        add(this.adaptiveThresholdSpinner);
+
         this.xOffsetSpinner.setValue(autoLevelSettings.getAutoLevelProbeOffset().x);
         add(this.xOffsetSpinner);
 
@@ -103,6 +110,7 @@ public class AutoLevelerSettingsPanel extends AbstractUGSSettings {
         values.setProbeSpeed((double) this.probeFeedRate.getValue());
         values.setProbeScanFeedRate( (double) this.probeScanFeedRate.getValue());
         values.setAutoLevelArcSliceLength((double)this.arcSegmentLengthSpinner.getValue());
+        values.setAdaptiveProbeThreshold((double) this.adaptiveThresholdSpinner.getValue());
         values.setAutoLevelProbeOffset(new Position(
                 (double)this.xOffsetSpinner.getValue(),
                 (double)this.yOffsetSpinner.getValue(),
@@ -3,20 +3,30 @@ package com.willwinder.ugs.platform.surfacescanner;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.Position;
 import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.model.events.ProbeEvent;
 import com.willwinder.universalgcodesender.utils.AutoLevelSettings;
 import com.willwinder.universalgcodesender.utils.Settings;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mock;
-import static org.mockito.Mockito.doNothing;
 import org.mockito.MockitoAnnotations;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class SurfaceScannerTest {
 
     @Mock
@@ -181,6 +191,213 @@ public class SurfaceScannerTest {
         assertEquals("G21G90G0X0Y0F500", sentGcodeCommandCaptor.getAllValues().get(3));
     }
 
+    @Test
+    public void handleEventShouldQueueTheNextProbeBeforeReceivingTheProbeResult() throws Exception {
+        Settings settings = new Settings();
+        AutoLevelSettings autoLevelSettings = settings.getAutoLevelSettings();
+        autoLevelSettings.setMin(new Position(0, 0, 0, UnitUtils.Units.MM));
+        autoLevelSettings.setMax(new Position(1, 3, 10, UnitUtils.Units.MM));
+        autoLevelSettings.setProbeScanFeedRate(500);
+        autoLevelSettings.setZRetract(0.2);
+
+        when(backendAPI.getSettings()).thenReturn(settings);
+        when(backendAPI.getWorkPosition()).thenReturn(new Position(0, 0, 10, UnitUtils.Units.MM));
+        when(backendAPI.getMachinePosition()).thenReturn(new Position(0, 0, 10, UnitUtils.Units.MM));
+
+        ArgumentCaptor<String> sentGcodeCommandCaptor = ArgumentCaptor.forClass(String.class);
+        doNothing().when(backendAPI).sendGcodeCommand(anyBoolean(), sentGcodeCommandCaptor.capture());
+        ArgumentCaptor<Double> probeDistanceCaptor = ArgumentCaptor.forClass(Double.class);
+        doNothing().when(backendAPI).probe(eq("Z"), anyDouble(), probeDistanceCaptor.capture(), any());
+
+        SurfaceScanner surfaceScanner = new SurfaceScanner(backendAPI);
+        surfaceScanner.scan();
+        assertEquals(List.of(-10d), probeDistanceCaptor.getAllValues());
+
+        // The first result should queue the two next probes using the retract height from the highest point
+        int sentCommands = sentGcodeCommandCaptor.getAllValues().size();
+        surfaceScanner.handleEvent(new ProbeEvent(new Position(0, 0, 3, UnitUtils.Units.MM)));
+        assertEquals(List.of(-10d, -5d, -5d), probeDistanceCaptor.getAllValues());
+        assertEquals(List.of("G21G90G0Z5F500", "G21G90G0X0Y1F500", "G21G90G0Z5F500", "G21G90G0X0Y2F500"), getCommandsSince(sentGcodeCommandCaptor, sentCommands));
+
+        // The retract height should never be lowered
+        sentCommands = sentGcodeCommandCaptor.getAllValues().size();
+        surfaceScanner.handleEvent(new ProbeEvent(new Position(0, 1, 1, UnitUtils.Units.MM)));
+        assertEquals(List.of(-10d, -5d, -5d, -5d), probeDistanceCaptor.getAllValues());
+        assertEquals(List.of("G21G90G0Z5F500", "G21G90G0X0Y3F500"), getCommandsSince(sentGcodeCommandCaptor, sentCommands));
+
+        sentCommands = sentGcodeCommandCaptor.getAllValues().size();
+        surfaceScanner.handleEvent(new ProbeEvent(new Position(0, 2, 4, UnitUtils.Units.MM)));
+        assertEquals(List.of("G21G90G0Z6F500", "G21G90G0X1Y3F500"), getCommandsSince(sentGcodeCommandCaptor, sentCommands));
+        verify(backendAPI, times(5)).probe(eq("Z"), anyDouble(), anyDouble(), any());
+    }
+
+    @Test
+    public void handleEventShouldNotRetractAboveTheMaxHeight() throws Exception {
+        Settings settings = new Settings();
+        AutoLevelSettings autoLevelSettings = settings.getAutoLevelSettings();
+        autoLevelSettings.setMin(new Position(0, 0, 0, UnitUtils.Units.MM));
+        autoLevelSettings.setMax(new Position(1, 1, 10, UnitUtils.Units.MM));
+        autoLevelSettings.setProbeScanFeedRate(500);
+        autoLevelSettings.setZRetract(0.2);
+
+        when(backendAPI.getSettings()).thenReturn(settings);
+        when(backendAPI.getWorkPosition()).thenReturn(new Position(0, 0, 10, UnitUtils.Units.MM));
+        when(backendAPI.getMachinePosition()).thenReturn(new Position(0, 0, 10, UnitUtils.Units.MM));
+
+        ArgumentCaptor<String> sentGcodeCommandCaptor = ArgumentCaptor.forClass(String.class);
+        doNothing().when(backendAPI).sendGcodeCommand(anyBoolean(), sentGcodeCommandCaptor.capture());
+        ArgumentCaptor<Double> probeDistanceCaptor = ArgumentCaptor.forClass(Double.class);
+        doNothing().when(backendAPI).probe(eq("Z"), anyDouble(), probeDistanceCaptor.capture(), any());
+
+        SurfaceScanner surfaceScanner = new SurfaceScanner(backendAPI);
+        surfaceScanner.scan();
+
+        int sentCommands = sentGcodeCommandCaptor.getAllValues().size();
+        surfaceScanner.handleEvent(new ProbeEvent(new Position(0, 0, 9, UnitUtils.Units.MM)));
+        assertEquals(List.of("G21G90G0Z10F500", "G21G90G0X0Y1F500", "G21G90G0Z10F500", "G21G90G0X1Y1F500"), getCommandsSince(sentGcodeCommandCaptor, sentCommands));
+        assertEquals(List.of(-10d, -10d, -10d), probeDistanceCaptor.getAllValues());
+    }
+
+    @Test
+    public void handleEventShouldQueueTheRefinedPointsInNearestOrder() throws Exception {
+        Settings settings = new Settings();
+        AutoLevelSettings autoLevelSettings = settings.getAutoLevelSettings();
+        autoLevelSettings.setMin(new Position(0, 0, 0, UnitUtils.Units.MM));
+        autoLevelSettings.setMax(new Position(2, 2, 10, UnitUtils.Units.MM));
+        autoLevelSettings.setProbeScanFeedRate(500);
+        autoLevelSettings.setZRetract(0.2);
+        autoLevelSettings.setAdaptiveProbeThreshold(0.5);
+
+        when(backendAPI.getSettings()).thenReturn(settings);
+        when(backendAPI.getWorkPosition()).thenReturn(new Position(0, 0, 10, UnitUtils.Units.MM));
+        when(backendAPI.getMachinePosition()).thenReturn(new Position(0, 0, 10, UnitUtils.Units.MM));
+
+        ArgumentCaptor<String> sentGcodeCommandCaptor = ArgumentCaptor.forClass(String.class);
+        doNothing().when(backendAPI).sendGcodeCommand(anyBoolean(), sentGcodeCommandCaptor.capture());
+        ArgumentCaptor<Double> probeDistanceCaptor = ArgumentCaptor.forClass(Double.class);
+        doNothing().when(backendAPI).probe(eq("Z"), anyDouble(), probeDistanceCaptor.capture(), any());
+
+        SurfaceScanner surfaceScanner = new SurfaceScanner(backendAPI);
+        surfaceScanner.scan();
+
+        // The coarse points
+        int sentCommands = sentGcodeCommandCaptor.getAllValues().size();
+        surfaceScanner.handleEvent(new ProbeEvent(new Position(0, 0, 1, UnitUtils.Units.MM)));
+        surfaceScanner.handleEvent(new ProbeEvent(new Position(0, 2, 1, UnitUtils.Units.MM)));
+        surfaceScanner.handleEvent(new ProbeEvent(new Position(2, 2, 2, UnitUtils.Units.MM)));
+        assertEquals(List.of(
+                "G21G90G0Z3F500", "G21G90G0X0Y2F500",
+                "G21G90G0Z3F500", "G21G90G0X2Y2F500",
+                "G21G90G0Z3F500", "G21G90G0X2Y0F500"), getCommandsSince(sentGcodeCommandCaptor, sentCommands));
+
+        // The last coarse point should queue the refined points starting with the nearest one
+        sentCommands = sentGcodeCommandCaptor.getAllValues().size();
+        surfaceScanner.handleEvent(new ProbeEvent(new Position(2, 0, 1, UnitUtils.Units.MM)));
+        assertEquals(List.of(
+                "G21G90G0Z4F500", "G21G90G0X2Y1F500",
+                "G21G90G0Z4F500", "G21G90G0X1Y1F500"), getCommandsSince(sentGcodeCommandCaptor, sentCommands));
+
+        sentCommands = sentGcodeCommandCaptor.getAllValues().size();
+        surfaceScanner.handleEvent(new ProbeEvent(new Position(2, 1, 1.6, UnitUtils.Units.MM)));
+        assertEquals(List.of("G21G90G0Z4F500", "G21G90G0X1Y2F500"), getCommandsSince(sentGcodeCommandCaptor, sentCommands));
+
+        surfaceScanner.handleEvent(new ProbeEvent(new Position(1, 1, 1.3, UnitUtils.Units.MM)));
+        assertFalse(surfaceScanner.isValid());
+        surfaceScanner.handleEvent(new ProbeEvent(new Position(1, 2, 1.4, UnitUtils.Units.MM)));
+        assertTrue(surfaceScanner.isValid());
+        assertEquals(List.of(-10d, -3d, -3d, -3d, -4d, -4d, -4d), probeDistanceCaptor.getAllValues());
+    }
+
+    @Test
+    public void handleEventShouldNotifyListenersWithoutHoldingTheLock() throws Exception {
+        Settings settings = new Settings();
+        AutoLevelSettings autoLevelSettings = settings.getAutoLevelSettings();
+        autoLevelSettings.setMin(new Position(0, 0, 0, UnitUtils.Units.MM));
+        autoLevelSettings.setMax(new Position(1, 1, 10, UnitUtils.Units.MM));
+        when(backendAPI.getSettings()).thenReturn(settings);
+        when(backendAPI.getWorkPosition()).thenReturn(new Position(0, 0, 10, UnitUtils.Units.MM));
+        when(backendAPI.getMachinePosition()).thenReturn(new Position(0, 0, 10, UnitUtils.Units.MM));
+
+        SurfaceScanner surfaceScanner = new SurfaceScanner(backendAPI);
+        List<Boolean> holdsLock = new ArrayList<>();
+        surfaceScanner.addListener(() -> holdsLock.add(Thread.holdsLock(surfaceScanner)));
+
+        surfaceScanner.scan();
+        surfaceScanner.handleEvent(new ProbeEvent(new Position(0, 0, 1, UnitUtils.Units.MM)));
+        surfaceScanner.reset();
+
+        assertEquals(List.of(false, false), holdsLock);
+    }
+
+    @Test
+    public void getProbePositionGridShouldReturnACopy() {
+        Settings settings = new Settings();
+        when(backendAPI.getSettings()).thenReturn(settings);
+
+        SurfaceScanner surfaceScanner = new SurfaceScanner(backendAPI);
+        Position[][] grid = surfaceScanner.getProbePositionGrid();
+
+        Position first = surfaceScanner.getNextProbePoint().get();
+        surfaceScanner.probeEvent(createProbePoint(first, UnitUtils.Units.MM, 1));
+
+        assertTrue(Double.isNaN(grid[0][0].getZ()));
+        assertEquals(1, surfaceScanner.getProbePositionGrid()[0][0].getZ(), 0.01);
+    }
+
+    @Test
+    public void resetShouldScanAlongTheLongestAxis() {
+        Settings settings = new Settings();
+        AutoLevelSettings autoLevelSettings = settings.getAutoLevelSettings();
+        autoLevelSettings.setMin(new Position(0, 0, 0, UnitUtils.Units.MM));
+        autoLevelSettings.setMax(new Position(2, 1, 10, UnitUtils.Units.MM));
+        when(backendAPI.getSettings()).thenReturn(settings);
+
+        SurfaceScanner surfaceScanner = new SurfaceScanner(backendAPI);
+        double[][] expectedPositions = {{0, 0}, {1, 0}, {2, 0}, {2, 1}, {1, 1}, {0, 1}};
+        for (double[] expectedPosition : expectedPositions) {
+            Position position = surfaceScanner.getNextProbePoint().get();
+            assertEquals(expectedPosition[0], position.getX(), 0.01);
+            assertEquals(expectedPosition[1], position.getY(), 0.01);
+            surfaceScanner.probeEvent(createProbePoint(position, UnitUtils.Units.MM, 1));
+        }
+        assertTrue(surfaceScanner.isValid());
+    }
+
+    @Test
+    public void probeEventShouldOnlyProbePointsWhereTheSurroundingHeightsDiffers() {
+        Settings settings = new Settings();
+        AutoLevelSettings autoLevelSettings = settings.getAutoLevelSettings();
+        autoLevelSettings.setMin(new Position(0, 0, 0, UnitUtils.Units.MM));
+        autoLevelSettings.setMax(new Position(2, 2, 10, UnitUtils.Units.MM));
+        autoLevelSettings.setAdaptiveProbeThreshold(0.5);
+        when(backendAPI.getSettings()).thenReturn(settings);
+
+        SurfaceScanner surfaceScanner = new SurfaceScanner(backendAPI);
+
+        // Every other point is probed first
+        double[][] expectedPositions = {{0, 0, 1}, {0, 2, 1}, {2, 2, 2}, {2, 0, 1}, {2, 1, 1.6}, {1, 1, 1.3}, {1, 2, 1.4}};
+        for (double[] expectedPosition : expectedPositions) {
+            assertFalse(surfaceScanner.isValid());
+            Position position = surfaceScanner.getNextProbePoint().get();
+            assertEquals(expectedPosition[0], position.getX(), 0.01);
+            assertEquals(expectedPosition[1], position.getY(), 0.01);
+            surfaceScanner.probeEvent(createProbePoint(position, UnitUtils.Units.MM, expectedPosition[2]));
+        }
+        assertTrue(surfaceScanner.isValid());
+
+        // The points with an even surrounding should be interpolated
+        Position[][] grid = surfaceScanner.getProbePositionGrid();
+        assertEquals(1, grid[1][0].getZ(), 0.01);
+        assertEquals(1, grid[0][1].getZ(), 0.01);
+        assertEquals(1.3, grid[1][1].getZ(), 0.01);
+        assertEquals(1.6, grid[2][1].getZ(), 0.01);
+    }
+
+    private static List<String> getCommandsSince(ArgumentCaptor<String> sentGcodeCommandCaptor, int index) {
+        List<String> commands = sentGcodeCommandCaptor.getAllValues();
+        return commands.subList(index, commands.size());
+    }
+
     private static Position createProbePoint(Position position, UnitUtils.Units units, double z) {
         Position probePoint = new Position(position.getPositionIn(units));
         probePoint.setZ(z);